@@ -176,6 +176,12 @@ public class TLC
      *  o -lncheck: Check liveness properties at different times
      *    of model checking.
      *    Defaults to false increasing the overall model checking time.
+     *    The strategy final checks liveness on the complete state graph only,
+     *    backlevel checks when the number of back-level edges (edges to states
+     *    that have been explored before) has increased by the liveness threshold,
+     *    and anybacklevel checks if any back-level edge has been added since
+     *    the last check. All strategies but final decide whether to check
+     *    liveness when TLC does its periodic work (once a minute).
      *  o -nowarning: disable all the warnings
      *    Defaults to report warnings if not specified
      *  o -fp num: use the num'th irreducible polynomial from the list
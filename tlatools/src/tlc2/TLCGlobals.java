@@ -53,6 +53,25 @@ public class TLCGlobals
 		return !lnCheck.equals("final");
 	}
 
+	/**
+	 * @return true iff periodic liveness checking is triggered by the number of
+	 *         back-level edges added to a behavior graph since the last check
+	 *         instead of the graph's growth ("-lncheck backlevel" and "-lncheck
+	 *         anybacklevel").
+	 */
+	public static boolean isBackLevelLiveness() {
+		return lnCheck.equals("backlevel") || isAnyBackLevelLiveness();
+	}
+
+	/**
+	 * @return true iff a single back-level edge triggers periodic liveness
+	 *         checking ("-lncheck anybacklevel"). Liveness is still only checked
+	 *         when TLC does its periodic work, not upon adding the edge.
+	 */
+	public static boolean isAnyBackLevelLiveness() {
+		return lnCheck.equals("anybacklevel");
+	}
+
 	public synchronized static void setNumWorkers(int n)
     {
         numWorkers = n;
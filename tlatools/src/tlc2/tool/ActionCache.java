@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import tlc2.util.FP64;
+import tlc2.value.IValue;
+import util.UniqueString;
+
+/**
+ * An {@link ActionCache} memoizes the successors of actions (see
+ * {@link ITool#getActions()}). The successors of an action only depend on the
+ * values of the variables the action reads (see
+ * {@link PartialOrderReduction.Analysis}): A variable it writes gets a value
+ * that is a function of the values of the read variables, a variable it
+ * leaves unchanged keeps its value, and all other variables remain
+ * unassigned. Thus, a cache entry is keyed by the fingerprint of the values
+ * of the read variables and records, for each successor, the values of the
+ * written variables. An action that is disabled has no successors, which is
+ * the most common entry.
+ * <p>
+ * The cache of an action is a direct-mapped table whose entries get replaced
+ * on collision. An action whose footprint is opaque (e.g. because of TLCGet,
+ * RandomElement, or ENABLED) is not cached, nor are states of an action that
+ * has more than a few successors.
+ */
+public final class ActionCache {
+
+	private static final int LogTableSize = Integer.getInteger(ActionCache.class.getName() + ".logSize", 16);
+	private static final int MaxSuccessors = Integer.getInteger(ActionCache.class.getName() + ".maxSuccessors", 4);
+
+	private final Map<Action, Table> tables = new IdentityHashMap<>();
+
+	public ActionCache(final ITool tool) {
+		final PartialOrderReduction.Analysis analysis = new PartialOrderReduction.Analysis(tool);
+		for (final Action action : tool.getActions()) {
+			final PartialOrderReduction.Footprint fp = analysis.of(action);
+			if (!fp.opaque) {
+				final BitSet unchanged = (BitSet) fp.unchanged.clone();
+				unchanged.andNot(fp.writes);
+				this.tables.put(action, new Table(names(analysis, fp.reads), names(analysis, fp.writes),
+						names(analysis, unchanged)));
+			}
+		}
+	}
+
+	private static UniqueString[] names(final PartialOrderReduction.Analysis analysis, final BitSet vars) {
+		final UniqueString[] names = new UniqueString[vars.cardinality()];
+		for (int i = vars.nextSetBit(0), j = 0; i >= 0; i = vars.nextSetBit(i + 1)) {
+			names[j++] = analysis.getVariable(i).getName();
+		}
+		return names;
+	}
+
+	/**
+	 * @return The cache of the given action or null if the action is not
+	 *         cached.
+	 */
+	public final Table getTable(final Action action) {
+		return this.tables.get(action);
+	}
+
+	/**
+	 * @return The number of actions that are cached.
+	 */
+	public final int size() {
+		return this.tables.size();
+	}
+
+	public static final class Table {
+
+		private final UniqueString[] reads;
+		private final UniqueString[] writes;
+		private final UniqueString[] unchanged;
+		/**
+		 * Entries are read and replaced without synchronization by
+		 * concurrent workers. The fields of an entry are final, thus a worker
+		 * either sees an entry completely or not at all.
+		 */
+		private final Entry[] entries = new Entry[1 << LogTableSize];
+
+		Table(final UniqueString[] reads, final UniqueString[] writes, final UniqueString[] unchanged) {
+			this.reads = reads;
+			this.writes = writes;
+			this.unchanged = unchanged;
+		}
+
+		/**
+		 * @return The fingerprint of the values of the variables the action
+		 *         reads in state.
+		 */
+		public final long getKey(final TLCState state) {
+			long fp = FP64.New();
+			for (int i = 0; i < this.reads.length; i++) {
+				fp = state.lookup(this.reads[i]).fingerPrint(fp);
+			}
+			return fp;
+		}
+
+		/**
+		 * @return true iff the successors of state have been found in the
+		 *         cache, in which case they have been passed to functor.
+		 */
+		public final boolean replay(final long key, final TLCState state, final IStateFunctor functor) {
+			final Entry entry = this.entries[(int) key & (this.entries.length - 1)];
+			if (entry == null || entry.key != key) {
+				return false;
+			}
+			for (int i = 0; i < entry.successors.length; i++) {
+				final IValue[] vals = entry.successors[i];
+				final TLCState succState = TLCState.Empty.createEmpty();
+				for (int j = 0; j < this.unchanged.length; j++) {
+					succState.bind(this.unchanged[j], state.lookup(this.unchanged[j]));
+				}
+				for (int j = 0; j < this.writes.length; j++) {
+					if (vals[j] != null) {
+						succState.bind(this.writes[j], vals[j]);
+					}
+				}
+				functor.addElement(succState);
+			}
+			return true;
+		}
+
+		/**
+		 * @return A functor that passes the successors to functor and records
+		 *         them. The successors get cached by {@link Recorder#commit()}
+		 *         once all of them have been generated.
+		 */
+		public final Recorder record(final long key, final IStateFunctor functor) {
+			return new Recorder(key, functor);
+		}
+
+		public final class Recorder implements IStateFunctor {
+
+			private final long key;
+			private final IStateFunctor functor;
+			/**
+			 * null if there are too many successors to cache.
+			 */
+			private List<IValue[]> successors = new ArrayList<>(1);
+
+			private Recorder(final long key, final IStateFunctor functor) {
+				this.key = key;
+				this.functor = functor;
+			}
+
+			public final Object addElement(final TLCState succState) {
+				if (this.successors != null) {
+					if (this.successors.size() == MaxSuccessors) {
+						this.successors = null;
+					} else {
+						final IValue[] vals = new IValue[writes.length];
+						for (int i = 0; i < vals.length; i++) {
+							vals[i] = succState.lookup(writes[i]);
+							if (vals[i] != null) {
+								// The values are shared by the successors
+								// replayed by concurrent workers.
+								vals[i].deepNormalize();
+							}
+						}
+						this.successors.add(vals);
+					}
+				}
+				return this.functor.addElement(succState);
+			}
+
+			public final void commit() {
+				if (this.successors != null) {
+					entries[(int) this.key & (entries.length - 1)] = new Entry(this.key,
+							this.successors.toArray(new IValue[this.successors.size()][]));
+				}
+			}
+		}
+	}
+
+	private static final class Entry {
+		private final long key;
+		private final IValue[][] successors;
+
+		Entry(final long key, final IValue[][] successors) {
+			this.key = key;
+			this.successors = successors;
+		}
+	}
+}
@@ -63,7 +63,8 @@ public class ConcurrentTLCTrace extends TLCTrace {
 		return getLevel();
 	}
 
-	public synchronized final int getLevel() throws IOException {
+	public final int getLevel() throws IOException {
+		// Lock-free: Worker#getMaxLevel is volatile.
 		int maxLevel = 1; // With a single, init state the level/progress/diameter is 1, not 0!
 		for (Worker worker : workers) {
 			maxLevel = Math.max(maxLevel, worker.getMaxLevel());
@@ -78,16 +79,16 @@ public class ConcurrentTLCTrace extends TLCTrace {
 		// trace from the point of the initial states), the sequence of
 		// predecessors fingerprints are reconstructed from the trace files up to
 		// an initial state.
-		synchronized (this) {
-			Record record = Record.getPredecessor(state, this.workers);
-			while (!record.isInitial()) {
-				fps.addElement(record.fp);
-				record = record.getPredecessor();
-			}
-			// The fp of the final initial state.
+		// Reading the trace files does not require synchronization (see
+		// Worker#writeState) which is why the other workers do not stall.
+		Record record = Record.getPredecessor(state, this.workers);
+		while (!record.isInitial()) {
 			fps.addElement(record.fp);
-			assert 0 <= fps.size() && fps.size() <= getLevel();
+			record = record.getPredecessor();
 		}
+		// The fp of the final initial state.
+		fps.addElement(record.fp);
+		assert 0 <= fps.size() && fps.size() <= getLevel();
 		
 		return getTrace(fps);
 	}
@@ -193,7 +194,7 @@ public class ConcurrentTLCTrace extends TLCTrace {
 
 		private final long ptr;
 		private final int worker;
-		private final long fp;
+		final long fp;
 		private Worker[] workers;
 
 		public Record(final long ptr, final int worker, final long fp) {
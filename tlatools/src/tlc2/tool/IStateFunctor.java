@@ -27,11 +27,11 @@
 package tlc2.tool;
 
 /**
- * An {@link IStateFunctor}'s responsibility is to accept generated (init)
- * states via addElement and to process them. As the time of writing, known
- * implementors are StateVec which simply stores all states passed to it for
- * later use and ModelChecker.DoInitFunctor which checks each state right
- * away.
+ * An {@link IStateFunctor}'s responsibility is to accept generated (init or
+ * next) states via addElement and to process them. As the time of writing,
+ * known implementors are StateVec which simply stores all states passed to it
+ * for later use and ModelChecker.DoInitFunctor and ModelChecker.DoNextFunctor
+ * which check each state right away.
  */
 public interface IStateFunctor {
 
@@ -78,6 +78,12 @@ public interface ITool extends TraceApp {
 	   */
 	StateVec getNextStates(Action action, TLCState state);
 
+	/**
+	 * Same as getNextStates(Action, TLCState) except that each next state is
+	 * passed to the functor right after it has been generated.
+	 */
+	void getNextStates(Action action, TLCState state, IStateFunctor functor);
+
 	IValue eval(SemanticNode expr, Context c, TLCState s0);
 
 	IValue eval(SemanticNode expr, Context c, TLCState s0, TLCState s1, int control);
@@ -208,6 +214,10 @@ public interface ITool extends TraceApp {
 	 */
 	Action[] getImpliedActions();
 
+	ExprNode[] getModelConstraints();
+
+	ExprNode[] getActionConstraints();
+
 	boolean livenessIsTrue();
 
 	Action[] getImpliedTemporals();
@@ -8,6 +8,7 @@ package tlc2.tool;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -26,6 +27,8 @@ import tlc2.tool.liveness.LiveCheck;
 import tlc2.tool.queue.DiskByteArrayQueue;
 import tlc2.tool.queue.DiskStateQueue;
 import tlc2.tool.queue.IStateQueue;
+import tlc2.tool.queue.OffHeapStateQueue;
+import tlc2.tool.queue.WorkStealingStateQueue;
 import tlc2.util.IStateWriter;
 import tlc2.util.SetOfStates;
 import tlc2.util.statistics.BucketStatistics;
@@ -67,6 +70,10 @@ public class ModelChecker extends AbstractChecker
 	 * Flag set via JMX if liveness checking should be triggered.
 	 */
 	private boolean forceLiveCheck = false;
+	/**
+	 * Non-null iff partial-order reduction is turned on and applicable.
+	 */
+	private final PartialOrderReduction por;
 
     /* Constructors  */
     public ModelChecker(ITool tool, String metadir, final IStateWriter stateWriter, boolean deadlock, String fromChkpt,
@@ -94,9 +101,18 @@ public class ModelChecker extends AbstractChecker
 
 		this.theStateQueue = useByteArrayQueue()
 				? new DiskByteArrayQueue(this.metadir)
-				: new DiskStateQueue(this.metadir);
+				: useWorkStealingQueue() ? new WorkStealingStateQueue(this.metadir)
+						: useOffHeapQueue() ? new OffHeapStateQueue(this.metadir)
+								: new DiskStateQueue(this.metadir);
         // this.theStateQueue = new MemStateQueue(this.metadir);
 
+		// The reduction evaluates all actions to determine the enabled ones, but
+		// only expands the stubborn ones. With coverage, the pruned actions would
+		// thus be over-reported.
+		this.por = usePartialOrderReduction() && !coverage
+				? PartialOrderReduction.create(this.tool, this.checkLiveness)
+				: null;
+
         // Finally, initialize the trace file:
         this.trace = new ConcurrentTLCTrace(this.metadir, this.tool.getRootFile(), this.tool);
 
@@ -384,79 +400,146 @@ public class ModelChecker extends AbstractChecker
      */
     public final boolean doNext(TLCState curState, final SetOfStates liveNextStates, final Worker worker) throws Throwable
     {
-        boolean deadLocked = true;
-        TLCState succState = null;
+		// The functor is passed to getNextStates() to - instead of adding all
+		// successors of an action into an intermediate StateVec to check and
+		// enqueue each successor in a subsequent loop - directly fingerprint,
+		// check and enqueue each successor as soon as it has been generated.
+		// Liveness checking still expects the whole set of successors in a
+		// single invocation (LiveCheck#addNextState(..)), which is why the
+		// functor collects successors in liveNextStates iff liveness checking
+		// is turned on (liveNextStates is null otherwise).
+		final DoNextFunctor functor = new DoNextFunctor(curState, liveNextStates, worker);
         try
         {
+			if (this.por != null) {
+				return doNextReduced(curState, functor, worker);
+			}
             for (int i = 0; i < this.tool.getActions().length; i++)
             {
-				//TODO Implement IStateFunctor pattern for getNextStates() too
-				// to reduce memory and runtime overhead of allocating and
-				// looping StateVec. However - contrary to doInit() - doNext()
-				// is incompatible to the functor when liveness checking is
-				// turned on. Liveness checking does not support adding
-				// nextStates one-by-one but expects to be given the whole set
-				// of nextStates in a single invocation
-				// (LiveCheck#addNextState(..). If this limitation is ever
-				// removed, the functor pattern could be applied to doNext too.
-				// Other problems are access to worker and curState. A stateless functor has no
-				// access to curState and worker except when it uses thread local storage.
 				final Action action = this.tool.getActions()[i];
-				final StateVec nextStates = this.tool.getNextStates(action, curState);
-				final int sz = nextStates.size();
+				final long generated = functor.generated;
+				functor.action = action;
+				this.tool.getNextStates(action, curState, functor);
+				final long sz = functor.generated - generated;
 				worker.incrementStatesGenerated(sz);
-				deadLocked = deadLocked && (sz == 0);
-
-                for (int j = 0; j < sz; j++)
-                {
-					succState = nextStates.elementAt(j);
-					// Check if succState is a legal state.
-                    if (!this.tool.isGoodState(succState))
-                    {
-                    	return doNextSetErr(curState, succState, action);
-					}
-
-					final boolean inModel = (this.tool.isInModel(succState) && this.tool.isInActions(curState, succState));
-					boolean seen = false;
-                    if (inModel)
-                    {
-						seen = isSeenState(curState, worker, succState, liveNextStates, action);
-					}
-					// Check if succState violates any invariant:
-                    if (!seen)
-                    {
-                    	if (doNextCheckInvariants(curState, succState, inModel, seen)) {
-                    		return true;
-                    	}
-					}
-                    // Check if the state violates any implied action. We need to do it
-                    // even if succState is not new.
-                    if (doNextCheckImplied(curState, succState, inModel, seen)) {
-                    	return true;
-                    }
-                    if (inModel && !seen) {
-						// The state is inModel, unseen and neither invariants
-						// nor implied actions are violated. It is thus eligible
-						// for further processing by other workers.
-						this.theStateQueue.sEnqueue(succState);
-                    }
+				if (coverage) {
+					action.cm.incInvocations(sz);
+				}
+				
+				// Iff one of the successors' checks failed, the functor has
+				// recorded it (and ignored the subsequent successors).
+				if (functor.e != null) {
+					throw functor.e;
+				}
+				if (functor.done) {
+					return true;
 				}
-				// Must set state to null!!!
-				succState = null;
 			}
 			// Check for deadlock:
-            if (deadLocked && this.checkDeadlock)
+            if (functor.generated == 0L && this.checkDeadlock)
             {
                 return doNextSetErr(curState, null, false, EC.TLC_DEADLOCK_REACHED, null);
 			}
 			return false;
         } catch (final Throwable e)
         {
-			doNextFailed(curState, succState, e);
+			doNextFailed(curState, functor.succState, e);
 			throw e;
 		}
     }
 
+	/**
+	 * Like the loop in doNext, except that only the successors of the actions
+	 * of a stubborn set (see {@link PartialOrderReduction}) get checked. All
+	 * successors get checked if one of the stubborn set's successors has been
+	 * seen before (cycle proviso), or if one of the successors of any action is
+	 * not completely specified. The latter cannot be fingerprinted and
+	 * doNextSuccessor has to report it as it does without the reduction.
+	 */
+	private final boolean doNextReduced(final TLCState curState, final DoNextFunctor functor, final Worker worker)
+			throws Throwable {
+		final Action[] actions = this.tool.getActions();
+		final StateVec[] nextStates = new StateVec[actions.length];
+		final BitSet enabled = new BitSet(actions.length);
+		for (int i = 0; i < actions.length; i++) {
+			nextStates[i] = this.tool.getNextStates(actions[i], curState);
+			if (!nextStates[i].empty()) {
+				enabled.set(i);
+			}
+		}
+		BitSet ample = this.por.getStubbornSet(enabled);
+		if (ample != null) {
+			expand: for (int i = enabled.nextSetBit(0); i >= 0; i = enabled.nextSetBit(i + 1)) {
+				for (int j = 0; j < nextStates[i].size(); j++) {
+					final TLCState succState = nextStates[i].elementAt(j);
+					if (!this.tool.isGoodState(succState)
+							|| (ample.get(i) && this.theFPSet.contains(succState.fingerPrint()))) {
+						ample = enabled;
+						break expand;
+					}
+				}
+			}
+		} else {
+			ample = enabled;
+		}
+		for (int i = ample.nextSetBit(0); i >= 0; i = ample.nextSetBit(i + 1)) {
+			final StateVec states = nextStates[i];
+			functor.action = actions[i];
+			for (int j = 0; j < states.size(); j++) {
+				functor.addElement(states.elementAt(j));
+			}
+			worker.incrementStatesGenerated(states.size());
+			if (functor.e != null) {
+				throw functor.e;
+			}
+			if (functor.done) {
+				return true;
+			}
+		}
+		if (enabled.isEmpty() && this.checkDeadlock) {
+			return doNextSetErr(curState, null, false, EC.TLC_DEADLOCK_REACHED, null);
+		}
+		return false;
+	}
+
+	/**
+	 * Check if succState is a legal state that satisfies the invariants and
+	 * implied actions and enqueue it if it has not been seen before. Return
+	 * true if the model checking should stop.
+	 */
+	private final boolean doNextSuccessor(final TLCState curState, final TLCState succState,
+			final SetOfStates liveNextStates, final Worker worker, final Action action) throws Throwable {
+		// Check if succState is a legal state.
+		if (!this.tool.isGoodState(succState)) {
+			return doNextSetErr(curState, succState, action);
+		}
+
+		final boolean inModel = (this.tool.isInModel(succState) && this.tool.isInActions(curState, succState));
+		boolean seen = false;
+		if (inModel) {
+			seen = isSeenState(curState, worker, succState, liveNextStates, action);
+		}
+		// Check if succState violates any invariant:
+		if (!seen) {
+			if (doNextCheckInvariants(curState, succState, inModel, seen)) {
+				return true;
+			}
+		}
+		// Check if the state violates any implied action. We need to do it
+		// even if succState is not new.
+		if (doNextCheckImplied(curState, succState, inModel, seen)) {
+			return true;
+		}
+		if (inModel && !seen) {
+			// The state is inModel, unseen and neither invariants
+			// nor implied actions are violated. It is thus eligible
+			// for further processing by other workers.
+			succState.intern();
+			this.theStateQueue.sEnqueue(succState);
+		}
+		return false;
+	}
+
 	private final boolean isSeenState(final TLCState curState, final Worker worker, final TLCState succState,
 			final SetOfStates liveNextStates, final Action action) throws IOException {
 		final long fp = succState.fingerPrint();
@@ -949,10 +1032,28 @@ public class ModelChecker extends AbstractChecker
 		return Boolean.getBoolean(ModelChecker.class.getName() + ".BAQueue");
 	}
 
+	private static boolean useWorkStealingQueue() {
+		return Boolean.getBoolean(ModelChecker.class.getName() + ".WSQueue");
+	}
+
+	private static boolean useOffHeapQueue() {
+		return Boolean.getBoolean(ModelChecker.class.getName() + ".OHQueue");
+	}
+
+	private static boolean usePartialOrderReduction() {
+		return Boolean.getBoolean(ModelChecker.class.getName() + ".por");
+	}
+
 	public static String getStateQueueName() {
 		// Ideally, this wouldn't hard-code the simple name of the classes but we don't
 		// have access to the class file yet.
-		return useByteArrayQueue() ? "DiskByteArrayQueue" : "DiskStateQueue";
+		if (useByteArrayQueue()) {
+			return "DiskByteArrayQueue";
+		}
+		if (useWorkStealingQueue()) {
+			return "WorkStealingStateQueue";
+		}
+		return useOffHeapQueue() ? "OffHeapStateQueue" : "DiskStateQueue";
 	}
 
     public long getStatesGenerated() {
@@ -1087,6 +1188,7 @@ public class ModelChecker extends AbstractChecker
 					if (!seen) {
 						allStateWriter.writeState(curState);
 						((Worker) workers[0]).writeState(curState, fp);
+						curState.intern();
 						theStateQueue.enqueue(curState);
 
 						// build behavior graph for liveness checking
@@ -1140,6 +1242,76 @@ public class ModelChecker extends AbstractChecker
 		}
 	}
 
+	/**
+	 * An implementation of {@link IStateFunctor} for
+	 * {@link ModelChecker#doNext(TLCState, SetOfStates, Worker)}. A functor is
+	 * created for a single predecessor and thus only ever used by the worker
+	 * that explores the predecessor.
+	 */
+	private class DoNextFunctor implements IStateFunctor {
+
+		private final TLCState curState;
+		private final SetOfStates liveNextStates;
+		private final Worker worker;
+
+		/**
+		 * The action whose successors are currently being generated.
+		 */
+		private Action action;
+
+		/**
+		 * The number of successors passed to this functor (across all actions).
+		 */
+		private long generated = 0L;
+
+		/**
+		 * Non-Null while a successor is being checked. If the check fails
+		 * with an exception, the successor is the one that caused the
+		 * failure.
+		 */
+		private TLCState succState;
+		private Throwable e;
+
+		/**
+		 * True iff model checking should stop.
+		 */
+		private boolean done = false;
+
+		public DoNextFunctor(final TLCState curState, final SetOfStates liveNextStates, final Worker worker) {
+			this.curState = curState;
+			this.liveNextStates = liveNextStates;
+			this.worker = worker;
+		}
+
+		/* (non-Javadoc)
+		 * @see tlc2.tool.IStateFunctor#addElement(tlc2.tool.TLCState)
+		 */
+		public Object addElement(final TLCState state) {
+			generated++;
+			
+			// getNextStates() does not support aborting next state generation
+			// once a violation has been found. It continues until all
+			// successors of the action have been generated. Thus, the functor
+			// simply ignores subsequent states once done or once a failure
+			// has been recorded.
+			if (done || e != null) {
+				return state;
+			}
+			
+			this.succState = state;
+			try {
+				done = doNextSuccessor(curState, state, liveNextStates, worker, action);
+			} catch (Throwable t) {
+				// Rethrown by doNext which reports the failure together with the
+				// successor that caused it.
+				this.e = t;
+				return state;
+			}
+			this.succState = null;
+			return state;
+		}
+	}
+
 	public List<File> getModuleFiles(FilenameToStream resolver) {
 		return this.tool.getModuleFiles(resolver);
 	}
@@ -0,0 +1,521 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import tla2sany.semantic.ExprOrOpArgNode;
+import tla2sany.semantic.FormalParamNode;
+import tla2sany.semantic.LabelNode;
+import tla2sany.semantic.LetInNode;
+import tla2sany.semantic.ModuleNode;
+import tla2sany.semantic.OpApplNode;
+import tla2sany.semantic.OpArgNode;
+import tla2sany.semantic.OpDefNode;
+import tla2sany.semantic.SemanticNode;
+import tla2sany.semantic.Subst;
+import tla2sany.semantic.SubstInNode;
+import tla2sany.semantic.SymbolNode;
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.util.Context;
+import tlc2.value.impl.LazyValue;
+import tlc2.value.impl.MethodValue;
+
+/**
+ * A static partial-order reduction for safety checking. In each state,
+ * {@link ModelChecker#doNext(TLCState, tlc2.util.SetOfStates, Worker)}
+ * explores the successors of the enabled actions of a stubborn set instead of
+ * the successors of all enabled actions.
+ * <p>
+ * Whether two actions (see {@link ITool#getActions()}) are independent is
+ * determined syntactically: An action reads the unprimed variables and writes
+ * the primed variables that occur in its definition (following the
+ * definitions of the operators it uses). A variable that only occurs in
+ * UNCHANGED is neither read nor written. Two actions are dependent iff one
+ * writes a variable that the other one reads or writes. The variables of the
+ * invariants are visible, and an action that writes a visible variable is
+ * visible.
+ * <p>
+ * A stubborn set T contains, for each enabled action in T, all actions
+ * dependent on it, and, for each disabled action in T, all actions that write
+ * a variable it reads (and thus might enable it). If T contains a visible
+ * enabled action, all enabled actions get explored. This preserves deadlocks
+ * and invariant violations, provided the cycle proviso holds: A state gets
+ * fully expanded if one of the successors of the stubborn set has been seen
+ * before (see ModelChecker), because with breadth-first search every cycle
+ * of the reduced state graph then contains a fully expanded state.
+ * <p>
+ * Note that the granularity of the analysis are variables. Two instances of
+ * an action such as \E p \in Proc : Step(p), which update different elements
+ * of the same (function-valued) variable, are dependent.
+ * <p>
+ * The reduction is not sound in the presence of state or action constraints,
+ * symmetry, a view, implied actions, or liveness checking, and errors that
+ * occur while evaluating actions in the omitted states are not found.
+ */
+public final class PartialOrderReduction implements ToolGlobals {
+
+	private static final int READ = 0;
+	private static final int PRIMED = 1;
+
+	/**
+	 * @return null if the reduction is not applicable to the spec or model,
+	 *         for which a warning is printed.
+	 */
+	public static PartialOrderReduction create(final ITool tool, final boolean checkLiveness) {
+		final String reason = checkLiveness ? "liveness checking"
+				: tool.getModelConstraints().length > 0 ? "state constraints"
+						: tool.getActionConstraints().length > 0 ? "action constraints"
+								: tool.getImpliedActions().length > 0 ? "action properties"
+										: tool.hasSymmetry() ? "symmetry"
+												: tool.getViewSpec() != null ? "a view" : null;
+		if (reason != null) {
+			MP.printWarning(EC.GENERAL, "Partial-order reduction is disabled because of " + reason + ".");
+			return null;
+		}
+		final Analysis analysis = new Analysis(tool);
+		final BitSet visible = new BitSet();
+		for (final Action inv : tool.getInvariants()) {
+			final Footprint fp = analysis.of(inv);
+			if (fp.opaque) {
+				MP.printWarning(EC.GENERAL,
+						"Partial-order reduction is disabled because of invariant " + inv.getLocation() + ".");
+				return null;
+			}
+			visible.or(fp.reads);
+			visible.or(fp.writes);
+			visible.or(fp.unchanged);
+		}
+		final Action[] actions = tool.getActions();
+		final Footprint[] fps = new Footprint[actions.length];
+		for (int i = 0; i < actions.length; i++) {
+			fps[i] = analysis.of(actions[i]);
+		}
+		return new PartialOrderReduction(fps, visible);
+	}
+
+	/**
+	 * dependent[i] are the actions that are dependent on action i.
+	 */
+	private final BitSet[] dependent;
+	/**
+	 * enablers[i] are the actions that write a variable action i reads.
+	 */
+	private final BitSet[] enablers;
+	private final BitSet visible = new BitSet();
+
+	PartialOrderReduction(final Footprint[] fps, final BitSet visibleVars) {
+		final int n = fps.length;
+		this.dependent = new BitSet[n];
+		this.enablers = new BitSet[n];
+		for (int i = 0; i < n; i++) {
+			this.dependent[i] = new BitSet(n);
+			this.enablers[i] = new BitSet(n);
+			if (fps[i].opaque || fps[i].writes.intersects(visibleVars)) {
+				this.visible.set(i);
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				final Footprint a = fps[i], b = fps[j];
+				if (a.opaque || b.opaque || b.writes.intersects(a.reads)) {
+					this.enablers[i].set(j);
+					this.dependent[i].set(j);
+				} else if (a.writes.intersects(b.reads) || a.writes.intersects(b.writes)) {
+					this.dependent[i].set(j);
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param enabled
+	 *            The indices of the enabled actions (see
+	 *            {@link ITool#getActions()}) of a state.
+	 * @return The smallest set of enabled actions of a stubborn set, or null
+	 *         if all enabled actions have to be explored.
+	 */
+	public BitSet getStubbornSet(final BitSet enabled) {
+		final int cnt = enabled.cardinality();
+		BitSet best = null;
+		for (int a = enabled.nextSetBit(0); a >= 0; a = enabled.nextSetBit(a + 1)) {
+			final BitSet stubborn = getStubbornSet(a, enabled, best == null ? cnt : best.cardinality());
+			if (stubborn != null) {
+				best = stubborn;
+				if (best.cardinality() == 1) {
+					break;
+				}
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * @return The enabled actions of the stubborn set that contains action a,
+	 *         or null if it contains a visible enabled action or no fewer than
+	 *         bound enabled actions.
+	 */
+	private BitSet getStubbornSet(final int a, final BitSet enabled, final int bound) {
+		final BitSet stubborn = new BitSet(this.dependent.length);
+		final BitSet res = new BitSet(this.dependent.length);
+		final int[] work = new int[this.dependent.length];
+		int top = 0;
+		stubborn.set(a);
+		work[top++] = a;
+		while (top > 0) {
+			final int i = work[--top];
+			final BitSet next;
+			if (enabled.get(i)) {
+				if (this.visible.get(i)) {
+					return null;
+				}
+				res.set(i);
+				if (res.cardinality() >= bound) {
+					return null;
+				}
+				next = this.dependent[i];
+			} else {
+				next = this.enablers[i];
+			}
+			for (int j = next.nextSetBit(0); j >= 0; j = next.nextSetBit(j + 1)) {
+				if (!stubborn.get(j)) {
+					stubborn.set(j);
+					work[top++] = j;
+				}
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * The variables an action or invariant reads, writes, and leaves
+	 * unchanged. An opaque footprint could not be determined (e.g. because of
+	 * ENABLED or TLCGet) and is dependent on everything.
+	 */
+	static final class Footprint {
+		final BitSet reads = new BitSet();
+		final BitSet writes = new BitSet();
+		final BitSet unchanged = new BitSet();
+		boolean opaque = false;
+	}
+
+	/**
+	 * The binding of a formal parameter, or of a constant or variable of an
+	 * instantiated module, to the expression it stands for.
+	 */
+	private static final class Env {
+		private final SymbolNode symbol;
+		private final ExprOrOpArgNode expr;
+		private final Env exprEnv;
+		private final Env next;
+
+		Env(final SymbolNode symbol, final ExprOrOpArgNode expr, final Env exprEnv, final Env next) {
+			this.symbol = symbol;
+			this.expr = expr;
+			this.exprEnv = exprEnv;
+			this.next = next;
+		}
+
+		static Env lookup(Env env, final SymbolNode symbol) {
+			while (env != null && env.symbol != symbol) {
+				env = env.next;
+			}
+			return env;
+		}
+	}
+
+	static final class Analysis {
+
+		private final ITool tool;
+		/**
+		 * The index of each (unbound) variable.
+		 */
+		private final Map<SymbolNode, Integer> vars = new IdentityHashMap<>();
+		private final List<SymbolNode> variables = new ArrayList<>();
+		/**
+		 * The modes in which the definitions currently being walked are
+		 * walked, to cut recursive definitions short.
+		 */
+		private final Map<OpDefNode, Integer> active = new IdentityHashMap<>();
+
+		Analysis(final ITool tool) {
+			this.tool = tool;
+		}
+
+		/**
+		 * @return The variable whose index (in the bit sets of a
+		 *         {@link Footprint}) is idx.
+		 */
+		SymbolNode getVariable(final int idx) {
+			return this.variables.get(idx);
+		}
+
+		private int index(final SymbolNode var) {
+			Integer idx = this.vars.get(var);
+			if (idx == null) {
+				idx = this.variables.size();
+				this.vars.put(var, idx);
+				this.variables.add(var);
+			}
+			return idx;
+		}
+
+		Footprint of(final Action action) {
+			final Footprint fp = new Footprint();
+			walk(action.pred, READ, null, action.con, fp);
+			// UNCHANGED x is only the identity if x is not otherwise written,
+			// e.g. UNCHANGED x /\ x' = 42.
+			final BitSet both = (BitSet) fp.unchanged.clone();
+			both.and(fp.writes);
+			fp.reads.or(both);
+			return fp;
+		}
+
+		private void walk(final SemanticNode expr, final int mode, final Env env, final Context con,
+				final Footprint fp) {
+			if (fp.opaque || expr == null) {
+				return;
+			}
+			switch (expr.getKind()) {
+			case OpApplKind:
+				walkAppl((OpApplNode) expr, mode, env, con, fp);
+				return;
+			case LetInKind:
+				// The LET definitions are walked when they are used.
+				walk(((LetInNode) expr).getBody(), mode, env, con, fp);
+				return;
+			case SubstInKind: {
+				final SubstInNode subst = (SubstInNode) expr;
+				Env env1 = env;
+				for (final Subst s : subst.getSubsts()) {
+					env1 = new Env(s.getOp(), s.getExpr(), env, env1);
+				}
+				walk(subst.getBody(), mode, env1, con, fp);
+				return;
+			}
+			case LabelKind:
+				walk(((LabelNode) expr).getBody(), mode, env, con, fp);
+				return;
+			case OpArgKind: {
+				// An operator passed to a built-in operator (e.g. SelectSeq).
+				final SymbolNode op = ((OpArgNode) expr).getOp();
+				if (op instanceof OpDefNode) {
+					walkDef((OpDefNode) op, new ExprOrOpArgNode[0], mode, env, con, fp);
+				} else if (op.getKind() != BuiltInKind) {
+					fp.opaque = true;
+				}
+				return;
+			}
+			case NumeralKind:
+			case DecimalKind:
+			case StringKind:
+			case AtNodeKind:
+				// @ stands for a subexpression of the EXCEPT's function.
+				return;
+			default:
+				fp.opaque = true;
+				return;
+			}
+		}
+
+		private void walkAppl(final OpApplNode appl, final int mode, final Env env, final Context con,
+				final Footprint fp) {
+			final SymbolNode op = appl.getOperator();
+			switch (op.getKind()) {
+			case VariableDeclKind:
+			case ConstantDeclKind:
+			case FormalParamKind: {
+				final Env binding = Env.lookup(env, op);
+				if (binding != null) {
+					if (binding.expr instanceof OpArgNode) {
+						walkAppl(((OpArgNode) binding.expr).getOp(), appl, mode, binding.exprEnv, con, fp);
+					} else {
+						walk(binding.expr, mode, binding.exprEnv, con, fp);
+					}
+					walkArgs(appl, mode, env, con, fp);
+					return;
+				}
+				final Object val = con.lookup(op);
+				if (val instanceof LazyValue) {
+					final LazyValue lv = (LazyValue) val;
+					walk(lv.expr, mode, null, lv.con, fp);
+				} else if (val instanceof OpDefNode) {
+					walkAppl((OpDefNode) val, appl, mode, env, con, fp);
+					return;
+				} else if (val == null && op.getKind() == VariableDeclKind) {
+					(mode == PRIMED ? fp.writes : fp.reads).set(index(op));
+				} else if (val == null && op.getKind() == ConstantDeclKind) {
+					// A constant that the model defines by an operator.
+					final Object def = this.tool.lookup(op, Context.Empty, false);
+					if (def instanceof OpDefNode) {
+						walkAppl((OpDefNode) def, appl, mode, env, con, fp);
+						return;
+					}
+				}
+				// Values (e.g. of bound identifiers) do not depend on the state.
+				walkArgs(appl, mode, env, con, fp);
+				return;
+			}
+			case BuiltInKind: {
+				final int opcode = BuiltInOPs.getOpCode(op.getName());
+				final ExprOrOpArgNode[] args = appl.getArgs();
+				if (opcode == OPCODE_prime) {
+					walk(args[0], PRIMED, env, con, fp);
+				} else if (opcode == OPCODE_unchanged) {
+					unchanged(args[0], env, con, fp);
+				} else if (opcode == OPCODE_sa || opcode == OPCODE_aa) {
+					// [A]_v and <<A>>_v
+					walk(args[0], mode, env, con, fp);
+					walk(args[1], READ, env, con, fp);
+					walk(args[1], PRIMED, env, con, fp);
+				} else if (opcode == OPCODE_enabled || opcode == OPCODE_cdot || BuiltInOPs.isTemporal(opcode)) {
+					fp.opaque = true;
+				} else {
+					final SemanticNode[] children = appl.getChildren();
+					for (int i = 0; i < children.length; i++) {
+						walk(children[i], mode, env, con, fp);
+					}
+				}
+				return;
+			}
+			case UserDefinedOpKind:
+				walkAppl((OpDefNode) op, appl, mode, env, con, fp);
+				return;
+			default:
+				fp.opaque = true;
+				return;
+			}
+		}
+
+		private void walkAppl(final SymbolNode op, final OpApplNode appl, final int mode, final Env env,
+				final Context con, final Footprint fp) {
+			if (!(op instanceof OpDefNode) || op.getKind() != UserDefinedOpKind) {
+				// A built-in operator passed as an argument.
+				walkArgs(appl, mode, env, con, fp);
+				return;
+			}
+			walkDef((OpDefNode) op, appl.getArgs(), mode, env, con, fp);
+		}
+
+		private void walkDef(OpDefNode def, final ExprOrOpArgNode[] args, final int mode, final Env env,
+				final Context con, final Footprint fp) {
+			// The model might override the definition (Foo <- Bar).
+			final Object override = this.tool.lookup(def, Context.Empty, false);
+			if (override instanceof OpDefNode) {
+				def = (OpDefNode) override;
+			}
+			if (isImpure(def) || (override instanceof MethodValue && !def.isStandardModule())) {
+				// A Java module override of a user module might have side
+				// effects.
+				fp.opaque = true;
+				return;
+			}
+			final FormalParamNode[] params = def.getParams();
+			final Integer modes = this.active.get(def);
+			if ((modes != null && (modes & (1 << mode)) != 0) || params.length != args.length) {
+				// The body is already being walked in this mode. The arguments
+				// of the recursive application might be primed in the body.
+				for (int i = 0; i < args.length; i++) {
+					walk(args[i], READ, env, con, fp);
+					walk(args[i], PRIMED, env, con, fp);
+				}
+				return;
+			}
+			Env env1 = env;
+			for (int i = 0; i < params.length; i++) {
+				env1 = new Env(params[i], args[i], env, env1);
+			}
+			this.active.put(def, (modes == null ? 0 : modes) | (1 << mode));
+			walk(def.getBody(), mode, env1, con, fp);
+			if (modes == null) {
+				this.active.remove(def);
+			} else {
+				this.active.put(def, modes);
+			}
+		}
+
+		private void walkArgs(final OpApplNode appl, final int mode, final Env env, final Context con,
+				final Footprint fp) {
+			final ExprOrOpArgNode[] args = appl.getArgs();
+			for (int i = 0; i < args.length; i++) {
+				walk(args[i], mode, env, con, fp);
+			}
+		}
+
+		/**
+		 * UNCHANGED e is the identity on the variables of e if e is a
+		 * variable or a tuple of such expressions, and otherwise reads and
+		 * writes them.
+		 */
+		private void unchanged(final SemanticNode expr, final Env env, final Context con, final Footprint fp) {
+			if (expr.getKind() == OpApplKind) {
+				final OpApplNode appl = (OpApplNode) expr;
+				final SymbolNode op = appl.getOperator();
+				if (op.getKind() == VariableDeclKind && Env.lookup(env, op) == null && con.lookup(op) == null) {
+					fp.unchanged.set(index(op));
+					return;
+				}
+				if (op.getKind() == BuiltInKind && BuiltInOPs.getOpCode(op.getName()) == OPCODE_tup) {
+					for (final ExprOrOpArgNode arg : appl.getArgs()) {
+						unchanged(arg, env, con, fp);
+					}
+					return;
+				}
+				if (op.getKind() == UserDefinedOpKind && op.getArity() == 0
+						&& this.tool.lookup(op, Context.Empty, false) == op && !isImpure((OpDefNode) op)) {
+					// e.g. vars == <<x, y>>
+					unchanged(((OpDefNode) op).getBody(), env, con, fp);
+					return;
+				}
+			}
+			walk(expr, READ, env, con, fp);
+			walk(expr, PRIMED, env, con, fp);
+		}
+
+		/**
+		 * @return true iff def depends on or modifies state other than the
+		 *         variables (see TLC.tla and Randomization.tla).
+		 */
+		private static boolean isImpure(final OpDefNode def) {
+			final ModuleNode module = def.getOriginallyDefinedInModuleNode();
+			if (module == null || !def.isStandardModule()) {
+				return false;
+			}
+			final String name = def.getName().toString();
+			switch (module.getName().toString()) {
+			case "TLC":
+				return "TLCGet".equals(name) || "TLCSet".equals(name) || "RandomElement".equals(name)
+						|| "Print".equals(name) || "PrintT".equals(name) || "JavaTime".equals(name);
+			case "Randomization":
+				return true;
+			default:
+				return false;
+			}
+		}
+	}
+}
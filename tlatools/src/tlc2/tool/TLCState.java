@@ -72,6 +72,14 @@ public abstract class TLCState implements Cloneable, Serializable {
   public abstract boolean allAssigned();
   public abstract Set<OpDeclNode> getUnassigned();
   public abstract TLCState createEmpty();
+
+  /**
+   * Replaces the values of this state with equal values shared with other
+   * states (see ValueInternTable) if enabled. This state must not have been
+   * published to other threads yet.
+   */
+  public void intern() {
+  }
   
   /** 
    * Returns a mapping of variable names to their assigned values in this state.
@@ -96,6 +104,11 @@ public abstract class TLCState implements Cloneable, Serializable {
   public final int getLevel() {
 	return this.level;  
   }
+
+  /* Restores the level of a state that has been decoded (see StateCodec). */
+  public final void setLevel(final int level) {
+	this.level = level;
+  }
   
   public final boolean isInitial() {
 	return this.level == 1;
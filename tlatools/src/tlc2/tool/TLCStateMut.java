@@ -7,6 +7,7 @@ package tlc2.tool;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Set;
 import java.util.TreeSet;
@@ -17,11 +18,15 @@ import tla2sany.semantic.SymbolNode;
 import tlc2.TLCGlobals;
 import tlc2.util.Context;
 import tlc2.util.FP64;
+import tlc2.util.IdThread;
 import tlc2.value.IMVPerm;
 import tlc2.value.IValue;
 import tlc2.value.IValueInputStream;
 import tlc2.value.IValueOutputStream;
 import tlc2.value.Values;
+import tlc2.value.impl.MVPermMemo;
+import tlc2.value.impl.SymmetryCanonicalizer;
+import tlc2.value.impl.ValueInternTable;
 import util.UniqueString;
 import util.WrongInvocationException;
 
@@ -35,8 +40,34 @@ import util.WrongInvocationException;
  */
 public final class TLCStateMut extends TLCState implements Cloneable, Serializable {
   private IValue values[];
+  /**
+   * The (seed independent) fingerprints of the values iff the fingerprint of
+   * this state has been computed incrementally (see incrementalFP), null
+   * otherwise. Not written to disk which is why a state read from disk will
+   * have its value fingerprints computed once again.
+   */
+  private transient long[] fps;
   private static ITool mytool = null;
 
+  /**
+   * If true, the fingerprint of a state is the combination of the (seed
+   * independent) fingerprints of its values. A successor state shares the
+   * values of the variables left UNCHANGED by an action with its predecessor
+   * which is why the fingerprints of those values are taken from the
+   * predecessor instead of being recomputed. This changes the fingerprint of
+   * states, thus a checkpoint can only be recovered with the same setting.
+   * Incremental fingerprinting is not used in combination with symmetry or a
+   * view.
+   */
+  private static final boolean incrementalFP = Boolean.getBoolean(TLCStateMut.class.getName() + ".incrementalFP");
+
+  /**
+   * If true, the values of a new state are interned before the state gets
+   * enqueued (see ValueInternTable), thus equal (sub-)values of the states in
+   * the state queue share a single instance.
+   */
+  private static final boolean intern = Boolean.getBoolean(TLCStateMut.class.getName() + ".intern");
+
   /**
    * If non-null, viewMap denotes the function to be applied to
    * a state before its fingerprint is computed.
@@ -49,6 +80,27 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
    */
   private static IMVPerm[] perms = null;
 
+  /**
+   * If true (default), the prefix of a state that permits sorting is sorted to
+   * find the representative of the state under symmetry (see
+   * SymmetryCanonicalizer). Only the perms that sort the prefix are applied to
+   * the rest of the state. The representative is the same as the one found by
+   * the enumeration of all perms.
+   */
+  private static final boolean canonicalSymmetry = Boolean
+		  .parseBoolean(System.getProperty(TLCStateMut.class.getName() + ".canonicalSymmetry", "true"));
+  
+  /**
+   * Non-null iff canonicalSymmetry is true and perms is the symmetric group of
+   * the symmetry sets.
+   */
+  private static SymmetryCanonicalizer canonicalizer = null;
+
+  /**
+   * Non-null iff perms is non-null.
+   */
+  private static MVPermMemo permMemo = null;
+
   private TLCStateMut(IValue[] vals) { this.values = vals; }
   
   public static void setVariables(OpDeclNode[] variables) 
@@ -72,6 +124,24 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
     mytool = tool;
     viewMap = tool.getViewSpec();
     perms = tool.getSymmetryPerms();
+    canonicalizer = (canonicalSymmetry && perms != null) ? SymmetryCanonicalizer.create(perms) : null;
+    permMemo = (perms != null) ? new MVPermMemo(perms) : null;
+  }
+
+  /**
+   * @return A state whose variables have the given values (in the order of
+   *         vars).
+   */
+  public static TLCState createFrom(final IValue[] vals) {
+    return new TLCStateMut(vals);
+  }
+
+  /**
+   * @return The values of this state's variables (in the order of vars). The
+   *         array must not be modified.
+   */
+  public final IValue[] getValues() {
+    return this.values;
   }
 
   public final TLCState createEmpty() {
@@ -168,6 +238,9 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
    * the state queue.  We do that here.
    */
 	public final long fingerPrint() {
+		if (incrementalFP && perms == null && viewMap == null) {
+			return fingerPrintIncremental();
+		}
 		int sz = this.values.length;
 
 		// TLC supports symmetry reduction. Symmetry reduction works by defining classes
@@ -202,46 +275,82 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
 		// calculation of the fingerprint.
 		IValue[] minVals = this.values;
 		if (perms != null) {
+			// Permutations of a value are memoized: Only few values (e.g. a function over
+			// the set of processes) have a distinct permutation for each perm.
+			final MVPermMemo.Permutations permuted = permMemo.of(this.values);
+			// The perm that permutes this.values into minVals, null denoting the
+			// identity. The values of minVals are permuted lazily, i.e. minVals[j] is null
+			// until needed (see below).
+			IMVPerm minPerm = null;
+			IMVPerm[] candidates = perms;
+			int first = 0;
+			int from = 0;
+			// Sort the prefix of the state that permits sorting. Only the perms that sort
+			// the prefix have to be applied to the rest of the state.
+			final SymmetryCanonicalizer.Reduction reduction = canonicalizer != null
+					? canonicalizer.reduce(this.values, perms.length / 2)
+					: null;
+			if (reduction != null) {
+				from = reduction.prefix;
+				if (reduction.perms == null) {
+					// The prefix is the complete state.
+					minVals = reduction.values;
+					candidates = new IMVPerm[0];
+				} else {
+					minVals = new IValue[sz];
+					System.arraycopy(reduction.values, 0, minVals, 0, from);
+					candidates = reduction.perms;
+					minPerm = candidates[first++];
+				}
+			}
 			IValue[] vals = new IValue[sz];
 			// The following for loop converges to the smallest state ss under symmetry by
 			// looping over all permutations applying each. If the outcome turns out to be
 			// lexicographically smaller than the currently smallest, it replaces the
 			// current smallest. Once all permutations (perms) have been processed, we know
 			// we have found the smallest state.
-			NEXT_PERM: for (int i = 0; i < perms.length; i++) {
-				int cmp = 0;
+			// The loop is deliberately sequential: fingerPrint is called by each worker
+			// for the successor states it generates, so the workers already keep all
+			// cores busy. Splitting the perms across threads would only add contention.
+			// Besides, the early exit below and the shared minVals depend on processing
+			// the perms in order.
+			NEXT_PERM: for (int i = first; i < candidates.length; i++) {
 				// For each value in values succinctly permute the current value
 				// and compare it to its corresponding minValue in minVals.
-				for (int j = 0; j < sz; j++) {
-					vals[j] = this.values[j].permute(perms[i]);
-					if (cmp == 0) {
-						// Only compare unless an earlier compare has found a
-						// difference already (if a difference has been found
-						// earlier, still permute the remaining values of the
-						// state to fully permute all state values).
-						cmp = vals[j].compareTo(minVals[j]);
-						if (cmp > 0) {
-							// When cmp evaluates to >0, all subsequent
-							// applications of perms[i] for the remaining values
-							// won't make the resulting vals[] smaller than
-							// minVals. Thus, exit preemptively from the loop
-							// over vals. This works because perms is the cross
-							// product of all symmetry sets.
-							continue NEXT_PERM;
+				for (int j = from; j < sz; j++) {
+					vals[j] = permuted.permute(j, candidates[i]);
+					if (minVals[j] == null) {
+						minVals[j] = permuted.permute(j, minPerm);
+					}
+					// Memoized permutations are frequently identical.
+					final int cmp = vals[j] == minVals[j] ? 0 : vals[j].compareTo(minVals[j]);
+					if (cmp > 0) {
+						// When cmp evaluates to >0, all subsequent
+						// applications of perms[i] for the remaining values
+						// won't make the resulting vals[] smaller than
+						// minVals. Thus, exit preemptively from the loop
+						// over vals. This works because perms is the cross
+						// product of all symmetry sets.
+						continue NEXT_PERM;
+					} else if (cmp < 0) {
+						// cmp < 0 means the current state is part of a symmetry
+						// permutation set/group and not the "smallest" one. Instead
+						// of permuting the remaining values of the state right away,
+						// only permute them if a later perm has to be compared to them
+						// or once all perms have been processed.
+						if (minVals == this.values) {
+							minVals = new IValue[sz];
 						}
+						System.arraycopy(vals, from, minVals, from, j + 1 - from);
+						Arrays.fill(minVals, j + 1, sz, null);
+						minPerm = candidates[i];
+						continue NEXT_PERM;
 					}
 				}
-				// cmp < 0 means the current state is part of a symmetry
-				// permutation set/group and not the "smallest" one.
-				if (cmp < 0) {
-					if (minVals == this.values) {
-						minVals = vals;
-						vals = new IValue[sz];
-					} else {
-						IValue[] temp = minVals;
-						minVals = vals;
-						vals = temp;
-					}
+			}
+			for (int j = from; j < sz; j++) {
+				if (minVals[j] == null) {
+					minVals[j] = permuted.permute(j, minPerm);
 				}
 			}
 		}
@@ -270,6 +379,53 @@ public final class TLCStateMut extends TLCState implements Cloneable, Serializab
 		return fp;
 	}
 
+	/**
+	 * The predecessor of this state is the state the worker (thread) currently
+	 * generates the successors of (see IdThread#getCurrentState). The values of
+	 * the variables that the action leaves UNCHANGED are identical (==) to the
+	 * predecessor's.
+	 */
+	private final long fingerPrintIncremental() {
+		IValue[] predVals = null;
+		long[] predFps = null;
+		final TLCState pred = IdThread.getCurrentState();
+		if (pred != this && pred instanceof TLCStateMut) {
+			final TLCStateMut predMut = (TLCStateMut) pred;
+			if (predMut.fps == null) {
+				predMut.fps = predMut.getValueFingerprints(null, null);
+			}
+			predVals = predMut.values;
+			predFps = predMut.fps;
+		}
+		this.fps = getValueFingerprints(predVals, predFps);
+
+		long fp = FP64.New();
+		for (int i = 0; i < this.fps.length; i++) {
+			fp = FP64.Extend(fp, this.fps[i]);
+		}
+		return fp;
+	}
+
+	private final long[] getValueFingerprints(final IValue[] predVals, final long[] predFps) {
+		final long[] res = new long[this.values.length];
+		for (int i = 0; i < res.length; i++) {
+			if (predVals != null && predVals[i] == this.values[i]) {
+				res[i] = predFps[i];
+			} else {
+				res[i] = this.values[i].fingerPrint(FP64.New());
+			}
+		}
+		return res;
+	}
+
+  public final void intern() {
+    if (intern) {
+      for (int i = 0; i < this.values.length; i++) {
+        this.values[i] = ValueInternTable.intern(this.values[i]);
+      }
+    }
+  }
+
   public final boolean allAssigned() {
     int len = this.values.length;    
     for (int i = 0; i < len; i++) {
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * A {@link TraceFile} is the append-only trace file fragment of a single
+ * {@link Worker}. Only the owning worker appends records, but any thread may
+ * read records concurrently without acquiring a lock. In other words, the
+ * reconstruction of a counter-example never stalls the workers that continue
+ * to explore the state space.
+ * <p>
+ * Records are appended to an in-memory chunk first. A full chunk is written to
+ * disk before the next chunk gets published via the volatile {@link #chunk}.
+ * Thus, a reader who finds a record's pointer to be lower than the base of the
+ * current chunk knows that the record is on disk. Records on disk are read via
+ * (read-only) memory-mapped segments of the file. A chunk is never reused once
+ * written to disk, which is why a reader can safely read records from a chunk
+ * it holds on to.
+ * <p>
+ * The file format is the one of the (synchronized) {@link Worker} trace based
+ * on {@link tlc2.util.BufferedRandomAccessFile}: A record is a
+ * LongNat-encoded pointer to the predecessor record, a ShortNat-encoded
+ * worker id, and the fingerprint.
+ */
+final class TraceFile {
+
+	private static final int ChunkSize = 1 << 16;
+	/**
+	 * Segments overlap by MaxRecordLength bytes, so that a record never straddles
+	 * two segments.
+	 */
+	private static final int SegmentSize = 1 << 26;
+	private static final int MaxRecordLength = 8 + 2 + 8;
+
+	private final RandomAccessFile raf;
+	private final FileChannel channel;
+	private volatile Chunk chunk;
+	/**
+	 * The number of bytes written to disk (which is the base of the current
+	 * chunk).
+	 */
+	private volatile long flushed;
+	private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+
+	TraceFile(final String filename) throws IOException {
+		// Do not truncate an existing file: recovery from a checkpoint continues
+		// an existing trace (see truncate).
+		this.raf = new RandomAccessFile(filename, "rw");
+		this.channel = this.raf.getChannel();
+		this.flushed = 0L;
+		this.chunk = new Chunk(0L);
+	}
+
+	/**
+	 * @return The position at which the next record is going to be appended.
+	 */
+	final long getFilePointer() {
+		final Chunk c = this.chunk;
+		return c.base + c.pos;
+	}
+
+	/* Writer (owning Worker only) */
+
+	/**
+	 * Appends a record and returns its position.
+	 */
+	final long append(final long prev, final int worker, final long fp) throws IOException {
+		Chunk c = this.chunk;
+		if (c.pos + MaxRecordLength > c.bytes.length) {
+			c = flush(c);
+		}
+		final long ptr = c.base + c.pos;
+		c.writeLongNat(prev);
+		c.writeShortNat(worker);
+		c.writeLong(fp);
+		return ptr;
+	}
+
+	/**
+	 * Writes the current chunk to disk. Must only be called by the owning worker or
+	 * while the owning worker is suspended.
+	 */
+	final void flush() throws IOException {
+		final Chunk c = this.chunk;
+		if (c.pos > 0) {
+			flush(c);
+		}
+	}
+
+	private final Chunk flush(final Chunk c) throws IOException {
+		this.raf.seek(c.base);
+		this.raf.write(c.bytes, 0, c.pos);
+		// Publish the new chunk after the old chunk has been written to disk.
+		final long base = c.base + c.pos;
+		this.flushed = base;
+		final Chunk next = new Chunk(base);
+		this.chunk = next;
+		return next;
+	}
+
+	/**
+	 * Discards all records at or after the given position (used to recover from a
+	 * checkpoint).
+	 */
+	final void truncate(final long pos) throws IOException {
+		this.raf.setLength(pos);
+		this.segments = new MappedByteBuffer[0];
+		this.flushed = pos;
+		this.chunk = new Chunk(pos);
+	}
+
+	/* Reader (any thread) */
+
+	final ConcurrentTLCTrace.Record read(final long ptr) throws IOException {
+		final Chunk c = this.chunk;
+		if (ptr >= c.base) {
+			// Still in memory.
+			final ByteBuffer buf = ByteBuffer.wrap(c.bytes);
+			return read(buf, (int) (ptr - c.base));
+		}
+		final int idx = (int) (ptr / SegmentSize);
+		final int off = (int) (ptr % SegmentSize);
+		return read(getSegment(idx, off), off);
+	}
+
+	private final MappedByteBuffer getSegment(final int idx, final int off) throws IOException {
+		final long start = (long) idx * SegmentSize;
+		// The record at off is on disk but might be shorter than MaxRecordLength.
+		final long length = Math.min(SegmentSize + MaxRecordLength, this.flushed - start);
+		final MappedByteBuffer[] segs = this.segments;
+		if (idx < segs.length && segs[idx] != null
+				&& segs[idx].capacity() >= Math.min(off + MaxRecordLength, length)) {
+			return segs[idx];
+		}
+		// (Re-)map the segment. A segment whose end has not been written to disk
+		// yet is mapped up to the number of bytes written so far. Concurrent
+		// readers might both (re-)map the same segment, which is benign.
+		final MappedByteBuffer segment = this.channel.map(MapMode.READ_ONLY, start, length);
+
+		final MappedByteBuffer[] copy = new MappedByteBuffer[Math.max(idx + 1, segs.length)];
+		System.arraycopy(segs, 0, copy, 0, segs.length);
+		copy[idx] = segment;
+		this.segments = copy;
+		return segment;
+	}
+
+	/**
+	 * Decodes a record with absolute (thus thread-safe) reads from the given
+	 * buffer.
+	 */
+	private static ConcurrentTLCTrace.Record read(final ByteBuffer buf, int off) {
+		// see BufferedRandomAccessFile#readLongNat
+		long prev = buf.getInt(off);
+		off += 4;
+		if (prev < 0) {
+			prev = -((prev << 32) | (buf.getInt(off) & 0xffffffffL));
+			off += 4;
+		}
+		// see BufferedRandomAccessFile#readShortNat
+		int worker = buf.get(off);
+		off += 1;
+		if (worker < 0) {
+			worker = -((short) ((worker << 8) | (buf.get(off) & 0xff)));
+			off += 1;
+		}
+		final long fp = buf.getLong(off);
+		return new ConcurrentTLCTrace.Record(prev, worker, fp);
+	}
+
+	private static final class Chunk {
+		private final long base;
+		private final byte[] bytes = new byte[ChunkSize];
+		private int pos = 0;
+
+		Chunk(final long base) {
+			this.base = base;
+		}
+
+		/* see BufferedRandomAccessFile#writeLongNat */
+		void writeLongNat(final long x) {
+			if (x <= 0x7fffffff) {
+				writeInt((int) x);
+			} else {
+				writeLong(-x);
+			}
+		}
+
+		/* see BufferedRandomAccessFile#writeShortNat */
+		void writeShortNat(final int x) {
+			if (x <= 0x7f) {
+				bytes[pos++] = (byte) x;
+			} else {
+				final short s = (short) -x;
+				bytes[pos++] = (byte) (s >>> 8);
+				bytes[pos++] = (byte) s;
+			}
+		}
+
+		void writeInt(final int x) {
+			bytes[pos++] = (byte) (x >>> 24);
+			bytes[pos++] = (byte) (x >>> 16);
+			bytes[pos++] = (byte) (x >>> 8);
+			bytes[pos++] = (byte) x;
+		}
+
+		void writeLong(final long x) {
+			writeInt((int) (x >>> 32));
+			writeInt((int) x);
+		}
+	}
+}
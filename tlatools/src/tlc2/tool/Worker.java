@@ -34,7 +34,7 @@ public final class Worker extends IdThread implements IWorker {
 	private final IStateQueue squeue;
 	private final IBucketStatistics outDegree;
 	private final String filename;
-	private final BufferedRandomAccessFile raf;
+	private final TraceFile traceFile;
 
 	private long lastPtr;
 	private long statesGenerated;
@@ -52,7 +52,7 @@ public final class Worker extends IdThread implements IWorker {
 		this.setName("TLCWorkerThread-" + String.format("%03d", id));
 
 		this.filename = metadir + FileUtil.separator + specFile + "-" + myGetId();
-		this.raf = new BufferedRandomAccessFile(filename + TLCTrace.EXT, "rw");
+		this.traceFile = new TraceFile(filename + TLCTrace.EXT);
 	}
 
 	/**
@@ -158,40 +158,31 @@ public final class Worker extends IdThread implements IWorker {
 	/* Maintain trace file (to reconstruct error-trace) */
 	
 	/*
-	 * Synchronize reads and writes to read a consistent union of all trace file
-	 * fragments when one worker W wants to create the counter-example. Otherwise, we
-	 * might not be able to correctly trace the path from state to an initial state.
-	 * The W thread holds ModelChecker.this. The other workers might either: a) Wait
-	 * on IStateQueue#sDequeue (waiting for a new state to be read from disk or
-	 * added to the queue) b) Wait on ModelChecker.this (because they also found
-	 * another counter-example but are blocked until we are done printing it) c)
-	 * Wait on ModelChecker.this in Worker#run because the state queue is empty and
-	 * they which to terminate. d) Run state space exploration The on-disk file of
-	 * each worker's trace fragment is potentially inconsistent because the worker's
-	 * cache in BufferedRandomAccessFile hasn't been flushed out.
+	 * Reads and writes do not have to be synchronized to read a consistent union of
+	 * all trace file fragments when one worker W wants to create the
+	 * counter-example: Only this worker appends to its TraceFile, and a record is
+	 * written before the state it belongs to is made available to other workers
+	 * (via the state queue). Thus, when W traces the path from a state to an
+	 * initial state, all records on the path have been appended already. TraceFile
+	 * reads them either from the (not yet flushed) in-memory chunk or from disk.
+	 * The other workers continue to explore the state space until W is done.
 	 */
 	
-	public final synchronized void writeState(final TLCState initialState, final long fp) throws IOException {
+	public final void writeState(final TLCState initialState, final long fp) throws IOException {
 		// Write initial state to trace file.
-		this.lastPtr = this.raf.getFilePointer();
-		this.raf.writeLongNat(1L);
-		this.raf.writeShortNat(myGetId());
-		this.raf.writeLong(fp);
+		this.lastPtr = this.traceFile.append(1L, myGetId(), fp);
 		
 		// Add predecessor pointer to success state.
 		initialState.workerId = (short) myGetId();
 		initialState.uid = this.lastPtr;
 	}
 
-	public final synchronized void writeState(final TLCState curState, final long sucStateFp, final TLCState sucState) throws IOException {
+	public final void writeState(final TLCState curState, final long sucStateFp, final TLCState sucState) throws IOException {
 		// Keep track of maximum diameter.
 		maxLevel = Math.max(curState.getLevel() + 1, maxLevel);
 		
 		// Write to trace file.
-		this.lastPtr = this.raf.getFilePointer();
-		this.raf.writeLongNat(curState.uid);
-		this.raf.writeShortNat(curState.workerId);
-		this.raf.writeLong(sucStateFp);
+		this.lastPtr = this.traceFile.append(curState.uid, curState.workerId, sucStateFp);
 		
 		// Add predecessor pointer to success state.
 		sucState.workerId = (short) myGetId();
@@ -207,27 +198,19 @@ public final class Worker extends IdThread implements IWorker {
 	}
 
 	// Read from previously written (see writeState) trace file.
-	public final synchronized ConcurrentTLCTrace.Record readStateRecord(final long ptr) throws IOException {
-		this.raf.seek(ptr);
-		
-		final long prev = this.raf.readLongNat();
+	public final ConcurrentTLCTrace.Record readStateRecord(final long ptr) throws IOException {
 		assert 0 <= ptr;
-		
-		final int worker = this.raf.readShortNat();
-		assert 0 <= worker && worker < tlc.workers.length;
-			
-		final long fp = this.raf.readLong();
-		assert tlc.theFPSet.contains(fp);
-		
-		return new ConcurrentTLCTrace.Record(prev, worker, fp);
+		final ConcurrentTLCTrace.Record record = this.traceFile.read(ptr);
+		assert tlc.theFPSet.contains(record.fp);
+		return record;
 	}
 	
 	/* Checkpointing */
 
 	public final synchronized void beginChkpt() throws IOException {
-		this.raf.flush();
+		this.traceFile.flush();
 		final DataOutputStream dos = FileUtil.newDFOS(filename + ".tmp");
-		dos.writeLong(this.raf.getFilePointer());
+		dos.writeLong(this.traceFile.getFilePointer());
 		dos.writeLong(this.lastPtr);
 		dos.close();
 	}
@@ -245,7 +228,7 @@ public final class Worker extends IdThread implements IWorker {
 		final long filePos = dis.readLong();
 		this.lastPtr = dis.readLong();
 		dis.close();
-		this.raf.seek(filePos);
+		this.traceFile.truncate(filePos);
 	}
 	
 	/* Enumerator */
@@ -260,7 +243,10 @@ public final class Worker extends IdThread implements IWorker {
 		private final BufferedRandomAccessFile enumRaf;
 
 		Enumerator() throws IOException {
-			this.len = raf.getFilePointer();
+			// Enumerating the trace only happens while the worker does not append
+			// to it.
+			traceFile.flush();
+			this.len = traceFile.getFilePointer();
 			this.enumRaf = new BufferedRandomAccessFile(filename + TLCTrace.EXT, "r");
 		}
 
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A blocked Bloom filter over fingerprints: All bits of a fingerprint are in
+ * the same block of 512 bits (a cache line), so a lookup costs a single cache
+ * miss. A {@link BloomFilter} never reports a fingerprint that has been added
+ * as absent, but reports a fingerprint that has not been added as present with
+ * a probability that depends on the number of bits per fingerprint (~2% for 8
+ * bits per fingerprint).
+ * <p>
+ * Fingerprints can be added concurrently with other additions and lookups.
+ */
+public final class BloomFilter {
+
+	private static final int LogBlockWords = 3; // 2^3 longs = 512 bits
+	private static final int BitsPerProbe = 9; // 2^9 = 512 bits
+
+	private final AtomicLongArray words;
+	private final int blockMask;
+	private final int probes;
+	/**
+	 * The number of fingerprints this filter has been sized for.
+	 */
+	private final long capacity;
+
+	/**
+	 * @param capacity
+	 *            The number of fingerprints this filter gets sized for.
+	 * @param bitsPerFP
+	 *            The number of bits per fingerprint (of capacity).
+	 */
+	public BloomFilter(final long capacity, final int bitsPerFP) {
+		this.capacity = capacity;
+		// The number of blocks is a power of two to select a block with a mask.
+		final long blocks = Math.max(1L, capacity * bitsPerFP) >>> (LogBlockWords + 6);
+		final int logBlocks = Math.min(30 - LogBlockWords, 64 - Long.numberOfLeadingZeros(Math.max(1L, blocks - 1L)));
+		this.words = new AtomicLongArray(1 << (logBlocks + LogBlockWords));
+		this.blockMask = (1 << logBlocks) - 1;
+		// k = ln(2) * bits per fingerprint minimizes false positives. One
+		// (second) hash provides the bits of at most seven probes.
+		this.probes = (int) Math.max(1L, Math.min(Long.SIZE / BitsPerProbe, Math.round(bitsPerFP * Math.log(2))));
+	}
+
+	/**
+	 * @return A filter for the given number of fingerprints, which is
+	 *         the given filter if it is sized for at least as many
+	 *         fingerprints. Otherwise, a new filter sized for twice as many
+	 *         fingerprints, so that the filter only has to be replaced when
+	 *         the number of fingerprints has doubled.
+	 */
+	public static BloomFilter ensureCapacity(final BloomFilter filter, final long fingerprints, final int bitsPerFP) {
+		if (filter != null && filter.capacity >= fingerprints) {
+			return filter;
+		}
+		return new BloomFilter(2L * fingerprints, bitsPerFP);
+	}
+
+	public void add(final long fp) {
+		final long h = mix(fp);
+		final int base = ((int) h & blockMask) << LogBlockWords;
+		long g = mix(h + 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < probes; i++) {
+			final int idx = base + (int) ((g >>> 6) & ((1 << LogBlockWords) - 1));
+			final long mask = 1L << (g & 63);
+			long word = words.get(idx);
+			while ((word & mask) == 0L && !words.compareAndSet(idx, word, word | mask)) {
+				word = words.get(idx);
+			}
+			g >>>= BitsPerProbe;
+		}
+	}
+
+	/**
+	 * @return false iff fp has definitely not been added.
+	 */
+	public boolean mightContain(final long fp) {
+		final long h = mix(fp);
+		final int base = ((int) h & blockMask) << LogBlockWords;
+		long g = mix(h + 0x9E3779B97F4A7C15L);
+		for (int i = 0; i < probes; i++) {
+			final int idx = base + (int) ((g >>> 6) & ((1 << LogBlockWords) - 1));
+			if ((words.get(idx) & (1L << (g & 63))) == 0L) {
+				return false;
+			}
+			g >>>= BitsPerProbe;
+		}
+		return true;
+	}
+
+	public long getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * @return The size of this filter in bytes.
+	 */
+	public long sizeof() {
+		return words.length() * (long) (Long.SIZE / 8);
+	}
+
+	/**
+	 * The bits of a fingerprint are not uniformly distributed within a single
+	 * FPSet of a MultiFPSet (the MultiFPSet selects the FPSet by the most
+	 * significant bits), thus they are mixed (MurmurHash3's finalizer).
+	 */
+	private static long mix(long h) {
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
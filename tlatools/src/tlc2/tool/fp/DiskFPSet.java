@@ -132,6 +132,43 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 	protected LongAdder diskWriteCnt = new LongAdder();
 	private LongAdder diskSeekCnt = new LongAdder();
 	private LongAdder diskSeekCache = new LongAdder();
+	private LongAdder bloomFilterSkipCnt = new LongAdder();
+	private LongAdder bloomFilterFalsePositiveCnt = new LongAdder();
+	
+	/**
+	 * The number of bits per fingerprint of the (optional) Bloom filter over
+	 * the fingerprints on disk. Zero (the default) disables the Bloom filter.
+	 * The filter is kept on the heap.
+	 * 
+	 * @see DiskFPSet#bloomFilter
+	 */
+	protected final int bloomFilterBits = Integer.getInteger(DiskFPSet.class.getName() + ".bloomFilter", 0);
+	/**
+	 * A Bloom filter over the fingerprints on disk, which allows diskLookup to
+	 * skip reading the disk for most of the fingerprints that are not on disk.
+	 * It is populated by every merge with the fingerprints it writes to disk
+	 * (see writeFP), and replaced by a larger one once the number of
+	 * fingerprints on disk has outgrown it. <code>null</code> iff disabled or
+	 * before the first merge.
+	 */
+	protected volatile BloomFilter bloomFilter;
+	/**
+	 * The filter to which a merge in progress adds the fingerprints it writes
+	 * to disk. Either bloomFilter or the filter to replace bloomFilter once the
+	 * merged file replaces the disk file.
+	 */
+	protected BloomFilter mergeFilter;
+	
+	/**
+	 * true iff diskLookup reads the disk file via a {@link MappedFPFile}
+	 * instead of the {@link BufferedRandomAccessFile}s in braf and brafPool.
+	 */
+	protected final boolean mmap = Boolean.getBoolean(DiskFPSet.class.getName() + ".mmap");
+	/**
+	 * The memory-mapped disk file (if mmap). Replaced whenever the disk file
+	 * is replaced (see remapFile).
+	 */
+	private volatile MappedFPFile mappedFile;
 	
 	// indicate how many cp or disk grow in put(long) has occurred
 	private int checkPointMark;
@@ -374,6 +411,22 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 			return false;
 		}
 		
+		final BloomFilter filter = this.bloomFilter;
+		if (filter == null) {
+			return diskLookup0(fp);
+		}
+		if (!filter.mightContain(fp)) {
+			this.bloomFilterSkipCnt.increment();
+			return false;
+		}
+		if (diskLookup0(fp)) {
+			return true;
+		}
+		this.bloomFilterFalsePositiveCnt.increment();
+		return false;
+	}
+	
+	private final boolean diskLookup0(long fp) throws IOException {
 		// Increment disk lookup counter
 		this.diskLookupCnt.increment();
 		
@@ -442,6 +495,30 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 		// upper bound for the interval search in 
 		long hiEntry = ((loPage == indexLength - 2) ? this.fileCnt - 1
 				: ((long) hiPage) * NumEntriesPerPage);
+		
+		final MappedFPFile mapped = this.mappedFile;
+		if (mapped != null) {
+			// b) do interpolated binary search on the mapped disk page
+			// determined by a). No file handle is needed, the OS pages in
+			// the disk page if it is not already in memory.
+			while (loEntry < hiEntry) {
+				midEntry = calculateMidEntry(loVal, hiVal, dfp, loEntry, hiEntry);
+				Assert.check(loEntry <= midEntry && midEntry < hiEntry,
+						EC.SYSTEM_INDEX_ERROR);
+				final long v = mapped.get(midEntry);
+				if (fp < v) {
+					hiEntry = midEntry;
+					hiVal = v;
+				} else if (fp > v) {
+					loEntry = midEntry + 1;
+					loVal = v;
+				} else {
+					return true;
+				}
+			}
+			return false;
+		}
+		
 		try {
 			// b0) open file for reading that is associated with current thread
 			BufferedRandomAccessFile raf;
@@ -557,6 +634,7 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 			throws IOException {
 		outRAF.writeLong(fp);
 		diskWriteCnt.increment();
+		addToBloomFilter(fp);
 		// update in-memory index file
 		if (this.counter == 0) {
 			this.index[this.currIndex++] = fp;
@@ -565,6 +643,47 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 		this.counter--;
 	}
 
+	/**
+	 * (Re-)maps the disk file into memory (if mmap). To be called whenever the
+	 * disk file has been replaced.
+	 */
+	protected final void remapFile() throws IOException {
+		if (this.mmap) {
+			this.mappedFile = new MappedFPFile(this.fpFilename);
+		}
+	}
+
+	/**
+	 * Adds a fingerprint written to disk to the Bloom filter (if enabled).
+	 */
+	protected final void addToBloomFilter(final long fp) {
+		final BloomFilter filter = this.mergeFilter;
+		if (filter != null) {
+			filter.add(fp);
+		}
+	}
+
+	/**
+	 * Prepares the Bloom filter (if enabled) for a merge that writes the given
+	 * number of fingerprints to disk.
+	 */
+	protected final void beginBloomFilter(final long fingerprints) {
+		if (bloomFilterBits > 0) {
+			this.mergeFilter = BloomFilter.ensureCapacity(this.bloomFilter, fingerprints, bloomFilterBits);
+		}
+	}
+
+	/**
+	 * Replaces the Bloom filter with the one populated by the merge. To be
+	 * called once the merged file has replaced the disk file.
+	 */
+	protected final void commitBloomFilter() {
+		if (this.mergeFilter != null) {
+			this.bloomFilter = this.mergeFilter;
+			this.mergeFilter = null;
+		}
+	}
+
 	/**
 	 * @param buffLen The current {@link DiskFPSet#tbl} length
 	 * @return The new required length for the {@link DiskFPSet#index}
@@ -599,6 +718,7 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 			}
 		}
 		this.poolIndex = 0;
+		this.mappedFile = null;
 	}
 
 	/* (non-Javadoc)
@@ -689,6 +809,9 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 		this.index = new long[indexLen];
 		this.currIndex = 0;
 		this.counter = 0;
+		// The recovered file replaces the disk file.
+		this.bloomFilter = null;
+		beginBloomFilter(this.fileCnt);
 
 		long fp = 0L;
 		try {
@@ -724,6 +847,8 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 					this.fpFilename, "r");
 		}
 		this.poolIndex = 0;
+		remapFile();
+		commitBloomFilter();
 	}
 
 	/* (non-Javadoc)
@@ -930,6 +1055,20 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 	public long getDiskSeekCache() {
 		return diskSeekCache.sum();
 	}
+	
+	/**
+	 * @return the bloomFilterSkipCnt
+	 */
+	public long getBloomFilterSkipCnt() {
+		return bloomFilterSkipCnt.sum();
+	}
+	
+	/**
+	 * @return the bloomFilterFalsePositiveCnt
+	 */
+	public long getBloomFilterFalsePositiveCnt() {
+		return bloomFilterFalsePositiveCnt.sum();
+	}
 
 	/**
 	 * @return the growDiskMark
@@ -1096,6 +1235,7 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 			tmpFile.delete();
 			RandomAccessFile tmpRAF = new BufferedRandomAccessFile(tmpFile, "rw");
 			tmpRAF.setLength((getTblCnt() + fileCnt) * FPSet.LongSize);
+			beginBloomFilter(getTblCnt() + fileCnt);
 
 			// merge
 			mergeNewEntries(braf, tmpRAF);
@@ -1126,6 +1266,8 @@ public abstract class DiskFPSet extends FPSet implements FPSetStatistic {
 			assert checkFile(braf[0], index, fileCnt);
 			
 			poolIndex = 0;
+			remapFile();
+			commitBloomFilter();
 		}
 		
 		protected abstract void mergeNewEntries(BufferedRandomAccessFile[] inRAFs, RandomAccessFile outRAF) throws IOException;
@@ -76,6 +76,16 @@ public interface FPSetStatistic {
 	 */
 	public long getDiskSeekCache();
 	
+	/**
+	 * @return the number of disk lookups the Bloom filter has answered without reading the disk
+	 */
+	public long getBloomFilterSkipCnt();
+	
+	/**
+	 * @return the number of disk lookups that passed the Bloom filter but did not find the fingerprint on disk
+	 */
+	public long getBloomFilterFalsePositiveCnt();
+	
 	/**
 	 * @return the growDiskMark
 	 */
@@ -63,7 +63,7 @@ public final class LongArray {
 	 */
 	private static final int logAddressSize = 3;
 
-	LongArray(final long positions) {
+	public LongArray(final long positions) {
 		this.length = positions;
 		this.unsafe = getUnsafe();
 		
@@ -188,6 +188,14 @@ public final class LongArray {
 		}
 	}
 
+	/**
+	 * Releases the memory of this array. The array must not be accessed
+	 * afterwards.
+	 */
+	public final void free() {
+		this.unsafe.freeMemory(baseAddress);
+	}
+
 	/**
 	 * Converts from logical positions to 
 	 * physical memory addresses.
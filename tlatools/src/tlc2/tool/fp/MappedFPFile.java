@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+/**
+ * A read-only view of the sorted fingerprints of a {@link DiskFPSet}'s disk
+ * file, which is mapped into memory. Contrary to the
+ * {@link tlc2.util.BufferedRandomAccessFile}s of a {@link DiskFPSet}, any
+ * number of threads can read fingerprints concurrently and without acquiring
+ * a file handle (absolute reads of a {@link MappedByteBuffer} do not modify
+ * its state). The operating system's page cache keeps the hot pages of the
+ * file in memory.
+ * <p>
+ * A {@link MappedByteBuffer} is restricted to Integer.MAX_VALUE bytes, thus
+ * the file is mapped in chunks. A fingerprint never straddles two chunks
+ * because the chunk size is a multiple of {@link FPSet#LongSize}.
+ * <p>
+ * The file must not be modified while mapped. A {@link DiskFPSet} replaces
+ * its file (and thus its {@link MappedFPFile}) with every merge. The chunks of
+ * the old file get unmapped by the garbage collector.
+ */
+final class MappedFPFile {
+
+	/**
+	 * 2^27 fingerprints (1 GiB) per chunk.
+	 */
+	private static final int LogChunkFPs = 27;
+
+	private final MappedByteBuffer[] chunks;
+	private final int logChunkFPs;
+	private final long chunkMask;
+	private final long fingerprints;
+
+	MappedFPFile(final String filename) throws IOException {
+		this(filename, LogChunkFPs);
+	}
+
+	MappedFPFile(final String filename, final int logChunkFPs) throws IOException {
+		this.logChunkFPs = logChunkFPs;
+		this.chunkMask = (1L << logChunkFPs) - 1L;
+		// The mapping remains valid after the file has been closed.
+		try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+			final FileChannel channel = raf.getChannel();
+			this.fingerprints = channel.size() / FPSet.LongSize;
+			final int n = (int) ((this.fingerprints + this.chunkMask) >>> logChunkFPs);
+			this.chunks = new MappedByteBuffer[n];
+			for (int i = 0; i < n; i++) {
+				final long start = ((long) i) << logChunkFPs;
+				final long length = Math.min(1L << logChunkFPs, this.fingerprints - start);
+				this.chunks[i] = channel.map(MapMode.READ_ONLY, start * FPSet.LongSize, length * FPSet.LongSize);
+			}
+		}
+	}
+
+	/**
+	 * @return The fingerprint at the given (zero-based) position of the file.
+	 */
+	final long get(final long position) {
+		assert position >= 0 && position < this.fingerprints;
+		return this.chunks[(int) (position >>> this.logChunkFPs)]
+				.getLong((int) ((position & this.chunkMask) * FPSet.LongSize));
+	}
+
+	/**
+	 * @return The number of fingerprints in the file.
+	 */
+	final long size() {
+		return this.fingerprints;
+	}
+}
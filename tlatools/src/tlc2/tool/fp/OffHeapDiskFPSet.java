@@ -31,6 +31,7 @@ import tlc2.tool.fp.LongArrays.LongComparator;
 import tlc2.tool.fp.management.DiskFPSetMXWrapper;
 import tlc2.util.BufferedRandomAccessFile;
 import util.Assert;
+import util.FileUtil;
 
 /**
  * see OpenAddressing.tla
@@ -112,6 +113,15 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 	private static final int PROBE_LIMIT = Integer.getInteger(OffHeapDiskFPSet.class.getName() + ".probeLimit", 1024);
 	static final long EMPTY = 0L;
 	
+	/**
+	 * The fraction of the table's positions that - once occupied by new
+	 * fingerprints - triggers growth of the table or a concurrent eviction
+	 * (see {@link #grow} and {@link #concurrentEviction}). Must not exceed 0.5
+	 * with concurrent eviction, because the fingerprints of a concurrent
+	 * eviction stay in the table until the next eviction.
+	 */
+	private static final double LOAD_FACTOR = Double
+			.parseDouble(System.getProperty(OffHeapDiskFPSet.class.getName() + ".loadFactor", "0.5"));
 
 	/**
 	 * @see LongArray#isSupported()
@@ -120,23 +130,95 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 		return LongArray.isSupported();
 	}
 
-	private final transient LongArray array;
+	/**
+	 * The table, which is replaced by a larger one when the table grows.
+	 */
+	private transient LongArray array;
 	
 	/**
 	 * The indexer maps a fingerprint to a in-memory bucket and the associated lock
 	 */
-	private final transient Indexer indexer;
+	private transient Indexer indexer;
 
 	private int numThreads;
+	
+	private final int fpBits;
+
+	/**
+	 * The number of positions the table may grow to (-fpmem). The table starts
+	 * with 1/2^n of these positions, where n is the value of the system
+	 * property "tlc2.tool.fp.OffHeapDiskFPSet.grow" (zero by default), and
+	 * doubles in size instead of evicting to disk until it has reached
+	 * maxPositions. Growing the table is cheaper than an eviction which merges
+	 * the table with the disk file, and the memory up to maxPositions does not
+	 * have to be allocated (and zeroed) upfront.
+	 */
+	private final long maxPositions;
+	
+	/**
+	 * Iff true, an eviction only suspends the workers while the table is
+	 * sorted. The sorted fingerprints are then merged with the disk file by a
+	 * background thread, while the workers keep inserting new fingerprints into
+	 * the free positions of the table. The fingerprints being merged remain in
+	 * the table until the next eviction, when the merged file replaces the disk
+	 * file and their positions are freed. Each eviction thus only evicts the
+	 * fingerprints inserted since the previous eviction. It is triggered once
+	 * these occupy {@link #LOAD_FACTOR} of the table.
+	 */
+	private final boolean concurrentEviction;
+	
+	/**
+	 * One bit per position of the table which marks the fingerprints that are
+	 * merged by the running concurrent eviction (null iff not
+	 * {@link #concurrentEviction}).
+	 */
+	private transient LongArray pending;
+	
+	/**
+	 * The number of fingerprints of {@link #pending}.
+	 */
+	private volatile long pendingCnt = 0L;
+	
+	/**
+	 * The concurrent eviction in progress or null.
+	 */
+	private transient Eviction eviction;
+	
+	/**
+	 * The number of fingerprints inserted into the table after which the
+	 * inserting worker requests an eviction (or growth) before the table fills
+	 * up.
+	 */
+	private long evictAt = Long.MAX_VALUE;
 
 	protected OffHeapDiskFPSet(final FPSetConfiguration fpSetConfig) throws RemoteException {
 		super(fpSetConfig);
 		
-		final long positions = fpSetConfig.getMemoryInFingerprintCnt();
+		this.maxPositions = fpSetConfig.getMemoryInFingerprintCnt();
+		final int grow = Integer.getInteger(OffHeapDiskFPSet.class.getName() + ".grow", 0);
+		final long positions = Math.max(maxPositions >>> grow, Math.min(maxPositions, PROBE_LIMIT));
+		this.maxTblCnt = positions;
+		this.fpBits = fpSetConfig.getFpBits();
 		
 		// Determine base address which varies depending on machine architecture.
 		this.array = new LongArray(positions);
+		this.indexer = getIndexer(positions, fpBits);
+		
+		this.concurrentEviction = Boolean.getBoolean(OffHeapDiskFPSet.class.getName() + ".concurrentEviction");
+		if (concurrentEviction) {
+			this.pending = newPending(positions);
+		}
 		
+		// Use the non-concurrent flusher as the default. Will be replaced by
+		// the CyclicBarrier-Runnable later. Just set to prevent NPEs when
+		// eviction/flush is called before init.
+		this.flusher = new OffHeapMSBFlusher(array);
+		
+		this.flusherChosen = SYNC.getFlusherChosen();
+		SYNC.add(this);
+	}
+	
+	private static Indexer getIndexer(final long positions, final int fpBits) throws RemoteException {
 		// If Hamming weight is 1, the logical index address can be calculated
 		// significantly faster by bit-shifting. However, with large memory
 		// sizes, only supporting increments of 2^n sizes would waste memory
@@ -144,19 +226,15 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 		// us to use bit-shifting. If not, we fall back to less efficient
 		// calculations.
 		if (Long.bitCount(positions) == 1) {
-			this.indexer = new BitshiftingIndexer(positions, fpSetConfig.getFpBits());
+			return new BitshiftingIndexer(positions, fpBits);
 		} else {
 			// non 2^n buckets cannot use a bit shifting indexer
-			this.indexer = new Indexer(positions, fpSetConfig.getFpBits());
+			return new Indexer(positions, fpBits);
 		}
-		
-		// Use the non-concurrent flusher as the default. Will be replaced by
-		// the CyclicBarrier-Runnable later. Just set to prevent NPEs when
-		// eviction/flush is called before init.
-		this.flusher = new OffHeapMSBFlusher(array);
-		
-		this.flusherChosen = SYNC.getFlusherChosen();
-		SYNC.add(this);
+	}
+	
+	private static LongArray newPending(final long positions) {
+		return new LongArray((positions + Long.SIZE - 1L) / Long.SIZE);
 	}
 	
 	/* (non-Javadoc)
@@ -169,6 +247,10 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 		this.numThreads = numThreads;
 		
 		array.zeroMemory(numThreads);
+		if (pending != null) {
+			pending.zeroMemory();
+		}
+		updateEvictAt();
 		return this;
 	}
 	
@@ -181,6 +263,23 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 	}
 
 	public void evict() {
+		// Free the positions of the fingerprints merged by a concurrent
+		// eviction (if any) before deciding how to make room.
+		if (eviction != null) {
+			publishEviction();
+		}
+		if (array.size() < maxPositions && grow()) {
+			updateEvictAt();
+			return;
+		}
+		if (concurrentEviction) {
+			if (getTblCnt() > 0L) {
+				startEviction();
+			}
+			updateEvictAt();
+			return;
+		}
+		
 		// statistics
 		growDiskMark++;
 		final long timestamp = System.currentTimeMillis();
@@ -225,6 +324,332 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 			return this.flusher;
 		}
 	}
+	
+	private void updateEvictAt() {
+		if (array.size() < maxPositions || concurrentEviction) {
+			evictAt = (long) (array.size() * LOAD_FACTOR);
+		} else {
+			// Evict when a fingerprint cannot be inserted (see memInsert0).
+			evictAt = Long.MAX_VALUE;
+		}
+	}
+
+	//**************************** Growth ****************************//
+	
+	/**
+	 * Replaces the table with one that has twice as many positions (at most
+	 * maxPositions) and re-inserts the fingerprints of the table that have not
+	 * been evicted yet. Evicted fingerprints are on disk and thus dropped.
+	 * Requires exclusive access and no concurrent eviction in progress.
+	 * 
+	 * @return false iff a fingerprint could not be re-inserted within
+	 *         PROBE_LIMIT, in which case the table remains unchanged.
+	 */
+	private boolean grow() {
+		final long timestamp = System.currentTimeMillis();
+		final long positions = Math.min(array.size() << 1, maxPositions);
+		final LongArray larger = new LongArray(positions);
+		try {
+			larger.zeroMemory(numThreads);
+			final Indexer largerIndexer = getIndexer(positions, fpBits);
+			
+			final boolean reinserted = forEachPartition(array.size(), new Partition() {
+				public boolean apply(final long start, final long end) {
+					for (long pos = start; pos < end; pos++) {
+						final long fp = array.get(pos);
+						if (fp > EMPTY && !insert(larger, largerIndexer, fp)) {
+							return false;
+						}
+					}
+					return true;
+				}
+			});
+			if (!reinserted) {
+				LOGGER.log(Level.FINE, "Failed to grow disk {0} to {1} positions, evicting instead.",
+						new Object[] { ((DiskFPSetMXWrapper) diskFPSetMXWrapper).getObjectName(), positions });
+				larger.free();
+				return false;
+			}
+			
+			array.free();
+			array = larger;
+			indexer = largerIndexer;
+			flusher = new OffHeapMSBFlusher(array);
+			maxTblCnt = positions;
+			if (pending != null) {
+				pending.free();
+				pending = newPending(positions);
+				pending.zeroMemory();
+			}
+		} catch (IOException e) {
+			// wrap in unchecked.
+			throw new OffHeapRuntimeException(e);
+		}
+		
+		LOGGER.log(Level.FINE, "Grew disk {0} to {1} positions with {2} fingerprints in {3} ms.",
+				new Object[] { ((DiskFPSetMXWrapper) diskFPSetMXWrapper).getObjectName(), positions, getTblCnt(),
+						System.currentTimeMillis() - timestamp });
+		return true;
+	}
+	
+	private static boolean insert(final LongArray a, final Indexer indexer, final long fp) {
+		for (int i = 0; i < PROBE_LIMIT; i++) {
+			if (a.trySet(indexer.getIdx(fp, i), EMPTY, fp)) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	private interface Partition {
+		boolean apply(long start, long end);
+	}
+	
+	/**
+	 * Applies the given partition concurrently to numThreads partitions of the
+	 * range [0, length).
+	 * 
+	 * @return true iff all partitions returned true.
+	 */
+	private boolean forEachPartition(final long length, final Partition partition) {
+		final long partitionLength = (long) Math.ceil(length / (double) numThreads);
+		final Collection<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>(numThreads);
+		for (int i = 0; i < numThreads; i++) {
+			final long start = Math.min(length, i * partitionLength);
+			final long end = Math.min(length, start + partitionLength);
+			tasks.add(new Callable<Boolean>() {
+				public Boolean call() throws Exception {
+					return partition.apply(start, end);
+				}
+			});
+		}
+		final ExecutorService executorService = Executors.newFixedThreadPool(numThreads);
+		try {
+			boolean result = true;
+			for (Future<Boolean> future : executorService.invokeAll(tasks)) {
+				result &= future.get();
+			}
+			return result;
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new OffHeapRuntimeException(ie);
+		} catch (ExecutionException e) {
+			throw new OffHeapRuntimeException(e);
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	//**************************** Concurrent eviction ****************************//
+	
+	private static boolean isPending(final LongArray pending, final long position) {
+		return (pending.get(position / Long.SIZE) & (1L << position)) != 0L;
+	}
+
+	/**
+	 * Sorts the table and starts a background thread that merges the
+	 * fingerprints which have not been evicted yet with the disk file. Requires
+	 * exclusive access.
+	 */
+	private void startEviction() {
+		// statistics
+		growDiskMark++;
+		final long insertions = getTblCnt();
+		LOGGER.log(Level.FINE, "Started concurrent eviction of disk {0} the {1}. time after {2} insertions.",
+				new Object[] { ((DiskFPSetMXWrapper) diskFPSetMXWrapper).getObjectName(), getGrowDiskMark(),
+						insertions });
+
+		final OffHeapMSBFlusher merger;
+		if (array.size() >= 8192 && Math.floor(array.size() / (double) numThreads) > 2 * PROBE_LIMIT) {
+			merger = new ConcurrentOffHeapMSBFlusher(array, PROBE_LIMIT, numThreads, insertions, pending);
+		} else {
+			merger = new OffHeapMSBFlusher(array, pending);
+		}
+		// Sorting moves fingerprints, thus the (position) bits can only be set
+		// afterwards. Later insertions do not move fingerprints, they only
+		// occupy EMPTY or evicted positions.
+		merger.prepareTable();
+		forEachPartition(pending.size(), new Partition() {
+			public boolean apply(final long start, final long end) {
+				for (long word = start; word < end; word++) {
+					long bits = 0L;
+					final long base = word * Long.SIZE;
+					for (int bit = 0; bit < Long.SIZE && base + bit < array.size(); bit++) {
+						if (array.get(base + bit) > EMPTY) {
+							bits |= 1L << bit;
+						}
+					}
+					pending.set(word, bits);
+				}
+				return true;
+			}
+		});
+		
+		pendingCnt = insertions;
+		tblCnt.reset();
+		tblLoad.reset();
+		beginBloomFilter(insertions + fileCnt);
+		
+		eviction = new Eviction(merger, insertions);
+		eviction.start();
+	}
+	
+	/**
+	 * Awaits the concurrent eviction, replaces the disk file with the merged
+	 * one and frees the positions of the merged fingerprints in the table.
+	 * Requires exclusive access.
+	 */
+	private void publishEviction() {
+		final long timestamp = System.currentTimeMillis();
+		try {
+			eviction.join();
+			if (eviction.error != null) {
+				throw new OffHeapRuntimeException(eviction.error);
+			}
+			
+			for (int i = 0; i < braf.length; i++) {
+				braf[i].close();
+			}
+			for (int i = 0; i < brafPool.length; i++) {
+				brafPool[i].close();
+			}
+			try {
+				FileUtil.replaceFile(tmpFilename, fpFilename);
+			} catch (IOException e) {
+				Assert.fail(EC.SYSTEM_UNABLE_NOT_RENAME_FILE, e);
+			}
+			for (int i = 0; i < braf.length; i++) {
+				braf[i] = new BufferedRandomAccessFile(fpFilename, "r");
+			}
+			for (int i = 0; i < brafPool.length; i++) {
+				brafPool[i] = new BufferedRandomAccessFile(fpFilename, "r");
+			}
+			poolIndex = 0;
+			remapFile();
+		} catch (InterruptedException ie) {
+			Thread.currentThread().interrupt();
+			throw new OffHeapRuntimeException(ie);
+		} catch (IOException e) {
+			// wrap in unchecked.
+			throw new OffHeapRuntimeException(e);
+		}
+		
+		index = eviction.mergedIndex;
+		fileCnt += pendingCnt;
+		commitBloomFilter();
+		
+		// Mark the merged fingerprints evicted.
+		forEachPartition(pending.size(), new Partition() {
+			public boolean apply(final long start, final long end) {
+				for (long word = start; word < end; word++) {
+					long bits = pending.get(word);
+					while (bits != 0L) {
+						final long pos = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+						array.set(pos, array.get(pos) | MARK_FLUSHED);
+						bits &= bits - 1L;
+					}
+					pending.set(word, 0L);
+				}
+				return true;
+			}
+		});
+		pendingCnt = 0L;
+		compact();
+		
+		final long l = eviction.duration + System.currentTimeMillis() - timestamp;
+		flushTime += l;
+		LOGGER.log(Level.FINE, "Finished concurrent eviction of disk {0} the {1}. time in {2} ms.",
+				new Object[] { ((DiskFPSetMXWrapper) diskFPSetMXWrapper).getObjectName(), getGrowDiskMark(), l });
+		eviction = null;
+	}
+	
+	/**
+	 * Moves every fingerprint to the first evicted position of its probe
+	 * sequence (if any). A fingerprint inserted during a concurrent eviction
+	 * may have been placed behind the fingerprints of the eviction, which are
+	 * then marked evicted when the eviction gets published. The insertion sort
+	 * of prepareTable cannot move fingerprints across evicted positions though.
+	 * Requires exclusive access.
+	 */
+	private void compact() {
+		final long size = array.size();
+		long lastMove = -1L;
+		// Keep going past the end as long as a move might have freed a position
+		// in the probe sequence of a (wrapped) fingerprint at the beginning.
+		for (long k = 0L; k < size || k <= lastMove + PROBE_LIMIT; k++) {
+			final long pos = k % size;
+			final long fp = array.get(pos);
+			if (fp <= EMPTY) {
+				continue;
+			}
+			final long idx = indexer.getIdx(fp);
+			final long probes = (pos - idx + size) % size;
+			for (long i = 0L; i < probes; i++) {
+				final long free = (idx + i) % size;
+				if (array.get(free) <= EMPTY) {
+					array.set(free, fp);
+					array.set(pos, fp | MARK_FLUSHED);
+					lastMove = k;
+					break;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Merges the pending fingerprints of the table with the disk file into the
+	 * tmp file and calculates the index of the merged file. Only reads the
+	 * table, the disk file (with its own readers), and fields which do not
+	 * change until the eviction gets published.
+	 */
+	private final class Eviction extends Thread {
+		
+		private final OffHeapMSBFlusher merger;
+		private final long insertions;
+		
+		private long[] mergedIndex;
+		private Exception error;
+		private long duration;
+		
+		Eviction(final OffHeapMSBFlusher merger, final long insertions) {
+			super(OffHeapDiskFPSet.class.getSimpleName() + "-Eviction");
+			this.merger = merger;
+			this.insertions = insertions;
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			final long timestamp = System.currentTimeMillis();
+			final BufferedRandomAccessFile[] inRAFs = new BufferedRandomAccessFile[braf.length];
+			try {
+				for (int i = 0; i < inRAFs.length; i++) {
+					inRAFs[i] = new BufferedRandomAccessFile(fpFilename, "r");
+				}
+				final File tmpFile = new File(tmpFilename);
+				tmpFile.delete();
+				final RandomAccessFile tmpRAF = new BufferedRandomAccessFile(tmpFile, "rw");
+				tmpRAF.setLength((insertions + fileCnt) * FPSet.LongSize);
+				try {
+					mergedIndex = merger.mergeNewEntries(inRAFs, tmpRAF, insertions);
+				} finally {
+					tmpRAF.close();
+				}
+			} catch (Exception e) {
+				error = e;
+			} finally {
+				for (int i = 0; i < inRAFs.length; i++) {
+					try {
+						if (inRAFs[i] != null) {
+							inRAFs[i].close();
+						}
+					} catch (IOException e) { /* SKIP */
+					}
+				}
+			}
+			duration = System.currentTimeMillis() - timestamp;
+		}
+	}
 
 	private boolean checkEvictPending() {
 		if (SYNC.evictPending()) {
@@ -234,6 +659,16 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 		return false;
 	}
 
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.DiskFPSet#size()
+	 */
+	@Override
+	public long size() {
+		// The fingerprints of a concurrent eviction are neither counted by
+		// tblCnt nor by fileCnt until it gets published.
+		return super.size() + pendingCnt;
+	}
+
 	/* (non-Javadoc)
 	 * @see tlc2.tool.fp.DiskFPSet#sizeof()
 	 */
@@ -310,6 +745,12 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 				// Try to CAS the new fingerprint.
 				if (array.trySet(position, expected, fp0)) {
 					this.tblCnt.increment();
+					// Sample the (uniformly distributed) fingerprints to not
+					// sum up tblCnt on every insertion.
+					if ((fp0 & 0xFFL) == 0L && getTblCnt() >= evictAt) {
+						// Make room before the table fills up.
+						forceFlush();
+					}
 					return false;
 				} else {
 					// Retry at current position because another thread wrote a
@@ -455,6 +896,9 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 	 */
 	@Override
 	public long checkFPs() throws IOException {
+		if (eviction != null) {
+			publishEviction();
+		}
 		if (getTblCnt() <= 0) {
 			return Long.MAX_VALUE;
 		}
@@ -820,7 +1264,12 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 
 		public ConcurrentOffHeapMSBFlusher(final LongArray array, final int r, final int numThreads,
 				final long insertions) {
-			super(array);
+			this(array, r, numThreads, insertions, null);
+		}
+
+		public ConcurrentOffHeapMSBFlusher(final LongArray array, final int r, final int numThreads,
+				final long insertions, final LongArray pending) {
+			super(array, pending);
 			this.r = r;
 			this.numThreads = numThreads;
 			this.insertions = insertions;
@@ -962,7 +1411,7 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 				// Set offset and the number of elements the
 				// iterator is supposed to return.
 				final Iterator itr = new Iterator(a, result.getTable(), id * length, indexer,
-						id == 0 ? Iterator.WRAP.ALLOWED : Iterator.WRAP.FORBIDDEN);
+						id == 0 ? Iterator.WRAP.ALLOWED : Iterator.WRAP.FORBIDDEN, pending);
 				
 				final BufferedRandomAccessFile inRAF = inRAFs[id];
 				assert (result.getInOffset() + result.getDisk()) * FPSet.LongSize <= inRAF.length();
@@ -1004,7 +1453,9 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 			}
 
 			assert checkRAFs(inRAFs);
-			assert checkTable(a) : "Missed element during eviction.";
+			// Pending fingerprints are only marked evicted once the merged file
+			// replaces the disk file.
+			assert pending != null || checkTable(a) : "Missed element during eviction.";
 			
 			LOGGER.log(Level.FINE, "Wrote table to disk with {0} workers in {1} ms.",
 					new Object[] { numThreads, (System.currentTimeMillis() - now) });
@@ -1047,9 +1498,19 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 	public class OffHeapMSBFlusher extends Flusher {
 		
 		protected final LongArray a;
+		/**
+		 * Iff not null, only the fingerprints whose bit is set get merged,
+		 * and they are not marked evicted.
+		 */
+		protected final LongArray pending;
 
 		public OffHeapMSBFlusher(LongArray array) {
+			this(array, null);
+		}
+
+		public OffHeapMSBFlusher(LongArray array, LongArray pending) {
 			a = array;
+			this.pending = pending;
 		}
 
 		/* (non-Javadoc)
@@ -1060,7 +1521,7 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 			super.prepareTable();
 			final int r = PROBE_LIMIT;
 			
-			assert checkInput(array, indexer, r) : "Table violates invariants prior to eviction";
+			assert checkInput(a, indexer, r) : "Table violates invariants prior to eviction";
 			
 			// Sort with a single thread.
 			LongArrays.sort(a, 0, a.size() - 1L + r, getLongComparator());
@@ -1076,19 +1537,31 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 		@Override
 		protected void mergeNewEntries(BufferedRandomAccessFile[] inRAFs, RandomAccessFile outRAF) throws IOException {
 			final long buffLen = tblCnt.sum();
-			final Iterator itr = new Iterator(array, buffLen, indexer);
+			index = mergeNewEntries(inRAFs, outRAF, buffLen);
+			
+			// maintain object invariants
+			fileCnt += buffLen;
+		}
+
+		/**
+		 * Merges buffLen fingerprints of the table with the disk file into
+		 * outRAF. Neither changes index nor fileCnt.
+		 * 
+		 * @return The index of outRAF.
+		 */
+		protected long[] mergeNewEntries(BufferedRandomAccessFile[] inRAFs, RandomAccessFile outRAF, final long buffLen)
+				throws IOException {
+			final Iterator itr = new Iterator(a, buffLen, 0L, indexer, Iterator.WRAP.ALLOWED, pending);
 
 			final int indexLen = calculateIndexLen(buffLen);
-			index = new long[indexLen];
+			final long[] idx = new long[indexLen];
 			mergeNewEntries(inRAFs, outRAF, itr);
 
 			final long length = (outRAF.length() / LongSize) - 1L;
-			writeIndex(index, outRAF, length);
-			assert checkIndex(index) : "Broken disk index.";
-			assert checkIndex(index, outRAF, length) : "Misaligned disk index.";
-			
-			// maintain object invariants
-			fileCnt += buffLen;
+			writeIndex(idx, outRAF, length);
+			assert checkIndex(idx) : "Broken disk index.";
+			assert checkIndex(idx, outRAF, length) : "Misaligned disk index.";
+			return idx;
 		}
 
 		protected void mergeNewEntries(BufferedRandomAccessFile[] inRAFs, RandomAccessFile outRAF, Iterator itr)
@@ -1125,6 +1598,7 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 					outRAF.writeLong(fp);
 					tableReads--;
 					diskWriteCnt.increment();
+					addToBloomFilter(fp);
 					// Read next value if any.
 		            if (tableReads > 0) {
 						final long nextFP = itr.markNext();
@@ -1139,6 +1613,7 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 					outRAF.writeLong(value);
 					diskReads--;
 					diskWriteCnt.increment();
+					addToBloomFilter(value);
 					// Read next value if any.
 					if (diskReads > 0) {
 						final long nextValue = inRAF.readLong();
@@ -1193,6 +1668,7 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 		private final LongArray array;
 		private final Indexer indexer;
 		private final WRAP canWrap;
+		private final LongArray pending;
 
 		private long pos = 0;
 		private long elementsRead = 0L;
@@ -1207,11 +1683,22 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 
 		public Iterator(final LongArray array, final long elements, final long start, final Indexer indexer,
 				final WRAP canWrap) {
+			this(array, elements, start, indexer, canWrap, null);
+		}
+
+		/**
+		 * @param pending
+		 *            Iff not null, the iterator skips the elements whose bit is
+		 *            not set and never marks an element evicted.
+		 */
+		public Iterator(final LongArray array, final long elements, final long start, final Indexer indexer,
+				final WRAP canWrap, final LongArray pending) {
 			this.array = array;
 			this.elements = elements;
 			this.indexer = indexer;
 			this.pos = start;
 			this.canWrap = canWrap;
+			this.pending = pending;
 		}
 
 		public long getPos() {
@@ -1267,6 +1754,11 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 					pos = pos + 1L;
 					continue;
 				}
+				if (pending != null && !isPending(pending, position)) {
+					// Inserted after the eviction started.
+					pos = pos + 1L;
+					continue;
+				}
 				final long baseIdx = indexer.getIdx(elem);
 				if (baseIdx > pos) {
 					// This branch should only be active for thread with id 0.
@@ -1276,7 +1768,7 @@ public final class OffHeapDiskFPSet extends NonCheckpointableDiskFPSet implement
 				}
 				pos = pos + 1L;
 				// mark elem in array as being evicted.
-				if (mark) {array.set(position, elem | MARK_FLUSHED);}
+				if (mark && pending == null) {array.set(position, elem | MARK_FLUSHED);}
 				elementsRead = elementsRead + 1L;
 				return elem;
 			} while (hasNext() && pos < maxPos);
@@ -38,6 +38,27 @@ public interface DiskFPSetMXBean {
 	 * @see DiskFPSet#getDiskSeekRate()
 	 */
 	double getDiskSeekRate();
+	
+	/**
+	 * @see DiskFPSet#getBloomFilterSkipCnt()
+	 */
+	long getBloomFilterSkipCnt();
+	
+	/**
+	 * @see DiskFPSet#getBloomFilterFalsePositiveCnt()
+	 */
+	long getBloomFilterFalsePositiveCnt();
+	
+	/**
+	 * @return The fraction of disk lookups answered by the Bloom filter.
+	 */
+	double getBloomFilterHitRate();
+	
+	/**
+	 * @return The fraction of fingerprints not on disk which the Bloom filter
+	 *         failed to rule out.
+	 */
+	double getBloomFilterFalsePositiveRate();
 	/**
 	 *@see DiskFPSet#getDiskWriteCnt()
 	 */
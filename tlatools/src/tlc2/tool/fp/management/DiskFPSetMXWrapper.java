@@ -104,6 +104,37 @@ public class DiskFPSetMXWrapper extends TLCStandardMBean implements DiskFPSetMXB
 		return diskSeekCache / (double) (diskSeekCache + diskSeekCnt);
 	}
 	
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.management.DiskFPSetMXBean#getBloomFilterSkipCnt()
+	 */
+	public long getBloomFilterSkipCnt() {
+		return fpset.getBloomFilterSkipCnt();
+	}
+	
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.management.DiskFPSetMXBean#getBloomFilterFalsePositiveCnt()
+	 */
+	public long getBloomFilterFalsePositiveCnt() {
+		return fpset.getBloomFilterFalsePositiveCnt();
+	}
+	
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.management.DiskFPSetMXBean#getBloomFilterHitRate()
+	 */
+	public double getBloomFilterHitRate() {
+		final long skipCnt = getBloomFilterSkipCnt();
+		return skipCnt / (double) (skipCnt + getDiskLookupCnt());
+	}
+	
+	/* (non-Javadoc)
+	 * @see tlc2.tool.fp.management.DiskFPSetMXBean#getBloomFilterFalsePositiveRate()
+	 */
+	public double getBloomFilterFalsePositiveRate() {
+		final long skipCnt = getBloomFilterSkipCnt();
+		final long falsePositiveCnt = getBloomFilterFalsePositiveCnt();
+		return falsePositiveCnt / (double) (falsePositiveCnt + skipCnt);
+	}
+	
 	/* (non-Javadoc)
 	 * @see tlc2.tool.fp.management.DiskFPSetSamplerMXBean#getCheckPointMark()
 	 */
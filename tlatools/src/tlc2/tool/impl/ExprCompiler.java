@@ -0,0 +1,1906 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import tla2sany.semantic.APSubstInNode;
+import tla2sany.semantic.ExprNode;
+import tla2sany.semantic.ExprOrOpArgNode;
+import tla2sany.semantic.FormalParamNode;
+import tla2sany.semantic.FrontEnd;
+import tla2sany.semantic.LabelNode;
+import tla2sany.semantic.LetInNode;
+import tla2sany.semantic.LevelConstants;
+import tla2sany.semantic.LevelNode;
+import tla2sany.semantic.ModuleNode;
+import tla2sany.semantic.OpApplNode;
+import tla2sany.semantic.OpDefNode;
+import tla2sany.semantic.SemanticNode;
+import tla2sany.semantic.SubstInNode;
+import tla2sany.semantic.SymbolNode;
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.tool.Action;
+import tlc2.tool.BuiltInOPs;
+import tlc2.tool.EvalControl;
+import tlc2.tool.TLCState;
+import tlc2.tool.ToolGlobals;
+import tlc2.tool.coverage.CostModel;
+import tlc2.util.Context;
+import tlc2.util.Vect;
+import tlc2.value.IValue;
+import tlc2.value.impl.Applicable;
+import tlc2.value.impl.BoolValue;
+import tlc2.value.impl.Enumerable;
+import tlc2.value.impl.FcnLambdaValue;
+import tlc2.value.impl.FcnParams;
+import tlc2.value.impl.FcnRcdValue;
+import tlc2.value.impl.LazyValue;
+import tlc2.value.impl.MethodValue;
+import tlc2.value.impl.OpValue;
+import tlc2.value.impl.RecordValue;
+import tlc2.value.impl.Reducible;
+import tlc2.value.impl.SetCapValue;
+import tlc2.value.impl.SetCupValue;
+import tlc2.value.impl.SetDiffValue;
+import tlc2.value.impl.SetEnumValue;
+import tlc2.value.impl.SetOfFcnsValue;
+import tlc2.value.impl.SetOfRcdsValue;
+import tlc2.value.impl.SetOfTuplesValue;
+import tlc2.value.impl.SetPredValue;
+import tlc2.value.impl.StringValue;
+import tlc2.value.impl.SubsetValue;
+import tlc2.value.impl.TupleValue;
+import tlc2.value.impl.UnionValue;
+import tlc2.value.impl.Value;
+import tlc2.value.impl.ValueEnumeration;
+import tlc2.value.impl.ValueExcept;
+import tlc2.value.impl.ValueVec;
+import util.Assert;
+import util.UniqueString;
+
+/**
+ * An {@link ExprCompiler} translates the expressions of a spec into trees of
+ * closures ({@link Expr}) that {@link Tool#eval} evaluates instead of walking
+ * the semantic tree. Compared to the interpreter, a compiled expression
+ * <ul>
+ * <li>resolves operators, constants and the opcodes of built-in operators once
+ * instead of on every evaluation, and</li>
+ * <li>keeps the identifiers bound by quantifiers, LET and EXCEPT (@) as well
+ * as the formal parameters of definitions in the slots of an array (a
+ * {@link Frame}) instead of looking them up in the linked list of a
+ * {@link Context}.</li>
+ * </ul>
+ * A compiled expression ({@link Root}) is the tool object of its semantic node.
+ * Roots are the bodies of definitions as well as the (sub-)expressions that
+ * {@link Tool#getNextStates} and {@link Tool#getInitStates} pass to
+ * {@link Tool#eval}. The formal parameters of a root (those of a definition or
+ * the identifiers bound by a function or a set {x \in S : p}) occupy its first
+ * slots: A compiled application of a definition passes the arguments in the
+ * slots of the body's frame, whereas the interpreter (and a FcnLambdaValue or
+ * SetPredValue) binds them in the context, from which they are copied into the
+ * slots when the root is entered. Other identifiers that are bound outside of
+ * a root (identifiers bound by an action's \E, INSTANCE substitutions, ...)
+ * are looked up in the {@link Context} passed to {@link Tool#eval}.
+ * <p>
+ * Constructs that are not compiled as well as errors are delegated to the
+ * interpreter, which (re-)evaluates the construct in a {@link Context} of the
+ * identifiers bound in its scope. A compiled expression is not evaluated in
+ * the scope of ENABLED, with coverage or with a call stack (see
+ * {@link ExprCompiler#isCompilable(int)}).
+ */
+final class ExprCompiler implements ToolGlobals {
+
+	/**
+	 * The compiled form of a semantic node is its tool object with this id.
+	 */
+	private static final int ToolId = FrontEnd.getToolId();
+
+	private static final Value[] NoSlots = new Value[0];
+
+	private static final SymbolNode[] NoParams = new SymbolNode[0];
+
+	/**
+	 * @return true iff an expression gets evaluated by its compiled form under
+	 *         the given control. KeepLazy and Init are handed on to values and
+	 *         the interpreter, whereas Primed and Enabled change the lookup of
+	 *         identifiers and caching.
+	 */
+	static boolean isCompilable(final int control) {
+		return (control & ~(EvalControl.KeepLazy | EvalControl.Init)) == 0;
+	}
+
+	/**
+	 * @return The compiled form of the given expression or null.
+	 */
+	static Root getCompiled(final SemanticNode expr) {
+		return (Root) expr.getToolObject(ToolId);
+	}
+
+	private final Tool tool;
+	/**
+	 * The definitions of the modules of the spec. All other definitions are
+	 * LET definitions.
+	 */
+	private final Set<OpDefNode> defs = new HashSet<>();
+	/**
+	 * Expressions to be compiled into (independent) roots and their formal
+	 * parameters.
+	 */
+	private final Deque<SemanticNode> pending = new ArrayDeque<>();
+	private final Deque<SymbolNode[]> pendingParams = new ArrayDeque<>();
+	/**
+	 * The number of slots of the root being compiled.
+	 */
+	private int slots;
+	private int roots;
+
+	ExprCompiler(final Tool tool) {
+		this.tool = tool;
+	}
+
+	/**
+	 * Compiles the definitions of all modules as well as the actions, the
+	 * initial predicate, the invariants and the constraints of the spec.
+	 * 
+	 * @return The number of compiled roots.
+	 */
+	int compile() {
+		final List<OpDefNode> bodies = new ArrayList<>();
+		final ModuleNode[] modules = this.tool.moduleTbl.getModuleNodes();
+		for (int i = 0; i < modules.length; i++) {
+			final OpDefNode[] opDefs = modules[i].getOpDefs();
+			for (int j = 0; j < opDefs.length; j++) {
+				this.defs.add(opDefs[j]);
+				// Operators overridden by Java or constant definitions are never evaluated.
+				if (opDefs[j].getKind() == UserDefinedOpKind && opDefs[j].getBody() != null
+						&& opDefs[j].getToolObject(Spec.toolId) == null
+						&& opDefs[j].getBody().getToolObject(Spec.toolId) == null) {
+					bodies.add(opDefs[j]);
+				}
+			}
+		}
+		for (final OpDefNode def : bodies) {
+			root(def.getBody(), def.getParams());
+			walk(def.getBody());
+		}
+		final Action[] actions = this.tool.getActions();
+		for (int i = 0; i < actions.length; i++) {
+			walk(actions[i].pred);
+		}
+		final Vect<Action> init = this.tool.getInitStateSpec();
+		for (int i = 0; i < init.size(); i++) {
+			walk(init.elementAt(i).pred);
+		}
+		for (final Action inv : this.tool.getInvariants()) {
+			root(inv.pred);
+		}
+		for (final ExprNode constr : this.tool.getModelConstraints()) {
+			root(constr);
+		}
+		for (final ExprNode constr : this.tool.getActionConstraints()) {
+			root(constr);
+		}
+		while (!this.pending.isEmpty()) {
+			root(this.pending.poll(), this.pendingParams.poll());
+		}
+		return this.roots;
+	}
+
+	/**
+	 * Marks the given expression as well as the sub-expressions that
+	 * Tool#getNextStates and Tool#getInitStates evaluate as roots.
+	 */
+	private void walk(final SemanticNode expr) {
+		root(expr);
+		switch (expr.getKind()) {
+		case LabelKind:
+			walk(((LabelNode) expr).getBody());
+			return;
+		case SubstInKind:
+			walk(((SubstInNode) expr).getBody());
+			return;
+		case APSubstInKind:
+			walk(((APSubstInNode) expr).getBody());
+			return;
+		case LetInKind: {
+			final LetInNode let = (LetInNode) expr;
+			for (final OpDefNode def : let.getLets()) {
+				root(def.getBody(), def.getParams());
+				walk(def.getBody());
+			}
+			walk(let.getBody());
+			return;
+		}
+		case OpApplKind: {
+			final OpApplNode appl = (OpApplNode) expr;
+			final ExprOrOpArgNode[] args = appl.getArgs();
+			switch (BuiltInOPs.getOpCode(appl.getOperator().getName())) {
+			case 0: // Lazy arguments of user-defined operators.
+			case OPCODE_cl:
+			case OPCODE_dl:
+			case OPCODE_land:
+			case OPCODE_lor:
+			case OPCODE_implies:
+			case OPCODE_ite:
+			case OPCODE_case:
+			case OPCODE_be:
+			case OPCODE_nop:
+				for (final ExprNode bound : appl.getBdedQuantBounds() == null ? new ExprNode[0]
+						: appl.getBdedQuantBounds()) {
+					root(bound);
+				}
+				for (int i = 0; i < args.length; i++) {
+					if (args[i] instanceof OpApplNode
+							&& ((OpApplNode) args[i]).getOperator().getName() == OP_pair) {
+						// The guard and the expression of a CASE arm.
+						for (final ExprOrOpArgNode arm : ((OpApplNode) args[i]).getArgs()) {
+							if (arm instanceof ExprNode) {
+								walk(arm);
+							}
+						}
+					} else if (args[i] instanceof ExprNode) {
+						walk(args[i]);
+					}
+				}
+				return;
+			default:
+				// The right-hand side of x' = e and x' \in S as well as f[e].
+				for (int i = 0; i < args.length; i++) {
+					if (args[i] instanceof ExprNode) {
+						root(args[i]);
+					}
+				}
+				return;
+			}
+		}
+		default:
+			return;
+		}
+	}
+
+	private void root(final SemanticNode expr) {
+		root(expr, NoParams);
+	}
+
+	private void root(final SemanticNode expr, final SymbolNode[] params) {
+		if (expr == null || params == null || expr.getToolObject(ToolId) != null) {
+			return;
+		}
+		Scope scope = null;
+		for (int i = 0; i < params.length; i++) {
+			scope = new Scope(params[i], i, null, null, true, scope);
+		}
+		this.slots = params.length;
+		final Expr compiled = compile(expr, scope);
+		if (compiled instanceof Fallback) {
+			// Nothing gained.
+			return;
+		}
+		expr.setToolObject(ToolId, new Root(compiled, this.slots, params));
+		this.roots++;
+	}
+
+	private void pend(final SemanticNode expr, final SymbolNode[] params) {
+		this.pending.add(expr);
+		this.pendingParams.add(params);
+	}
+
+	/**
+	 * @return The identifiers bound by the given function or set constructor
+	 *         (and the name of a recursive function), which are the formal
+	 *         parameters of its body.
+	 */
+	private static SymbolNode[] formals(final OpApplNode expr, final SymbolNode recursive) {
+		final List<SymbolNode> formals = new ArrayList<>();
+		for (final FormalParamNode[] list : expr.getBdedQuantSymbolLists()) {
+			for (final FormalParamNode formal : list) {
+				formals.add(formal);
+			}
+		}
+		if (recursive != null) {
+			formals.add(recursive);
+		}
+		return formals.toArray(new SymbolNode[formals.size()]);
+	}
+
+	/* Compilation */
+
+	private Expr compile(final SemanticNode expr, final Scope scope) {
+		switch (expr.getKind()) {
+		case LabelKind:
+			return compile(((LabelNode) expr).getBody(), scope);
+		case OpApplKind:
+			return compileAppl((OpApplNode) expr, scope);
+		case LetInKind:
+			return compileLet((LetInNode) expr, scope);
+		case NumeralKind:
+		case DecimalKind:
+		case StringKind: {
+			final Object val = expr.getToolObject(Spec.toolId);
+			if (val instanceof Value) {
+				return new Const((Value) val);
+			}
+			return fallback(expr, scope);
+		}
+		case AtNodeKind: {
+			final Scope at = Scope.find(scope, EXCEPT_AT);
+			if (at != null) {
+				return new Slot(at.slot);
+			}
+			return new Parameter(EXCEPT_AT, fallback(expr, scope));
+		}
+		default:
+			return fallback(expr, scope);
+		}
+	}
+
+	private Expr[] compile(final ExprOrOpArgNode[] exprs, final Scope scope) {
+		final Expr[] compiled = new Expr[exprs.length];
+		for (int i = 0; i < exprs.length; i++) {
+			compiled[i] = compile(exprs[i], scope);
+		}
+		return compiled;
+	}
+
+	private Expr compileLet(final LetInNode expr, final Scope scope) {
+		final OpDefNode[] lets = expr.getLets();
+		final List<Integer> letSlots = new ArrayList<>(lets.length);
+		Scope inner = scope;
+		for (int i = 0; i < lets.length; i++) {
+			final OpDefNode def = lets[i];
+			if (def.getArity() == 0) {
+				final Expr body = compile(def.getBody(), inner);
+				inner = new Scope(def, this.slots++, def, body, false, inner);
+				letSlots.add(inner.slot);
+			} else {
+				// Applied by the interpreter or Call (see compileUserAppl).
+				pend(def.getBody(), def.getParams());
+			}
+		}
+		final int[] reset = new int[letSlots.size()];
+		for (int i = 0; i < reset.length; i++) {
+			reset[i] = letSlots.get(i);
+		}
+		return new Let(reset, compile(expr.getBody(), inner));
+	}
+
+	private Expr compileAppl(final OpApplNode expr, final Scope scope) {
+		final ExprOrOpArgNode[] args = expr.getArgs();
+		final int opcode = BuiltInOPs.getOpCode(expr.getOperator().getName());
+		switch (opcode) {
+		case 0:
+			return compileUserAppl(expr, scope);
+		case OPCODE_cl: // ConjList
+		case OPCODE_land:
+			return new And(compile(args, scope), fallback(expr, scope));
+		case OPCODE_dl: // DisjList
+		case OPCODE_lor:
+			return new Or(compile(args, scope), fallback(expr, scope));
+		case OPCODE_implies:
+			return new Implies(compile(args[0], scope), compile(args[1], scope), fallback(expr, scope));
+		case OPCODE_equiv:
+			return new Equiv(compile(args[0], scope), compile(args[1], scope), fallback(expr, scope));
+		case OPCODE_lnot:
+			return new Not(compile(args[0], scope), fallback(expr, scope));
+		case OPCODE_eq:
+			return new Eq(compile(args[0], scope), compile(args[1], scope), true);
+		case OPCODE_noteq:
+			return new Eq(compile(args[0], scope), compile(args[1], scope), false);
+		case OPCODE_in:
+			return new In(compile(args[0], scope), compile(args[1], scope), true);
+		case OPCODE_notin:
+			return new In(compile(args[0], scope), compile(args[1], scope), false);
+		case OPCODE_subseteq:
+			return new SubsetEq(compile(args[0], scope), compile(args[1], scope), fallback(expr, scope));
+		case OPCODE_ite: // IfThenElse
+			return new Ite(compile(args[0], scope), compile(args[1], scope), compile(args[2], scope),
+					fallback(expr, scope));
+		case OPCODE_case: {
+			final List<Expr> guards = new ArrayList<>();
+			final List<Expr> arms = new ArrayList<>();
+			Expr other = null;
+			for (int i = 0; i < args.length; i++) {
+				final ExprOrOpArgNode[] pair = ((OpApplNode) args[i]).getArgs();
+				if (pair[0] == null) {
+					other = compile(pair[1], scope);
+				} else {
+					guards.add(compile(pair[0], scope));
+					arms.add(compile(pair[1], scope));
+				}
+			}
+			return new Case(guards.toArray(new Expr[guards.size()]), arms.toArray(new Expr[arms.size()]), other,
+					fallback(expr, scope));
+		}
+		case OPCODE_be: // BoundedExists
+		case OPCODE_bf: // BoundedForall
+		{
+			final Bounds bounds = bounds(expr, scope);
+			return new Quantifier(bounds, compile(args[0], bounds.scope), opcode == OPCODE_bf,
+					fallback(expr, scope));
+		}
+		case OPCODE_soa: // SetOfAll
+		{
+			final Bounds bounds = bounds(expr, scope);
+			return new SetOfAll(bounds, compile(args[0], bounds.scope), fallback(expr, scope));
+		}
+		case OPCODE_bc: // BoundedChoose
+		{
+			final Bounds bounds = bounds(expr, scope);
+			return new Choose(bounds, compile(args[0], bounds.scope), fallback(expr, scope));
+		}
+		case OPCODE_sso: // SubsetOf
+		{
+			final Bounds bounds = bounds(expr, scope);
+			// The predicate of a SetPredValue is evaluated by Tool#eval.
+			pend(args[0], formals(expr, null));
+			return new SubsetOf(expr, bounds, compile(args[0], bounds.scope), Scope.toArray(scope),
+					fallback(expr, scope));
+		}
+		case OPCODE_fc: // FcnConstructor
+		case OPCODE_nrfs: // NonRecursiveFcnSpec
+		case OPCODE_rfs: // RecursiveFcnSpec
+		{
+			// The body of a FcnLambdaValue is evaluated by Tool#eval.
+			final SymbolNode recursive = opcode == OPCODE_rfs ? expr.getUnbdedQuantSymbols()[0] : null;
+			pend(args[0], formals(expr, recursive));
+			return new Function(expr, compile(expr.getBdedQuantBounds(), scope), Scope.toArray(scope), recursive);
+		}
+		case OPCODE_fa: // FcnApply
+			return new Apply(compile(args[0], scope), compile(args[1], scope), args.length,
+					fallback(expr, scope));
+		case OPCODE_rs: // RcdSelect
+		{
+			final Object field = args[1].getToolObject(Spec.toolId);
+			if (!(field instanceof Value)) {
+				return fallback(expr, scope);
+			}
+			return new Select(compile(args[0], scope), (Value) field, fallback(expr, scope));
+		}
+		case OPCODE_rc: // RcdConstructor
+		case OPCODE_sor: // SetOfRcds
+		{
+			final UniqueString[] names = new UniqueString[args.length];
+			final Expr[] vals = new Expr[args.length];
+			for (int i = 0; i < args.length; i++) {
+				final ExprOrOpArgNode[] pair = ((OpApplNode) args[i]).getArgs();
+				names[i] = ((StringValue) pair[0].getToolObject(Spec.toolId)).getVal();
+				vals[i] = compile(pair[1], scope);
+			}
+			return new Record(names, vals, opcode == OPCODE_sor);
+		}
+		case OPCODE_exc: // Except
+		{
+			final Expr[][] paths = new Expr[args.length - 1][];
+			final Expr[] rhs = new Expr[args.length - 1];
+			final int at = this.slots++;
+			final Scope inner = new Scope(EXCEPT_AT, at, null, null, false, scope);
+			for (int i = 1; i < args.length; i++) {
+				final ExprOrOpArgNode[] pair = ((OpApplNode) args[i]).getArgs();
+				paths[i - 1] = compile(((OpApplNode) pair[0]).getArgs(), scope);
+				rhs[i - 1] = compile(pair[1], inner);
+			}
+			return new Except(compile(args[0], scope), paths, rhs, at, args[0]);
+		}
+		case OPCODE_tup: // Tuple
+		case OPCODE_se: // SetEnumerate
+		case OPCODE_cp: // CartesianProd
+			return new Constructor(opcode, compile(args, scope));
+		case OPCODE_sof: // SetOfFcns
+		case OPCODE_cup:
+		case OPCODE_cap:
+		case OPCODE_setdiff:
+			return new SetOp(opcode, compile(args[0], scope), compile(args[1], scope));
+		case OPCODE_subset:
+		case OPCODE_union:
+		case OPCODE_domain:
+			return new UnaryOp(opcode, compile(args[0], scope), fallback(expr, scope));
+		case OPCODE_nop:
+			return compile(args[0], scope);
+		case OPCODE_prime:
+			return new Prime(compile(args[0], scope), fallback(expr, scope));
+		default:
+			return fallback(expr, scope);
+		}
+	}
+
+	private Expr compileUserAppl(final OpApplNode expr, final Scope scope) {
+		final ExprOrOpArgNode[] args = expr.getArgs();
+		final SymbolNode opNode = expr.getOperator();
+
+		final Scope bound = Scope.find(scope, opNode);
+		if (bound != null) {
+			if (args.length != 0) {
+				return fallback(expr, scope);
+			}
+			if (bound.let != null) {
+				return new LetRef(bound.slot, bound.def, bound.let.getBody().getLevel());
+			}
+			if (bound.param) {
+				return new ParamRef(bound.slot, fallback(expr, scope));
+			}
+			return new Slot(bound.slot);
+		}
+
+		switch (opNode.getKind()) {
+		case VariableDeclKind:
+			if (args.length != 0 || opNode.getToolObject(Spec.toolId) != null) {
+				return fallback(expr, scope);
+			}
+			return new Variable(opNode, fallback(expr, scope));
+		case ConstantDeclKind: {
+			final Object val = this.tool.lookup(opNode, Context.Empty, false);
+			if (args.length != 0 || !isPlain(val)) {
+				return fallback(expr, scope);
+			}
+			return new Constant(opNode, (Value) val, fallback(expr, scope));
+		}
+		case FormalParamKind:
+			if (args.length != 0) {
+				return fallback(expr, scope);
+			}
+			return new Parameter(opNode, fallback(expr, scope));
+		case UserDefinedOpKind:
+		case BuiltInKind: {
+			final boolean local = opNode.getKind() == UserDefinedOpKind && !this.defs.contains(opNode);
+			if (local && args.length == 0) {
+				// A LET definition declared outside of this root, which the interpreter
+				// binds to a LazyValue in the context.
+				return new Parameter(opNode, fallback(expr, scope));
+			}
+			if (opNode.getKind() == UserDefinedOpKind && args.length == 0) {
+				final ExprNode body = ((OpDefNode) opNode).getBody();
+				if (body instanceof OpApplNode && BuiltInOPs
+						.getOpCode(((OpApplNode) body).getOperator().getName()) == OPCODE_rfs) {
+					// A recursive function is bound in the context while it is applied.
+					return new Parameter(opNode, fallback(expr, scope));
+				}
+			}
+			final Object val = this.tool.lookup(opNode, Context.Empty, false);
+			if (val instanceof OpDefNode) {
+				final OpDefNode def = (OpDefNode) val;
+				if (BuiltInOPs.getOpCode(def.getName()) != 0 || def.getArity() != args.length
+						|| def.getKind() != UserDefinedOpKind) {
+					return fallback(expr, scope);
+				}
+				for (int i = 0; i < args.length; i++) {
+					if (!(args[i] instanceof ExprNode)) {
+						return fallback(expr, scope);
+					}
+				}
+				if (local) {
+					pend(def.getBody(), def.getParams());
+				}
+				final Expr[] compiled = compile(args, scope);
+				final boolean[] eager = new boolean[args.length];
+				for (int i = 0; i < args.length; i++) {
+					// Arguments are evaluated lazily unless they are values.
+					eager[i] = compiled[i] instanceof Slot || compiled[i] instanceof Const;
+				}
+				return new Call(def, args, compiled, eager, Scope.toArray(scope), local);
+			} else if (val instanceof Value) {
+				if (args.length == 0) {
+					if (val instanceof MethodValue) {
+						return new Method((MethodValue) val);
+					}
+					return new Const((Value) val);
+				} else if (val instanceof OpValue) {
+					return new Operator((Applicable) val, compile(args, scope));
+				}
+			}
+			return fallback(expr, scope);
+		}
+		default:
+			return fallback(expr, scope);
+		}
+	}
+
+	private Bounds bounds(final OpApplNode expr, final Scope scope) {
+		final FormalParamNode[][] formals = expr.getBdedQuantSymbolLists();
+		final boolean[] isTuples = expr.isBdedQuantATuple();
+		final ExprNode[] domains = expr.getBdedQuantBounds();
+
+		final List<Integer> domainOf = new ArrayList<>();
+		final List<int[]> slotsOf = new ArrayList<>();
+		final List<FormalParamNode[]> varsOf = new ArrayList<>();
+		Scope inner = scope;
+		for (int i = 0; i < formals.length; i++) {
+			if (isTuples[i]) {
+				final int[] tuple = new int[formals[i].length];
+				for (int j = 0; j < tuple.length; j++) {
+					inner = new Scope(formals[i][j], this.slots++, null, null, false, inner);
+					tuple[j] = inner.slot;
+				}
+				domainOf.add(i);
+				slotsOf.add(tuple);
+				varsOf.add(formals[i]);
+			} else {
+				for (int j = 0; j < formals[i].length; j++) {
+					inner = new Scope(formals[i][j], this.slots++, null, null, false, inner);
+					domainOf.add(i);
+					slotsOf.add(new int[] { inner.slot });
+					varsOf.add(null);
+				}
+			}
+		}
+		final int[] domainIdx = new int[domainOf.size()];
+		for (int i = 0; i < domainIdx.length; i++) {
+			domainIdx[i] = domainOf.get(i);
+		}
+		return new Bounds(compile(domains, scope), domainIdx, slotsOf.toArray(new int[slotsOf.size()][]),
+				varsOf.toArray(new FormalParamNode[varsOf.size()][]), inner);
+	}
+
+	private static Expr fallback(final SemanticNode expr, final Scope scope) {
+		return new Fallback(expr, Scope.toArray(scope));
+	}
+
+	/**
+	 * @return true iff the given object, which has been looked up in a context or
+	 *         a tool object, is its own value.
+	 */
+	private static boolean isPlain(final Object val) {
+		return val instanceof Value && !(val instanceof LazyValue) && !(val instanceof MethodValue);
+	}
+
+	/* Scopes and frames */
+
+	/**
+	 * An identifier bound in a slot of a root.
+	 */
+	private static final class Scope {
+		final SymbolNode name;
+		final int slot;
+		/**
+		 * The LET definition or null.
+		 */
+		final OpDefNode let;
+		/**
+		 * The compiled body of the LET definition or null.
+		 */
+		final Expr def;
+		/**
+		 * True iff the identifier is a formal parameter of the root.
+		 */
+		final boolean param;
+		final Scope next;
+
+		Scope(final SymbolNode name, final int slot, final OpDefNode let, final Expr def, final boolean param,
+				final Scope next) {
+			this.name = name;
+			this.slot = slot;
+			this.let = let;
+			this.def = def;
+			this.param = param;
+			this.next = next;
+		}
+
+		static Scope find(Scope scope, final SymbolNode name) {
+			while (scope != null) {
+				if (scope.name == name) {
+					return scope;
+				}
+				scope = scope.next;
+			}
+			return null;
+		}
+
+		/**
+		 * @return The identifiers in the given scope, outermost first.
+		 */
+		static Scope[] toArray(final Scope scope) {
+			int len = 0;
+			for (Scope s = scope; s != null; s = s.next) {
+				len++;
+			}
+			final Scope[] res = new Scope[len];
+			for (Scope s = scope; s != null; s = s.next) {
+				res[--len] = s;
+			}
+			return res;
+		}
+	}
+
+	/**
+	 * The state of a single evaluation of a {@link Root}.
+	 */
+	static final class Frame {
+		final Tool tool;
+		/**
+		 * The context in which the root is evaluated.
+		 */
+		final Context con;
+		final Value[] slots;
+
+		Frame(final Tool tool, final Context con, final Value[] slots) {
+			this.tool = tool;
+			this.con = con;
+			this.slots = slots;
+		}
+
+		/**
+		 * @return The context of the given identifiers in scope, in which the
+		 *         interpreter evaluates a (sub-)expression.
+		 */
+		Context context(final Scope[] scope) {
+			Context c = this.con;
+			for (int i = 0; i < scope.length; i++) {
+				final Value val = this.slots[scope[i].slot];
+				if (val == null && scope[i].param) {
+					// Bound to something other than a value in this.con (see Root#eval).
+					continue;
+				} else if (val == null) {
+					// A LET definition that has not been evaluated yet (see LetRef).
+					c = c.cons(scope[i].name, new LazyValue(scope[i].let.getBody(), c, CostModel.DO_NOT_RECORD));
+				} else {
+					c = c.cons(scope[i].name, val);
+				}
+			}
+			return c;
+		}
+	}
+
+	static final class Root {
+		private final Expr expr;
+		private final int slots;
+		/**
+		 * The formal parameters, which occupy the first slots.
+		 */
+		private final SymbolNode[] params;
+
+		Root(final Expr expr, final int slots, final SymbolNode[] params) {
+			this.expr = expr;
+			this.slots = slots;
+			this.params = params;
+		}
+
+		/**
+		 * Evaluates this root in a context that binds its formal parameters.
+		 */
+		Value eval(final Tool tool, final Context c, final TLCState s0, final TLCState s1, final int control) {
+			final Value[] slots = this.slots == 0 ? NoSlots : new Value[this.slots];
+			for (int i = 0; i < this.params.length; i++) {
+				final Object val = c.lookup(this.params[i]);
+				if (val instanceof Value) {
+					slots[i] = (Value) val;
+				}
+			}
+			return this.expr.eval(new Frame(tool, c, slots), s0, s1, control);
+		}
+
+		/**
+		 * @return true iff the given formal parameters are the ones of this root.
+		 */
+		boolean hasParams(final SymbolNode[] params) {
+			return this.params == params;
+		}
+
+		/**
+		 * @return The slots of a frame of this root.
+		 */
+		Value[] newSlots() {
+			return this.slots == 0 ? NoSlots : new Value[this.slots];
+		}
+
+		/**
+		 * Evaluates this root with the values of its formal parameters in the
+		 * first of the given slots (see newSlots).
+		 */
+		Value apply(final Tool tool, final Context c, final Value[] slots, final TLCState s0, final TLCState s1,
+				final int control) {
+			return this.expr.eval(new Frame(tool, c, slots), s0, s1, control);
+		}
+	}
+
+	/* Compiled expressions */
+
+	static abstract class Expr {
+		abstract Value eval(Frame f, TLCState s0, TLCState s1, int control);
+	}
+
+	/**
+	 * Evaluates an expression with the interpreter.
+	 */
+	private static final class Fallback extends Expr {
+		private final SemanticNode expr;
+		private final Scope[] scope;
+
+		Fallback(final SemanticNode expr, final Scope[] scope) {
+			this.expr = expr;
+			this.scope = scope;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			return f.tool.evalImpl(this.expr, f.context(this.scope), s0, s1, control, CostModel.DO_NOT_RECORD);
+		}
+	}
+
+	private static final class Const extends Expr {
+		private final Value val;
+
+		Const(final Value val) {
+			this.val = val;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			return this.val;
+		}
+	}
+
+	private static final class Method extends Expr {
+		private final MethodValue val;
+
+		Method(final MethodValue val) {
+			this.val = val;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			return this.val.apply(Tool.EmptyArgs, EvalControl.Clear);
+		}
+	}
+
+	private static final class Slot extends Expr {
+		private final int slot;
+
+		Slot(final int slot) {
+			this.slot = slot;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			return f.slots[this.slot];
+		}
+	}
+
+	/**
+	 * A formal parameter of the root, whose value is a LazyValue if the
+	 * argument is evaluated lazily. A LazyValue is evaluated and cached under
+	 * the same conditions as by the interpreter (see Tool#evalAppl).
+	 */
+	private static final class ParamRef extends Expr {
+		private final int slot;
+		private final Expr fallback;
+
+		ParamRef(final int slot, final Expr fallback) {
+			this.slot = slot;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value val = f.slots[this.slot];
+			if (val instanceof LazyValue) {
+				final LazyValue lv = (LazyValue) val;
+				Value res;
+				if (s1 == null) {
+					res = f.tool.eval(lv.expr, lv.con, s0, null, control, lv.getCostModel());
+				} else if (lv.isUncachable()) {
+					res = f.tool.eval(lv.expr, lv.con, s0, s1, control, lv.getCostModel());
+				} else {
+					res = lv.getValue();
+					if (res == null) {
+						res = f.tool.eval(lv.expr, lv.con, s0, s1, control, lv.getCostModel());
+						final int level = ((LevelNode) lv.expr).getLevel();
+						if ((EvalControl.isInit(control) && level <= LevelConstants.ConstantLevel)
+								|| (!EvalControl.isInit(control) && level <= LevelConstants.VariableLevel)) {
+							lv.setValue(res);
+						}
+					}
+				}
+				if (res instanceof MethodValue) {
+					return ((MethodValue) res).apply(Tool.EmptyArgs, EvalControl.Clear);
+				}
+				return res;
+			} else if (val == null || val instanceof MethodValue) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return val;
+		}
+	}
+
+	/**
+	 * An identifier bound outside of the root.
+	 */
+	private static final class Parameter extends Expr {
+		private final SymbolNode name;
+		private final Expr fallback;
+
+		Parameter(final SymbolNode name, final Expr fallback) {
+			this.name = name;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Object val = f.con.lookup(this.name);
+			if (isPlain(val)) {
+				return (Value) val;
+			}
+			return this.fallback.eval(f, s0, s1, control);
+		}
+	}
+
+	private static final class Variable extends Expr {
+		private final SymbolNode var;
+		private final UniqueString name;
+		private final Expr fallback;
+
+		Variable(final SymbolNode var, final Expr fallback) {
+			this.var = var;
+			this.name = var.getName();
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			// A variable of an instantiated module is bound in the context.
+			if (f.con != Context.Empty && f.con.lookup(this.var) != null) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			final IValue val = s0.lookup(this.name);
+			if (val == null) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return (Value) val;
+		}
+	}
+
+	private static final class Constant extends Expr {
+		private final SymbolNode con;
+		private final Value val;
+		private final Expr fallback;
+
+		Constant(final SymbolNode con, final Value val, final Expr fallback) {
+			this.con = con;
+			this.val = val;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			// A constant of an instantiated module is bound in the context.
+			if (f.con != Context.Empty && f.con.lookup(this.con) != null) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return this.val;
+		}
+	}
+
+	private static final class Let extends Expr {
+		private final int[] slots;
+		private final Expr body;
+
+		Let(final int[] slots, final Expr body) {
+			this.slots = slots;
+			this.body = body;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			for (int i = 0; i < this.slots.length; i++) {
+				f.slots[this.slots[i]] = null;
+			}
+			return this.body.eval(f, s0, s1, control);
+		}
+	}
+
+	/**
+	 * A (zero-arity) LET definition, which is evaluated when it is first
+	 * referenced. Its value is cached under the same conditions under which the
+	 * interpreter caches a LazyValue (see Tool#evalAppl).
+	 */
+	private static final class LetRef extends Expr {
+		private final int slot;
+		private final Expr def;
+		private final int level;
+
+		LetRef(final int slot, final Expr def, final int level) {
+			this.slot = slot;
+			this.def = def;
+			this.level = level;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			if (s1 == null) {
+				return this.def.eval(f, s0, s1, control);
+			}
+			Value val = f.slots[this.slot];
+			if (val == null) {
+				val = this.def.eval(f, s0, s1, control);
+				if ((EvalControl.isInit(control) && this.level <= LevelConstants.ConstantLevel)
+						|| (!EvalControl.isInit(control) && this.level <= LevelConstants.VariableLevel)) {
+					f.slots[this.slot] = val;
+				}
+			}
+			return val;
+		}
+	}
+
+	/**
+	 * The application of a user-defined operator. If its body has been compiled
+	 * with its formal parameters, the arguments are passed in the slots of the
+	 * body's frame. Otherwise, the body is evaluated by Tool#eval in a context
+	 * that binds the formal parameters.
+	 */
+	private static final class Call extends Expr {
+		private final OpDefNode def;
+		private final FormalParamNode[] formals;
+		private final ExprOrOpArgNode[] argNodes;
+		private final Expr[] args;
+		private final boolean[] eager;
+		private final Scope[] scope;
+		/**
+		 * True iff the operator is a LET definition, whose body is evaluated in the
+		 * context of the application.
+		 */
+		private final boolean local;
+
+		Call(final OpDefNode def, final ExprOrOpArgNode[] argNodes, final Expr[] args, final boolean[] eager,
+				final Scope[] scope, final boolean local) {
+			this.def = def;
+			this.formals = def.getParams();
+			this.argNodes = argNodes;
+			this.args = args;
+			this.eager = eager;
+			this.scope = scope;
+			this.local = local;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			Context lazy = this.local ? f.context(this.scope) : null;
+			final Root body = getCompiled(this.def.getBody());
+			if (body != null && body.hasParams(this.formals)) {
+				final Value[] slots = body.newSlots();
+				for (int i = 0; i < this.args.length; i++) {
+					if (this.eager[i]) {
+						slots[i] = this.args[i].eval(f, s0, s1, control);
+					} else {
+						if (lazy == null) {
+							lazy = f.context(this.scope);
+						}
+						slots[i] = new LazyValue(this.argNodes[i], lazy, true, CostModel.DO_NOT_RECORD);
+					}
+				}
+				return body.apply(f.tool, this.local ? lazy : f.con, slots, s0, s1, control);
+			}
+			Context c1 = this.local ? lazy : f.con;
+			for (int i = 0; i < this.args.length; i++) {
+				if (this.eager[i]) {
+					c1 = c1.cons(this.formals[i], this.args[i].eval(f, s0, s1, control));
+				} else {
+					if (lazy == null) {
+						lazy = f.context(this.scope);
+					}
+					c1 = c1.cons(this.formals[i], new LazyValue(this.argNodes[i], lazy, true, CostModel.DO_NOT_RECORD));
+				}
+			}
+			return f.tool.eval(this.def.getBody(), c1, s0, s1, control, CostModel.DO_NOT_RECORD);
+		}
+	}
+
+	/**
+	 * The application of an operator implemented by a value (e.g. overridden by
+	 * Java), whose arguments are evaluated eagerly.
+	 */
+	private static final class Operator extends Expr {
+		private final Applicable op;
+		private final Expr[] args;
+
+		Operator(final Applicable op, final Expr[] args) {
+			this.op = op;
+			this.args = args;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value[] argVals = new Value[this.args.length];
+			for (int i = 0; i < argVals.length; i++) {
+				argVals[i] = this.args[i].eval(f, s0, s1, control);
+			}
+			return this.op.apply(argVals, control);
+		}
+	}
+
+	private static final class And extends Expr {
+		private final Expr[] args;
+		private final Expr fallback;
+
+		And(final Expr[] args, final Expr fallback) {
+			this.args = args;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			for (int i = 0; i < this.args.length; i++) {
+				final Value bval = this.args[i].eval(f, s0, s1, control);
+				if (!(bval instanceof BoolValue)) {
+					return this.fallback.eval(f, s0, s1, control);
+				}
+				if (!((BoolValue) bval).val) {
+					return BoolValue.ValFalse;
+				}
+			}
+			return BoolValue.ValTrue;
+		}
+	}
+
+	private static final class Or extends Expr {
+		private final Expr[] args;
+		private final Expr fallback;
+
+		Or(final Expr[] args, final Expr fallback) {
+			this.args = args;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			for (int i = 0; i < this.args.length; i++) {
+				final Value bval = this.args[i].eval(f, s0, s1, control);
+				if (!(bval instanceof BoolValue)) {
+					return this.fallback.eval(f, s0, s1, control);
+				}
+				if (((BoolValue) bval).val) {
+					return BoolValue.ValTrue;
+				}
+			}
+			return BoolValue.ValFalse;
+		}
+	}
+
+	private static final class Implies extends Expr {
+		private final Expr lhs, rhs;
+		private final Expr fallback;
+
+		Implies(final Expr lhs, final Expr rhs, final Expr fallback) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value bval = this.lhs.eval(f, s0, s1, control);
+			if (!(bval instanceof BoolValue)) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			if (!((BoolValue) bval).val) {
+				return BoolValue.ValTrue;
+			}
+			final Value res = this.rhs.eval(f, s0, s1, control);
+			if (!(res instanceof BoolValue)) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return res;
+		}
+	}
+
+	private static final class Equiv extends Expr {
+		private final Expr lhs, rhs;
+		private final Expr fallback;
+
+		Equiv(final Expr lhs, final Expr rhs, final Expr fallback) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value arg1 = this.lhs.eval(f, s0, s1, control);
+			final Value arg2 = this.rhs.eval(f, s0, s1, control);
+			if (!(arg1 instanceof BoolValue) || !(arg2 instanceof BoolValue)) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return ((BoolValue) arg1).val == ((BoolValue) arg2).val ? BoolValue.ValTrue : BoolValue.ValFalse;
+		}
+	}
+
+	private static final class Not extends Expr {
+		private final Expr arg;
+		private final Expr fallback;
+
+		Not(final Expr arg, final Expr fallback) {
+			this.arg = arg;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value bval = this.arg.eval(f, s0, s1, control);
+			if (!(bval instanceof BoolValue)) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return ((BoolValue) bval).val ? BoolValue.ValFalse : BoolValue.ValTrue;
+		}
+	}
+
+	private static final class Eq extends Expr {
+		private final Expr lhs, rhs;
+		private final boolean eq;
+
+		Eq(final Expr lhs, final Expr rhs, final boolean eq) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+			this.eq = eq;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value arg1 = this.lhs.eval(f, s0, s1, control);
+			final Value arg2 = this.rhs.eval(f, s0, s1, control);
+			return arg1.equals(arg2) == this.eq ? BoolValue.ValTrue : BoolValue.ValFalse;
+		}
+	}
+
+	private static final class In extends Expr {
+		private final Expr elem, set;
+		private final boolean in;
+
+		In(final Expr elem, final Expr set, final boolean in) {
+			this.elem = elem;
+			this.set = set;
+			this.in = in;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value arg1 = this.elem.eval(f, s0, s1, control);
+			final Value arg2 = this.set.eval(f, s0, s1, control);
+			return arg2.member(arg1) == this.in ? BoolValue.ValTrue : BoolValue.ValFalse;
+		}
+	}
+
+	private static final class SubsetEq extends Expr {
+		private final Expr lhs, rhs;
+		private final Expr fallback;
+
+		SubsetEq(final Expr lhs, final Expr rhs, final Expr fallback) {
+			this.lhs = lhs;
+			this.rhs = rhs;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value arg1 = this.lhs.eval(f, s0, s1, control);
+			final Value arg2 = this.rhs.eval(f, s0, s1, control);
+			if (!(arg1 instanceof Enumerable)) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return ((Enumerable) arg1).isSubsetEq(arg2);
+		}
+	}
+
+	private static final class Ite extends Expr {
+		private final Expr cond, then, otherwise;
+		private final Expr fallback;
+
+		Ite(final Expr cond, final Expr then, final Expr otherwise, final Expr fallback) {
+			this.cond = cond;
+			this.then = then;
+			this.otherwise = otherwise;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value bval = this.cond.eval(f, s0, s1, control);
+			if (!(bval instanceof BoolValue)) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			if (((BoolValue) bval).val) {
+				return this.then.eval(f, s0, s1, control);
+			}
+			return this.otherwise.eval(f, s0, s1, control);
+		}
+	}
+
+	private static final class Case extends Expr {
+		private final Expr[] guards, arms;
+		private final Expr other;
+		private final Expr fallback;
+
+		Case(final Expr[] guards, final Expr[] arms, final Expr other, final Expr fallback) {
+			this.guards = guards;
+			this.arms = arms;
+			this.other = other;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			for (int i = 0; i < this.guards.length; i++) {
+				final Value bval = this.guards[i].eval(f, s0, s1, control);
+				if (!(bval instanceof BoolValue)) {
+					return this.fallback.eval(f, s0, s1, control);
+				}
+				if (((BoolValue) bval).val) {
+					return this.arms[i].eval(f, s0, s1, control);
+				}
+			}
+			if (this.other == null) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			return this.other.eval(f, s0, s1, control);
+		}
+	}
+
+	/**
+	 * The bound identifiers of a quantifier or set constructor. Like
+	 * Tool#contexts, there is one enumeration per identifier (or tuple of
+	 * identifiers) and all domains are evaluated up front.
+	 */
+	private static final class Bounds {
+		private final Expr[] domains;
+		/**
+		 * The index of the domain of each enumeration.
+		 */
+		private final int[] domainOf;
+		/**
+		 * The slots of each enumeration: One slot per identifier or tuple element.
+		 */
+		private final int[][] slots;
+		/**
+		 * The identifiers of the tuple of each enumeration or null.
+		 */
+		private final FormalParamNode[][] tuples;
+		/**
+		 * The scope of the body.
+		 */
+		private final Scope scope;
+
+		Bounds(final Expr[] domains, final int[] domainOf, final int[][] slots, final FormalParamNode[][] tuples,
+				final Scope scope) {
+			this.domains = domains;
+			this.domainOf = domainOf;
+			this.slots = slots;
+			this.tuples = tuples;
+			this.scope = scope;
+		}
+
+		/**
+		 * @return The enumerations or null if a domain is not enumerable.
+		 */
+		ValueEnumeration[] elements(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value[] dvals = new Value[this.domains.length];
+			for (int i = 0; i < dvals.length; i++) {
+				dvals[i] = this.domains[i].eval(f, s0, s1, control);
+				if (!(dvals[i] instanceof Enumerable)) {
+					return null;
+				}
+			}
+			final ValueEnumeration[] enums = new ValueEnumeration[this.domainOf.length];
+			for (int i = 0; i < enums.length; i++) {
+				enums[i] = ((Enumerable) dvals[this.domainOf[i]]).elements();
+			}
+			return enums;
+		}
+
+		void bind(final Frame f, final int i, final Value elem) {
+			if (this.tuples[i] == null) {
+				f.slots[this.slots[i][0]] = elem;
+				return;
+			}
+			if (!(elem instanceof TupleValue)) {
+				Assert.fail(EC.TLC_ARGUMENT_MISMATCH, this.tuples[i][0].toString());
+			}
+			final Value[] elems = ((TupleValue) elem).elems;
+			if (elems.length != this.slots[i].length) {
+				Assert.fail(EC.TLC_ARGUMENT_MISMATCH, this.tuples[i][0].toString());
+			}
+			for (int j = 0; j < elems.length; j++) {
+				f.slots[this.slots[i][j]] = elems[j];
+			}
+		}
+	}
+
+	/**
+	 * Binds the combinations of the elements of the enumerations in the same
+	 * order as ContextEnumerator does: The first enumeration varies fastest.
+	 */
+	private static final class Binder {
+		private final Bounds bounds;
+		private final ValueEnumeration[] enums;
+		private final Value[] elems;
+		private boolean isDone;
+
+		Binder(final Bounds bounds, final ValueEnumeration[] enums) {
+			this.bounds = bounds;
+			this.enums = enums;
+			this.elems = new Value[enums.length];
+			for (int i = 0; i < enums.length; i++) {
+				this.elems[i] = enums[i].nextElement();
+				if (this.elems[i] == null) {
+					this.isDone = true;
+					break;
+				}
+			}
+		}
+
+		/**
+		 * @return false iff all combinations have been bound.
+		 */
+		boolean next(final Frame f) {
+			if (this.isDone) {
+				return false;
+			}
+			for (int i = 0; i < this.elems.length; i++) {
+				this.bounds.bind(f, i, this.elems[i]);
+			}
+			for (int i = 0; i < this.enums.length; i++) {
+				this.elems[i] = this.enums[i].nextElement();
+				if (this.elems[i] != null) {
+					break;
+				}
+				if (i == this.enums.length - 1) {
+					this.isDone = true;
+					break;
+				}
+				this.enums[i].reset();
+				this.elems[i] = this.enums[i].nextElement();
+			}
+			return true;
+		}
+	}
+
+	private static final class Quantifier extends Expr {
+		private final Bounds bounds;
+		private final Expr body;
+		private final boolean forall;
+		private final Expr fallback;
+
+		Quantifier(final Bounds bounds, final Expr body, final boolean forall, final Expr fallback) {
+			this.bounds = bounds;
+			this.body = body;
+			this.forall = forall;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final ValueEnumeration[] enums = this.bounds.elements(f, s0, s1, control);
+			if (enums == null) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			final Binder binder = new Binder(this.bounds, enums);
+			while (binder.next(f)) {
+				final Value bval = this.body.eval(f, s0, s1, control);
+				if (!(bval instanceof BoolValue)) {
+					return this.fallback.eval(f, s0, s1, control);
+				}
+				if (((BoolValue) bval).val != this.forall) {
+					return this.forall ? BoolValue.ValFalse : BoolValue.ValTrue;
+				}
+			}
+			return this.forall ? BoolValue.ValTrue : BoolValue.ValFalse;
+		}
+	}
+
+	private static final class SetOfAll extends Expr {
+		private final Bounds bounds;
+		private final Expr body;
+		private final Expr fallback;
+
+		SetOfAll(final Bounds bounds, final Expr body, final Expr fallback) {
+			this.bounds = bounds;
+			this.body = body;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final ValueEnumeration[] enums = this.bounds.elements(f, s0, s1, control);
+			if (enums == null) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			final ValueVec vals = new ValueVec();
+			final Binder binder = new Binder(this.bounds, enums);
+			while (binder.next(f)) {
+				vals.addElement(this.body.eval(f, s0, s1, control));
+			}
+			return new SetEnumValue(vals, false, CostModel.DO_NOT_RECORD);
+		}
+	}
+
+	private static final class Choose extends Expr {
+		private final Bounds bounds;
+		private final Expr pred;
+		private final Expr fallback;
+
+		Choose(final Bounds bounds, final Expr pred, final Expr fallback) {
+			this.bounds = bounds;
+			this.pred = pred;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value inVal = this.bounds.domains[0].eval(f, s0, s1, control);
+			if (!(inVal instanceof Enumerable)) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			// See Tool#evalAppl for why the elements are chosen in normalized order.
+			inVal.normalize();
+			final ValueEnumeration enumSet = ((Enumerable) inVal).elements(Enumerable.Ordering.NORMALIZED);
+			final int[] slots = this.bounds.slots[0];
+			Value val;
+			while ((val = enumSet.nextElement()) != null) {
+				if (this.bounds.tuples[0] == null) {
+					f.slots[slots[0]] = val;
+				} else {
+					final TupleValue tv = (TupleValue) val.toTuple();
+					if (tv == null || tv.size() != slots.length) {
+						return this.fallback.eval(f, s0, s1, control);
+					}
+					for (int i = 0; i < slots.length; i++) {
+						f.slots[slots[i]] = tv.elems[i];
+					}
+				}
+				final Value bval = this.pred.eval(f, s0, s1, control);
+				if (!(bval instanceof BoolValue)) {
+					return this.fallback.eval(f, s0, s1, control);
+				}
+				if (((BoolValue) bval).val) {
+					return val;
+				}
+			}
+			return this.fallback.eval(f, s0, s1, control);
+		}
+	}
+
+	private static final class SubsetOf extends Expr {
+		private final OpApplNode expr;
+		private final Bounds bounds;
+		private final Expr pred;
+		private final Scope[] scope;
+		private final Expr fallback;
+
+		SubsetOf(final OpApplNode expr, final Bounds bounds, final Expr pred, final Scope[] scope,
+				final Expr fallback) {
+			this.expr = expr;
+			this.bounds = bounds;
+			this.pred = pred;
+			this.scope = scope;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value inVal = this.bounds.domains[0].eval(f, s0, s1, control);
+			final FormalParamNode[] bvars = this.expr.getBdedQuantSymbolLists()[0];
+			final boolean isTuple = this.bounds.tuples[0] != null;
+			if (!(inVal instanceof Reducible)) {
+				final Context c = f.context(this.scope);
+				return new SetPredValue(isTuple ? bvars : bvars[0], inVal, this.expr.getArgs()[0], f.tool, c, s0, s1,
+						control, CostModel.DO_NOT_RECORD);
+			}
+			final int[] slots = this.bounds.slots[0];
+			final ValueVec vals = new ValueVec();
+			final ValueEnumeration enumSet = ((Enumerable) inVal).elements();
+			Value elem;
+			while ((elem = enumSet.nextElement()) != null) {
+				if (isTuple) {
+					if (!(elem instanceof TupleValue) || ((TupleValue) elem).elems.length < slots.length) {
+						return this.fallback.eval(f, s0, s1, control);
+					}
+					for (int i = 0; i < slots.length; i++) {
+						f.slots[slots[i]] = ((TupleValue) elem).elems[i];
+					}
+				} else {
+					f.slots[slots[0]] = elem;
+				}
+				final Value bval = this.pred.eval(f, s0, s1, control);
+				if (!(bval instanceof BoolValue)) {
+					return this.fallback.eval(f, s0, s1, control);
+				}
+				if (((BoolValue) bval).val) {
+					vals.addElement(elem);
+				}
+			}
+			return new SetEnumValue(vals, inVal.isNormalized(), CostModel.DO_NOT_RECORD);
+		}
+	}
+
+	/**
+	 * A function constructor. Like the interpreter, its body is evaluated by a
+	 * FcnLambdaValue.
+	 */
+	private static final class Function extends Expr {
+		private final OpApplNode expr;
+		private final Expr[] domains;
+		private final Scope[] scope;
+		private final SymbolNode recursive;
+
+		Function(final OpApplNode expr, final Expr[] domains, final Scope[] scope, final SymbolNode recursive) {
+			this.expr = expr;
+			this.domains = domains;
+			this.scope = scope;
+			this.recursive = recursive;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value[] dvals = new Value[this.domains.length];
+			boolean isFcnRcd = this.recursive == null;
+			for (int i = 0; i < dvals.length; i++) {
+				dvals[i] = this.domains[i].eval(f, s0, s1, control);
+				isFcnRcd = isFcnRcd && (dvals[i] instanceof Reducible);
+			}
+			final FcnParams params = new FcnParams(this.expr.getBdedQuantSymbolLists(),
+					this.expr.isBdedQuantATuple(), dvals);
+			final FcnLambdaValue fval = new FcnLambdaValue(params, this.expr.getArgs()[0], f.tool,
+					f.context(this.scope), s0, s1, control, CostModel.DO_NOT_RECORD);
+			if (this.recursive != null) {
+				fval.makeRecursive(this.recursive);
+			}
+			if (isFcnRcd && !EvalControl.isKeepLazy(control)) {
+				return fval.toFcnRcd();
+			}
+			return fval;
+		}
+	}
+
+	private static final class Apply extends Expr {
+		private final Expr fcn, arg;
+		private final int alen;
+		private final Expr fallback;
+
+		Apply(final Expr fcn, final Expr arg, final int alen, final Expr fallback) {
+			this.fcn = fcn;
+			this.arg = arg;
+			this.alen = alen;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value fval = this.fcn.eval(f, s0, s1, EvalControl.setKeepLazy(control));
+			if ((fval instanceof FcnRcdValue) || (fval instanceof FcnLambdaValue)) {
+				return ((Applicable) fval).apply(this.arg.eval(f, s0, s1, control), control);
+			} else if (((fval instanceof TupleValue) || (fval instanceof RecordValue)) && this.alen == 2) {
+				return ((Applicable) fval).apply(this.arg.eval(f, s0, s1, control), control);
+			}
+			return this.fallback.eval(f, s0, s1, control);
+		}
+	}
+
+	private static final class Select extends Expr {
+		private final Expr rcd;
+		private final Value field;
+		private final Expr fallback;
+
+		Select(final Expr rcd, final Value field, final Expr fallback) {
+			this.rcd = rcd;
+			this.field = field;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value rval = this.rcd.eval(f, s0, s1, control);
+			if (rval instanceof RecordValue) {
+				final Value result = ((RecordValue) rval).select(this.field);
+				if (result != null) {
+					return result;
+				}
+			} else {
+				final FcnRcdValue fcn = (FcnRcdValue) rval.toFcnRcd();
+				if (fcn != null) {
+					return fcn.apply(this.field, control);
+				}
+			}
+			return this.fallback.eval(f, s0, s1, control);
+		}
+	}
+
+	private static final class Record extends Expr {
+		private final UniqueString[] names;
+		private final Expr[] vals;
+		private final boolean isSet;
+
+		Record(final UniqueString[] names, final Expr[] vals, final boolean isSet) {
+			this.names = names;
+			this.vals = vals;
+			this.isSet = isSet;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value[] values = new Value[this.vals.length];
+			for (int i = 0; i < values.length; i++) {
+				values[i] = this.vals[i].eval(f, s0, s1, control);
+			}
+			// The names get sorted (normalized) along with the values.
+			if (this.isSet) {
+				return new SetOfRcdsValue(this.names.clone(), values, false, CostModel.DO_NOT_RECORD);
+			}
+			return new RecordValue(this.names.clone(), values, false, CostModel.DO_NOT_RECORD);
+		}
+	}
+
+	private static final class Except extends Expr {
+		private final Expr fcn;
+		private final Expr[][] paths;
+		private final Expr[] rhs;
+		/**
+		 * The slot of @.
+		 */
+		private final int at;
+		private final SemanticNode fcnNode;
+
+		Except(final Expr fcn, final Expr[][] paths, final Expr[] rhs, final int at, final SemanticNode fcnNode) {
+			this.fcn = fcn;
+			this.paths = paths;
+			this.rhs = rhs;
+			this.at = at;
+			this.fcnNode = fcnNode;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			Value result = this.fcn.eval(f, s0, s1, control);
+			for (int i = 0; i < this.paths.length; i++) {
+				final Value[] lhs = new Value[this.paths[i].length];
+				for (int j = 0; j < lhs.length; j++) {
+					lhs[j] = this.paths[i][j].eval(f, s0, s1, control);
+				}
+				final Value atVal = result.select(lhs);
+				if (atVal == null) {
+					// Do nothing but warn:
+					MP.printWarning(EC.TLC_EXCEPT_APPLIED_TO_UNKNOWN_FIELD, new String[] { this.fcnNode.toString() });
+				} else {
+					f.slots[this.at] = atVal;
+					final Value rval = this.rhs[i].eval(f, s0, s1, control);
+					result = result.takeExcept(new ValueExcept(lhs, rval));
+				}
+			}
+			return result;
+		}
+	}
+
+	private static final class Constructor extends Expr {
+		private final int opcode;
+		private final Expr[] args;
+
+		Constructor(final int opcode, final Expr[] args) {
+			this.opcode = opcode;
+			this.args = args;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value[] vals = new Value[this.args.length];
+			for (int i = 0; i < vals.length; i++) {
+				vals[i] = this.args[i].eval(f, s0, s1, control);
+			}
+			switch (this.opcode) {
+			case OPCODE_tup:
+				return new TupleValue(vals, CostModel.DO_NOT_RECORD);
+			case OPCODE_se:
+				return new SetEnumValue(vals, false, CostModel.DO_NOT_RECORD);
+			default: // OPCODE_cp
+				return new SetOfTuplesValue(vals, CostModel.DO_NOT_RECORD);
+			}
+		}
+	}
+
+	private static final class SetOp extends Expr {
+		private final int opcode;
+		private final Expr lhs, rhs;
+
+		SetOp(final int opcode, final Expr lhs, final Expr rhs) {
+			this.opcode = opcode;
+			this.lhs = lhs;
+			this.rhs = rhs;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value arg1 = this.lhs.eval(f, s0, s1, control);
+			final Value arg2 = this.rhs.eval(f, s0, s1, control);
+			switch (this.opcode) {
+			case OPCODE_sof:
+				return new SetOfFcnsValue(arg1, arg2, CostModel.DO_NOT_RECORD);
+			case OPCODE_cup:
+				if (arg1 instanceof Reducible) {
+					return ((Reducible) arg1).cup(arg2);
+				} else if (arg2 instanceof Reducible) {
+					return ((Reducible) arg2).cup(arg1);
+				}
+				return new SetCupValue(arg1, arg2, CostModel.DO_NOT_RECORD);
+			case OPCODE_cap:
+				if (arg1 instanceof Reducible) {
+					return ((Reducible) arg1).cap(arg2);
+				} else if (arg2 instanceof Reducible) {
+					return ((Reducible) arg2).cap(arg1);
+				}
+				return new SetCapValue(arg1, arg2);
+			default: // OPCODE_setdiff
+				if (arg1 instanceof Reducible) {
+					return ((Reducible) arg1).diff(arg2);
+				}
+				return new SetDiffValue(arg1, arg2);
+			}
+		}
+	}
+
+	private static final class UnaryOp extends Expr {
+		private final int opcode;
+		private final Expr arg;
+		private final Expr fallback;
+
+		UnaryOp(final int opcode, final Expr arg, final Expr fallback) {
+			this.opcode = opcode;
+			this.arg = arg;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			final Value val = this.arg.eval(f, s0, s1, control);
+			switch (this.opcode) {
+			case OPCODE_subset:
+				return new SubsetValue(val, CostModel.DO_NOT_RECORD);
+			case OPCODE_union:
+				return UnionValue.union(val);
+			default: // OPCODE_domain
+				if (!(val instanceof Applicable)) {
+					return this.fallback.eval(f, s0, s1, control);
+				}
+				return ((Applicable) val).getDomain();
+			}
+		}
+	}
+
+	private static final class Prime extends Expr {
+		private final Expr arg;
+		private final Expr fallback;
+
+		Prime(final Expr arg, final Expr fallback) {
+			this.arg = arg;
+			this.fallback = fallback;
+		}
+
+		@Override
+		Value eval(final Frame f, final TLCState s0, final TLCState s1, final int control) {
+			if (s1 == null) {
+				return this.fallback.eval(f, s0, s1, control);
+			}
+			// Without ENABLED, the control does not change (see isCompilable).
+			return this.arg.eval(f, s1, null, control);
+		}
+	}
+}
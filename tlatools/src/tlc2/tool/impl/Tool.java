@@ -27,6 +27,7 @@ import tla2sany.semantic.ThmOrAssumpDefNode;
 import tlc2.output.EC;
 import tlc2.output.MP;
 import tlc2.tool.Action;
+import tlc2.tool.ActionCache;
 import tlc2.tool.BuiltInOPs;
 import tlc2.tool.CallStack;
 import tlc2.tool.EvalControl;
@@ -105,6 +106,19 @@ public class Tool
 
   private Vect<Action> actionVec = new Vect<>(10);
 
+  /**
+   * Non-null iff the successors of actions get cached. Without coverage only,
+   * because the expressions of an action are not counted when its successors
+   * come from the cache.
+   */
+  private final ActionCache actionCache;
+
+  /**
+   * True iff expressions have been compiled (see ExprCompiler). Without
+   * coverage only, because compiled expressions are not counted.
+   */
+  private final boolean compiled;
+
   /**
    * Creates a new tool handle
    */
@@ -140,13 +154,25 @@ public class Tool
 				this.actions[i] = (Action) this.actionVec.elementAt(i);
 			}
 		}
+		this.actionCache = useActionCache() && !coverage ? new ActionCache(this) : null;
+		this.compiled = useCompiler() && !coverage && new ExprCompiler(this).compile() > 0;
   }
 
+	private static boolean useActionCache() {
+		return Boolean.getBoolean(Tool.class.getName() + ".actionCache");
+	}
+
+	private static boolean useCompiler() {
+		return Boolean.getBoolean(Tool.class.getName() + ".compile");
+	}
+
   Tool(Tool other) {
 	  super(other);
 	  this.actions = other.actions;
 	  this.callStack = other.callStack;
 	  this.actionVec = other.actionVec;
+	  this.actionCache = other.actionCache;
+	  this.compiled = other.compiled;
   }
 
 	@Override
@@ -783,16 +809,37 @@ public class Tool
    */
   @Override
 public final StateVec getNextStates(Action action, TLCState state) {
-    ActionItemList acts = ActionItemList.Empty;
-    TLCState s1 = TLCState.Empty.createEmpty();
     StateVec nss = new StateVec(0);
-    this.getNextStates(action.pred, acts, action.con, state, s1, nss, action.cm);
+    this.getNextStates(action, state, nss);
     if (coverage) { action.cm.incInvocations(nss.size()); }
     return nss;
   }
 
+  /**
+   * This method passes each next state of the given action in the given state
+   * to the functor as soon as it has been generated. Contrary to
+   * getNextStates(Action, TLCState), no intermediate StateVec is allocated.
+   * Coverage of the action's invocations is left to the caller who is the one
+   * to know how many states it has been given by the functor.
+   */
+  @Override
+  public final void getNextStates(final Action action, final TLCState state, final IStateFunctor functor) {
+    final ActionCache.Table table = this.actionCache != null && this.callStack == null ? this.actionCache.getTable(action) : null;
+    if (table == null) {
+      this.getNextStates(action.pred, ActionItemList.Empty, action.con, state, TLCState.Empty.createEmpty(), functor, action.cm);
+      return;
+    }
+    final long key = table.getKey(state);
+    if (table.replay(key, state, functor)) {
+      return;
+    }
+    final ActionCache.Table.Recorder recorder = table.record(key, functor);
+    this.getNextStates(action.pred, ActionItemList.Empty, action.con, state, TLCState.Empty.createEmpty(), recorder, action.cm);
+    recorder.commit();
+  }
+
   private final TLCState getNextStates(SemanticNode pred, ActionItemList acts, Context c,
-                                       TLCState s0, TLCState s1, StateVec nss, CostModel cm) {
+                                       TLCState s0, TLCState s1, IStateFunctor nss, CostModel cm) {
 	    if (this.callStack != null) {
 	    	return getNextStatesWithCallStack(pred, acts, c, s0, s1, nss, cm);
 	    } else {
@@ -801,7 +848,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
   
   private final TLCState getNextStatesWithCallStack(SemanticNode pred, ActionItemList acts, Context c,
-              TLCState s0, TLCState s1, StateVec nss, final CostModel cm) {
+              TLCState s0, TLCState s1, IStateFunctor nss, final CostModel cm) {
 	    this.callStack.push(pred);
 	    try {
 	    	return getNextStatesImpl(pred, acts, c, s0, s1, nss, cm);
@@ -815,7 +862,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
   
   private final TLCState getNextStatesImpl(SemanticNode pred, ActionItemList acts, Context c,
-              TLCState s0, TLCState s1, StateVec nss, CostModel cm) {
+              TLCState s0, TLCState s1, IStateFunctor nss, CostModel cm) {
         switch (pred.getKind()) {
         case OpApplKind:
           {
@@ -851,7 +898,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
     	return s1;
   }
 
-  private final TLCState getNextStatesImplSubstInKind(SubstInNode pred1, ActionItemList acts, Context c, TLCState s0, TLCState s1, StateVec nss, final CostModel cm) {
+  private final TLCState getNextStatesImplSubstInKind(SubstInNode pred1, ActionItemList acts, Context c, TLCState s0, TLCState s1, IStateFunctor nss, final CostModel cm) {
   	Subst[] subs = pred1.getSubsts();
   	int slen = subs.length;
   	Context c1 = c;
@@ -862,7 +909,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   	return this.getNextStates(pred1.getBody(), acts, c1, s0, s1, nss, cm);
   }
   
-  private final TLCState getNextStatesImplApSubstInKind(APSubstInNode pred1, ActionItemList acts, Context c, TLCState s0, TLCState s1, StateVec nss, final CostModel cm) {
+  private final TLCState getNextStatesImplApSubstInKind(APSubstInNode pred1, ActionItemList acts, Context c, TLCState s0, TLCState s1, IStateFunctor nss, final CostModel cm) {
   	Subst[] subs = pred1.getSubsts();
   	int slen = subs.length;
   	Context c1 = c;
@@ -874,7 +921,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
   
   private final TLCState getNextStates(ActionItemList acts, final TLCState s0, final TLCState s1,
-          final StateVec nss, CostModel cm) {
+          final IStateFunctor nss, CostModel cm) {
 	  final TLCState copy = getNextStates0(acts, s0, s1, nss, cm);
 	  if (coverage && copy != s1) {
 		  cm.incInvocations();
@@ -883,7 +930,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
 
   private final TLCState getNextStates0(ActionItemList acts, final TLCState s0, final TLCState s1,
-                                       final StateVec nss, CostModel cm) {
+                                       final IStateFunctor nss, CostModel cm) {
     if (acts.isEmpty()) {
       nss.addElement(s1);
       return s1.copy();
@@ -920,7 +967,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
   
   private final TLCState getNextStatesAllAssigned(ActionItemList acts, final TLCState s0, final TLCState s1,
-		  								final StateVec nss, final CostModel cm) {
+		  								final IStateFunctor nss, final CostModel cm) {
 	  int kind = acts.carKind();
 	  SemanticNode pred = acts.carPred();
 	  Context c = acts.carContext();
@@ -960,7 +1007,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   /* getNextStatesAppl */
 
   private final TLCState getNextStatesAppl(OpApplNode pred, ActionItemList acts, Context c,
-          TLCState s0, TLCState s1, StateVec nss, final CostModel cm) {
+          TLCState s0, TLCState s1, IStateFunctor nss, final CostModel cm) {
 	  if (this.callStack != null) {
 		  return getNextStatesApplWithCallStack(pred, acts, c, s0, s1, nss, cm);
 	  } else {
@@ -969,7 +1016,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
   
   private final TLCState getNextStatesApplWithCallStack(OpApplNode pred, ActionItemList acts, Context c,
-          TLCState s0, TLCState s1, StateVec nss, final CostModel cm) {
+          TLCState s0, TLCState s1, IStateFunctor nss, final CostModel cm) {
 	    this.callStack.push(pred);
 	    try {
 	    	return getNextStatesApplImpl(pred, acts, c, s0, s1, nss, cm);
@@ -983,7 +1030,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
 
   private final TLCState getNextStatesApplImpl(OpApplNode pred, ActionItemList acts, Context c,
-                                           TLCState s0, TLCState s1, StateVec nss, CostModel cm) {
+                                           TLCState s0, TLCState s1, IStateFunctor nss, CostModel cm) {
         ExprOrOpArgNode[] args = pred.getArgs();
         int alen = args.length;
         SymbolNode opNode = pred.getOperator();
@@ -1311,7 +1358,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   /* processUnchanged */
 
   private final TLCState processUnchanged(SemanticNode expr, ActionItemList acts, Context c,
-                                          TLCState s0, TLCState s1, StateVec nss, CostModel cm) {
+                                          TLCState s0, TLCState s1, IStateFunctor nss, CostModel cm) {
 	  if (this.callStack != null) {
 		  return processUnchangedWithCallStack(expr, acts, c, s0, s1, nss, cm);
 	  } else {
@@ -1319,7 +1366,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
 	  }
   }
   private final TLCState processUnchangedWithCallStack(SemanticNode expr, ActionItemList acts, Context c,
-          TLCState s0, TLCState s1, StateVec nss, CostModel cm) {
+          TLCState s0, TLCState s1, IStateFunctor nss, CostModel cm) {
 	   this.callStack.push(expr);
 	   try {
 		   return processUnchangedImpl(expr, acts, c, s0, s1, nss, cm);
@@ -1332,7 +1379,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
 	    }
   }
   private final TLCState processUnchangedImpl(SemanticNode expr, ActionItemList acts, Context c,
-          TLCState s0, TLCState s1, StateVec nss, CostModel cm) {
+          TLCState s0, TLCState s1, IStateFunctor nss, CostModel cm) {
     if (coverage){cm = cm.get(expr);}
         SymbolNode var = this.getVar(expr, c, false);
         TLCState resState = s1;
@@ -1367,7 +1414,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   }
 
   private final TLCState processUnchangedImpl0Arity(final SemanticNode expr, final ActionItemList acts,
-			final Context c, final TLCState s0, final TLCState s1, final StateVec nss, final CostModel cm,
+			final Context c, final TLCState s0, final TLCState s1, final IStateFunctor nss, final CostModel cm,
 			final SymbolNode opNode, final UniqueString opName) {
 		final Object val = this.lookup(opNode, c, false);
 	
@@ -1390,7 +1437,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
 	    return this.eval(expr, c, s0, TLCState.Empty, EvalControl.Clear, CostModel.DO_NOT_RECORD);
 	  }
 
-  private final TLCState processUnchangedImplTuple(ActionItemList acts, Context c, TLCState s0, TLCState s1, StateVec nss,
+  private final TLCState processUnchangedImplTuple(ActionItemList acts, Context c, TLCState s0, TLCState s1, IStateFunctor nss,
   		ExprOrOpArgNode[] args, int alen, CostModel cm, CostModel cmNested) {
   	// a tuple:
   	if (alen != 0) {
@@ -1403,7 +1450,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
   	return this.getNextStates(acts, s0, s1, nss, cm);
   }
   
-  private final TLCState processUnchangedImplVar(SemanticNode expr, ActionItemList acts, TLCState s0, TLCState s1, StateVec nss,
+  private final TLCState processUnchangedImplVar(SemanticNode expr, ActionItemList acts, TLCState s0, TLCState s1, IStateFunctor nss,
   		SymbolNode var, final CostModel cm) {
           TLCState resState = s1;
           // expr is a state variable:
@@ -1453,9 +1500,13 @@ public final StateVec getNextStates(Action action, TLCState state) {
                           TLCState s1, final int control, final CostModel cm) {
 	    if (this.callStack != null) {
 	    	return evalWithCallStack(expr, c, s0, s1, control, cm);
-	    } else {
-	    	return evalImpl(expr, c, s0, s1, control, cm);
+	    } else if (this.compiled && ExprCompiler.isCompilable(control)) {
+	    	final ExprCompiler.Root root = ExprCompiler.getCompiled(expr);
+	    	if (root != null) {
+	    		return root.eval(this, c, s0, s1, control);
+	    	}
 	    }
+	    return evalImpl(expr, c, s0, s1, control, cm);
   }
   private final Value evalWithCallStack(SemanticNode expr, Context c, TLCState s0,
           TLCState s1, final int control, final CostModel cm) {
@@ -1471,7 +1522,7 @@ public final StateVec getNextStates(Action action, TLCState state) {
 	    }
   }
   
-  private final Value evalImpl(final SemanticNode expr, final Context c, final TLCState s0,
+  final Value evalImpl(final SemanticNode expr, final Context c, final TLCState s0,
           final TLCState s1, final int control, CostModel cm) {
         switch (expr.getKind()) {
         /***********************************************************************
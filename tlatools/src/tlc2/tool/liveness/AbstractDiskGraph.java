@@ -16,6 +16,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import tlc2.output.EC;
 import tlc2.output.MP;
@@ -72,6 +73,29 @@ public abstract class AbstractDiskGraph {
 	/* Links are from MAX_PTR and MAX_LINK. */
 	public static final long MAX_LINK = 0x7FFFFFFFFFFFFFFFL;
 
+	/*
+	 * The link of a closed node: The node and all nodes reachable from it are
+	 * done, and their SCCs have been checked by a previous liveness check (see
+	 * LiveWorker's incremental mode). Neither the node nor a node reachable
+	 * from it gets another transition, thus SCC search skips closed nodes.
+	 */
+	public static final long CLOSED_LINK = MAX_LINK - 1L;
+
+	/**
+	 * Iff true, the nodes file is mapped into memory while the in-memory cache
+	 * exists (see {@link #createCache()}), and nodes get read from the mapping
+	 * instead of the file. Off by default because a mapped file cannot be
+	 * truncated (see {@link #reset()}) on Windows.
+	 */
+	static final boolean MAP_NODES = Boolean.getBoolean(AbstractDiskGraph.class.getName() + ".mmap");
+
+	/**
+	 * Iff true, the node-pointer table of a graph is kept in direct (off-heap)
+	 * memory (see {@link OffHeapNodePtrTable} and
+	 * {@link OffHeapTableauNodePtrTable}) instead of on the Java heap.
+	 */
+	static final boolean OFF_HEAP = Boolean.getBoolean(AbstractDiskGraph.class.getName() + ".offHeap");
+
 	public static boolean isFilePointer(long loc) {
 		// TODO Does not check >= 0 and thus accepts TableauDiskGraph.UNDONE as
 		// ptr.
@@ -80,6 +104,7 @@ public abstract class AbstractDiskGraph {
 
 	private final String chkptName;
 	protected final String metadir;
+	private final String fnameForNodes;
 	/**
 	 * @see tlatools/test/tlc2/tool/liveness/AbstractDiskGraph.JPG
 	 */
@@ -90,17 +115,29 @@ public abstract class AbstractDiskGraph {
 	 * In-memory cache
 	 */
 	protected GraphNode[] gnodes;
+	/**
+	 * Mapped view of the nodes file (see {@link #MAP_NODES}), which exists
+	 * as long as the in-memory cache.
+	 */
+	private MappedGraphNodes mappedNodes;
 
 	private final IBucketStatistics outDegreeGraphStats;
 
 	private long sizeAtCheck = 1; // initialize with 1 to avoid div by zero
 
+	/**
+	 * The number of back-level edges that have been added to this graph (see
+	 * LiveCheck#doLiveCheck()), and the number at the time of the last check.
+	 */
+	private final LongAdder backLevelEdges = new LongAdder();
+	private volatile long backLevelEdgesAtCheck = 0L;
+
 	public AbstractDiskGraph(String metadir, int soln, IBucketStatistics graphStats) throws IOException {
 		this.metadir = metadir;
 		this.outDegreeGraphStats = graphStats;
 		this.chkptName = metadir + FileUtil.separator + "dgraph_" + soln;
-		String fnameForNodes = metadir + FileUtil.separator + "nodes_" + soln;
-		this.nodeRAF = new BufferedRandomAccessFile(fnameForNodes, "rw");
+		this.fnameForNodes = metadir + FileUtil.separator + "nodes_" + soln;
+		this.nodeRAF = new BufferedRandomAccessFile(this.fnameForNodes, "rw");
 		String fnameForPtrs = metadir + FileUtil.separator + "ptrs_" + soln;
 		this.nodePtrRAF = new BufferedRandomAccessFile(fnameForPtrs, "rw");
 		this.initNodes = new LongVec(1);
@@ -127,6 +164,16 @@ public abstract class AbstractDiskGraph {
 		// approximate the required memory by taking the size of the on-disk
 		// files into account, but think of hash collisions!
 		this.gnodes = new GraphNode[65536];
+		if (MAP_NODES) {
+			try {
+				// The view does not see what is still in nodeRAF's buffer.
+				this.nodeRAF.flush();
+				this.mappedNodes = new MappedGraphNodes(this.fnameForNodes);
+			} catch (IOException e) {
+				// Read nodes from the file instead (e.g. address space exhausted).
+				this.mappedNodes = null;
+			}
+		}
 	}
 
 	/**
@@ -138,14 +185,30 @@ public abstract class AbstractDiskGraph {
 	 */
 	public final void destroyCache() {
 		this.gnodes = null;
+		this.mappedNodes = null;
+	}
+
+	/**
+	 * @return The mapped view of the nodes file or null if the nodes file is
+	 *         not mapped (see {@link #MAP_NODES}).
+	 */
+	final MappedGraphNodes getMappedNodes() {
+		return this.mappedNodes;
 	}
 
 	/* Close the disk files. */
 	public final void close() throws IOException {
 		this.nodeRAF.close();
 		this.nodePtrRAF.close();
+		this.freeNodePtrTbl();
 	}
 
+	/**
+	 * Releases the memory of the table of node pointers, which is not left to
+	 * the garbage collector if it is off-heap (see {@link #OFF_HEAP}).
+	 */
+	protected abstract void freeNodePtrTbl();
+
 	/**
 	 * Add the given graph node into this graph. Return the location of this
 	 * node in the node file.
@@ -238,6 +301,11 @@ public abstract class AbstractDiskGraph {
 			throw new IllegalArgumentException("Invalid negative file pointer: " + ptr);
 		}
 
+		final MappedGraphNodes mapped = this.mappedNodes;
+		if (mapped != null && mapped.contains(ptr)) {
+			return mapped.read(stateFP, tidx, ptr);
+		}
+
 		// Have to get the node from disk:
 		long curPtr = this.nodeRAF.getFilePointer();
 		this.nodeRAF.seek(ptr);
@@ -249,13 +317,52 @@ public abstract class AbstractDiskGraph {
 		return gnode1;
 	}
 
+	/**
+	 * @return A new read-only {@link BufferedRandomAccessFile} of the nodes
+	 *         file. Contrary to the nodeRAF of this graph, each reader can be
+	 *         used by another thread to read nodes concurrently (see
+	 *         {@link #getNodeFromDisk(BufferedRandomAccessFile, long, int, long)}).
+	 *         The caller has to close the reader.
+	 */
+	public final BufferedRandomAccessFile newNodeReader() throws IOException {
+		// Readers see what is on disk only, not what is still in nodeRAF's buffer.
+		this.nodeRAF.flush();
+		return new BufferedRandomAccessFile(this.fnameForNodes, "r");
+	}
+
+	/**
+	 * Reads the graph node at the file location ptr with the given reader (see
+	 * {@link #newNodeReader()}). The node is not cached.
+	 */
+	public static GraphNode getNodeFromDisk(final BufferedRandomAccessFile reader, final long stateFP,
+			final int tidx, final long ptr) throws IOException {
+		if (ptr < 0) {
+			throw new IllegalArgumentException("Invalid negative file pointer: " + ptr);
+		}
+		reader.seek(ptr);
+		final GraphNode gnode = new GraphNode(stateFP, tidx);
+		gnode.read(reader);
+		return gnode;
+	}
+
 	public abstract long getPtr(long l, int tidx);
 
 	/* Create the in-memory node-pointer table from the node-pointer file. */
 	public final void makeNodePtrTbl() throws IOException {
+		this.makeNodePtrTbl(false);
+	}
+
+	/**
+	 * @param keepClosed
+	 *            If true, closed nodes keep their
+	 *            {@link AbstractDiskGraph#CLOSED_LINK} instead of being reset
+	 *            to their file pointer.
+	 * @see AbstractDiskGraph#makeNodePtrTbl()
+	 */
+	public final void makeNodePtrTbl(final boolean keepClosed) throws IOException {
 		long ptr = this.nodePtrRAF.getFilePointer();
 		long len = this.nodePtrRAF.length();
-		this.makeNodePtrTbl(len);
+		this.makeNodePtrTbl(len, keepClosed);
 		this.nodePtrRAF.seek(ptr);
 	}
 
@@ -276,10 +383,13 @@ public abstract class AbstractDiskGraph {
 	 * 
 	 * @param ptr
 	 *            The length of the ptr file up to which this method reads.
+	 * @param keepClosed
+	 *            If true, does not overwrite the link of closed nodes (see
+	 *            {@link AbstractDiskGraph#CLOSED_LINK}).
 	 * @throws IOException
 	 *             Reading the file failed
 	 */
-	protected abstract void makeNodePtrTbl(final long ptr) throws IOException;
+	protected abstract void makeNodePtrTbl(final long ptr, final boolean keepClosed) throws IOException;
 
 	/* Link information for SCC search */
 	
@@ -326,6 +436,18 @@ public abstract class AbstractDiskGraph {
 	 */
 	public abstract void setMaxLink(long state, int tidx);
 
+	/**
+	 * Assigns {@link AbstractDiskGraph#CLOSED_LINK} to the given node
+	 * &lt;state, tidx&gt;, which excludes the node from SCC search until the
+	 * node pointer table is re-made without keeping closed nodes.
+	 * 
+	 * @param state
+	 *            The state's fingerprint
+	 * @param tidx
+	 *            The corresponding tableau index
+	 */
+	public abstract void setClosedLink(long state, int tidx);
+
 	/* End link information for SCC search */
 
 	public boolean checkInvariants(final int slen, final int alen) {
@@ -423,6 +545,29 @@ public abstract class AbstractDiskGraph {
 
 	public void recordSize() {
 		this.sizeAtCheck = size();
+		this.backLevelEdgesAtCheck = this.backLevelEdges.sum();
+	}
+
+	/**
+	 * A back-level edge is a transition from a node to a node that has been
+	 * done before (excluding self loops). The node of a cycle that is done last
+	 * closes the cycle with a back-level edge, thus no new cycle (other than a
+	 * self loop) has been added to the graph unless a back-level edge has.
+	 * <p>
+	 * LiveChecker adds back-level edges while holding the write lock of its
+	 * graph, TableauLiveChecker while synchronized on the OrderOfSolution. The
+	 * periodic work reads the counter without either.
+	 */
+	public void addBackLevelEdges(final int cnt) {
+		this.backLevelEdges.add(cnt);
+	}
+
+	public long getBackLevelEdges() {
+		return this.backLevelEdges.sum();
+	}
+
+	public long getBackLevelEdgesSinceLastCheck() {
+		return this.backLevelEdges.sum() - this.backLevelEdgesAtCheck;
 	}
 	
 	/**
@@ -535,7 +680,7 @@ public abstract class AbstractDiskGraph {
 		dis.close();
 		fis.close();
 
-		this.makeNodePtrTbl(nodePtrRAFPos);
+		this.makeNodePtrTbl(nodePtrRAFPos, false);
 		this.nodeRAF.seek(nodeRAFPos);
 		this.nodePtrRAF.seek(nodePtrRAFPos);
 	}
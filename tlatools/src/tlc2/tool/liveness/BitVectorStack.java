@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.util.Arrays;
+
+/**
+ * A stack of bit vectors of a fixed width, which are packed into a long[]. Its
+ * memory requirement is the width in bits per element (plus the unused part of
+ * the array).
+ */
+final class BitVectorStack {
+
+	private final int width;
+	private long[] words;
+	/**
+	 * The number of bit vectors on this stack.
+	 */
+	private long size;
+
+	BitVectorStack(final int width) {
+		this.width = width;
+		this.words = new long[1];
+	}
+
+	/**
+	 * Pushes a bit vector whose bits are all false.
+	 */
+	void push() {
+		final long from = this.size * this.width;
+		final long to = from + this.width;
+		final int last = (int) ((to + 63L) >>> 6);
+		if (last > this.words.length) {
+			this.words = Arrays.copyOf(this.words, Math.max(last, 2 * this.words.length));
+		}
+		// Clear the bits of the previously popped bit vectors.
+		for (long bit = from; bit < to; bit++) {
+			this.words[(int) (bit >>> 6)] &= ~(1L << bit);
+		}
+		this.size++;
+	}
+
+	void pop() {
+		assert this.size > 0;
+		this.size--;
+	}
+
+	/**
+	 * Sets bit i of the topmost bit vector.
+	 */
+	void set(final int i) {
+		assert 0 <= i && i < this.width && this.size > 0;
+		final long bit = (this.size - 1L) * this.width + i;
+		this.words[(int) (bit >>> 6)] |= 1L << bit;
+	}
+
+	/**
+	 * @return Bit i of the topmost bit vector.
+	 */
+	boolean get(final int i) {
+		assert 0 <= i && i < this.width && this.size > 0;
+		final long bit = (this.size - 1L) * this.width + i;
+		return (this.words[(int) (bit >>> 6)] & (1L << bit)) != 0L;
+	}
+
+	long size() {
+		return this.size;
+	}
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import tlc2.util.LongVec;
+
+/**
+ * {@link ClosedNodes} marks the closed nodes of a behavior graph (see
+ * {@link AbstractDiskGraph#CLOSED_LINK}) after a liveness check of the
+ * (partial) graph has found no violation: A node is closed iff only done nodes
+ * are reachable from it. The model checker only ever adds transitions to nodes
+ * that are not done, thus neither the SCC of a closed node nor the SCCs
+ * reachable from it change in later checks. A later check can skip the closed
+ * nodes and thus only has to search the nodes that reach nodes which were not
+ * done at the time of this check (in other words, the nodes added since and
+ * the ones that lead to them).
+ * <p>
+ * A node that is not closed (open) reaches a node that is not done. All nodes
+ * on a path from an initial node to an open node are open, thus the open nodes
+ * are found by searching the nodes reachable from the initial nodes without
+ * searching beyond closed nodes. Openness is then propagated from the nodes
+ * with a successor that is not done to their predecessors.
+ */
+final class ClosedNodes {
+
+	private final AbstractDiskGraph dg;
+
+	/* The open part of the graph in memory indexed by node id. */
+	private int n = 0;
+	private long[] fps = new long[16];
+	private int[] tidxs = new int[16];
+	private long[] locs = new long[16];
+	/*
+	 * The transitions between open nodes (excluding self loops) as pairs of
+	 * node ids.
+	 */
+	private int m = 0;
+	private int[] edges = new int[32];
+	private boolean[] open = new boolean[16];
+
+	ClosedNodes(final AbstractDiskGraph dg) {
+		this.dg = dg;
+	}
+
+	/**
+	 * Marks the closed nodes of the graph. Requires a (re-)made node pointer
+	 * table that keeps the closed nodes of previous checks (see
+	 * {@link AbstractDiskGraph#makeNodePtrTbl(boolean)}). The file pointers
+	 * of the open nodes get overwritten with links.
+	 * 
+	 * @return The number of nodes that have been closed.
+	 */
+	int close() throws IOException {
+		final LongVec initNodes = this.dg.getInitNodes();
+		for (int j = 0; j < initNodes.size(); j += 2) {
+			resolve(initNodes.elementAt(j), (int) initNodes.elementAt(j + 1));
+		}
+		// Ids are assigned in breadth-first order, thus the nodes from id
+		// onwards are the ones whose successors have not been resolved yet.
+		for (int id = 0; id < n; id++) {
+			final GraphNode gnode = this.dg.getNode(fps[id], tidxs[id], locs[id]);
+			final int succCnt = gnode.succSize();
+			for (int i = 0; i < succCnt; i++) {
+				final int next = resolve(gnode.getStateFP(i), gnode.getTidx(i));
+				if (next == -1) {
+					open[id] = true;
+				} else if (next >= 0 && next != id) {
+					addEdge(id, next);
+				}
+			}
+		}
+
+		// Index the predecessors of each node (counting sort of the edges by
+		// their target).
+		final int[] start = new int[n + 1];
+		for (int e = 0; e < m; e++) {
+			start[edges[2 * e + 1] + 1]++;
+		}
+		for (int id = 0; id < n; id++) {
+			start[id + 1] += start[id];
+		}
+		final int[] preds = new int[m];
+		final int[] next = Arrays.copyOf(start, n);
+		for (int e = 0; e < m; e++) {
+			preds[next[edges[2 * e + 1]]++] = edges[2 * e];
+		}
+		this.edges = null;
+
+		// Propagate openness to the predecessors.
+		final int[] stack = new int[n];
+		int top = 0;
+		for (int id = 0; id < n; id++) {
+			if (open[id]) {
+				stack[top++] = id;
+			}
+		}
+		while (top > 0) {
+			final int id = stack[--top];
+			for (int p = start[id]; p < start[id + 1]; p++) {
+				final int pred = preds[p];
+				if (!open[pred]) {
+					open[pred] = true;
+					stack[top++] = pred;
+				}
+			}
+		}
+
+		int closed = 0;
+		for (int id = 0; id < n; id++) {
+			if (!open[id]) {
+				this.dg.setClosedLink(fps[id], tidxs[id]);
+				closed++;
+			}
+		}
+		return closed;
+	}
+
+	/**
+	 * @return The id of the given node, which is assigned if the node is
+	 *         reached for the first time, -1 if the node is not done, or -2 if
+	 *         the node is closed.
+	 */
+	private int resolve(final long fp, final int tidx) {
+		final long link = this.dg.getLink(fp, tidx);
+		if (link < 0) {
+			return -1;
+		}
+		if (link == AbstractDiskGraph.CLOSED_LINK) {
+			return -2;
+		}
+		if (!AbstractDiskGraph.isFilePointer(link)) {
+			return (int) (link - AbstractDiskGraph.MAX_PTR);
+		}
+		if (n == this.fps.length) {
+			final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * n);
+			this.fps = Arrays.copyOf(this.fps, capacity);
+			this.tidxs = Arrays.copyOf(this.tidxs, capacity);
+			this.locs = Arrays.copyOf(this.locs, capacity);
+			this.open = Arrays.copyOf(this.open, capacity);
+		}
+		final int id = n++;
+		this.fps[id] = fp;
+		this.tidxs[id] = tidx;
+		this.locs[id] = link;
+		this.dg.putLink(fp, tidx, AbstractDiskGraph.MAX_PTR + id);
+		return id;
+	}
+
+	private void addEdge(final int from, final int to) {
+		if (2 * m == this.edges.length) {
+			this.edges = Arrays.copyOf(this.edges, (int) Math.min(Integer.MAX_VALUE - 8, 2L * this.edges.length));
+		}
+		this.edges[2 * m] = from;
+		this.edges[2 * m + 1] = to;
+		m++;
+	}
+}
@@ -27,7 +27,7 @@ public class DiskGraph extends AbstractDiskGraph {
 	
 	public DiskGraph(String metadir, int soln, IBucketStatistics graphStats) throws IOException {
 		super(metadir, soln, graphStats);
-		nodePtrTbl = new NodePtrTable(255);
+		nodePtrTbl = newNodePtrTable();
 	}
 
 	public final GraphNode getNode(long fp, int tidx) throws IOException {
@@ -61,7 +61,16 @@ public class DiskGraph extends AbstractDiskGraph {
 	public void reset() throws IOException {
 		this.nodePtrRAF.reset();
 		this.nodeRAF.reset();
-		this.nodePtrTbl = new NodePtrTable(255);
+		this.nodePtrTbl.free();
+		this.nodePtrTbl = newNodePtrTable();
+	}
+
+	protected void freeNodePtrTbl() {
+		this.nodePtrTbl.free();
+	}
+
+	private static NodePtrTable newNodePtrTable() {
+		return OFF_HEAP ? new OffHeapNodePtrTable(255) : new NodePtrTable(255);
 	}
 	
 	/* (non-Javadoc)
@@ -107,15 +116,25 @@ public class DiskGraph extends AbstractDiskGraph {
 	}
 
 	/* (non-Javadoc)
-	 * @see tlc2.tool.liveness.DiskGraph#makeNodePtrTbl(long)
+	 * @see tlc2.tool.liveness.AbstractDiskGraph#setClosedLink(long, int)
 	 */
-	protected void makeNodePtrTbl(long ptr) throws IOException {
+	public void setClosedLink(long state, int tidx) {
+		this.nodePtrTbl.put(state, CLOSED_LINK);
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.liveness.DiskGraph#makeNodePtrTbl(long, boolean)
+	 */
+	protected void makeNodePtrTbl(long ptr, boolean keepClosed) throws IOException {
 		this.nodePtrRAF.seek(0);
 		while (this.nodePtrRAF.getFilePointer() < ptr) {
 			long fp = this.nodePtrRAF.readLong();
 			// skip the tableau idx that is not used by DiskGraph.
 			this.nodePtrRAF.readInt();
 			long loc = this.nodePtrRAF.readLongNat();
+			if (keepClosed && this.nodePtrTbl.get(fp) == CLOSED_LINK) {
+				continue;
+			}
 			this.nodePtrTbl.put(fp, loc);
 		}
 	}
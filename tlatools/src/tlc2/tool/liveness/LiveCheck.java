@@ -9,6 +9,8 @@ import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import tlc2.TLC;
 import tlc2.TLCGlobals;
@@ -138,17 +140,29 @@ public class LiveCheck implements ILiveCheck {
 			// in http://dx.doi.org/10.1109/ASE.2003.1240299
 			// that counts the "Back-level Edges" and runs liveness checking upon
 			// a counter reaching a certain (user defined?!) threshold.
+			// (implemented by "-lncheck backlevel", see needsCheck below).
 			//
-			final AbstractDiskGraph diskGraph = checker[i].getDiskGraph();
-			final long sizeAtLastCheck = diskGraph.getSizeAtLastCheck();
-			final long sizeCurrently = diskGraph.size();
-			final double delta = (sizeCurrently - sizeAtLastCheck) / (sizeAtLastCheck * 1.d);
-			if (delta > TLCGlobals.livenessThreshold) {
+			if (needsCheck(checker[i].getDiskGraph())) {
 				return true;
 			}
 		}
 		return false;
 	}
+
+	static boolean needsCheck(final AbstractDiskGraph diskGraph) {
+		final long sizeAtLastCheck = diskGraph.getSizeAtLastCheck();
+		if (TLCGlobals.isBackLevelLiveness()) {
+			// No new cycle, no new violation (except for a self loop).
+			final long backLevelEdges = diskGraph.getBackLevelEdgesSinceLastCheck();
+			if (TLCGlobals.isAnyBackLevelLiveness()) {
+				return backLevelEdges > 0L;
+			}
+			return backLevelEdges / (sizeAtLastCheck * 1.d) > TLCGlobals.livenessThreshold;
+		}
+		final long sizeCurrently = diskGraph.size();
+		final double delta = (sizeCurrently - sizeAtLastCheck) / (sizeAtLastCheck * 1.d);
+		return delta > TLCGlobals.livenessThreshold;
+	}
 	
 	/* (non-Javadoc)
 	 * @see tlc2.tool.liveness.ILiveCheck#check(boolean)
@@ -164,11 +178,7 @@ public class LiveCheck implements ILiveCheck {
 		}
 		for (int i = 0; i < checker.length; i++) {
 			// see note in doLiveCheck() above!
-			final AbstractDiskGraph diskGraph = checker[i].getDiskGraph();
-			final long sizeAtLastCheck = diskGraph.getSizeAtLastCheck();
-			final long sizeCurrently = diskGraph.size();
-			final double delta = (sizeCurrently - sizeAtLastCheck) / (sizeAtLastCheck * 1.d);
-			if (delta > TLCGlobals.livenessThreshold) {
+			if (needsCheck(checker[i].getDiskGraph())) {
 				return check0(tool, false);
 			}
 		}
@@ -241,10 +251,11 @@ public class LiveCheck implements ILiveCheck {
 			return false;
 		}
 		
-		// Reset after checking unless it's the final check:
+		// Reset after checking unless it's the final check (the closed nodes of
+		// an incremental check keep their link, see LiveWorker#INCREMENTAL):
 		if (finalCheck == false) {
 			for (int i = 0; i < checker.length; i++) {
-				checker[i].getDiskGraph().makeNodePtrTbl();
+				checker[i].getDiskGraph().makeNodePtrTbl(LiveWorker.INCREMENTAL);
 			}
 		}
 		MP.printMessage(EC.TLC_CHECKING_TEMPORAL_PROPS_END, TLC.convertRuntimeToHumanReadable(System.currentTimeMillis() - startTime));
@@ -425,6 +436,12 @@ public class LiveCheck implements ILiveCheck {
 	private class LiveChecker extends AbstractLiveChecker {
 
 		private final DiskGraph dgraph;
+		/**
+		 * Workers build the nodes of new states concurrently while holding the
+		 * read lock, and only append them to dgraph while holding the write
+		 * lock (see addNextState).
+		 */
+		private final ReadWriteLock lock = new ReentrantReadWriteLock();
 
 		public LiveChecker(OrderOfSolution oos, int soln, IBucketStatistics bucketStatistics, ILivenessStateWriter writer)
 			throws IOException {
@@ -445,14 +462,72 @@ public class LiveCheck implements ILiveCheck {
 		 */
 		public void addNextState(ITool tool, final TLCState s0, final long fp0,
 				final SetOfStates nextStates, final BitVector checkActionResults, final boolean[] checkStateResults) throws IOException {
-			int cnt = 0;
 			// if there is no tableau ...
 			final int succCnt = nextStates.size();
 			final int alen = oos.getCheckAction().length;
-			synchronized (oos) {
+
+			// In model checking, s0 is a new node of the graph, whose
+			// transitions only depend on lookups of its successors in dgraph.
+			// Thus, build the node while other workers do the same, and
+			// only shortly lock the graph exclusively to append it.
+			// DotLivenessStateWriter is not thread-safe, thus it writes
+			// states under the exclusive lock below.
+			if (writer.isNoop()) {
+				final GraphNode node0 = new GraphNode(fp0, -1);
+				int cnt = 0;
+				int backLevelEdges = 0;
+				boolean isNew = false;
+				lock.readLock().lock();
+				try {
+					if (dgraph.getPtr(fp0) == -1) {
+						isNew = true;
+						node0.setCheckState(checkStateResults);
+						for (int sidx = 0; sidx < succCnt; sidx++) {
+							final long successor = nextStates.next().fingerPrint();
+							final long ptr1 = dgraph.getPtr(successor);
+							if (ptr1 != -1 && successor != fp0) {
+								backLevelEdges++;
+							}
+							// See below.
+							if (ptr1 == -1 || !node0.transExists(successor, -1)) {
+								node0.addTransition(successor, -1, checkStateResults.length, alen,
+										checkActionResults, sidx * alen, (succCnt - cnt++));
+							} else {
+								cnt++;
+							}
+						}
+						nextStates.resetNext();
+					}
+				} finally {
+					lock.readLock().unlock();
+				}
+				if (isNew) {
+					node0.realign(); // see node0.addTransition() hint
+					lock.writeLock().lock();
+					try {
+						// In simulation mode, another worker might have added
+						// s0 in the meantime. If so, add the successors to
+						// its node below.
+						if (dgraph.getPtr(fp0) == -1) {
+							if (backLevelEdges > 0) {
+								dgraph.addBackLevelEdges(backLevelEdges);
+							}
+							dgraph.addNode(node0);
+							return;
+						}
+					} finally {
+						lock.writeLock().unlock();
+					}
+				}
+			}
+
+			int cnt = 0;
+			lock.writeLock().lock();
+			try {
 				final GraphNode node0 = dgraph.getNode(fp0);
 				final int s = node0.succSize();
 				node0.setCheckState(checkStateResults);
+				int backLevelEdges = 0;
 				for (int sidx = 0; sidx < succCnt; sidx++) {
 					final TLCState successorState = nextStates.next();
 					final long successor = successorState.fingerPrint();
@@ -461,6 +536,9 @@ public class LiveCheck implements ILiveCheck {
 					//    TODO Why is an existing successor ignored?
 					// b) The successor is a new outgoing transition for s0 
 					final long ptr1 = dgraph.getPtr(successor);
+					if (ptr1 != -1 && successor != fp0) {
+						backLevelEdges++;
+					}
 					if (ptr1 == -1 || !node0.transExists(successor, -1)) {
 						// Eagerly allocate as many (N) transitions (outgoing arcs)
 						// as we are maximally going to add within the for
@@ -484,6 +562,9 @@ public class LiveCheck implements ILiveCheck {
 					writer.writeState(s0, successorState, checkActionResults, sidx * alen, alen, ptr1 == -1);
 				}
 				nextStates.resetNext();
+				if (backLevelEdges > 0) {
+					dgraph.addBackLevelEdges(backLevelEdges);
+				}
 				// In simulation mode (see Simulator), it's possible that this
 				// method is called multiple times for the same state (s0/fp0)
 				// but with changing successors caused by the random successor
@@ -508,6 +589,8 @@ public class LiveCheck implements ILiveCheck {
 					// has to be null.
 					Assert.check(TLCGlobals.mainChecker == null, EC.GENERAL);
 				}
+			} finally {
+				lock.writeLock().unlock();
 			}
 		}
 
@@ -602,6 +685,7 @@ public class LiveCheck implements ILiveCheck {
 				// allocation hint is used for.
 				final int allocationHint = ((nodes.length / dgraph.getElemLength()) * succCnt);
 				
+				int backLevelEdges = 0;
 				for (int nidx = 2; nidx < nodes.length; nidx += dgraph.getElemLength()) {
 					final int tidx0 = nodes[nidx];
 					final TBGraphNode tnode0 = oos.getTableau().getNode(tidx0);
@@ -621,6 +705,9 @@ public class LiveCheck implements ILiveCheck {
 								node0.addTransition(successor, tnode1.getIndex(), checkStateResults.length, alen,
 										checkActionResults, sidx * alen, allocationHint - cnt);
 								writer.writeState(s0, tnode0, s1, tnode1, checkActionResults, sidx * alen, alen, true);
+								if (isDone && successor != fp0) {
+									backLevelEdges++;
+								}
 								// Record that we have seen <fp1,
 								// tnode1>. If fp1 is done, we have
 								// to compute the next states for <fp1,
@@ -649,6 +736,9 @@ public class LiveCheck implements ILiveCheck {
 						Assert.check(TLCGlobals.mainChecker == null, EC.GENERAL);
 					}
 				}
+				if (backLevelEdges > 0) {
+					dgraph.addBackLevelEdges(backLevelEdges);
+				}
 			}
 		}
 
@@ -717,6 +807,9 @@ public class LiveCheck implements ILiveCheck {
 							if (tnode1.isConsistent(s1, tool) && (ptr1 == -1 || !node.transExists(fp1, tidx1))) {
 								node.addTransition(fp1, tidx1, slen, alen, checkActionRes, 0, (total - cnt));
 								writer.writeState(s, tnode, s1, tnode1, checkActionRes, 0, alen, false, Visualization.DOTTED);
+								if (isDone && fp1 != fp) {
+									dgraph.addBackLevelEdges(1);
+								}
 								// Record that we have seen <fp1, tnode1>. If
 								// fp1 is done, we have to compute the next
 								// states for <fp1, tnode1>.
@@ -27,7 +27,7 @@ import tlc2.util.LongVec;
 import tlc2.util.MemIntQueue;
 import tlc2.util.MemIntStack;
 import tlc2.util.SynchronousDiskIntStack;
-import tlc2.util.statistics.BucketStatistics;
+import tlc2.util.statistics.ConcurrentBucketStatistics;
 import tlc2.util.statistics.IBucketStatistics;
 
 /**
@@ -49,8 +49,22 @@ public class LiveWorker extends IdThread {
 	 */
 	private static final long SCC_MARKER = -42L;
 
-	public static final IBucketStatistics STATS = new BucketStatistics("Histogram SCC sizes", LiveWorker.class
+	public static final IBucketStatistics STATS = new ConcurrentBucketStatistics("Histogram SCC sizes", LiveWorker.class
 			.getPackage().getName(), "StronglyConnectedComponent sizes");
+
+	/**
+	 * true iff the SCCs of a single behavior graph are searched by multiple
+	 * threads (see {@link ParallelSccSearch}) when there are more TLC workers
+	 * than LiveWorkers.
+	 */
+	private static final boolean PARALLEL_SCC = Boolean.getBoolean(LiveWorker.class.getName() + ".parallelScc");
+
+	/**
+	 * true iff a periodic check of the partial behavior graph marks the nodes
+	 * whose SCCs cannot change anymore as closed (see {@link ClosedNodes}),
+	 * which subsequent checks then skip.
+	 */
+	static final boolean INCREMENTAL = Boolean.getBoolean(LiveWorker.class.getName() + ".incremental");
 	
 	private static int errFoundByThread = -1;
 	private static final Object workerLock = new Object();
@@ -65,6 +79,11 @@ public class LiveWorker extends IdThread {
 	 * Total number of LiveWorkers simultaneously checking liveness.
 	 */
 	private final int numWorkers;
+	/**
+	 * The number of threads that search the SCCs of this worker's behavior
+	 * graph.
+	 */
+	private final int sccThreads;
 
 	private final ITool tool;
 
@@ -75,6 +94,8 @@ public class LiveWorker extends IdThread {
 		this.liveCheck = liveCheck;
 		this.queue = queue;
 		this.isFinalCheck = finalCheck;
+		// The TLC workers are idle during liveness checking.
+		this.sccThreads = PARALLEL_SCC ? Math.max(1, TLCGlobals.getNumWorkers() / numWorkers) : 1;
 		
 		// Set the name to something more indicative than "Thread-4711".
 		this.setName("TLCLiveWorkerThread-" + String.format("%03d", id));
@@ -96,7 +117,7 @@ public class LiveWorker extends IdThread {
 	 * This is used so that only one of the threads which have found an error
 	 * prints it.
 	 */
-	private/* static synchronized */boolean setErrFound() {
+	/* package-private for ParallelSccSearch */ boolean setErrFound() {
 		synchronized (workerLock) {
 			if (errFoundByThread == -1) {
 				errFoundByThread = this.myGetId(); // GetId();
@@ -142,7 +163,12 @@ public class LiveWorker extends IdThread {
 	 */
 	private final void checkSccs(final ITool tool) throws IOException, InterruptedException, ExecutionException {
 		// Initialize this.dg:
-		this.dg.makeNodePtrTbl();
+		this.dg.makeNodePtrTbl(INCREMENTAL);
+		
+		if (this.sccThreads > 1 && fitsIntoMemory()) {
+			new ParallelSccSearch(this, tool, this.dg, this.oos, this.pem, this.isFinalCheck, this.sccThreads).search();
+			return;
+		}
 		
 		// Initialize nodeQueue with initial states. The initial states stored 
 		// separately in the DiskGraph are resolved to their pointer location
@@ -170,6 +196,11 @@ public class LiveWorker extends IdThread {
 			final long state = initNodes.elementAt(j);
 			final int tidx = (int) initNodes.elementAt(j + 1);
 			final long ptr = this.dg.getLink(state, tidx);
+			if (ptr == AbstractDiskGraph.CLOSED_LINK) {
+				// The SCCs reachable from s have been checked by a previous
+				// (incremental) check.
+				continue;
+			}
 			// Check if the node <<state, tidx>> s is done. A node s is undone
 			// if it is an initial state which hasn't been explored yet. This is
 			// the case if s has been added via LiveChecker#addInitState but not
@@ -209,6 +240,12 @@ public class LiveWorker extends IdThread {
 		// See tlc2.tool.liveness.LiveWorker.DetailedFormatter.toString(MemIntStack)
 		// which is useful during debugging.
 		final IntStack comStack = getStack(liveCheck.getMetaDir(), "com" + this.myGetId());
+		// The AEState and promise bits of the nodes on comStack, which spare
+		// checkComponent to read the nodes again (see pushCheckBits). The bits
+		// are kept in memory, thus only if comStack is.
+		final BitVectorStack comBits = comStack instanceof MemIntStack
+				? new BitVectorStack(this.pem.AEState.length + this.oos.getPromises().length)
+				: null;
 
 		// Generate the SCCs and check if they contain a "bad" cycle.
 		while (nodeQueue.size() > 0) {
@@ -291,7 +328,7 @@ public class LiveWorker extends IdThread {
 						// element (endstate - 1). This goes on until either the
 						// initial state is reached or an intermediate state has
 						// unexplored successors with DFS.
-						final boolean isOK = this.checkComponent(tool, curState, curTidx, comStack);
+						final boolean isOK = this.checkComponent(tool, curState, curTidx, comStack, comBits);
 						if (!isOK) {
 							// Found a "bad" cycle of one to comStack.size()
 							// nodes, no point in searching for more SCCs as we
@@ -334,6 +371,7 @@ public class LiveWorker extends IdThread {
 						
 						// Look at all the successors of curState:
 						final GraphNode gnode = this.dg.getNode(curState, curTidx, curLoc);
+						this.pushCheckBits(comBits, gnode);
 						final int succCnt = gnode.succSize();
 						long nextLowLink = newLink;
 						// DFS moved on to a new node, thus increment the newLink
@@ -456,6 +494,19 @@ public class LiveWorker extends IdThread {
 		assert comStack.size() == 0;
 	}
 
+	/**
+	 * @return true iff the behavior graph is small enough compared to the free
+	 *         memory (shared among all LiveWorkers) to be loaded into memory by
+	 *         a {@link ParallelSccSearch}.
+	 * @see LiveWorker#getStack(String, String)
+	 */
+	private boolean fitsIntoMemory() throws IOException {
+		synchronized (LiveWorker.class) {
+			final double freeMemoryInBytes = (Runtime.getRuntime().freeMemory() / (numWorkers * 1d));
+			return this.dg.getSizeOnDisk() / freeMemoryInBytes <= TLCGlobals.livenessGraphSizeThreshold;
+		}
+	}
+
 	private IntStack getStack(final String metaDir, final String name) throws IOException {
 		// Synchronize all LiveWorker instances to consistently read free
 		// memory. This method is only called during initialization of SCC
@@ -503,7 +554,8 @@ public class LiveWorker extends IdThread {
 	 * @throws ExecutionException 
 	 * @throws InterruptedException 
 	 */
-	private boolean checkComponent(final ITool tool, final long state, final int tidx, final IntStack comStack) throws IOException, InterruptedException, ExecutionException {
+	private boolean checkComponent(final ITool tool, final long state, final int tidx, final IntStack comStack,
+			final BitVectorStack comBits) throws IOException, InterruptedException, ExecutionException {
 		final long comStackSize = comStack.size();
 		// There is something to pop and each is a well formed tuple <<fp, tidx, loc>> 
 		assert comStackSize >= 5 && comStackSize % 5 == 0; // long + int + long
@@ -515,10 +567,23 @@ public class LiveWorker extends IdThread {
 		// Simply return if the component is trivial: It is trivial iff the component
 		// has a single node AND this node is *no* stuttering node.
 		if (state1 == state && tidx1 == tidx && !isStuttering(state1, tidx1, loc1)) {
+			if (comBits != null) {
+				comBits.pop();
+			}
 			this.dg.setMaxLink(state, tidx);
 			return true;
 		}
 
+		final int slen = this.oos.getCheckState().length;
+		final int alen = this.oos.getCheckAction().length;
+		final int aeslen = this.pem.AEState.length;
+		final int aealen = this.pem.AEAction.length;
+		final int plen = this.oos.getPromises().length;
+		final boolean[] AEStateRes = new boolean[aeslen];
+		final boolean[] AEActionRes = new boolean[aealen];
+		final boolean[] promiseRes = new boolean[plen];
+		final int[] eaaction = this.pem.EAAction;
+
 		// Now, we know we are working on a non-trivial component
 		// We first put all the nodes in this component in a hashtable. 
 		// The nodes in this component do not correspond to
@@ -545,6 +610,16 @@ public class LiveWorker extends IdThread {
 			com.put(state1, tidx1, loc1);
 			assert AbstractDiskGraph.isFilePointer(loc1);
 			this.dg.setMaxLink(state1, tidx1);
+			if (comBits != null) {
+				// The AEState and promise bits of <state1, tidx1>.
+				for (int i = 0; i < aeslen; i++) {
+					AEStateRes[i] |= comBits.get(i);
+				}
+				for (int i = 0; i < plen; i++) {
+					promiseRes[i] |= comBits.get(aeslen + i);
+				}
+				comBits.pop();
+			}
 
 			// Get the next node of the component:
 			if (state == state1 && tidx == tidx1) {
@@ -561,15 +636,21 @@ public class LiveWorker extends IdThread {
 		STATS.addSample(com.size());
 
 		// Check this component:
-		final int slen = this.oos.getCheckState().length;
-		final int alen = this.oos.getCheckAction().length;
-		final int aeslen = this.pem.AEState.length;
-		final int aealen = this.pem.AEAction.length;
-		final int plen = this.oos.getPromises().length;
-		final boolean[] AEStateRes = new boolean[aeslen];
-		final boolean[] AEActionRes = new boolean[aealen];
-		final boolean[] promiseRes = new boolean[plen];
-		final int[] eaaction = this.pem.EAAction;
+		if (comBits != null) {
+			// With the AEState and promise bits of com's nodes at hand, the
+			// nodes only have to be read again to check AEAction, and not at
+			// all if com cannot satisfy the PEM anyway.
+			for (int i = 0; i < aeslen; i++) {
+				if (!AEStateRes[i]) {
+					return true;
+				}
+			}
+			for (int i = 0; i < plen; i++) {
+				if (!promiseRes[i]) {
+					return true;
+				}
+			}
+		}
 
 		// Extract a node from the nodePtrTable "com".
 		// Note the upper limit is NodePtrTable#getSize() instead of
@@ -584,7 +665,9 @@ public class LiveWorker extends IdThread {
 		// eagerly during insertion into the liveness graph long before the
 		// SCC search started. Thus, the code here only has to check the 
 		// check results which can happen in any order.
-		final int tsz = com.getSize();
+		// Without AEActions, there is nothing left to check if the AEState and
+		// promise bits are known.
+		final int tsz = comBits != null && aealen == 0 ? 0 : com.getSize();
 		for (int ci = 0; ci < tsz; ci++) {
 			final int[] nodes = com.getNodesByLoc(ci);
 			if (nodes == null) {
@@ -690,9 +773,7 @@ public class LiveWorker extends IdThread {
 				// Check that the component is fulfilling. (See MP page 453.)
 				// Note that the promises are precomputed and stored in oos.
 				for (int i = 0; i < plen; i++) {
-					final LNEven promise = this.oos.getPromises()[i];
-					final TBPar par = curNode.getTNode(this.oos.getTableau()).getPar();
-					if (par.isFulfilling(promise)) {
+					if (!promiseRes[i] && this.oos.isFulfilling(tidx1, i)) {
 						promiseRes[i] = true;
 					}
 				}
@@ -741,6 +822,29 @@ public class LiveWorker extends IdThread {
 		return false;
 	}
 
+	/**
+	 * Pushes the AEState and promise bits of the given node onto comBits (if
+	 * any), in lockstep with the node being pushed onto comStack.
+	 */
+	private void pushCheckBits(final BitVectorStack comBits, final GraphNode gnode) {
+		if (comBits == null) {
+			return;
+		}
+		comBits.push();
+		final int aeslen = this.pem.AEState.length;
+		for (int i = 0; i < aeslen; i++) {
+			if (gnode.getCheckState(this.pem.AEState[i])) {
+				comBits.set(i);
+			}
+		}
+		final int plen = this.oos.getPromises().length;
+		for (int i = 0; i < plen; i++) {
+			if (this.oos.isFulfilling(gnode.tindex, i)) {
+				comBits.set(aeslen + i);
+			}
+		}
+	}
+
 	/* Check if the node <state, tidx> stutters. */
 	private boolean isStuttering(long state, int tidx, long loc) throws IOException {
 		final int slen = this.oos.getCheckState().length;
@@ -795,7 +899,7 @@ public class LiveWorker extends IdThread {
 	 * @throws ExecutionException 
 	 * @throws InterruptedException 
 	 */
-	private void printTrace(ITool tool, final long state, final int tidx, final TableauNodePtrTable nodeTbl) throws IOException, InterruptedException, ExecutionException {
+	void printTrace(ITool tool, final long state, final int tidx, final TableauNodePtrTable nodeTbl) throws IOException, InterruptedException, ExecutionException {
 //		writeDotViz(state, tidx, nodeTbl, new java.io.File(liveCheck.getMetaDir() + java.io.File.separator
 //				+ "pSatisfiableSCC_" + System.currentTimeMillis() + ".dot"));
 
@@ -1090,9 +1194,7 @@ public class LiveWorker extends IdThread {
 				// Check if the component is fulfilling. (See MP page 453.)
 				// Note that the promises are precomputed and stored in oos.
 				for (int i = 0; i < this.oos.getPromises().length; i++) {
-					LNEven promise = this.oos.getPromises()[i];
-					TBPar par = curNode.getTNode(this.oos.getTableau()).getPar();
-					if (!promiseRes[i] && par.isFulfilling(promise)) {
+					if (!promiseRes[i] && this.oos.isFulfilling(curNode.tindex, i)) {
 						promiseRes[i] = true;
 						cnt--;
 					}
@@ -1239,6 +1341,13 @@ public class LiveWorker extends IdThread {
 						this.checkSccs(tool);
 					}
 				}
+				if (INCREMENTAL && !this.isFinalCheck && !hasErrFound() && fitsIntoMemory()) {
+					// The check of the partial graph has found no violation,
+					// thus the next check can skip the nodes whose SCCs have
+					// been checked for good.
+					this.dg.makeNodePtrTbl(true);
+					new ClosedNodes(this.dg).close();
+				}
 				this.dg.destroyCache();
 				// Record the size of the disk graph at the time its checked. This
 				// information is later used to decide if it it makes sense to
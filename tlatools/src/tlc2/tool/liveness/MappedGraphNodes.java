@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+
+import tlc2.util.BitVector;
+
+/**
+ * A read-only view of the nodes file of an {@link AbstractDiskGraph}, which is
+ * mapped into memory. A {@link GraphNode} is decoded straight from the mapped
+ * memory instead of seeking and reading a
+ * {@link tlc2.util.BufferedRandomAccessFile} (which costs a syscall per node
+ * that is not in the file's buffer and seeking back afterwards). Any number of
+ * threads can read nodes concurrently (absolute reads of a
+ * {@link MappedByteBuffer} do not modify its state), and the operating
+ * system's page cache keeps the hot pages of the file in memory.
+ * <p>
+ * The view covers the nodes that have been written when it got created. The
+ * nodes file is append-only while the view exists, thus nodes appended
+ * afterwards have to be read from the file (see {@link #contains(long)}).
+ * <p>
+ * A {@link MappedByteBuffer} is restricted to Integer.MAX_VALUE bytes, thus the
+ * file is mapped in chunks. Contrary to fingerprints (see
+ * tlc2.tool.fp.MappedFPFile), a node has a variable length and thus may
+ * straddle two chunks, which is handled by the (slower) element-wise
+ * reads below.
+ */
+final class MappedGraphNodes {
+
+	/**
+	 * 2^30 bytes (1 GiB) per chunk.
+	 */
+	private static final int LogChunkSize = 30;
+
+	private final MappedByteBuffer[] chunks;
+	private final int logChunkSize;
+	private final long chunkMask;
+	private final long size;
+
+	MappedGraphNodes(final String filename) throws IOException {
+		this(filename, LogChunkSize);
+	}
+
+	MappedGraphNodes(final String filename, final int logChunkSize) throws IOException {
+		this.logChunkSize = logChunkSize;
+		this.chunkMask = (1L << logChunkSize) - 1L;
+		// The mapping remains valid after the file has been closed.
+		try (RandomAccessFile raf = new RandomAccessFile(filename, "r")) {
+			final FileChannel channel = raf.getChannel();
+			this.size = channel.size();
+			final int n = (int) ((this.size + this.chunkMask) >>> logChunkSize);
+			this.chunks = new MappedByteBuffer[n];
+			for (int i = 0; i < n; i++) {
+				final long start = ((long) i) << logChunkSize;
+				final long length = Math.min(1L << logChunkSize, this.size - start);
+				this.chunks[i] = channel.map(MapMode.READ_ONLY, start, length);
+			}
+		}
+	}
+
+	/**
+	 * @return true iff the node at the given file location has been written
+	 *         before this view got created.
+	 */
+	final boolean contains(final long ptr) {
+		return ptr >= 0 && ptr < this.size;
+	}
+
+	/**
+	 * @return The graph node at the given file location (see
+	 *         {@link GraphNode#read(tlc2.util.BufferedRandomAccessFile)} for
+	 *         the record format).
+	 */
+	final GraphNode read(final long stateFP, final int tidx, long ptr) {
+		assert contains(ptr);
+		// Read nnodes
+		final int cnt = readNat(ptr);
+		ptr += cnt > 0x7fff ? 4 : 2;
+		final int[] nnodes = new int[cnt];
+		if (isInChunk(ptr, cnt * 4L)) {
+			final MappedByteBuffer chunk = chunk(ptr);
+			final int off = offset(ptr);
+			for (int i = 0; i < cnt; i++) {
+				nnodes[i] = chunk.getInt(off + (i << 2));
+			}
+		} else {
+			for (int i = 0; i < cnt; i++) {
+				nnodes[i] = (int) get(ptr + (i << 2), 4);
+			}
+		}
+		ptr += cnt * 4L;
+		// Read checks
+		final int len = readNat(ptr);
+		ptr += len > 0x7fff ? 4 : 2;
+		final long[] words = new long[len];
+		for (int i = 0; i < len; i++) {
+			words[i] = get(ptr + (i << 3), 8);
+		}
+		return new GraphNode(stateFP, tidx, nnodes, new BitVector(words));
+	}
+
+	/**
+	 * @see tlc2.util.BufferedRandomAccessFile#readNat()
+	 */
+	private final int readNat(final long ptr) {
+		final int res = (short) get(ptr, 2);
+		if (res >= 0) {
+			return res;
+		}
+		return -((res << 16) | ((int) get(ptr + 2, 2) & 0xffff));
+	}
+
+	/**
+	 * @return The given number of bytes at the given file location as a
+	 *         (big-endian) number.
+	 */
+	private final long get(final long ptr, final int bytes) {
+		if (isInChunk(ptr, bytes)) {
+			final MappedByteBuffer chunk = chunk(ptr);
+			final int off = offset(ptr);
+			switch (bytes) {
+			case 2:
+				return chunk.getShort(off);
+			case 4:
+				return chunk.getInt(off);
+			default:
+				return chunk.getLong(off);
+			}
+		}
+		// Straddles two chunks.
+		long res = 0L;
+		for (int i = 0; i < bytes; i++) {
+			res = (res << 8) | (chunk(ptr + i).get(offset(ptr + i)) & 0xffL);
+		}
+		return res;
+	}
+
+	private final boolean isInChunk(final long ptr, final long bytes) {
+		return (ptr & this.chunkMask) + bytes <= this.chunkMask + 1L;
+	}
+
+	private final MappedByteBuffer chunk(final long ptr) {
+		return this.chunks[(int) (ptr >>> this.logChunkSize)];
+	}
+
+	private final int offset(final long ptr) {
+		return (int) (ptr & this.chunkMask);
+	}
+
+	/**
+	 * @return The size of the mapped part of the nodes file in bytes.
+	 */
+	final long size() {
+		return this.size;
+	}
+}
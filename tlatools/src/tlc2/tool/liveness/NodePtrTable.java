@@ -9,6 +9,7 @@ import tlc2.output.MP;
 
 /**
  * @see TableauNodePtrTable
+ * @see OffHeapNodePtrTable
  */
 public class NodePtrTable {
 
@@ -36,7 +37,7 @@ public class NodePtrTable {
 	 * Add <k, elem> into the table. If the table has already contained k,
 	 * overwrite the old value.
 	 */
-	public final void put(long k, long elem) {
+	public void put(long k, long elem) {
 		if (this.count >= this.thresh) {
 			this.grow();
 		}
@@ -56,11 +57,13 @@ public class NodePtrTable {
 		}
 	}
 
-	/* Return k's location if the table contains k. Otherwise, return -1. */
-	public final int getLoc(long k) {
-		if (count >= thresh) {
-			this.grow();
-		}
+	/*
+	 * Return k's location if the table contains k. Otherwise, return -1.
+	 * 
+	 * Lookups do not grow the table (only put does) and are thus safe while
+	 * other threads do lookups too (see LiveCheck.LiveChecker#addNextState).
+	 */
+	public int getLoc(long k) {
 		int loc = ((int) k & 0x7FFFFFFF) % this.length;
 		while (true) {
 			if (this.elems[loc] == -1) {
@@ -73,11 +76,8 @@ public class NodePtrTable {
 		}
 	}
 
-	/* Return the value with key k. Otherwise, return -1. */
-	public final long get(long k) {
-		if (count >= thresh) {
-			this.grow();
-		}
+	/* Return the value with key k. Otherwise, return -1 (see getLoc). */
+	public long get(long k) {
 		int loc = ((int) k & 0x7FFFFFFF) % this.length;
 		while (true) {
 			if (this.elems[loc] == -1) {
@@ -90,15 +90,15 @@ public class NodePtrTable {
 		}
 	}
 
-	public final long getByLoc(int loc) {
+	public long getByLoc(int loc) {
 		return this.elems[loc];
 	}
 
-	public final long getKeyByLoc(int loc) {
+	public long getKeyByLoc(int loc) {
 		return this.keys[loc];
 	}
 
-	public final void putByLoc(long k, long elem, int loc) {
+	public void putByLoc(long k, long elem, int loc) {
 		this.keys[loc] = k;
 		this.elems[loc] = elem;
 	}
@@ -153,11 +153,16 @@ public class NodePtrTable {
 		}
 	}
 
-	public final int size() {
+	public int size() {
 		return this.count;
 	}
 
-	public final int getSize() {
+	public int getSize() {
 		return this.length;
 	}
+
+	/* Release the memory of this table (see OffHeapNodePtrTable). */
+	public void free() {
+		// Left to the garbage collector.
+	}
 }
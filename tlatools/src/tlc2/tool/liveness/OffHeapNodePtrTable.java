@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.io.IOException;
+
+import tlc2.output.EC;
+import tlc2.tool.fp.LongArray;
+import util.Assert;
+
+/**
+ * An {@link OffHeapNodePtrTable} keeps the <<state, ptr>> pairs of a
+ * {@link DiskGraph} in off-heap memory instead of the two long[] of its super
+ * class, such that the Java heap of a large behavior graph is not dominated by
+ * its {@link NodePtrTable} (see {@link AbstractDiskGraph#OFF_HEAP}). Like
+ * {@link tlc2.tool.fp.OffHeapDiskFPSet}, the memory is allocated with
+ * sun.misc.Unsafe (see {@link LongArray}) and thus not limited by
+ * -XX:MaxDirectMemorySize. It is not released by the garbage collector but by
+ * {@link #free()} (see {@link AbstractDiskGraph#close()}).
+ * <p>
+ * A slot is a key followed by its element. The element is stored as its
+ * complement, so that the zeroed memory of a new table marks all slots empty
+ * (-1, see {@link NodePtrTable}).
+ */
+public class OffHeapNodePtrTable extends NodePtrTable {
+
+	private static final int SlotSize = 2;
+	/**
+	 * The table must not grow beyond 2^30 slots, because locations are ints.
+	 */
+	static final int MaxLength = 1 << 30;
+
+	private int count;
+	private int length;
+	private int thresh;
+	private LongArray slots;
+
+	public OffHeapNodePtrTable(final int size) {
+		super(0); // The heap arrays of the super class remain empty.
+		// The length is a power of two to select a slot with a mask.
+		int length = 1;
+		while (length < size && length < MaxLength) {
+			length <<= 1;
+		}
+		this.slots = allocate(length, SlotSize);
+		this.length = length;
+		this.thresh = (int) (length * 0.75);
+		this.count = 0;
+	}
+
+	public void put(final long k, final long elem) {
+		if (this.count >= this.thresh) {
+			this.grow();
+		}
+		int loc = (int) k & (this.length - 1);
+		while (true) {
+			final long e = getByLoc(loc);
+			if (e == -1) {
+				putByLoc(k, elem, loc);
+				this.count++;
+				return;
+			}
+			if (getKeyByLoc(loc) == k) {
+				putElem(loc, elem);
+				return;
+			}
+			loc = (loc + 1) & (this.length - 1);
+		}
+	}
+
+	public int getLoc(final long k) {
+		int loc = (int) k & (this.length - 1);
+		while (true) {
+			if (getByLoc(loc) == -1) {
+				return -1;
+			}
+			if (getKeyByLoc(loc) == k) {
+				return loc;
+			}
+			loc = (loc + 1) & (this.length - 1);
+		}
+	}
+
+	public long get(final long k) {
+		final int loc = getLoc(k);
+		return loc == -1 ? -1 : getByLoc(loc);
+	}
+
+	public long getByLoc(final int loc) {
+		return ~this.slots.get(position(loc) + 1);
+	}
+
+	public long getKeyByLoc(final int loc) {
+		return this.slots.get(position(loc));
+	}
+
+	public void putByLoc(final long k, final long elem, final int loc) {
+		this.slots.set(position(loc), k);
+		putElem(loc, elem);
+	}
+
+	private void putElem(final int loc, final long elem) {
+		this.slots.set(position(loc) + 1, ~elem);
+	}
+
+	public void resetElems() {
+		for (int i = 0; i < this.length; i++) {
+			final long elem = getByLoc(i);
+			if (elem != -1) {
+				putElem(i, elem & 0x7FFFFFFFFFFFFFFFL);
+			}
+		}
+	}
+
+	/* Double the table when the table is full by the threshhold. */
+	private void grow() {
+		Assert.check(this.length < MaxLength, EC.SYSTEM_OUT_OF_MEMORY);
+		final LongArray oldSlots = this.slots;
+		final int oldLength = this.length;
+		this.slots = allocate(oldLength << 1, SlotSize);
+		this.length = oldLength << 1;
+		this.thresh = (int) (this.length * 0.75);
+		for (int i = 0; i < oldLength; i++) {
+			final long elem = ~oldSlots.get(position(i) + 1);
+			if (elem != -1) {
+				final long k = oldSlots.get(position(i));
+				int loc = (int) k & (this.length - 1);
+				while (getByLoc(loc) != -1) {
+					loc = (loc + 1) & (this.length - 1);
+				}
+				putByLoc(k, elem, loc);
+			}
+		}
+		oldSlots.free();
+	}
+
+	/**
+	 * Releases the memory of this table, which must not be used afterwards.
+	 */
+	public void free() {
+		if (this.slots != null) {
+			this.slots.free();
+			this.slots = null;
+		}
+	}
+
+	/**
+	 * @return The zeroed memory of a table of the given number of slots.
+	 */
+	static LongArray allocate(final int length, final int slotSize) {
+		try {
+			final LongArray slots = new LongArray((long) length * slotSize);
+			slots.zeroMemory();
+			return slots;
+		} catch (OutOfMemoryError | IOException e) {
+			Assert.fail(EC.SYSTEM_OUT_OF_MEMORY, e);
+			return null; // make compiler happy
+		}
+	}
+
+	private static long position(final int loc) {
+		return (long) loc * SlotSize;
+	}
+
+	public int size() {
+		return this.count;
+	}
+
+	public int getSize() {
+		return this.length;
+	}
+}
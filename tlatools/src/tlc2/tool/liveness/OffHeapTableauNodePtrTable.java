@@ -0,0 +1,334 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import tlc2.output.EC;
+import tlc2.tool.fp.LongArray;
+import util.Assert;
+
+/**
+ * An {@link OffHeapTableauNodePtrTable} keeps the nodes of a
+ * {@link TableauDiskGraph} in off-heap memory instead of an int[] per state on
+ * the Java heap (see {@link AbstractDiskGraph#OFF_HEAP} and
+ * {@link OffHeapNodePtrTable}, also for how the memory is released).
+ * <p>
+ * Contrary to its super class, a slot of this table is a single <<state,
+ * tidx, elem>> record. The records of a state are found by linear probing from
+ * the state's bucket: No record is ever removed, thus the records of a state
+ * are in the order of their addition, and the first one carries the state's
+ * done flag (see {@link TableauNodePtrTable#isDone(long)}). A state that is
+ * done but has no records (see {@link TableauNodePtrTable#setDone(long)}) has a
+ * key-only slot, which the state's first record replaces.
+ * <p>
+ * The int[] of a state (see {@link #getNodes(long)}) is a copy of its records.
+ * Thus, the elements of a state can only be changed through the methods of
+ * this table, not the static methods of {@link TableauNodePtrTable}.
+ */
+public class OffHeapTableauNodePtrTable extends TableauNodePtrTable {
+
+	/**
+	 * A slot is the state, the element and the (encoded) tableau index.
+	 */
+	private static final int SlotSize = 3;
+	private static final int KeyField = 0;
+	private static final int ElemField = 1;
+	private static final int TagField = 2;
+
+	private static final long Empty = 0L;
+	private static final long KeyOnly = -1L;
+
+	private int count;
+	private int entries;
+	private int length;
+	private int thresh;
+	private LongArray slots;
+
+	public OffHeapTableauNodePtrTable(final int size) {
+		super(0); // The heap array of the super class remains empty.
+		// The length is a power of two to select a slot with a mask.
+		int length = 1;
+		while (length < size && length < OffHeapNodePtrTable.MaxLength) {
+			length <<= 1;
+		}
+		this.slots = OffHeapNodePtrTable.allocate(length, SlotSize);
+		this.length = length;
+		this.thresh = (int) (length * 0.75);
+	}
+
+	public int size() {
+		return this.count;
+	}
+
+	public int getSize() {
+		return this.length;
+	}
+
+	public long get(final long k, final int tidx) {
+		final int loc = find(k, tidx);
+		return loc == -1 ? -1 : getElem(loc);
+	}
+
+	public void put(final long k, final int tidx, final long elem) {
+		if (this.entries >= this.thresh) {
+			this.grow();
+		}
+		boolean seen = false;
+		int loc = (int) k & (this.length - 1);
+		while (true) {
+			final long tag = getTag(loc);
+			if (tag == Empty) {
+				putSlot(loc, k, elem, tag(tidx));
+				this.entries++;
+				if (!seen) {
+					this.count++;
+				}
+				return;
+			}
+			if (getKey(loc) == k) {
+				if (tag == KeyOnly || tag == tag(tidx)) {
+					putSlot(loc, k, elem, tag(tidx));
+					return;
+				}
+				seen = true;
+			}
+			loc = (loc + 1) & (this.length - 1);
+		}
+	}
+
+	/**
+	 * @return The slot of <k, tidx> or -1 if this does not contain <k, tidx>.
+	 */
+	private int find(final long k, final int tidx) {
+		int loc = (int) k & (this.length - 1);
+		while (true) {
+			final long tag = getTag(loc);
+			if (tag == Empty) {
+				return -1;
+			}
+			if (tag == tag(tidx) && getKey(loc) == k) {
+				return loc;
+			}
+			loc = (loc + 1) & (this.length - 1);
+		}
+	}
+
+	public long putLink(final long k, final int tidx, final long link) {
+		final int loc = find(k, tidx);
+		final long oldLink = getElem(loc);
+		if (!AbstractDiskGraph.isFilePointer(oldLink)) {
+			return oldLink;
+		}
+		putElem(loc, link);
+		return -1;
+	}
+
+	public int getLoc(final long k, final int tidx) {
+		int first = -1;
+		int loc = (int) k & (this.length - 1);
+		while (true) {
+			final long tag = getTag(loc);
+			if (tag == Empty) {
+				return -1;
+			}
+			if (getKey(loc) == k) {
+				if (first == -1) {
+					first = loc;
+				}
+				if (tag == tag(tidx)) {
+					return first;
+				}
+			}
+			loc = (loc + 1) & (this.length - 1);
+		}
+	}
+
+	public int[] getNodes(final long k) {
+		final int loc = getNodesLoc(k);
+		return loc == -1 ? null : getNodesByLoc(loc);
+	}
+
+	public int getNodesLoc(final long k) {
+		int loc = (int) k & (this.length - 1);
+		while (true) {
+			if (getTag(loc) == Empty) {
+				return -1;
+			}
+			if (getKey(loc) == k) {
+				return loc;
+			}
+			loc = (loc + 1) & (this.length - 1);
+		}
+	}
+
+	public int[] getNodesByLoc(final int first) {
+		if (getTag(first) == Empty) {
+			return null;
+		}
+		final long k = getKey(first);
+		if (getTag(first) == KeyOnly) {
+			return new int[] { (int) (k >>> 32), (int) (k & 0xFFFFFFFFL) };
+		}
+		int cnt = 0;
+		for (int loc = first; getTag(loc) != Empty; loc = (loc + 1) & (this.length - 1)) {
+			if (getKey(loc) == k) {
+				cnt++;
+			}
+		}
+		final int[] node = new int[2 + cnt * getElemLength()];
+		node[0] = (int) (k >>> 32);
+		node[1] = (int) (k & 0xFFFFFFFFL);
+		int i = 2;
+		for (int loc = first; getTag(loc) != Empty; loc = (loc + 1) & (this.length - 1)) {
+			if (getKey(loc) == k) {
+				final long elem = getElem(loc);
+				node[i] = (int) (getTag(loc) - 1L);
+				node[i + 1] = (int) (elem >>> 32);
+				node[i + 2] = (int) (elem & 0xFFFFFFFFL);
+				i += getElemLength();
+			}
+		}
+		return node;
+	}
+
+	public boolean isDone(final long k) {
+		final int loc = getNodesLoc(k);
+		if (loc == -1) {
+			return false;
+		}
+		// see NOT_DONE constant".
+		return getTag(loc) == KeyOnly || (int) (getElem(loc) >>> 32) != -2;
+	}
+
+	public int setDone(final long k) {
+		if (this.entries >= this.thresh) {
+			this.grow();
+		}
+		int loc = (int) k & (this.length - 1);
+		while (true) {
+			final long tag = getTag(loc);
+			if (tag == Empty) {
+				putSlot(loc, k, 0L, KeyOnly);
+				this.entries++;
+				this.count++;
+				return loc;
+			}
+			if (getKey(loc) == k) {
+				final long elem = getElem(loc);
+				if (tag != KeyOnly && (int) (elem >>> 32) == -2) {
+					// Set this to something other than -2 (see NOT_DONE).
+					putElem(loc, (-3L << 32) | (elem & 0xFFFFFFFFL));
+				}
+				return loc;
+			}
+			loc = (loc + 1) & (this.length - 1);
+		}
+	}
+
+	public void resetElems() {
+		for (int loc = 0; loc < this.length; loc++) {
+			final long tag = getTag(loc);
+			if (tag != Empty && tag != KeyOnly) {
+				putElem(loc, getElem(loc) & 0x7FFFFFFFFFFFFFFFL); // Clear the MSB set by setSeen(..)
+			}
+		}
+	}
+
+	/* Double the table when the table is full by the threshhold. */
+	private void grow() {
+		Assert.check(this.length < OffHeapNodePtrTable.MaxLength, EC.SYSTEM_OUT_OF_MEMORY);
+		final LongArray oldSlots = this.slots;
+		final int oldLength = this.length;
+		this.slots = OffHeapNodePtrTable.allocate(this.length << 1, SlotSize);
+		this.length = this.length << 1;
+		this.thresh = (int) (this.length * 0.75);
+		// Start right after an empty slot of the old table (there is one
+		// because the table is never full), such that the records of a state
+		// get re-added in the order of their addition.
+		int start = 0;
+		while (get(oldSlots, start, TagField) != Empty) {
+			start++;
+		}
+		for (int i = 1; i <= oldLength; i++) {
+			final int from = (start + i) & (oldLength - 1);
+			final long tag = get(oldSlots, from, TagField);
+			if (tag != Empty) {
+				final long k = get(oldSlots, from, KeyField);
+				int loc = (int) k & (this.length - 1);
+				while (getTag(loc) != Empty) {
+					loc = (loc + 1) & (this.length - 1);
+				}
+				putSlot(loc, k, get(oldSlots, from, ElemField), tag);
+			}
+		}
+		oldSlots.free();
+	}
+
+	/**
+	 * Releases the memory of this table, which must not be used afterwards.
+	 */
+	public void free() {
+		if (this.slots != null) {
+			this.slots.free();
+			this.slots = null;
+		}
+	}
+
+	/*
+	 * Slot accessors below
+	 */
+
+	private static long tag(final int tidx) {
+		// Empty and KeyOnly are no tableau indices.
+		return (tidx & 0xFFFFFFFFL) + 1L;
+	}
+
+	private long getKey(final int loc) {
+		return get(this.slots, loc, KeyField);
+	}
+
+	private long getElem(final int loc) {
+		return get(this.slots, loc, ElemField);
+	}
+
+	private long getTag(final int loc) {
+		return get(this.slots, loc, TagField);
+	}
+
+	private void putElem(final int loc, final long elem) {
+		put(this.slots, loc, ElemField, elem);
+	}
+
+	private void putSlot(final int loc, final long k, final long elem, final long tag) {
+		put(this.slots, loc, KeyField, k);
+		put(this.slots, loc, ElemField, elem);
+		put(this.slots, loc, TagField, tag);
+	}
+
+	private static long get(final LongArray slots, final int loc, final int field) {
+		return slots.get((long) loc * SlotSize + field);
+	}
+
+	private static void put(final LongArray slots, final int loc, final int field, final long value) {
+		slots.set((long) loc * SlotSize + field, value);
+	}
+}
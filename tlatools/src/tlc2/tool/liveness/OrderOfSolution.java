@@ -63,6 +63,11 @@ public class OrderOfSolution {
 	private LiveExprNode[] checkState; // state subformula
 	private LiveExprNode[] checkAction; // action subformula
 	private PossibleErrorModel[] pems;
+	/**
+	 * Bit tidx * promises.length + i is set iff the particle of the tableau
+	 * node tidx fulfills promise i (see {@link #isFulfilling(int, int)}).
+	 */
+	private volatile BitVector fulfilling;
 
 	public OrderOfSolution(final LNEven[] livenessEventually) {
 		this(null, livenessEventually);
@@ -129,6 +134,32 @@ public class OrderOfSolution {
 		return promises;
 	}
 
+	/**
+	 * @return true iff the particle of the tableau node tidx fulfills the
+	 *         promise i (see {@link TBPar#isFulfilling(LNEven)}). Contrary to
+	 *         the latter, this is a lookup in a bit vector that is computed
+	 *         once because SCC search asks for every node of every component
+	 *         and {@link PossibleErrorModel}.
+	 */
+	public boolean isFulfilling(final int tidx, final int i) {
+		BitVector bv = this.fulfilling;
+		if (bv == null) {
+			// Concurrent callers compute the same bit vector.
+			final int plen = this.promises.length;
+			bv = new BitVector(this.tableau.size() * plen);
+			for (int t = 0; t < this.tableau.size(); t++) {
+				final TBPar par = this.tableau.getNode(t).getPar();
+				for (int j = 0; j < plen; j++) {
+					if (par.isFulfilling(this.promises[j])) {
+						bv.set(t * plen + j);
+					}
+				}
+			}
+			this.fulfilling = bv;
+		}
+		return bv.get(tidx * this.promises.length + i);
+	}
+
 	public LiveExprNode[] getCheckState() {
 		return checkState;
 	}
@@ -0,0 +1,700 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import tlc2.tool.ITool;
+import tlc2.util.BufferedRandomAccessFile;
+import tlc2.util.LongVec;
+
+/**
+ * A {@link ParallelSccSearch} is the multi-core alternative to the sequential
+ * SCC search (Tarjan) of {@link LiveWorker}: It decomposes the behavior graph
+ * of a single {@link OrderOfSolution} and {@link PossibleErrorModel} into its
+ * strongly connected components (SCC) with multiple threads, and checks each
+ * SCC for a "bad" cycle like LiveWorker#checkComponent does.
+ * <p>
+ * The graph is the one of the sequential search: Its nodes are the done nodes
+ * reachable from the initial nodes (except closed ones), its edges are the transitions that satisfy
+ * the PEM's EAAction. The graph gets loaded into memory, which is why a
+ * {@link ParallelSccSearch} is only used if the graph fits into memory:
+ * <ol>
+ * <li>The nodes are read from disk in breadth-first order by all threads, each
+ * with its own reader of the nodes file. A node's id is its position in the
+ * breadth-first order. It is stored as the node's link in the disk graph's
+ * node pointer table (see {@link AbstractDiskGraph#putLink(long, int, long)}).
+ * </li>
+ * <li>The graph is decomposed by the Forward-Backward algorithm with trimming:
+ * A node without predecessors or successors in its partition of the graph is
+ * an SCC of its own. The SCC of a pivot node is the intersection of
+ * the nodes forward and backward reachable from the pivot. The remaining
+ * three partitions (forward but not backward reachable, backward but not
+ * forward reachable, neither) are decomposed independently and thus
+ * concurrently. Partitions smaller than a cutoff are decomposed by Tarjan's
+ * algorithm (in memory).</li>
+ * <li>Each SCC is checked by the thread that found it.</li>
+ * </ol>
+ * If the graph has multiple "bad" cycles, the counter-example can differ from
+ * the one reported by the sequential search.
+ * 
+ * @see http://dx.doi.org/10.1007/3-540-45591-4_68
+ * @see http://dx.doi.org/10.1016/j.jpdc.2005.06.005
+ */
+final class ParallelSccSearch {
+
+	/**
+	 * Partitions with at most this many nodes are decomposed sequentially.
+	 */
+	private static final int Cutoff = Integer.getInteger(ParallelSccSearch.class.getName() + ".cutoff", 1 << 12);
+	/**
+	 * The number of nodes read from disk (or processed) by a single task.
+	 */
+	private static final int Batch = 1 << 8;
+	/**
+	 * The color of nodes that have been assigned to an SCC.
+	 */
+	private static final int DONE = -1;
+
+	private final LiveWorker worker;
+	private final ITool tool;
+	private final AbstractDiskGraph dg;
+	private final OrderOfSolution oos;
+	private final PossibleErrorModel pem;
+	private final boolean isFinalCheck;
+	private final ForkJoinPool pool;
+	private final Map<Thread, BufferedRandomAccessFile> readers = new ConcurrentHashMap<>();
+
+	/* The graph in memory indexed by node id. */
+	private int n = 0;
+	private long[] fps;
+	private int[] tidxs;
+	private long[] locs;
+	private GraphNode[] gnodes;
+	/**
+	 * The ids of a node's successors aligned with the successors of its
+	 * {@link GraphNode}, -1 for a successor which is not done or closed.
+	 */
+	private int[][] succs;
+	/**
+	 * The successors and predecessors via transitions that satisfy EAAction,
+	 * excluding self loops.
+	 */
+	private int[][] out;
+	private int[][] in;
+	/**
+	 * true iff the node has a self loop that satisfies EAAction.
+	 */
+	private boolean[] stuttering;
+
+	/*
+	 * The state of the decomposition indexed by node id. Each partition is a
+	 * color, and only the task that decomposes a partition writes the entries
+	 * of the partition's nodes. Colors are never reused, thus a task that
+	 * (racily) reads the color of a node of another partition never mistakes
+	 * the node for one of its own partition.
+	 */
+	private int[] color;
+	private final AtomicInteger colors = new AtomicInteger();
+	private int[] component;
+	private final AtomicInteger components = new AtomicInteger();
+	private int[] inDegree;
+	private int[] outDegree;
+	private int[] index;
+	private int[] lowLink;
+
+	ParallelSccSearch(final LiveWorker worker, final ITool tool, final AbstractDiskGraph dg, final OrderOfSolution oos,
+			final PossibleErrorModel pem, final boolean isFinalCheck, final int threads) {
+		this.worker = worker;
+		this.tool = tool;
+		this.dg = dg;
+		this.oos = oos;
+		this.pem = pem;
+		this.isFinalCheck = isFinalCheck;
+		this.pool = new ForkJoinPool(threads);
+	}
+
+	/**
+	 * Searches the SCCs of the graph and checks them. Requires a (re-)made node
+	 * pointer table (see {@link AbstractDiskGraph#makeNodePtrTbl()}) whose file
+	 * pointers the search overwrites with links.
+	 * 
+	 * @return false iff a "bad" cycle has been found.
+	 */
+	boolean search() throws IOException, InterruptedException, ExecutionException {
+		try {
+			load();
+			if (n == 0) {
+				return true;
+			}
+
+			this.out = new int[n][];
+			this.in = new int[n][];
+			this.stuttering = new boolean[n];
+			final AtomicIntegerArray inCnt = new AtomicIntegerArray(n);
+			this.pool.invoke(new Range(0, n, id -> addEdges(id, inCnt)));
+			this.pool.invoke(new Range(0, n, id -> in[id] = new int[inCnt.get(id)]));
+			this.pool.invoke(new Range(0, n, id -> {
+				for (final int succ : out[id]) {
+					in[succ][inCnt.decrementAndGet(succ)] = id;
+				}
+			}));
+
+			this.color = new int[n];
+			this.component = new int[n];
+			this.inDegree = new int[n];
+			this.outDegree = new int[n];
+			this.index = new int[n];
+			this.lowLink = new int[n];
+			final int[] all = new int[n];
+			for (int id = 0; id < n; id++) {
+				all[id] = id;
+			}
+			this.pool.invoke(new Decompose(all, n, colors.get()));
+			return !LiveWorker.hasErrFound();
+		} catch (final WrappedException e) {
+			Throwable t = e;
+			while (t instanceof WrappedException) {
+				t = t.getCause();
+			}
+			if (t instanceof IOException) {
+				throw (IOException) t;
+			} else if (t instanceof InterruptedException) {
+				throw (InterruptedException) t;
+			} else if (t instanceof ExecutionException) {
+				throw (ExecutionException) t;
+			}
+			throw e;
+		} finally {
+			this.pool.shutdown();
+			for (final BufferedRandomAccessFile reader : this.readers.values()) {
+				reader.close();
+			}
+		}
+	}
+
+	/* Loading */
+
+	private void load() throws IOException {
+		final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(16L, this.dg.size()));
+		this.fps = new long[capacity];
+		this.tidxs = new int[capacity];
+		this.locs = new long[capacity];
+		this.gnodes = new GraphNode[capacity];
+		this.succs = new int[capacity][];
+
+		final LongVec initNodes = this.dg.getInitNodes();
+		for (int j = 0; j < initNodes.size(); j += 2) {
+			resolve(initNodes.elementAt(j), (int) initNodes.elementAt(j + 1));
+		}
+		// Read one level of the breadth-first search at a time. The nodes of
+		// the next level are the ones that get an id assigned while the
+		// successors of the current level are resolved (which is cheap compared
+		// to reading the nodes and thus done by this thread).
+		int lo = 0;
+		while (lo < n) {
+			final int hi = n;
+			this.pool.invoke(new Range(lo, hi, id -> gnodes[id] = readNode(id)));
+			for (int id = lo; id < hi; id++) {
+				final GraphNode gnode = this.gnodes[id];
+				final int succCnt = gnode.succSize();
+				final int[] ids = new int[succCnt];
+				for (int i = 0; i < succCnt; i++) {
+					ids[i] = resolve(gnode.getStateFP(i), gnode.getTidx(i));
+				}
+				this.succs[id] = ids;
+			}
+			lo = hi;
+		}
+	}
+
+	/**
+	 * @return The id of the given node, which is assigned if the node is
+	 *         reached for the first time, or -1 if the node is not done or
+	 *         closed (see {@link AbstractDiskGraph#CLOSED_LINK}).
+	 */
+	private int resolve(final long fp, final int tidx) {
+		final long link = this.dg.getLink(fp, tidx);
+		if (link < 0) {
+			// isFinalCheck => link # UNDONE (see LiveWorker#checkSccs)
+			assert !isFinalCheck || link != TableauNodePtrTable.UNDONE;
+			return -1;
+		}
+		if (link == AbstractDiskGraph.CLOSED_LINK) {
+			return -1;
+		}
+		if (!AbstractDiskGraph.isFilePointer(link)) {
+			return (int) (link - AbstractDiskGraph.MAX_PTR);
+		}
+		if (n == this.fps.length) {
+			final int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * n);
+			this.fps = Arrays.copyOf(this.fps, capacity);
+			this.tidxs = Arrays.copyOf(this.tidxs, capacity);
+			this.locs = Arrays.copyOf(this.locs, capacity);
+			this.gnodes = Arrays.copyOf(this.gnodes, capacity);
+			this.succs = Arrays.copyOf(this.succs, capacity);
+		}
+		final int id = n++;
+		this.fps[id] = fp;
+		this.tidxs[id] = tidx;
+		this.locs[id] = link;
+		this.dg.putLink(fp, tidx, AbstractDiskGraph.MAX_PTR + id);
+		return id;
+	}
+
+	private GraphNode readNode(final int id) throws IOException {
+		// Threads share the mapped view of the nodes file if any.
+		final MappedGraphNodes mapped = this.dg.getMappedNodes();
+		if (mapped != null && mapped.contains(this.locs[id])) {
+			return mapped.read(this.fps[id], this.tidxs[id], this.locs[id]);
+		}
+		return AbstractDiskGraph.getNodeFromDisk(getReader(), this.fps[id], this.tidxs[id], this.locs[id]);
+	}
+
+	private BufferedRandomAccessFile getReader() throws IOException {
+		final Thread thread = Thread.currentThread();
+		BufferedRandomAccessFile reader = this.readers.get(thread);
+		if (reader == null) {
+			reader = this.dg.newNodeReader();
+			this.readers.put(thread, reader);
+		}
+		return reader;
+	}
+
+	private void addEdges(final int id, final AtomicIntegerArray inCnt) {
+		final int slen = this.oos.getCheckState().length;
+		final int alen = this.oos.getCheckAction().length;
+		final GraphNode gnode = this.gnodes[id];
+		final int[] ids = this.succs[id];
+		final int[] succ = new int[ids.length];
+		int cnt = 0;
+		for (int i = 0; i < ids.length; i++) {
+			final int next = ids[i];
+			if (next < 0 || !gnode.getCheckAction(slen, alen, i, this.pem.EAAction)) {
+				continue;
+			}
+			if (next == id) {
+				this.stuttering[id] = true;
+			} else {
+				succ[cnt++] = next;
+				inCnt.incrementAndGet(next);
+			}
+		}
+		this.out[id] = cnt == succ.length ? succ : Arrays.copyOf(succ, cnt);
+	}
+
+	private interface IdFunction {
+		void apply(int id) throws IOException;
+	}
+
+	/**
+	 * Applies a function to the ids of a range of node ids in batches of
+	 * {@link ParallelSccSearch#Batch} ids.
+	 */
+	@SuppressWarnings("serial")
+	private static final class Range extends RecursiveAction {
+		private final int lo;
+		private final int hi;
+		private final IdFunction function;
+
+		Range(final int lo, final int hi, final IdFunction function) {
+			this.lo = lo;
+			this.hi = hi;
+			this.function = function;
+		}
+
+		@Override
+		protected void compute() {
+			if (hi - lo > Batch) {
+				final int mid = (lo + hi) >>> 1;
+				invokeAll(new Range(lo, mid, function), new Range(mid, hi, function));
+				return;
+			}
+			try {
+				for (int id = lo; id < hi; id++) {
+					function.apply(id);
+				}
+			} catch (IOException e) {
+				throw new WrappedException(e);
+			}
+		}
+	}
+
+	/* Decomposition */
+
+	@SuppressWarnings("serial")
+	private final class Decompose extends RecursiveAction {
+		private int[] members;
+		private int size;
+		private int c;
+
+		Decompose(final int[] members, final int size, final int c) {
+			this.members = members;
+			this.size = size;
+			this.c = c;
+		}
+
+		@Override
+		protected void compute() {
+			final List<Decompose> forked = new ArrayList<>();
+			// Continue with the largest partition and fork the smaller ones,
+			// which bounds the depth of the recursion.
+			while (size > 0 && !LiveWorker.hasErrFound()) {
+				final int[] rest = trim(members, size, c);
+				final int r = rest.length;
+				if (r == 0) {
+					break;
+				}
+				if (r <= Cutoff) {
+					tarjan(rest, c);
+					break;
+				}
+
+				// The pivot is in the middle of the breadth-first order, which
+				// splits a chain of SCCs in halves.
+				final int pivot = rest[r >>> 1];
+				final int cf = colors.incrementAndGet();
+				final int cb = colors.incrementAndGet();
+
+				// The nodes forward reachable from pivot.
+				final int[] fw = new int[r];
+				int f = 0;
+				color[pivot] = cf;
+				fw[f++] = pivot;
+				for (int h = 0; h < f; h++) {
+					for (final int succ : out[fw[h]]) {
+						if (color[succ] == c) {
+							color[succ] = cf;
+							fw[f++] = succ;
+						}
+					}
+				}
+				// The nodes backward reachable from pivot, of which the forward
+				// reachable ones form the SCC of pivot.
+				final int[] bw = new int[r];
+				int b = 0;
+				color[pivot] = DONE;
+				bw[b++] = pivot;
+				for (int h = 0; h < b; h++) {
+					for (final int pred : in[bw[h]]) {
+						if (color[pred] == cf) {
+							color[pred] = DONE;
+							bw[b++] = pred;
+						} else if (color[pred] == c) {
+							color[pred] = cb;
+							bw[b++] = pred;
+						}
+					}
+				}
+
+				final int[] scc = new int[b];
+				int s = 0;
+				final int[] bOnly = new int[b];
+				int bo = 0;
+				for (int i = 0; i < b; i++) {
+					if (color[bw[i]] == DONE) {
+						scc[s++] = bw[i];
+					} else {
+						bOnly[bo++] = bw[i];
+					}
+				}
+				report(scc, s);
+
+				final int[] fOnly = new int[f];
+				int fo = 0;
+				for (int i = 0; i < f; i++) {
+					if (color[fw[i]] == cf) {
+						fOnly[fo++] = fw[i];
+					}
+				}
+				final int[] neither = new int[r];
+				int ne = 0;
+				for (int i = 0; i < r; i++) {
+					if (color[rest[i]] == c) {
+						neither[ne++] = rest[i];
+					}
+				}
+
+				// Fork all but the largest partition.
+				final Decompose[] partitions = new Decompose[] { new Decompose(fOnly, fo, cf),
+						new Decompose(bOnly, bo, cb), new Decompose(neither, ne, c) };
+				int largest = 0;
+				for (int i = 1; i < partitions.length; i++) {
+					if (partitions[i].size > partitions[largest].size) {
+						largest = i;
+					}
+				}
+				for (int i = 0; i < partitions.length; i++) {
+					if (i != largest && partitions[i].size > 0) {
+						forked.add(partitions[i]);
+						partitions[i].fork();
+					}
+				}
+				members = partitions[largest].members;
+				size = partitions[largest].size;
+				c = partitions[largest].c;
+			}
+			for (final Decompose d : forked) {
+				d.join();
+			}
+		}
+	}
+
+	/**
+	 * Removes the nodes from the given partition, which have no predecessor or
+	 * no successor in the partition (transitively), and reports each as an
+	 * SCC.
+	 * 
+	 * @return The remaining nodes of the partition.
+	 */
+	private int[] trim(final int[] members, final int size, final int c) {
+		final int[] queue = new int[size];
+		int tail = 0;
+		for (int i = 0; i < size; i++) {
+			final int id = members[i];
+			int cnt = 0;
+			for (final int succ : out[id]) {
+				if (color[succ] == c) {
+					cnt++;
+				}
+			}
+			outDegree[id] = cnt;
+			cnt = 0;
+			for (final int pred : in[id]) {
+				if (color[pred] == c) {
+					cnt++;
+				}
+			}
+			inDegree[id] = cnt;
+		}
+		for (int i = 0; i < size; i++) {
+			final int id = members[i];
+			if (inDegree[id] == 0 || outDegree[id] == 0) {
+				color[id] = DONE;
+				queue[tail++] = id;
+			}
+		}
+		final int[] singleton = new int[1];
+		for (int head = 0; head < tail; head++) {
+			final int id = queue[head];
+			singleton[0] = id;
+			report(singleton, 1);
+			for (final int succ : out[id]) {
+				if (color[succ] == c && --inDegree[succ] == 0) {
+					color[succ] = DONE;
+					queue[tail++] = succ;
+				}
+			}
+			for (final int pred : in[id]) {
+				if (color[pred] == c && --outDegree[pred] == 0) {
+					color[pred] = DONE;
+					queue[tail++] = pred;
+				}
+			}
+		}
+		final int[] rest = new int[size - tail];
+		int r = 0;
+		for (int i = 0; i < size; i++) {
+			if (color[members[i]] == c) {
+				rest[r++] = members[i];
+			}
+		}
+		return rest;
+	}
+
+	/**
+	 * Tarjan's algorithm on the given partition. A node of the partition that
+	 * has been visited is on Tarjan's stack iff it still has the partition's
+	 * color.
+	 */
+	private void tarjan(final int[] members, final int c) {
+		final int size = members.length;
+		for (int i = 0; i < size; i++) {
+			index[members[i]] = -1;
+		}
+		final int[] stack = new int[size];
+		int sp = 0;
+		final int[] callNode = new int[size];
+		final int[] callEdge = new int[size];
+		int csp = 0;
+		int counter = 0;
+		for (int i = 0; i < size; i++) {
+			final int root = members[i];
+			if (color[root] != c || index[root] != -1) {
+				continue;
+			}
+			index[root] = lowLink[root] = counter++;
+			stack[sp++] = root;
+			callNode[csp] = root;
+			callEdge[csp++] = 0;
+			while (csp > 0) {
+				final int id = callNode[csp - 1];
+				final int[] succ = out[id];
+				final int e = callEdge[csp - 1];
+				if (e < succ.length) {
+					callEdge[csp - 1]++;
+					final int next = succ[e];
+					if (color[next] != c) {
+						continue;
+					}
+					if (index[next] == -1) {
+						index[next] = lowLink[next] = counter++;
+						stack[sp++] = next;
+						callNode[csp] = next;
+						callEdge[csp++] = 0;
+					} else {
+						lowLink[id] = Math.min(lowLink[id], index[next]);
+					}
+				} else {
+					csp--;
+					if (lowLink[id] == index[id]) {
+						int start = sp;
+						do {
+							color[stack[--start]] = DONE;
+						} while (stack[start] != id);
+						report(Arrays.copyOfRange(stack, start, sp), sp - start);
+						sp = start;
+					}
+					if (csp > 0) {
+						final int parent = callNode[csp - 1];
+						lowLink[parent] = Math.min(lowLink[parent], lowLink[id]);
+					}
+				}
+			}
+		}
+	}
+
+	/* Checking */
+
+	/**
+	 * Checks the given SCC for a "bad" cycle and prints the counter-example (if
+	 * this is the first to find one).
+	 */
+	private void report(final int[] scc, final int size) {
+		// A single node is a trivial component unless it stutters.
+		if (size == 1 && !this.stuttering[scc[0]]) {
+			return;
+		}
+		if (LiveWorker.hasErrFound()) {
+			return;
+		}
+		final int id = components.incrementAndGet();
+		for (int i = 0; i < size; i++) {
+			this.component[scc[i]] = id;
+		}
+		LiveWorker.STATS.addSample(size);
+
+		if (isPSatisfiable(scc, size, id) && this.worker.setErrFound()) {
+			// Start the counter-example at the node closest to the initial
+			// nodes, which has the smallest id. 
+			int start = scc[0];
+			final TableauNodePtrTable com = new TableauNodePtrTable(Math.max(128, size));
+			for (int i = 0; i < size; i++) {
+				start = Math.min(start, scc[i]);
+				com.put(this.fps[scc[i]], this.tidxs[scc[i]], this.locs[scc[i]]);
+			}
+			try {
+				this.worker.printTrace(this.tool, this.fps[start], this.tidxs[start], com);
+			} catch (IOException | InterruptedException | ExecutionException e) {
+				throw new WrappedException(e);
+			}
+		}
+	}
+
+	/**
+	 * @return true iff the given SCC satisfies the AEState, AEAction and
+	 *         promises of the PEM (see LiveWorker#checkComponent).
+	 */
+	private boolean isPSatisfiable(final int[] scc, final int size, final int id) {
+		final int slen = this.oos.getCheckState().length;
+		final int alen = this.oos.getCheckAction().length;
+		final int aeslen = this.pem.AEState.length;
+		final int aealen = this.pem.AEAction.length;
+		final int plen = this.oos.getPromises().length;
+		final boolean[] AEStateRes = new boolean[aeslen];
+		final boolean[] AEActionRes = new boolean[aealen];
+		final boolean[] promiseRes = new boolean[plen];
+
+		for (int k = 0; k < size; k++) {
+			final GraphNode curNode = this.gnodes[scc[k]];
+			for (int i = 0; i < aeslen; i++) {
+				if (!AEStateRes[i]) {
+					AEStateRes[i] = curNode.getCheckState(this.pem.AEState[i]);
+				}
+			}
+			if (aealen > 0) {
+				final int[] ids = this.succs[scc[k]];
+				for (int i = 0; i < ids.length; i++) {
+					// Only transitions within the SCC that satisfy EAAction.
+					if (ids[i] < 0 || this.component[ids[i]] != id
+							|| !curNode.getCheckAction(slen, alen, i, this.pem.EAAction)) {
+						continue;
+					}
+					for (int j = 0; j < aealen; j++) {
+						if (!AEActionRes[j]) {
+							AEActionRes[j] = curNode.getCheckAction(slen, alen, i, this.pem.AEAction[j]);
+						}
+					}
+				}
+			}
+			for (int i = 0; i < plen; i++) {
+				if (!promiseRes[i] && this.oos.isFulfilling(curNode.tindex, i)) {
+					promiseRes[i] = true;
+				}
+			}
+		}
+		for (int i = 0; i < aeslen; i++) {
+			if (!AEStateRes[i]) {
+				return false;
+			}
+		}
+		for (int i = 0; i < aealen; i++) {
+			if (!AEActionRes[i]) {
+				return false;
+			}
+		}
+		for (int i = 0; i < plen; i++) {
+			if (!promiseRes[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings("serial")
+	private static final class WrappedException extends RuntimeException {
+		WrappedException(final Exception cause) {
+			super(cause);
+		}
+	}
+}
@@ -43,7 +43,7 @@ public class TableauDiskGraph extends AbstractDiskGraph {
 	
 	public TableauDiskGraph(String metadir, int soln, IBucketStatistics graphStats) throws IOException {
 		super(metadir, soln, graphStats);
-		this.nodePtrTbl = new TableauNodePtrTable(255);
+		this.nodePtrTbl = newNodePtrTable();
 	}
 	
 	public final long getPtr(long fp, int tidx) {
@@ -175,14 +175,7 @@ public class TableauDiskGraph extends AbstractDiskGraph {
 	 */
 	public long putLink(long state, int tidx, long link) {
 		assert MAX_PTR <= link && link < MAX_LINK; 
-		int[] node = this.nodePtrTbl.getNodes(state);
-		int cloc = this.nodePtrTbl.getIdx(node, tidx);
-		long oldLink = TableauNodePtrTable.getElem(node, cloc);
-		if (!isFilePointer(oldLink)) {
-			return oldLink;
-		}
-		TableauNodePtrTable.putElem(node, link, cloc);
-		return -1;
+		return this.nodePtrTbl.putLink(state, tidx, link);
 	}
 
 	/* (non-Javadoc)
@@ -192,12 +185,28 @@ public class TableauDiskGraph extends AbstractDiskGraph {
 		this.nodePtrTbl.put(state, tidx, MAX_LINK);
 	}
 
+	/* (non-Javadoc)
+	 * @see tlc2.tool.liveness.AbstractDiskGraph#setClosedLink(long, int)
+	 */
+	public void setClosedLink(long state, int tidx) {
+		this.nodePtrTbl.put(state, tidx, CLOSED_LINK);
+	}
+
 	public final void reset() throws IOException {
 		this.nodePtrRAF.setLength(0);
 		this.nodeRAF.setLength(0);
-		this.nodePtrTbl = new TableauNodePtrTable(255);
+		this.nodePtrTbl.free();
+		this.nodePtrTbl = newNodePtrTable();
 	 }
 
+	protected void freeNodePtrTbl() {
+		this.nodePtrTbl.free();
+	}
+
+	private static TableauNodePtrTable newNodePtrTable() {
+		return OFF_HEAP ? new OffHeapTableauNodePtrTable(255) : new TableauNodePtrTable(255);
+	}
+
 	/* (non-Javadoc)
 	 * @see tlc2.tool.liveness.AbstractDiskGraph#size()
 	 */
@@ -206,18 +215,21 @@ public class TableauDiskGraph extends AbstractDiskGraph {
 	}
 
 	/* (non-Javadoc)
-	 * @see tlc2.tool.liveness.AbstractDiskGraph#makeNodePtrTbl(long)
+	 * @see tlc2.tool.liveness.AbstractDiskGraph#makeNodePtrTbl(long, boolean)
 	 */
-	protected void makeNodePtrTbl(final long ptr) throws IOException  {
-		makeNodePtrTbl(ptr, nodePtrTbl);
+	protected void makeNodePtrTbl(final long ptr, final boolean keepClosed) throws IOException  {
+		makeNodePtrTbl(ptr, nodePtrTbl, keepClosed);
 	}
 	
-	protected void makeNodePtrTbl(final long ptr, final TableauNodePtrTable aTable) throws IOException  {
+	protected void makeNodePtrTbl(final long ptr, final TableauNodePtrTable aTable, final boolean keepClosed) throws IOException  {
 		this.nodePtrRAF.seek(0);
 		while (this.nodePtrRAF.getFilePointer() < ptr) {
 			long fp = this.nodePtrRAF.readLong();
 			int tidx = this.nodePtrRAF.readInt();
 			long loc = this.nodePtrRAF.readLongNat();
+			if (keepClosed && aTable.get(fp, tidx) == CLOSED_LINK) {
+				continue;
+			}
 			aTable.put(fp, tidx, loc);
 		}
 	}
@@ -341,7 +353,7 @@ public class TableauDiskGraph extends AbstractDiskGraph {
 		// They are incompatible with the way other parts of the code use the
 		// NodePtrTable.
 		final TableauNodePtrTable reversablePtrTable = new ReverseTraversableTableauNodePtrTable(255);
-		this.makeNodePtrTbl(this.nodePtrRAF.length(), reversablePtrTable);
+		this.makeNodePtrTbl(this.nodePtrRAF.length(), reversablePtrTable, false);
 
 		// Do breadth-first search (BFS guarantees we find the *shortest* path
 		// which is most comprehensible):
@@ -65,6 +65,8 @@ package tlc2.tool.liveness;
  * <p>
  * Internally {@link TableauNodePtrTable} hashes the node's fingerprint to a
  * bucket address. In case of hash collision, open addressing is used.
+ * 
+ * @see OffHeapTableauNodePtrTable
  */
 public class TableauNodePtrTable {
 
@@ -97,19 +99,24 @@ public class TableauNodePtrTable {
 	}
 
 	/* The number of elements in this table. */
-	public final int size() {
+	public int size() {
 		return this.count;
 	}
 
-	public final int getSize() {
+	public int getSize() {
 		return this.length;
 	}
 
+	/* Release the memory of this table (see OffHeapNodePtrTable). */
+	public void free() {
+		// Left to the garbage collector.
+	}
+
 	/**
 	 * Return the value associated with the key <k, tidx> if the table contains
 	 * <k, tidx>. Otherwise, return -1.
 	 */
-	public final long get(final long k, final int tidx) {
+	public long get(final long k, final int tidx) {
 		if (count >= thresh) {
 			this.grow();
 		}
@@ -134,7 +141,7 @@ public class TableauNodePtrTable {
 	 * Add <tidx, elem> into the table. If the table has already contained <k,
 	 * tidx>, overwrite the old value.
 	 */
-	public final void put(long k, int tidx, long elem) {
+	public void put(long k, int tidx, long elem) {
 		if (this.count >= this.thresh) {
 			this.grow();
 		}
@@ -177,7 +184,7 @@ public class TableauNodePtrTable {
 	 * Return k's location if the table contains <k, tidx>. Otherwise, return
 	 * -1.
 	 */
-	public final int getLoc(long k, int tidx) {
+	public int getLoc(long k, int tidx) {
 		if (count >= thresh) {
 			this.grow();
 		}
@@ -198,7 +205,7 @@ public class TableauNodePtrTable {
 	}
 
 	/* Return all nodes with key k. Return null if this does not contain k. */
-	public final int[] getNodes(long k) {
+	public int[] getNodes(long k) {
 		if (count >= thresh) {
 			this.grow();
 		}
@@ -216,7 +223,7 @@ public class TableauNodePtrTable {
 	}
 
 	/* Return k's location. Return -1 if this does not contain k. */
-	public final int getNodesLoc(long k) {
+	public int getNodesLoc(long k) {
 		if (count >= thresh) {
 			this.grow();
 		}
@@ -233,7 +240,7 @@ public class TableauNodePtrTable {
 		}
 	}
 
-	public final int[] getNodesByLoc(int loc) {
+	public int[] getNodesByLoc(int loc) {
 		return this.nodes[loc];
 	}
 
@@ -242,7 +249,7 @@ public class TableauNodePtrTable {
 	 * If we have done with k and a new node is being added, we must get this
 	 * new node done.
 	 */
-	public final boolean isDone(long k) {
+	public boolean isDone(long k) {
 		int[] node = this.getNodes(k);
 		if (node == null) {
 			return false;
@@ -255,7 +262,7 @@ public class TableauNodePtrTable {
 	}
 
 	// Called by addNextState
-	public final int setDone(long k) {
+	public int setDone(long k) {
 		if (this.count >= this.thresh) {
 			this.grow();
 		}
@@ -278,6 +285,24 @@ public class TableauNodePtrTable {
 		}
 	}
 
+	/**
+	 * Replaces the element of <k, tidx> with the given link unless the element
+	 * already is a link (and no file pointer).
+	 * 
+	 * @return The element of <k, tidx> if it already is a link, -1 otherwise.
+	 * @see AbstractDiskGraph#putLink(long, int, long)
+	 */
+	public long putLink(long k, int tidx, long link) {
+		int[] node = this.getNodes(k);
+		int cloc = this.getIdx(node, tidx);
+		long oldLink = getElem(node, cloc);
+		if (!AbstractDiskGraph.isFilePointer(oldLink)) {
+			return oldLink;
+		}
+		putElem(node, link, cloc);
+		return -1;
+	}
+
 	private final void put(int[] node) {
 		long k = getKey(node);
 		int loc = ((int) k & 0x7FFFFFFF) % this.length;
@@ -299,7 +324,7 @@ public class TableauNodePtrTable {
 	 * @see TableauNodePtrTable#setSeen(int[])
 	 * @see TableauNodePtrTable#setSeen(int[], int)
 	 */
-	public final void resetElems() {
+	public void resetElems() {
 		// Only called when the error trace is being printed. 
 		for (int i = 0; i < this.nodes.length; i++) {
 			int[] node = this.nodes[i];
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import tlc2.output.EC;
+import tlc2.tool.TLCState;
+import tlc2.value.ValueInputStream;
+import tlc2.value.ValueOutputStream;
+import util.Assert;
+import util.FileUtil;
+
+/**
+ * An {@link OffHeapStateQueue} keeps the states in direct (off-heap) memory
+ * instead of on the Java heap (see {@link MemStateQueue}) or on disk (see
+ * {@link DiskStateQueue}). The states are encoded by a {@link StateCodec} into
+ * consecutive records of a sequence of segments. A record is the length of the
+ * encoding followed by the encoding. A state is only decoded when it gets
+ * dequeued. A segment is released (or reused) once all of its states have been
+ * dequeued.
+ * <p>
+ * Direct memory is limited by -XX:MaxDirectMemorySize.
+ */
+public final class OffHeapStateQueue extends StateQueue {
+
+	private static final int SegmentSize = Integer.getInteger(OffHeapStateQueue.class.getName() + ".segmentSize",
+			1 << 24);
+
+	/* Fields */
+	private final String diskdir;
+	private final StateCodec codec = new StateCodec();
+	/**
+	 * States are dequeued from the first segment and enqueued into the last
+	 * segment. The position of a segment is the position at which the next
+	 * record gets appended.
+	 */
+	private final ArrayDeque<ByteBuffer> segments = new ArrayDeque<>();
+	/**
+	 * The position of the next record to be dequeued from the first segment.
+	 */
+	private int deqPos = 0;
+	/**
+	 * A segment whose states have all been dequeued, which is reused by the
+	 * next segment to be allocated.
+	 */
+	private ByteBuffer spare;
+
+	/**
+	 * TESTING ONLY!
+	 */
+	OffHeapStateQueue() throws IOException {
+		this(Files.createTempDirectory("OffHeapStateQueue").toFile().toString());
+	}
+
+	public OffHeapStateQueue(final String metadir) {
+		this.diskdir = metadir;
+	}
+
+	final void enqueueInner(final TLCState state) {
+		final int length = this.codec.encode(state);
+		ByteBuffer segment = this.segments.peekLast();
+		if (segment != null && this.segments.size() == 1 && this.deqPos == segment.position()) {
+			// All states have been dequeued, start over.
+			segment.clear();
+			this.deqPos = 0;
+		}
+		if (segment == null || segment.remaining() < 4 + length) {
+			segment = allocate(4 + length);
+			this.segments.addLast(segment);
+		}
+		segment.putInt(length);
+		segment.put(this.codec.getBytes(), 0, length);
+	}
+
+	final TLCState dequeueInner() {
+		final ByteBuffer segment = first();
+		final TLCState state = this.codec.decode(segment, this.deqPos + 4);
+		this.deqPos += 4 + segment.getInt(this.deqPos);
+		return state;
+	}
+
+	final TLCState peekInner() {
+		return this.codec.decode(first(), this.deqPos + 4);
+	}
+
+	/**
+	 * @return The segment that contains the next record to be dequeued.
+	 */
+	private final ByteBuffer first() {
+		ByteBuffer segment = this.segments.peekFirst();
+		if (this.deqPos == segment.position()) {
+			// The queue is not empty, thus there is a next segment.
+			this.segments.removeFirst();
+			if (this.spare == null && segment.capacity() == SegmentSize) {
+				segment.clear();
+				this.spare = segment;
+			}
+			segment = this.segments.peekFirst();
+			this.deqPos = 0;
+		}
+		return segment;
+	}
+
+	private final ByteBuffer allocate(final int minCapacity) {
+		if (this.spare != null && minCapacity <= this.spare.capacity()) {
+			final ByteBuffer segment = this.spare;
+			this.spare = null;
+			return segment;
+		}
+		try {
+			return ByteBuffer.allocateDirect(Math.max(SegmentSize, minCapacity));
+		} catch (OutOfMemoryError e) {
+			Assert.fail(EC.SYSTEM_ERROR_WRITING_STATES, new String[] { "queue",
+					"Out of off-heap memory (increase -XX:MaxDirectMemorySize): " + e.getMessage() });
+			return null; // make compiler happy
+		}
+	}
+
+	// Checkpoint.
+	public final void beginChkpt() throws IOException {
+		final String filename = this.diskdir + FileUtil.separator + "queue.tmp";
+		final ValueOutputStream vos = new ValueOutputStream(filename);
+		vos.writeLong(this.len);
+		final Iterator<ByteBuffer> itr = this.segments.iterator();
+		int pos = this.deqPos;
+		while (itr.hasNext()) {
+			final ByteBuffer segment = itr.next();
+			while (pos < segment.position()) {
+				this.codec.decode(segment, pos + 4).write(vos);
+				pos += 4 + segment.getInt(pos);
+			}
+			pos = 0;
+		}
+		vos.close();
+	}
+
+	public final void commitChkpt() throws IOException {
+		final File oldChkpt = new File(this.diskdir + FileUtil.separator + "queue.chkpt");
+		final File newChkpt = new File(this.diskdir + FileUtil.separator + "queue.tmp");
+		if ((oldChkpt.exists() && !oldChkpt.delete()) || !newChkpt.renameTo(oldChkpt)) {
+			throw new IOException("OffHeapStateQueue.commitChkpt: cannot delete " + oldChkpt);
+		}
+	}
+
+	public final void recover() throws IOException {
+		final String filename = this.diskdir + FileUtil.separator + "queue.chkpt";
+		final ValueInputStream vis = new ValueInputStream(filename);
+		this.len = vis.readLong();
+		for (long i = 0; i < this.len; i++) {
+			final TLCState state = TLCState.Empty.createEmpty();
+			state.read(vis);
+			this.enqueueInner(state);
+		}
+		vis.close();
+	}
+}
@@ -0,0 +1,446 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import tlc2.tool.TLCState;
+import tlc2.tool.TLCStateMut;
+import tlc2.value.IValue;
+import tlc2.value.impl.BoolValue;
+import tlc2.value.impl.FcnRcdValue;
+import tlc2.value.impl.IntValue;
+import tlc2.value.impl.IntervalValue;
+import tlc2.value.impl.ModelValue;
+import tlc2.value.impl.RecordValue;
+import tlc2.value.impl.SetEnumValue;
+import tlc2.value.impl.StringValue;
+import tlc2.value.impl.TupleValue;
+import tlc2.value.impl.Value;
+import util.UniqueString;
+import util.WrongInvocationException;
+
+/**
+ * A {@link StateCodec} encodes a {@link TLCStateMut} into a compact byte
+ * representation for {@link OffHeapStateQueue}. Contrary to
+ * {@link TLCState#write(tlc2.value.IValueOutputStream)}, the encoding is only
+ * meaningful to the {@link StateCodec} that created it:
+ * <ul>
+ * <li>The values are written in the order of the state's variables without
+ * any variable names.</li>
+ * <li>Integers and the state's header are variable-length encoded.</li>
+ * <li>Strings, the (normalized) domains of functions, and the field names of
+ * records are replaced by an index into a table of this codec. In most specs,
+ * the states share only a handful of domains, e.g. the set of processes, which
+ * is why a function is usually encoded as its range values only.</li>
+ * </ul>
+ * Values of other kinds are encoded in the format of
+ * {@link DiskByteArrayQueue}.
+ * <p>
+ * A {@link StateCodec} is not thread-safe.
+ */
+final class StateCodec {
+
+	private static final byte FALSE = 0;
+	private static final byte TRUE = 1;
+	private static final byte INT = 2;
+	private static final byte MODEL = 3;
+	private static final byte STRING = 4;
+	private static final byte FCN = 5;
+	private static final byte FCN_INLINE = 6;
+	private static final byte FCN_INTERVAL = 7;
+	private static final byte RECORD = 8;
+	private static final byte RECORD_INLINE = 9;
+	private static final byte TUPLE = 10;
+	private static final byte SET = 11;
+	private static final byte INTERVAL = 12;
+	private static final byte OTHER = 13;
+
+	/**
+	 * The maximum number of domains and field names in the table. Beyond this,
+	 * domains and field names are encoded inline.
+	 */
+	private static final int MaxShapes = 1 << 16;
+
+	/**
+	 * The table of domains (Value[]) and field names (UniqueString[]). The
+	 * encoding refers to an element by its index. Only the arrays of normalized
+	 * values are added, because normalization sorts a domain in place.
+	 */
+	private final List<Object[]> shapes = new ArrayList<>();
+	private final Map<Shape, Integer> shapeIds = new HashMap<>();
+	/**
+	 * Caches the ids of the arrays recently looked up in shapeIds. Functions
+	 * created with EXCEPT share the domain array with the original function.
+	 */
+	private final Map<Object[], Integer> identities = new IdentityHashMap<>();
+
+	private final List<UniqueString> strings = new ArrayList<>();
+	private final Map<UniqueString, Integer> stringIds = new IdentityHashMap<>();
+
+	private final DiskByteArrayQueue.ByteValueOutputStream vos = new DiskByteArrayQueue.ByteValueOutputStream();
+
+	/**
+	 * The encoding of the last state passed to {@link #encode(TLCState)}.
+	 */
+	private byte[] bytes = new byte[256];
+	private int pos;
+
+	/**
+	 * The buffer and position of the state being decoded.
+	 */
+	private ByteBuffer in;
+	private int inPos;
+
+	/* Encoding */
+
+	/**
+	 * Encodes the given state into {@link #getBytes()}.
+	 *
+	 * @return The length of the encoding.
+	 */
+	final int encode(final TLCState state) {
+		final TLCStateMut s = (TLCStateMut) state;
+		this.pos = 0;
+		writeVarLong(s.workerId);
+		writeVarLong(s.uid);
+		writeVarLong(s.getLevel());
+		final IValue[] values = s.getValues();
+		for (int i = 0; i < values.length; i++) {
+			write(values[i]);
+		}
+		return this.pos;
+	}
+
+	final byte[] getBytes() {
+		return this.bytes;
+	}
+
+	private final void write(final IValue value) {
+		if (value instanceof BoolValue) {
+			writeByte(((BoolValue) value).val ? TRUE : FALSE);
+		} else if (value instanceof IntValue) {
+			writeByte(INT);
+			writeZigZag(((IntValue) value).val);
+		} else if (value instanceof ModelValue) {
+			writeByte(MODEL);
+			writeVarLong(((ModelValue) value).index);
+		} else if (value instanceof StringValue) {
+			writeByte(STRING);
+			writeVarLong(stringId(((StringValue) value).val));
+		} else if (value instanceof FcnRcdValue) {
+			final FcnRcdValue fcn = (FcnRcdValue) value;
+			if (fcn.intv != null) {
+				writeByte(FCN_INTERVAL);
+				writeZigZag(fcn.intv.low);
+				writeZigZag(fcn.intv.high);
+			} else {
+				final int id = fcn.isNormalized() ? shapeId(fcn.domain) : -1;
+				if (id >= 0) {
+					writeByte(FCN);
+					writeVarLong(id);
+				} else {
+					writeByte(FCN_INLINE);
+					writeByte(fcn.isNormalized() ? TRUE : FALSE);
+					write(fcn.domain);
+				}
+			}
+			// The length of the range equals the length of the domain.
+			for (int i = 0; i < fcn.values.length; i++) {
+				write(fcn.values[i]);
+			}
+		} else if (value instanceof RecordValue) {
+			final RecordValue rcd = (RecordValue) value;
+			final int id = rcd.isNormalized() ? shapeId(rcd.names) : -1;
+			if (id >= 0) {
+				writeByte(RECORD);
+				writeVarLong(id);
+			} else {
+				writeByte(RECORD_INLINE);
+				writeByte(rcd.isNormalized() ? TRUE : FALSE);
+				writeVarLong(rcd.names.length);
+				for (int i = 0; i < rcd.names.length; i++) {
+					writeVarLong(stringId(rcd.names[i]));
+				}
+			}
+			for (int i = 0; i < rcd.values.length; i++) {
+				write(rcd.values[i]);
+			}
+		} else if (value instanceof TupleValue) {
+			writeByte(TUPLE);
+			write(((TupleValue) value).elems);
+		} else if (value instanceof SetEnumValue) {
+			final SetEnumValue set = (SetEnumValue) value;
+			writeByte(SET);
+			writeByte(set.isNormalized() ? TRUE : FALSE);
+			final int size = set.elems.size();
+			writeVarLong(size);
+			for (int i = 0; i < size; i++) {
+				write(set.elems.elementAt(i));
+			}
+		} else if (value.getClass() == IntervalValue.class) {
+			final IntervalValue intv = (IntervalValue) value;
+			writeByte(INTERVAL);
+			writeZigZag(intv.low);
+			writeZigZag(intv.high);
+		} else {
+			writeByte(OTHER);
+			try {
+				value.write(this.vos);
+			} catch (IOException notExpectedToHappen) {
+				// With ByteValueOutputStream
+				throw new WrongInvocationException(notExpectedToHappen.getMessage());
+			}
+			final byte[] other = this.vos.toByteArray();
+			writeVarLong(other.length);
+			ensureCapacity(other.length);
+			System.arraycopy(other, 0, this.bytes, this.pos, other.length);
+			this.pos += other.length;
+		}
+	}
+
+	private final void write(final Value[] values) {
+		writeVarLong(values.length);
+		for (int i = 0; i < values.length; i++) {
+			write(values[i]);
+		}
+	}
+
+	private final int stringId(final UniqueString str) {
+		final Integer id = this.stringIds.get(str);
+		if (id != null) {
+			return id;
+		}
+		// UniqueStrings are interned forever, thus the table is not bounded.
+		this.strings.add(str);
+		this.stringIds.put(str, this.strings.size() - 1);
+		return this.strings.size() - 1;
+	}
+
+	/**
+	 * @return The id of an array equal to the given one or -1 if the table is
+	 *         full.
+	 */
+	private final int shapeId(final Object[] shape) {
+		Integer id = this.identities.get(shape);
+		if (id != null) {
+			return id;
+		}
+		final Shape key = new Shape(shape);
+		id = this.shapeIds.get(key);
+		if (id == null) {
+			if (this.shapes.size() >= MaxShapes) {
+				return -1;
+			}
+			id = this.shapes.size();
+			this.shapes.add(shape);
+			this.shapeIds.put(key, id);
+		}
+		if (this.identities.size() >= MaxShapes) {
+			this.identities.clear();
+		}
+		this.identities.put(shape, id);
+		return id;
+	}
+
+	private final void writeByte(final byte b) {
+		ensureCapacity(1);
+		this.bytes[this.pos++] = b;
+	}
+
+	private final void writeZigZag(final int i) {
+		// In long arithmetic for the result to be non-negative, i.e. at most five
+		// bytes instead of ten for e.g. Integer.MIN_VALUE.
+		writeVarLong((((long) i << 1) ^ (i >> 31)) & 0xFFFFFFFFL);
+	}
+
+	/* The given value is expected to be non-negative. */
+	private final void writeVarLong(long l) {
+		ensureCapacity(10);
+		while ((l & ~0x7FL) != 0L) {
+			this.bytes[this.pos++] = (byte) ((l & 0x7F) | 0x80);
+			l >>>= 7;
+		}
+		this.bytes[this.pos++] = (byte) l;
+	}
+
+	private final void ensureCapacity(final int n) {
+		if (this.pos + n > this.bytes.length) {
+			this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length << 1, this.pos + n));
+		}
+	}
+
+	/* Decoding */
+
+	/**
+	 * Decodes the state whose encoding starts at the given (absolute) position
+	 * of the buffer. The buffer's position is not changed.
+	 */
+	final TLCState decode(final ByteBuffer buffer, final int position) {
+		this.in = buffer;
+		this.inPos = position;
+		final short workerId = (short) readVarLong();
+		final long uid = readVarLong();
+		final int level = (int) readVarLong();
+		final IValue[] values = new IValue[((TLCStateMut) TLCState.Empty).getValues().length];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = read();
+		}
+		final TLCState state = TLCStateMut.createFrom(values);
+		state.workerId = workerId;
+		state.uid = uid;
+		state.setLevel(level);
+		this.in = null;
+		return state;
+	}
+
+	private final Value read() {
+		final byte kind = this.in.get(this.inPos++);
+		switch (kind) {
+		case FALSE:
+			return BoolValue.ValFalse;
+		case TRUE:
+			return BoolValue.ValTrue;
+		case INT:
+			return IntValue.gen(readZigZag());
+		case MODEL:
+			return ModelValue.mvs[(int) readVarLong()];
+		case STRING:
+			return new StringValue(this.strings.get((int) readVarLong()));
+		case FCN: {
+			final Value[] domain = (Value[]) this.shapes.get((int) readVarLong());
+			return new FcnRcdValue(domain, read(domain.length), true);
+		}
+		case FCN_INLINE: {
+			final boolean isNorm = this.in.get(this.inPos++) == TRUE;
+			final Value[] domain = read((int) readVarLong());
+			return new FcnRcdValue(domain, read(domain.length), isNorm);
+		}
+		case FCN_INTERVAL: {
+			final IntervalValue intv = new IntervalValue(readZigZag(), readZigZag());
+			return new FcnRcdValue(intv, read(intv.size()));
+		}
+		case RECORD: {
+			final UniqueString[] names = (UniqueString[]) this.shapes.get((int) readVarLong());
+			return new RecordValue(names, read(names.length), true);
+		}
+		case RECORD_INLINE: {
+			final boolean isNorm = this.in.get(this.inPos++) == TRUE;
+			final UniqueString[] names = new UniqueString[(int) readVarLong()];
+			for (int i = 0; i < names.length; i++) {
+				names[i] = this.strings.get((int) readVarLong());
+			}
+			return new RecordValue(names, read(names.length), isNorm);
+		}
+		case TUPLE:
+			return new TupleValue(read((int) readVarLong()));
+		case SET: {
+			final boolean isNorm = this.in.get(this.inPos++) == TRUE;
+			return new SetEnumValue(read((int) readVarLong()), isNorm);
+		}
+		case INTERVAL:
+			return new IntervalValue(readZigZag(), readZigZag());
+		case OTHER: {
+			final byte[] other = new byte[(int) readVarLong()];
+			for (int i = 0; i < other.length; i++) {
+				other[i] = this.in.get(this.inPos++);
+			}
+			try {
+				return (Value) new DiskByteArrayQueue.ByteValueInputStream(other).read();
+			} catch (IOException notExpectedToHappen) {
+				// With ByteValueInputStream
+				throw new WrongInvocationException(notExpectedToHappen.getMessage());
+			}
+		}
+		default:
+			throw new WrongInvocationException("StateCodec: Can not decode a value of kind " + kind);
+		}
+	}
+
+	private final Value[] read(final int length) {
+		final Value[] values = new Value[length];
+		for (int i = 0; i < length; i++) {
+			values[i] = read();
+		}
+		return values;
+	}
+
+	private final int readZigZag() {
+		final int i = (int) readVarLong();
+		return (i >>> 1) ^ -(i & 1);
+	}
+
+	private final long readVarLong() {
+		long l = 0L;
+		int shift = 0;
+		byte b;
+		do {
+			b = this.in.get(this.inPos++);
+			l |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return l;
+	}
+
+	/**
+	 * Equality of the elements of a domain or the field names of a record.
+	 */
+	private static final class Shape {
+		private final Object[] elems;
+		private final int hash;
+
+		Shape(final Object[] elems) {
+			this.elems = elems;
+			this.hash = Arrays.hashCode(elems);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			final Object[] other = ((Shape) obj).elems;
+			if (this.elems.length != other.length) {
+				return false;
+			}
+			for (int i = 0; i < other.length; i++) {
+				// Only compare values of the same kind because e.g. the comparison of
+				// a model value with a string fails (see ModelValue#equals).
+				if (this.elems[i] != other[i] && (this.elems[i].getClass() != other[i].getClass()
+						|| !this.elems[i].equals(other[i]))) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
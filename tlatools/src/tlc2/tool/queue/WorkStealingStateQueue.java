@@ -0,0 +1,550 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import tlc2.TLCGlobals;
+import tlc2.output.EC;
+import tlc2.output.MP;
+import tlc2.tool.StateVec;
+import tlc2.tool.TLCState;
+import tlc2.tool.Worker;
+import tlc2.util.IdThread;
+
+/**
+ * A {@link WorkStealingStateQueue} gives each {@link Worker} its own deque of
+ * states. A worker enqueues the successor states it generates at the tail of
+ * its own deque and dequeues from the head of its deque without acquiring a
+ * global lock. Only when its own deque is empty, does a worker steal a batch
+ * of (the oldest) states from another worker's deque. States are taken from
+ * the head in both cases to keep the order of exploration close to
+ * breadth-first which in turn keeps counter-examples short.
+ * <p>
+ * Once a worker's deque exceeds {@link #LocalCapacity}, the newest
+ * {@link #BatchSize} states are spilled in a batch to a {@link DiskStateQueue}
+ * which thus also determines the on-disk format (including checkpoints). A
+ * worker whose deque is empty and who cannot steal from any other worker,
+ * refills its deque with a batch of states from the {@link DiskStateQueue}.
+ * <p>
+ * The monitor of this queue is only acquired on the slow path, i.e. when a
+ * worker has to wait for new states, when all workers are done (termination
+ * detection), or when the queue gets suspended for checkpointing. The
+ * protocol is the same as {@link StateQueue}'s.
+ */
+public final class WorkStealingStateQueue implements IStateQueue {
+
+	private final static int LocalCapacity = Integer
+			.getInteger(WorkStealingStateQueue.class.getName() + ".LocalCapacity", 1 << 16);
+	private final static int BatchSize = Integer.getInteger(WorkStealingStateQueue.class.getName() + ".BatchSize",
+			1 << 13);
+
+	/**
+	 * The (in-memory) deques of the workers.
+	 */
+	private final Local[] locals;
+	/**
+	 * Secondary storage for states that exceed the in-memory capacity of the
+	 * workers' deques. All access is synchronized on disk itself.
+	 */
+	private final DiskStateQueue disk;
+	/**
+	 * The number of states in the queue, regardless of whether the states are in
+	 * a worker's deque or on disk.
+	 */
+	private final LongAdder len = new LongAdder();
+
+	private volatile int numWaiting = 0; // the number of waiting threads
+	private volatile boolean finish = false; // terminate
+	/**
+	 * Signals {@link Worker} that checkpointing is going happen next.
+	 */
+	private volatile boolean stop = false; // suspend all workers.
+	/**
+	 * Synchronizes between workers and checkpointing. More precisely it is used
+	 * to notify (wake up) the checkpointing thread once the last worker is
+	 * done.
+	 */
+	private final Object mu = new Object();
+
+	// TESTING ONLY!
+	WorkStealingStateQueue() throws IOException {
+		this(Files.createTempDirectory("WorkStealingStateQueue").toFile().toString());
+	}
+
+	public WorkStealingStateQueue(final String diskdir) {
+		this.disk = new DiskStateQueue(diskdir);
+		this.locals = new Local[TLCGlobals.getNumWorkers()];
+		for (int i = 0; i < locals.length; i++) {
+			this.locals[i] = new Local();
+		}
+	}
+
+	/**
+	 * @return The id of the calling worker or -1 if the calling thread is not one
+	 *         of the workers (e.g. the main thread generating the initial states).
+	 */
+	private final int getWorkerId() {
+		final int id = IdThread.GetId(-1);
+		return id < locals.length ? id : -1;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#enqueue(tlc2.tool.TLCState)
+	 */
+	public final void enqueue(final TLCState state) {
+		this.enqueueInner(state);
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#dequeue()
+	 */
+	public final TLCState dequeue() {
+		return this.dequeueInner(getWorkerId());
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sEnqueue(tlc2.tool.TLCState)
+	 */
+	public final void sEnqueue(final TLCState state) {
+		this.enqueueInner(state);
+		this.notifyWaiting();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sEnqueue(tlc2.tool.TLCState[])
+	 */
+	public final void sEnqueue(final TLCState[] states) {
+		for (int i = 0; i < states.length; i++) {
+			this.enqueueInner(states[i]);
+		}
+		this.notifyWaiting();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sEnqueue(tlc2.tool.StateVec)
+	 */
+	public final void sEnqueue(final StateVec stateVec) {
+		for (int j = 0; j < stateVec.size(); j++) {
+			final TLCState state = stateVec.elementAt(j);
+			if (state != null) {
+				this.enqueueInner(state);
+			}
+		}
+		this.notifyWaiting();
+	}
+
+	private final void enqueueInner(final TLCState state) {
+		final int id = getWorkerId();
+		if (id < 0) {
+			synchronized (this.disk) {
+				this.disk.enqueue(state);
+			}
+		} else {
+			final Local local = this.locals[id];
+			local.addLast(state);
+			if (local.size() > LocalCapacity) {
+				spill(local);
+			}
+		}
+		this.len.increment();
+	}
+
+	/**
+	 * Moves the newest {@link #BatchSize} states of the given deque to disk.
+	 */
+	private final void spill(final Local local) {
+		final TLCState[] batch = new TLCState[BatchSize];
+		int idx = batch.length;
+		TLCState state;
+		while (idx > 0 && (state = local.pollLast()) != null) {
+			batch[--idx] = state;
+		}
+		synchronized (this.disk) {
+			for (int i = idx; i < batch.length; i++) {
+				this.disk.enqueue(batch[i]);
+			}
+		}
+	}
+
+	/**
+	 * Waiting workers (either because they ran out of states or because of a
+	 * checkpoint) are only woken up if there are any. The volatile read of
+	 * numWaiting is all the fast path pays.
+	 */
+	private final void notifyWaiting() {
+		if (this.numWaiting > 0 && !this.stop) {
+			synchronized (this) {
+				this.notifyAll();
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sDequeue()
+	 */
+	public final TLCState sDequeue() {
+		final int id = getWorkerId();
+		if (!this.stop && !this.finish) {
+			final TLCState state = this.dequeueInner(id);
+			if (state != null) {
+				return state;
+			}
+		}
+		return this.sDequeueSlow(id);
+	}
+
+	private final synchronized TLCState sDequeueSlow(final int id) {
+		while (!this.finish) {
+			if (!this.stop) {
+				final TLCState state = this.dequeueInner(id);
+				if (state != null) {
+					return state;
+				}
+			}
+			this.numWaiting++;
+			// the last worker accessing notices that all other workers are
+			// waiting. This indicates that all work is done.
+			if (this.numWaiting >= TLCGlobals.getNumWorkers()) {
+				if (isEmpty()) {
+					this.numWaiting--;
+					return null;
+				}
+				synchronized (this.mu) {
+					this.mu.notify();
+				}
+			}
+			try {
+				this.wait();
+			} catch (Exception e) {
+				MP.printError(EC.GENERAL, "making a worker wait for a state from the queue", e);
+				System.exit(1);
+			}
+			this.numWaiting--;
+		}
+		return null;
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#sDequeue(int)
+	 */
+	public final TLCState[] sDequeue(int cnt) {
+		assert cnt > 0 : "Nonpositive number of states requested.";
+		final TLCState first = sDequeue();
+		if (first == null) {
+			return null;
+		}
+		final int id = getWorkerId();
+		final StateVec states = new StateVec(Math.min(cnt, BatchSize));
+		states.addElement(first);
+		TLCState state;
+		while (states.size() < cnt && (state = dequeueInner(id)) != null) {
+			states.addElement(state);
+		}
+		final TLCState[] res = new TLCState[states.size()];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = states.elementAt(i);
+		}
+		return res;
+	}
+
+	/**
+	 * @return A state from (in this order) the worker's own deque, another
+	 *         worker's deque, or disk. Null iff no state is available.
+	 */
+	private final TLCState dequeueInner(final int id) {
+		TLCState state = null;
+		if (id >= 0) {
+			state = this.locals[id].pollFirst();
+		}
+		if (state == null) {
+			state = steal(id);
+		}
+		if (state == null) {
+			state = refill(id);
+		}
+		if (state != null) {
+			this.len.decrement();
+		}
+		return state;
+	}
+
+	/**
+	 * Steals half of the states (at most {@link #BatchSize}) of the first
+	 * non-empty deque of another worker. All but the first of the stolen states
+	 * are moved to the deque of the thief.
+	 */
+	private final TLCState steal(final int id) {
+		for (int i = 1; i <= this.locals.length; i++) {
+			final int victimId = (Math.max(id, 0) + i) % this.locals.length;
+			if (victimId == id) {
+				continue;
+			}
+			final Local victim = this.locals[victimId];
+			final TLCState first = victim.pollFirst();
+			if (first == null) {
+				continue;
+			}
+			if (id >= 0) {
+				final Local local = this.locals[id];
+				int cnt = Math.min(victim.size() / 2, BatchSize);
+				TLCState state;
+				while (cnt-- > 0 && (state = victim.pollFirst()) != null) {
+					local.addLast(state);
+				}
+			}
+			return first;
+		}
+		return null;
+	}
+
+	/**
+	 * Reads a batch of states from disk into the deque of the worker.
+	 */
+	private final TLCState refill(final int id) {
+		synchronized (this.disk) {
+			final TLCState first = this.disk.dequeue();
+			if (first != null && id >= 0) {
+				final Local local = this.locals[id];
+				for (int i = 1; i < BatchSize && !this.disk.isEmpty(); i++) {
+					local.addLast(this.disk.dequeue());
+				}
+			}
+			return first;
+		}
+	}
+
+	/**
+	 * Contrary to {@link StateQueue#sPeek()}, this does not wait for a state to
+	 * become available but returns null if the queue is empty.
+	 *
+	 * @see tlc2.tool.queue.IStateQueue#sPeek()
+	 */
+	public final synchronized TLCState sPeek() {
+		if (this.finish) {
+			return null;
+		}
+		for (int i = 0; i < this.locals.length; i++) {
+			final TLCState state = this.locals[i].peekFirst();
+			if (state != null) {
+				return state;
+			}
+		}
+		synchronized (this.disk) {
+			return this.disk.isEmpty() ? null : this.disk.peekInner();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#finishAll()
+	 */
+	public final void finishAll() {
+		synchronized (this) {
+			this.finish = true;
+			// Notify all other worker threads.
+			this.notifyAll();
+			// see StateQueue#finishAll
+			synchronized (this.mu) {
+				this.mu.notify();
+			}
+		}
+		this.disk.finishAll();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#suspendAll()
+	 */
+	public final boolean suspendAll() {
+		boolean needWait = false;
+		synchronized (this) {
+			if (this.finish) {
+				return false;
+			}
+			this.stop = true;
+			needWait = needsWaiting();
+		}
+		// Wait for all worker threads to stop (see StateQueue#suspendAll for the
+		// finishAll & suspendAll race).
+		while (needWait) {
+			synchronized (this.mu) {
+				try {
+					if (this.finish) {
+						return false;
+					}
+					this.mu.wait();
+				} catch (Exception e) {
+					MP.printError(EC.GENERAL, "waiting for a worker to wake up", e);
+					System.exit(1);
+				}
+			}
+			synchronized (this) {
+				if (this.finish) {
+					return false;
+				}
+				needWait = needsWaiting();
+			}
+		}
+		return true;
+	}
+
+	private boolean needsWaiting() {
+		// if all workers wait at once, it indicates that all work is
+		// done and suspending all workers can happen right away without
+		// waiting.
+		return this.numWaiting < TLCGlobals.getNumWorkers();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#resumeAll()
+	 */
+	public final synchronized void resumeAll() {
+		this.stop = false;
+		this.notifyAll();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#resumeAllStuck()
+	 */
+	public final void resumeAllStuck() {
+		if (stop) {
+			synchronized (mu) {
+				mu.notifyAll();
+			}
+		}
+		if (!stop && !isEmpty() && this.numWaiting > 0) {
+			synchronized (this) {
+				this.notifyAll();
+			}
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#size()
+	 */
+	public final long size() {
+		return this.len.sum();
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#isEmpty()
+	 */
+	public final boolean isEmpty() {
+		return size() < 1;
+	}
+
+	/* Checkpoint. */
+
+	/**
+	 * Checkpointing happens while all workers are suspended (see
+	 * {@link #suspendAll()}). Thus, the states of the workers' deques can be
+	 * moved to disk and the checkpoint delegated to the {@link DiskStateQueue}.
+	 *
+	 * @see tlc2.tool.queue.IStateQueue#beginChkpt()
+	 */
+	public final void beginChkpt() throws IOException {
+		synchronized (this.disk) {
+			for (int i = 0; i < this.locals.length; i++) {
+				TLCState state;
+				while ((state = this.locals[i].pollFirst()) != null) {
+					this.disk.enqueue(state);
+				}
+			}
+			this.disk.beginChkpt();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#commitChkpt()
+	 */
+	public final void commitChkpt() throws IOException {
+		synchronized (this.disk) {
+			this.disk.commitChkpt();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#recover()
+	 */
+	public final void recover() throws IOException {
+		synchronized (this.disk) {
+			this.disk.recover();
+			this.len.reset();
+			this.len.add(this.disk.size());
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.IStateQueue#delete()
+	 */
+	@Override
+	public final void delete() throws IOException {
+		finishAll();
+		this.disk.delete();
+	}
+
+	/**
+	 * A worker's deque. Only the owning worker adds states to it, whereas all
+	 * workers might remove states.
+	 */
+	private static final class Local {
+
+		private final ConcurrentLinkedDeque<TLCState> deque = new ConcurrentLinkedDeque<>();
+		/**
+		 * ConcurrentLinkedDeque#size() is O(n).
+		 */
+		private final AtomicInteger size = new AtomicInteger();
+
+		void addLast(final TLCState state) {
+			this.deque.addLast(state);
+			this.size.incrementAndGet();
+		}
+
+		TLCState pollFirst() {
+			final TLCState state = this.deque.pollFirst();
+			if (state != null) {
+				this.size.decrementAndGet();
+			}
+			return state;
+		}
+
+		TLCState pollLast() {
+			final TLCState state = this.deque.pollLast();
+			if (state != null) {
+				this.size.decrementAndGet();
+			}
+			return state;
+		}
+
+		TLCState peekFirst() {
+			return this.deque.peekFirst();
+		}
+
+		int size() {
+			return this.size.get();
+		}
+	}
+}
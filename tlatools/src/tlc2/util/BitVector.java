@@ -54,6 +54,11 @@ public class BitVector implements Serializable {
     System.arraycopy(bv.word, 0, this.word, 0, len);
   }
 
+  /** Initialize this bit vector with the given words (not copied). */
+  public BitVector(long[] word) {
+    this.word = word;
+  }
+
   public boolean equals(Object o) {
     if (!(o instanceof BitVector)) return false;
     BitVector other = (BitVector)o;
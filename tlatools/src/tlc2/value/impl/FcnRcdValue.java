@@ -28,6 +28,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   public final Value[] values;
   private boolean isNorm;
   private int[] indexTbl;  // speed up function application
+  private transient long cachedFP;   // see Value#cacheFP
   public final static Value EmptyFcn = new FcnRcdValue(new Value[0], new Value[0], true);
 
   /* Constructor */
@@ -99,24 +100,62 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   }
 
   private final int lookupIndex(Value arg) {
+    int idx = this.probeIndex(arg);
+    if (idx == -1) {
+      Assert.fail("Attempted to apply function:\n" + Values.ppr(this.toString()) +
+            "\nto argument " + Values.ppr(arg.toString()) +
+            ", which is not in the domain of the function.");
+    }
+    return idx;
+  }
+
+  /* Returns the position of arg in the domain (via indexTbl) or -1. */
+  private final int probeIndex(Value arg) {
     int len = this.indexTbl.length;
     int loc = (arg.hashCode() & 0x7FFFFFFF) % len;
     while (true) {
       int idx = this.indexTbl[loc];
-      if (idx == -1) {
-        Assert.fail("Attempted to apply function:\n" + Values.ppr(this.toString()) +
-              "\nto argument " + Values.ppr(arg.toString()) +
-              ", which is not in the domain of the function.");
-      }
-      if (this.domain[idx].equals(arg)) {
+      if (idx == -1 || this.domain[idx].equals(arg)) {
         return idx;
       }
       loc = (loc + 1) % len;
     }
   }
 
+  /**
+   * Returns the position of arg in the domain of this function, or -1 if arg
+   * is not in the domain.
+   */
+  private final int indexOf(Value arg) {
+    if (this.intv != null) {
+      // domain is represented as an integer interval:
+      if (arg instanceof IntValue) {
+        int idx = ((IntValue)arg).val;
+        if ((idx >= this.intv.low) && (idx <= this.intv.high)) {
+          return idx - this.intv.low;
+        }
+      }
+      return -1;
+    }
+    // domain is represented as an array of values:
+    if (this.indexTbl == null && this.isNorm) {
+      this.createIndex();
+    }
+    if (this.indexTbl != null) {
+      return this.probeIndex(arg);
+    }
+    int len = this.domain.length;
+    for (int i = 0; i < len; i++) {
+      if (arg.equals(this.domain[i])) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
   public final int compareTo(Object obj) {
     try {
+      if (this == obj) return 0; // e.g. interned (see ValueInternTable)
 
 			final FcnRcdValue fcn = obj instanceof Value ? (FcnRcdValue) ((Value) obj).toFcnRcd() : null;
 			if (fcn == null) {
@@ -214,6 +253,7 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   
   public final boolean equals(Object obj) {
     try {
+      if (this == obj) return true; // e.g. interned (see ValueInternTable)
 
       FcnRcdValue fcn = obj instanceof Value ? (FcnRcdValue) ((Value)obj).toFcnRcd() : null;
       if (fcn == null) {
@@ -410,48 +450,28 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
     }
   }
 
+  /**
+   * [f EXCEPT ![arg] = ...]: The domain is found through the index and, if
+   * normalized, shared with the result (together with the index) so that a
+   * chain of successors that update single entries of a large function does
+   * not scan or rehash the domain.
+   */
   public final Value takeExcept(ValueExcept ex) {
     try {
 
       if (ex.idx >= ex.path.length) return ex.value;
 
-      int flen = this.values.length;
-      Value[] newValues = new Value[flen];
-      for (int i = 0; i < flen; i++) {
-        newValues[i] = this.values[i];
-      }
-      Value arg = ex.path[ex.idx];
-
-      if (this.intv != null) {
-        // domain is represented as an integer interval:
-        if (arg instanceof IntValue) {
-          int idx = ((IntValue)arg).val;
-          if ((idx >= this.intv.low) && (idx <= this.intv.high)) {
-            int vidx = idx - this.intv.low;
-            ex.idx++;
-            newValues[idx] = this.values[vidx].takeExcept(ex);
-          }
-          return new FcnRcdValue(this.intv, newValues);
-        }
+      int i = this.indexOf(ex.path[ex.idx]);
+      if (i == -1) {
+        return this;
       }
-      else {
-        // domain is represented as an array of values:
-        for (int i = 0; i < flen; i++) {
-          if (arg.equals(this.domain[i])) {
-            ex.idx++;
-            newValues[i] = newValues[i].takeExcept(ex);
-            Value[] newDomain = this.domain;
-            if (!this.isNorm) {
-              newDomain = new Value[flen];
-              for (int j = 0; j < flen; j++) {
-                newDomain[j] = this.domain[j];
-              }
-            }
-            return new FcnRcdValue(newDomain, newValues, this.isNorm);
-          }
-        }
+      Value[] newValues = this.values.clone();
+      ex.idx++;
+      newValues[i] = newValues[i].takeExcept(ex);
+      if (this.intv != null || this.isNorm) {
+        return new FcnRcdValue(this, newValues);
       }
-      return this;
+      return new FcnRcdValue(this.domain.clone(), newValues, false);
 
     }
     catch (RuntimeException | OutOfMemoryError e) {
@@ -704,24 +724,13 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
   /* The fingerprint method.  */
   public final long fingerPrint(long fp) {
     try {
-      this.normalize();
-      int flen = this.values.length;
-      fp = FP64.Extend(fp, FCNRCDVALUE);
-      fp = FP64.Extend(fp, flen);
-      if (this.intv == null) {
-        for (int i = 0; i < flen; i++) {
-          fp = this.domain[i].fingerPrint(fp);
-          fp = this.values[i].fingerPrint(fp);
+      if (cacheFP) {
+        if (this.cachedFP == 0L) {
+          this.cachedFP = mixFP(this.fingerPrintImpl(FP64.New()));
         }
+        return FP64.Extend(fp, this.cachedFP);
       }
-      else {
-        for (int i = 0; i < flen; i++) {
-          fp = FP64.Extend(fp, INTVALUE);
-          fp = FP64.Extend(fp, i + this.intv.low);
-          fp = this.values[i].fingerPrint(fp);
-        }
-      }
-      return fp;
+      return this.fingerPrintImpl(fp);
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -729,6 +738,27 @@ public class FcnRcdValue extends Value implements Applicable, IFcnRcdValue {
     }
   }
 
+  private final long fingerPrintImpl(long fp) {
+    this.normalize();
+    int flen = this.values.length;
+    fp = FP64.Extend(fp, FCNRCDVALUE);
+    fp = FP64.Extend(fp, flen);
+    if (this.intv == null) {
+      for (int i = 0; i < flen; i++) {
+        fp = this.domain[i].fingerPrint(fp);
+        fp = this.values[i].fingerPrint(fp);
+      }
+    }
+    else {
+      for (int i = 0; i < flen; i++) {
+        fp = FP64.Extend(fp, INTVALUE);
+        fp = FP64.Extend(fp, i + this.intv.low);
+        fp = this.values[i].fingerPrint(fp);
+      }
+    }
+    return fp;
+  }
+
   public final IValue permute(IMVPerm perm) {
     try {
 
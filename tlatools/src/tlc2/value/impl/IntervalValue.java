@@ -239,13 +239,11 @@ implements Enumerable, Reducible {
   /* The fingerprint method */
   public final long fingerPrint(long fp) {
     try {
-      fp = FP64.Extend(fp, SETENUMVALUE);
-      fp = FP64.Extend(fp, this.size()) ;
-      for (int i = this.low; i <= this.high; i++) {
-        fp = FP64.Extend(fp, INTVALUE);
-        fp = FP64.Extend(fp, i);
+      if (cacheFP) {
+        // Has to agree with the fingerprint of the equal SetEnumValue.
+        return FP64.Extend(fp, mixFP(this.fingerPrintImpl(FP64.New())));
       }
-      return fp;
+      return this.fingerPrintImpl(fp);
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -253,6 +251,16 @@ implements Enumerable, Reducible {
     }
   }
 
+  private final long fingerPrintImpl(long fp) {
+    fp = FP64.Extend(fp, SETENUMVALUE);
+    fp = FP64.Extend(fp, this.size()) ;
+    for (int i = this.low; i <= this.high; i++) {
+      fp = FP64.Extend(fp, INTVALUE);
+      fp = FP64.Extend(fp, i);
+    }
+    return fp;
+  }
+
   public final IValue permute(IMVPerm perm) {
     return this;
   }
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import tlc2.value.IMVPerm;
+import tlc2.value.IModelValue;
+import tlc2.value.IValue;
+import util.WrongInvocationException;
+
+/**
+ * Memoizes the permutations of the values of a state while its representative
+ * under symmetry is computed by enumerating all permutations (see
+ * tlc2.tool.TLCStateMut#fingerPrint).
+ * <p>
+ * The permutation of a value only depends on the restriction of the permutation
+ * to the model values that occur in the value (its support). A value with an
+ * empty support (e.g. a counter) is its own permutation. A value whose support
+ * is small (e.g. a variable that denotes a single process) has only a few
+ * distinct permutations, which are shared by all permutations that agree on
+ * the support. Only values whose support (nearly) determines the permutation
+ * (e.g. a function over the set of processes) are permuted for each
+ * permutation. Variables that share a value (==) share their permutations too.
+ */
+public final class MVPermMemo {
+
+	/**
+	 * Maps the index of a model value to its symmetry set or -1.
+	 */
+	private final int[] setOf;
+	private final int[] sizes;
+	private final long numPerms;
+
+	public MVPermMemo(final IMVPerm[] perms) {
+		this.setOf = MVPerms.symmetrySets(perms);
+		int sets = 0;
+		for (int i = 0; i < this.setOf.length; i++) {
+			sets = Math.max(sets, this.setOf[i] + 1);
+		}
+		this.sizes = new int[sets];
+		for (int i = 0; i < this.setOf.length; i++) {
+			if (this.setOf[i] != -1) {
+				this.sizes[this.setOf[i]]++;
+			}
+		}
+		this.numPerms = perms.length;
+	}
+
+	/**
+	 * @return The memo for the values of a single state. Not thread-safe, i.e. it
+	 *         has to be confined to the worker that fingerprints the state.
+	 */
+	public final Permutations of(final IValue[] values) {
+		return new Permutations(values);
+	}
+
+	/**
+	 * @return true iff memoizing the permutations of a value with the given support
+	 *         pays off, i.e. if there are considerably fewer distinct restrictions
+	 *         of the perms to the support than perms.
+	 */
+	private final boolean isMemoizable(final int[] support) {
+		final int[] counts = new int[this.sizes.length];
+		long restrictions = 1L;
+		for (int i = 0; i < support.length; i++) {
+			final int set = this.setOf[support[i]];
+			// The number of injective mappings of the support into the symmetry set.
+			restrictions *= this.sizes[set] - counts[set]++;
+			if (restrictions > this.numPerms / 2L) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public final class Permutations {
+
+		private final IValue[] values;
+		/**
+		 * The indices of the model values (of symmetry sets) that occur in values[i].
+		 */
+		private final int[][] supports;
+		/**
+		 * Maps the images of the support of values[i] to the permutation of values[i]
+		 * or null if values[i] is not memoizable.
+		 */
+		private final Map<Key, IValue>[] memos;
+
+		private Permutations(final IValue[] values) {
+			this.values = values;
+			this.supports = new int[values.length][];
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			final Map<Key, IValue>[] memos = new Map[values.length];
+			this.memos = memos;
+			
+			final SupportRecorder recorder = new SupportRecorder(setOf);
+			NEXT_VAL: for (int i = 0; i < values.length; i++) {
+				for (int j = 0; j < i; j++) {
+					if (values[j] == values[i]) {
+						this.supports[i] = this.supports[j];
+						this.memos[i] = this.memos[j];
+						continue NEXT_VAL;
+					}
+				}
+				this.supports[i] = recorder.record(values[i]);
+				if (this.supports[i].length > 0 && isMemoizable(this.supports[i])) {
+					this.memos[i] = new HashMap<>();
+				}
+			}
+		}
+
+		/**
+		 * @return values[i].permute(perm) where perm == null denotes the identity.
+		 */
+		public final IValue permute(final int i, final IMVPerm perm) {
+			if (perm == null || this.supports[i].length == 0) {
+				return this.values[i];
+			}
+			final Map<Key, IValue> memo = this.memos[i];
+			if (memo == null) {
+				return this.values[i].permute(perm);
+			}
+			final int[] support = this.supports[i];
+			final int[] images = new int[support.length];
+			for (int j = 0; j < support.length; j++) {
+				final ModelValue mv = (ModelValue) perm.get(ModelValue.mvs[support[j]]);
+				images[j] = mv == null ? support[j] : mv.index;
+			}
+			final Key key = new Key(images);
+			IValue permuted = memo.get(key);
+			if (permuted == null) {
+				permuted = this.values[i].permute(perm);
+				memo.put(key, permuted);
+			}
+			return permuted;
+		}
+	}
+
+	private static final class Key {
+		private final int[] images;
+		private final int hash;
+
+		Key(final int[] images) {
+			this.images = images;
+			this.hash = Arrays.hashCode(images);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			return obj instanceof Key && Arrays.equals(this.images, ((Key) obj).images);
+		}
+	}
+
+	/**
+	 * An identity "permutation" that records the model values it is applied to
+	 * (see ModelValue#permute).
+	 */
+	private static final class SupportRecorder implements IMVPerm {
+
+		private final int[] setOf;
+		private final boolean[] seen;
+		private int[] support = new int[8];
+		private int count = 0;
+
+		SupportRecorder(final int[] setOf) {
+			this.setOf = setOf;
+			this.seen = new boolean[setOf.length];
+		}
+
+		int[] record(final IValue value) {
+			this.count = 0;
+			value.permute(this);
+			final int[] res = Arrays.copyOf(this.support, this.count);
+			for (int i = 0; i < res.length; i++) {
+				this.seen[res[i]] = false;
+			}
+			return res;
+		}
+
+		@Override
+		public IValue get(final IValue value) {
+			final int idx = ((ModelValue) value).index;
+			if (this.setOf[idx] != -1 && !this.seen[idx]) {
+				this.seen[idx] = true;
+				if (this.count == this.support.length) {
+					this.support = Arrays.copyOf(this.support, this.count * 2);
+				}
+				this.support[this.count++] = idx;
+			}
+			return null;
+		}
+
+		@Override
+		public void put(final IModelValue dval, final IModelValue rval) {
+			throw new WrongInvocationException("MVPermMemo.SupportRecorder.put: This is a TLC bug.");
+		}
+
+		@Override
+		public int size() {
+			return 0;
+		}
+
+		@Override
+		public IMVPerm compose(final IMVPerm perm) {
+			throw new WrongInvocationException("MVPermMemo.SupportRecorder.compose: This is a TLC bug.");
+		}
+	}
+}
@@ -5,6 +5,7 @@
 
 package tlc2.value.impl;
 
+import java.util.Arrays;
 import java.util.Enumeration;
 
 import tlc2.util.Vect;
@@ -20,7 +21,7 @@ public abstract class MVPerms {
 	final int sz = enumerable.size() - 1;
     final Set perms = new Set(sz);
     final Vect<IMVPerm> permVec = new Vect<>(sz);
-    // Compute the group generators:
+    final Vect<IMVPerm> gens = new Vect<>();
     Value elem;
     while ((elem = Enum.nextElement()) != null) {
       final FcnRcdValue fcn = (FcnRcdValue) elem.toFcnRcd();
@@ -38,26 +39,26 @@ public abstract class MVPerms {
 	  Assert.fail("Symmetry function must have model values as domain and range.");
 	}
       }
+      // A perm that is an element of the group generated so far is redundant. Usually,
+      // the functions are all n! permutations of a symmetry set (TLC!Permutations), of
+      // which only a handful are (non-redundant) generators. Composing each function
+      // with each element instead would be quadratic in the size of the group, which
+      // is prohibitive for symmetry sets of 8 or more elements.
       if (perm.size() > 0 && perms.put(perm) == null) {
+	gens.addElement(perm);
 	permVec.addElement(perm);
-      }
-    }
-    // Compute the group generated by the generators:
-    final int gsz = permVec.size();
-    int sz0 = 0;
-    while (true) {
-      final int sz1 = permVec.size();
-      for (int i = 0; i < gsz; i++) {
-	final IMVPerm perm1 = (IMVPerm)permVec.elementAt(i);
-	for (int j = sz0; j < sz1; j++) {
-		IMVPerm perm = perm1.compose((IMVPerm)permVec.elementAt(j));
-	  if (perm.size() > 0 && perms.put(perm) == null) {
-	    permVec.addElement(perm);
+	// Compute the group generated by the (extended) generators. Every element is a
+	// (right) composition of generators.
+	for (int i = 0; i < permVec.size(); i++) {
+	  final IMVPerm perm1 = permVec.elementAt(i);
+	  for (int j = 0; j < gens.size(); j++) {
+	    final IMVPerm perm2 = perm1.compose(gens.elementAt(j));
+	    if (perm2.size() > 0 && perms.put(perm2) == null) {
+	      permVec.addElement(perm2);
+	    }
 	  }
 	}
       }
-      if (sz1 == permVec.size()) { break; }
-      sz0 = sz1;
     }
     // Finally, put all the elements in an array ready for use:
     final IMVPerm[] res = new IMVPerm[permVec.size()];
@@ -67,4 +68,50 @@ public abstract class MVPerms {
     }
     return res;
   }
+
+  /**
+   * @return An array that maps the index of a model value (see
+   *         ModelValue#index) to its symmetry set (the orbit of the model value
+   *         under perms), or to -1 if no perm moves the model value. Symmetry
+   *         sets are numbered consecutively from 0.
+   */
+  public static final int[] symmetrySets(final IMVPerm[] perms) {
+    final int[] parent = new int[ModelValue.mvs.length];
+    final boolean[] moved = new boolean[parent.length];
+    for (int i = 0; i < parent.length; i++) {
+      parent[i] = i;
+    }
+    for (int i = 0; i < perms.length; i++) {
+      for (int j = 0; j < parent.length; j++) {
+	final ModelValue mv = (ModelValue) perms[i].get(ModelValue.mvs[j]);
+	if (mv != null) {
+	  moved[j] = true;
+	  parent[find(parent, j)] = find(parent, mv.index);
+	}
+      }
+    }
+    final int[] rootToSet = new int[parent.length];
+    Arrays.fill(rootToSet, -1);
+    final int[] setOf = new int[parent.length];
+    int sets = 0;
+    for (int i = 0; i < parent.length; i++) {
+      if (!moved[i]) {
+	setOf[i] = -1;
+	continue;
+      }
+      final int root = find(parent, i);
+      if (rootToSet[root] == -1) {
+	rootToSet[root] = sets++;
+      }
+      setOf[i] = rootToSet[root];
+    }
+    return setOf;
+  }
+
+  private static final int find(final int[] parent, int i) {
+    while (parent[i] != i) {
+      i = parent[i] = parent[parent[i]];
+    }
+    return i;
+  }
 }
@@ -27,6 +27,7 @@ public class RecordValue extends Value implements Applicable {
   public final UniqueString[] names;   // the field names
   public final Value[] values;         // the field values
   private boolean isNorm;
+  private transient long cachedFP;   // see Value#cacheFP
 public final static RecordValue EmptyRcd = new RecordValue(new UniqueString[0], new Value[0], true);
 
   /* Constructor */
@@ -45,6 +46,7 @@ public final static RecordValue EmptyRcd = new RecordValue(new UniqueString[0],
 
   public final int compareTo(Object obj) {
     try {
+      if (this == obj) return 0; // e.g. interned (see ValueInternTable)
       RecordValue rcd = obj instanceof Value ? (RecordValue) ((Value)obj).toRcd() : null;
       if (rcd == null) {
         if (obj instanceof ModelValue) return 1;
@@ -73,6 +75,7 @@ public final static RecordValue EmptyRcd = new RecordValue(new UniqueString[0],
 
   public final boolean equals(Object obj) {
     try {
+      if (this == obj) return true; // e.g. interned (see ValueInternTable)
       RecordValue rcd = obj instanceof Value ? (RecordValue) ((Value)obj).toRcd() : null;
       if (rcd == null) {
         if (obj instanceof ModelValue)
@@ -114,28 +117,21 @@ public final static RecordValue EmptyRcd = new RecordValue(new UniqueString[0],
   public final Value takeExcept(ValueExcept ex) {
     try {
       if (ex.idx < ex.path.length) {
-        int rlen = this.names.length;
-        Value[] newValues = new Value[rlen];
         Value arcVal = ex.path[ex.idx];
         if (arcVal instanceof StringValue) {
           UniqueString arc = ((StringValue)arcVal).val;
+          int rlen = this.names.length;
           for (int i = 0; i < rlen; i++) {
             if (this.names[i].equals(arc)) {
+              Value[] newValues = this.values.clone();
               ex.idx++;
-              newValues[i] = this.values[i].takeExcept(ex);
-            }
-            else {
-              newValues[i] = this.values[i];
-            }
-          }
-          UniqueString[] newNames = this.names;
-          if (!this.isNorm) {
-            newNames = new UniqueString[rlen];
-            for (int i = 0; i < rlen; i++) {
-              newNames[i] = this.names[i];
+              newValues[i] = newValues[i].takeExcept(ex);
+              // The names of a normalized record are never reordered and can be shared.
+              UniqueString[] newNames = this.isNorm ? this.names : this.names.clone();
+              return new RecordValue(newNames, newValues, this.isNorm);
             }
           }
-          return new RecordValue(newNames, newValues, this.isNorm);
+          return this;
         }
         else {
             MP.printWarning(EC.TLC_WRONG_RECORD_FIELD_NAME, new String[]{Values.ppr(arcVal.toString())});
@@ -427,18 +423,13 @@ public final static RecordValue EmptyRcd = new RecordValue(new UniqueString[0],
   /* The fingerprint methods.  */
   public final long fingerPrint(long fp) {
     try {
-      this.normalize();
-      int rlen = this.names.length;
-      fp = FP64.Extend(fp, FCNRCDVALUE);
-      fp = FP64.Extend(fp, rlen);
-      for (int i = 0; i < rlen; i++) {
-        String str = this.names[i].toString();
-        fp = FP64.Extend(fp, STRINGVALUE);
-        fp = FP64.Extend(fp, str.length());
-        fp = FP64.Extend(fp, str);
-        fp = this.values[i].fingerPrint(fp);
+      if (cacheFP) {
+        if (this.cachedFP == 0L) {
+          this.cachedFP = mixFP(this.fingerPrintImpl(FP64.New()));
+        }
+        return FP64.Extend(fp, this.cachedFP);
       }
-      return fp;
+      return this.fingerPrintImpl(fp);
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -446,6 +437,21 @@ public final static RecordValue EmptyRcd = new RecordValue(new UniqueString[0],
     }
   }
 
+  private final long fingerPrintImpl(long fp) {
+    this.normalize();
+    int rlen = this.names.length;
+    fp = FP64.Extend(fp, FCNRCDVALUE);
+    fp = FP64.Extend(fp, rlen);
+    for (int i = 0; i < rlen; i++) {
+      String str = this.names[i].toString();
+      fp = FP64.Extend(fp, STRINGVALUE);
+      fp = FP64.Extend(fp, str.length());
+      fp = FP64.Extend(fp, str);
+      fp = this.values[i].fingerPrint(fp);
+    }
+    return fp;
+  }
+
   public final IValue permute(IMVPerm perm) {
     try {
       this.normalize();
@@ -23,6 +23,7 @@ public class SetEnumValue extends EnumerableValue
 implements Enumerable, Reducible {
   public ValueVec elems;         // the elements of the set
   private boolean isNorm;        // normalized?
+  private transient long cachedFP;   // see Value#cacheFP
 public final static SetEnumValue EmptySet = new SetEnumValue(new ValueVec(0), true);
 public final static SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, true);
 
@@ -59,6 +60,7 @@ public final static SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
 
   public final int compareTo(Object obj) {
     try {
+      if (this == obj) return 0; // e.g. interned (see ValueInternTable)
       SetEnumValue set = obj instanceof Value ? (SetEnumValue) ((Value)obj).toSetEnum() : null;
       if (set == null) {
         if (obj instanceof ModelValue) return 1;
@@ -84,6 +86,7 @@ public final static SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
 
   public final boolean equals(Object obj) {
     try {
+      if (this == obj) return true; // e.g. interned (see ValueInternTable)
       SetEnumValue set = obj instanceof Value ? (SetEnumValue) ((Value)obj).toSetEnum() : null;
       if (set == null) {
         if (obj instanceof ModelValue)
@@ -303,15 +306,13 @@ public final static SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
   /* The fingerprint methods */
   public final long fingerPrint(long fp) {
     try {
-      this.normalize();
-      int sz = this.elems.size();
-      fp = FP64.Extend(fp, SETENUMVALUE);
-      fp = FP64.Extend(fp, sz);
-      for (int i = 0; i < sz; i++) {
-        Value elem = this.elems.elementAt(i);
-        fp = elem.fingerPrint(fp);
+      if (cacheFP) {
+        if (this.cachedFP == 0L) {
+          this.cachedFP = mixFP(this.fingerPrintImpl(FP64.New()));
+        }
+        return FP64.Extend(fp, this.cachedFP);
       }
-      return fp;
+      return this.fingerPrintImpl(fp);
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -319,6 +320,18 @@ public final static SetEnumValue DummyEnum = new SetEnumValue((ValueVec)null, tr
     }
   }
 
+  private final long fingerPrintImpl(long fp) {
+    this.normalize();
+    int sz = this.elems.size();
+    fp = FP64.Extend(fp, SETENUMVALUE);
+    fp = FP64.Extend(fp, sz);
+    for (int i = 0; i < sz; i++) {
+      Value elem = this.elems.elementAt(i);
+      fp = elem.fingerPrint(fp);
+    }
+    return fp;
+  }
+
   public final IValue permute(IMVPerm perm) {
     try {
       int sz = this.elems.size();
@@ -0,0 +1,348 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import tlc2.value.IMVPerm;
+import tlc2.value.IValue;
+
+/**
+ * A {@link SymmetryCanonicalizer} computes the representative of a state's
+ * orbit, i.e. the lexicographically smallest state of the orbit (see
+ * tlc2.tool.TLCStateMut#fingerPrint), by sorting instead of by applying all
+ * permutations of the symmetry group. Sorting is only sound for a particular
+ * shape of states, which is why {@link #reduce(IValue[], long)} reduces only the
+ * prefix of the state that has the shape. The caller then enumerates the
+ * permutations that sort the prefix instead of all permutations.
+ * <p>
+ * The shape is the one of most specs with a set of (symmetric) processes: Each
+ * variable is either a function whose domain is a symmetry set and whose range
+ * values do not contain elements of a symmetry set (e.g. pc \in [Proc ->
+ * {"idle", "cs"}]), or its value does not contain elements of a symmetry set at
+ * all (e.g. a counter). For such a state, a permutation of a symmetry set
+ * merely permutes the range values of the functions with this domain. Functions
+ * are compared position by position (see FcnRcdValue#compareTo). Thus, sorting
+ * the elements of the symmetry set by the tuple of their range values yields
+ * the smallest state. Elements with identical tuples are indistinguishable, i.e.
+ * it doesn't matter how ties are broken.
+ */
+public final class SymmetryCanonicalizer {
+
+	/**
+	 * @return null if perms is not the (complete) symmetric group of its
+	 *         symmetry sets, e.g. if the symmetry has been defined to be a
+	 *         rotation only.
+	 */
+	public static SymmetryCanonicalizer create(final IMVPerm[] perms) {
+		final int[] setOf = MVPerms.symmetrySets(perms);
+		final List<List<ModelValue>> sets = new ArrayList<>();
+		for (int i = 0; i < setOf.length; i++) {
+			if (setOf[i] == -1) {
+				continue;
+			}
+			if (setOf[i] == sets.size()) {
+				sets.add(new ArrayList<>());
+			}
+			sets.get(setOf[i]).add(ModelValue.mvs[i]);
+		}
+
+		// The group generated by the symmetry definition is a subgroup of the cross
+		// product of the symmetric groups of the symmetry sets. It is the cross product
+		// iff its order is the product of the factorials of the symmetry sets' sizes.
+		// MVPerms#permutationSubgroup omits the identity.
+		long order = 1L;
+		final int[] sizes = new int[sets.size()];
+		final MVPerm cycle = new MVPerm();
+		for (int i = 0; i < sizes.length; i++) {
+			final List<ModelValue> set = sets.get(i);
+			sizes[i] = set.size();
+			for (int j = 2; j <= sizes[i]; j++) {
+				order *= j;
+				if (order - 1L > perms.length) {
+					return null;
+				}
+			}
+			for (int j = 0; j < sizes[i]; j++) {
+				cycle.put(set.get(j), set.get((j + 1) % sizes[i]));
+			}
+		}
+		if (order - 1L != perms.length) {
+			return null;
+		}
+		final ModelValue[][] members = new ModelValue[sets.size()][];
+		for (int i = 0; i < members.length; i++) {
+			members[i] = sets.get(i).toArray(new ModelValue[sizes[i]]);
+		}
+		return new SymmetryCanonicalizer(setOf, sizes, members, cycle);
+	}
+
+	/**
+	 * Maps the index of a model value to its symmetry set or -1.
+	 */
+	private final int[] setOf;
+	private final int[] sizes;
+	private final ModelValue[][] members;
+	/**
+	 * A permutation that moves every element of every symmetry set. A value that
+	 * this permutation maps to itself (identity!) does not contain any element of
+	 * a symmetry set (see Value#permute which returns this if nothing changed).
+	 */
+	private final IMVPerm cycle;
+
+	private SymmetryCanonicalizer(final int[] setOf, final int[] sizes, final ModelValue[][] members,
+			final IMVPerm cycle) {
+		this.setOf = setOf;
+		this.sizes = sizes;
+		this.members = members;
+		this.cycle = cycle;
+	}
+
+	/**
+	 * A state whose first variables (the prefix) have the shape required by this
+	 * canonicalization (see class comment) can be reduced partially: The prefix of
+	 * the lexicographically smallest state of the orbit is the sorted prefix. The
+	 * smallest state is thus the smallest of the states that the perms, which sort
+	 * the prefix, permute the state into. Those perms merely permute the elements
+	 * of a symmetry set whose tuples of range values are identical and, unless they
+	 * occur in the prefix, the elements of the remaining symmetry sets. There are
+	 * usually far fewer such perms than perms.
+	 * 
+	 * @param maxPerms The maximum number of perms of the result.
+	 * @return null if the prefix is empty or if there are more than maxPerms perms
+	 *         that sort the prefix.
+	 */
+	public final Reduction reduce(final IValue[] values, final long maxPerms) {
+		// The indices of the variables of the prefix that are functions over a
+		// symmetry set, grouped by symmetry set.
+		@SuppressWarnings({ "unchecked", "rawtypes" })
+		final List<Integer>[] fcns = new List[this.sizes.length];
+		int prefix = values.length;
+		for (int i = 0; i < values.length; i++) {
+			final int set = getSymmetrySet(values[i]);
+			if (set >= 0) {
+				if (fcns[set] == null) {
+					fcns[set] = new ArrayList<>();
+				}
+				fcns[set].add(i);
+			} else if (values[i].permute(this.cycle) != values[i]) {
+				prefix = i;
+				break;
+			}
+		}
+		if (prefix == 0) {
+			return null;
+		}
+
+		IValue[] res = values;
+		// The source and target elements of the blocks (see below) of all symmetry
+		// sets (only needed if the prefix is not the complete state).
+		final List<ModelValue[]> srcs = new ArrayList<>();
+		final List<ModelValue[]> tgts = new ArrayList<>();
+		long count = 1L;
+		for (int s = 0; s < fcns.length; s++) {
+			if (fcns[s] == null) {
+				if (prefix < values.length) {
+					// The prefix does not constrain this symmetry set.
+					final ModelValue[] members = this.members[s];
+					srcs.add(members);
+					tgts.add(members);
+					count = multiplyFactorial(count, members.length, maxPerms);
+				}
+				continue;
+			}
+			final FcnRcdValue[] fs = new FcnRcdValue[fcns[s].size()];
+			for (int i = 0; i < fs.length; i++) {
+				fs[i] = (FcnRcdValue) values[fcns[s].get(i)];
+			}
+			// All functions have the same (normalized) domain, thus position i of the
+			// range values corresponds to the same element of the symmetry set.
+			final Integer[] order = new Integer[this.sizes[s]];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			final Comparator<Integer> comparator = (a, b) -> {
+				for (int i = 0; i < fs.length; i++) {
+					final int cmp = fs[i].values[a].compareTo(fs[i].values[b]);
+					if (cmp != 0) {
+						return cmp;
+					}
+				}
+				return 0;
+			};
+			Arrays.sort(order, comparator);
+			for (int i = 0; i < fs.length; i++) {
+				final Value[] vals = new Value[order.length];
+				boolean changed = false;
+				for (int j = 0; j < vals.length; j++) {
+					vals[j] = fs[i].values[order[j]];
+					changed = changed || vals[j] != fs[i].values[j];
+				}
+				if (changed) {
+					if (res == values) {
+						res = Arrays.copyOf(values, values.length);
+					}
+					res[fcns[s].get(i)] = new FcnRcdValue(fs[i].domain, vals, true);
+				}
+			}
+			if (prefix < values.length) {
+				// A perm that sorts the prefix maps the element order[j] of a block of
+				// identical tuples to one of the elements at the block's positions.
+				final Value[] domain = fs[0].domain;
+				for (int lo = 0, hi = 1; lo < order.length; lo = hi++) {
+					while (hi < order.length && comparator.compare(order[lo], order[hi]) == 0) {
+						hi++;
+					}
+					final ModelValue[] src = new ModelValue[hi - lo];
+					final ModelValue[] tgt = new ModelValue[hi - lo];
+					for (int j = lo; j < hi; j++) {
+						src[j - lo] = (ModelValue) domain[order[j]];
+						tgt[j - lo] = (ModelValue) domain[j];
+					}
+					srcs.add(src);
+					tgts.add(tgt);
+					count = multiplyFactorial(count, src.length, maxPerms);
+				}
+				if (count > maxPerms) {
+					return null;
+				}
+			}
+		}
+		if (prefix == values.length) {
+			return new Reduction(res, prefix, null);
+		}
+		if (count > maxPerms) {
+			return null;
+		}
+		final List<IMVPerm> perms = new ArrayList<>((int) count);
+		enumerate(srcs, tgts, 0, new ModelValue[ModelValue.mvs.length], perms);
+		return new Reduction(res, prefix, perms.toArray(new IMVPerm[perms.size()]));
+	}
+
+	private static long multiplyFactorial(long count, final int n, final long max) {
+		for (int i = 2; i <= n && count <= max; i++) {
+			count *= i;
+		}
+		return count;
+	}
+
+	/**
+	 * Enumerates the perms that map the elements of each src (block) to the
+	 * elements of the corresponding tgt in all possible ways.
+	 */
+	private static void enumerate(final List<ModelValue[]> srcs, final List<ModelValue[]> tgts, final int block,
+			final ModelValue[] images, final List<IMVPerm> perms) {
+		if (block == srcs.size()) {
+			final MVPerm perm = new MVPerm();
+			for (int i = 0; i < images.length; i++) {
+				if (images[i] != null) {
+					perm.put(ModelValue.mvs[i], images[i]);
+				}
+			}
+			perms.add(perm);
+			return;
+		}
+		final ModelValue[] src = srcs.get(block);
+		permute(src, tgts.get(block).clone(), 0, srcs, tgts, block, images, perms);
+	}
+
+	private static void permute(final ModelValue[] src, final ModelValue[] tgt, final int k,
+			final List<ModelValue[]> srcs, final List<ModelValue[]> tgts, final int block, final ModelValue[] images,
+			final List<IMVPerm> perms) {
+		if (k == tgt.length) {
+			for (int i = 0; i < src.length; i++) {
+				images[src[i].index] = tgt[i];
+			}
+			enumerate(srcs, tgts, block + 1, images, perms);
+			return;
+		}
+		for (int i = k; i < tgt.length; i++) {
+			swap(tgt, k, i);
+			permute(src, tgt, k + 1, srcs, tgts, block, images, perms);
+			swap(tgt, k, i);
+		}
+	}
+
+	private static void swap(final ModelValue[] a, final int i, final int j) {
+		final ModelValue t = a[i];
+		a[i] = a[j];
+		a[j] = t;
+	}
+
+	public static final class Reduction {
+		/**
+		 * The values of the state with the prefix sorted.
+		 */
+		public final IValue[] values;
+		/**
+		 * The number of variables of the prefix.
+		 */
+		public final int prefix;
+		/**
+		 * The perms that sort the prefix or null if the prefix is the complete state.
+		 * Applied to the original values of the state, not to {@link #values}.
+		 */
+		public final IMVPerm[] perms;
+
+		private Reduction(final IValue[] values, final int prefix, final IMVPerm[] perms) {
+			this.values = values;
+			this.prefix = prefix;
+			this.perms = perms;
+		}
+	}
+
+	/**
+	 * @return The symmetry set that is the domain of the given function value if
+	 *         the function's range values do not contain elements of any symmetry
+	 *         set, -1 otherwise.
+	 */
+	private final int getSymmetrySet(final IValue value) {
+		if (!(value instanceof FcnRcdValue)) {
+			return -1;
+		}
+		final FcnRcdValue fcn = (FcnRcdValue) value;
+		if (fcn.intv != null || fcn.domain.length == 0 || !(fcn.domain[0] instanceof ModelValue)) {
+			return -1;
+		}
+		final int set = this.setOf[((ModelValue) fcn.domain[0]).index];
+		if (set == -1 || fcn.domain.length != this.sizes[set]) {
+			return -1;
+		}
+		for (int i = 1; i < fcn.domain.length; i++) {
+			if (!(fcn.domain[i] instanceof ModelValue) || this.setOf[((ModelValue) fcn.domain[i]).index] != set) {
+				return -1;
+			}
+		}
+		// A normalized domain has no duplicates, i.e. it equals the symmetry set.
+		fcn.normalize();
+		for (int i = 0; i < fcn.values.length; i++) {
+			if (fcn.values[i].permute(this.cycle) != fcn.values[i]) {
+				return -1;
+			}
+		}
+		return set;
+	}
+}
@@ -24,6 +24,7 @@ import util.Assert;
 
 public class TupleValue extends Value implements Applicable, ITupleValue {
   public final Value[] elems;          // the elements of this tuple.
+  private transient long cachedFP;   // see Value#cacheFP
   public final static TupleValue EmptyTuple = new TupleValue(new Value[0]);
 
   /* Constructor */
@@ -57,6 +58,7 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
 
   public final int compareTo(Object obj) {
     try {
+      if (this == obj) return 0; // e.g. interned (see ValueInternTable)
       TupleValue tv = obj instanceof Value ? (TupleValue) ((Value)obj).toTuple() : null;
       if (tv == null) {
         // Well, we have to convert this to function and compare.
@@ -80,6 +82,7 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
 
   public final boolean equals(Object obj) {
     try {
+      if (this == obj) return true; // e.g. interned (see ValueInternTable)
       TupleValue tv = obj instanceof Value ? (TupleValue) ((Value)obj).toTuple() : null;
       if (tv == null) {
         // Well, we have to convert this to function and compare.
@@ -313,15 +316,13 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
   /* The fingerprint method: tuples are functions. */
   public final long fingerPrint(long fp) {
     try {
-      int len = this.elems.length;
-      fp = FP64.Extend(fp, FCNRCDVALUE);
-      fp = FP64.Extend(fp, len);
-      for (int i = 0; i < len; i++) {
-        fp = FP64.Extend(fp, INTVALUE);
-        fp = FP64.Extend(fp, i+1);
-        fp = this.elems[i].fingerPrint(fp);
+      if (cacheFP) {
+        if (this.cachedFP == 0L) {
+          this.cachedFP = mixFP(this.fingerPrintImpl(FP64.New()));
+        }
+        return FP64.Extend(fp, this.cachedFP);
       }
-      return fp;
+      return this.fingerPrintImpl(fp);
     }
     catch (RuntimeException | OutOfMemoryError e) {
       if (hasSource()) { throw FingerprintException.getNewHead(this, e); }
@@ -329,6 +330,18 @@ public class TupleValue extends Value implements Applicable, ITupleValue {
     }
   }
 
+  private final long fingerPrintImpl(long fp) {
+    int len = this.elems.length;
+    fp = FP64.Extend(fp, FCNRCDVALUE);
+    fp = FP64.Extend(fp, len);
+    for (int i = 0; i < len; i++) {
+      fp = FP64.Extend(fp, INTVALUE);
+      fp = FP64.Extend(fp, i+1);
+      fp = this.elems[i].fingerPrint(fp);
+    }
+    return fp;
+  }
+
   public final IValue permute(IMVPerm perm) {
     try {
     	Value[] vals = new Value[this.elems.length];
@@ -97,6 +97,37 @@ public abstract class Value implements ValueConstants, Serializable, IValue {
   }
 
   public transient CostModel cm = CostModel.DO_NOT_RECORD;
+
+  /**
+   * True iff this value is the canonical instance of the values equal to it
+   * (see ValueInternTable).
+   */
+  transient boolean interned = false;
+
+  /**
+   * If true, function, record, tuple and enumerated set values fingerprint
+   * their own content once, starting from FP64.New(), and extend the caller's
+   * running fingerprint with the cached result.  Sub-values that are shared
+   * between a state and its successors are thus only hashed once.  The
+   * resulting state fingerprints differ from the default ones, so a checkpoint
+   * cannot be resumed with a different setting of this flag.
+   */
+  protected static final boolean cacheFP = Boolean.getBoolean(Value.class.getName() + ".cacheFingerprints");
+
+  /**
+   * FP64 is linear, i.e. extending a fingerprint by the (cached) fingerprint of
+   * a sub-value would allow the terms of different nestings to cancel each
+   * other out systematically.  The cached fingerprints are thus scrambled by a
+   * non-linear bijection (MurmurHash3's finalizer) first.
+   */
+  static final long mixFP(long fp) {
+    fp ^= fp >>> 33;
+    fp *= 0xff51afd7ed558ccdL;
+    fp ^= fp >>> 33;
+    fp *= 0xc4ceb9fe1a85ec53L;
+    fp ^= fp >>> 33;
+    return fp;
+  }
   
   @Override
   public IValue setCostModel(CostModel cm) {
@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+
+import tlc2.value.IValue;
+
+/**
+ * A global (weak) table of the canonical instances of (normalized) values.
+ * Interning a value replaces it and its components with the canonical
+ * instances of equal values, thus equal (sub-)values of different states share
+ * a single instance and are identical (==), which {@link Value#equals(Object)}
+ * and {@link Value#compareTo(Object)} check first.
+ * <p>
+ * A value is interned bottom-up: The components of a canonical value are
+ * canonical, which is why two values are considered equal by the table iff
+ * they are instances of the same class whose components are identical. Equal
+ * values with different representations (e.g. a tuple and a function with
+ * domain 1..n) are not shared. Only the values of the kinds below get interned.
+ * A value that contains another kind of value (e.g. an interval) or a value
+ * that is not normalized is left as is.
+ * <p>
+ * A canonical value is only referenced weakly by the table, thus it gets
+ * garbage collected with the last state that references it.
+ */
+public final class ValueInternTable {
+
+	private static final ConcurrentHashMap<Key, Key> table = new ConcurrentHashMap<>();
+
+	private static final ReferenceQueue<Value> queue = new ReferenceQueue<>();
+
+	private ValueInternTable() {
+		// no instantiation
+	}
+
+	/**
+	 * @return The canonical instance of a value equal to the given one or the
+	 *         given value if it cannot be interned.
+	 */
+	public static IValue intern(final IValue val) {
+		if (!(val instanceof Value)) {
+			return val;
+		}
+		final Value canonical = canonical((Value) val);
+		return canonical == null ? val : canonical;
+	}
+
+	/**
+	 * @return The number of canonical values.
+	 */
+	public static int size() {
+		expunge();
+		return table.size();
+	}
+
+	/**
+	 * @return The canonical instance of a value equal to the given one or null
+	 *         if it cannot be interned.
+	 */
+	private static Value canonical(final Value val) {
+		if (val.interned || val instanceof ModelValue) {
+			// Model values are unique.
+			return val;
+		}
+		if (val instanceof IntValue || val instanceof StringValue || val instanceof BoolValue) {
+			return intern(val, val.hashCode());
+		} else if (val instanceof RecordValue) {
+			final RecordValue rcd = (RecordValue) val;
+			if (!rcd.isNormalized()) {
+				return null;
+			}
+			final Value[] values = canonical(rcd.values);
+			if (values == null) {
+				return null;
+			}
+			int hash = hash(RecordValue.class.hashCode(), values);
+			for (int i = 0; i < rcd.names.length; i++) {
+				hash = 31 * hash + System.identityHashCode(rcd.names[i]);
+			}
+			return intern(values == rcd.values ? rcd : new RecordValue(rcd.names, values, true), hash);
+		} else if (val instanceof TupleValue) {
+			final TupleValue tuple = (TupleValue) val;
+			final Value[] elems = canonical(tuple.elems);
+			if (elems == null) {
+				return null;
+			}
+			return intern(elems == tuple.elems ? tuple : new TupleValue(elems), hash(TupleValue.class.hashCode(), elems));
+		} else if (val instanceof FcnRcdValue) {
+			final FcnRcdValue fcn = (FcnRcdValue) val;
+			if (!fcn.isNormalized()) {
+				return null;
+			}
+			final Value[] values = canonical(fcn.values);
+			if (values == null) {
+				return null;
+			}
+			if (fcn.intv != null) {
+				final int hash = 31 * (31 * hash(FcnRcdValue.class.hashCode(), values) + fcn.intv.low) + fcn.intv.high;
+				return intern(values == fcn.values ? fcn : new FcnRcdValue(fcn.intv, values), hash);
+			}
+			final Value[] domain = canonical(fcn.domain);
+			if (domain == null) {
+				return null;
+			}
+			final int hash = hash(hash(FcnRcdValue.class.hashCode(), values), domain);
+			return intern(values == fcn.values && domain == fcn.domain ? fcn : new FcnRcdValue(domain, values, true),
+					hash);
+		} else if (val instanceof SetEnumValue) {
+			final SetEnumValue set = (SetEnumValue) val;
+			if (!set.isNormalized()) {
+				return null;
+			}
+			final Value[] elems = set.elems.toArray();
+			boolean changed = false;
+			for (int i = 0; i < elems.length; i++) {
+				final Value elem = canonical(elems[i]);
+				if (elem == null) {
+					return null;
+				}
+				changed = changed || elem != elems[i];
+				elems[i] = elem;
+			}
+			final int hash = hash(SetEnumValue.class.hashCode(), elems);
+			return intern(changed ? new SetEnumValue(elems, true) : set, hash);
+		}
+		return null;
+	}
+
+	/**
+	 * @return The canonical instances of the given values (the given array if
+	 *         they are all canonical) or null if one cannot be interned.
+	 */
+	private static Value[] canonical(final Value[] vals) {
+		Value[] res = vals;
+		for (int i = 0; i < vals.length; i++) {
+			final Value val = canonical(vals[i]);
+			if (val == null) {
+				return null;
+			} else if (val != vals[i]) {
+				if (res == vals) {
+					res = vals.clone();
+				}
+				res[i] = val;
+			}
+		}
+		return res;
+	}
+
+	private static int hash(int hash, final Value[] components) {
+		for (int i = 0; i < components.length; i++) {
+			hash = 31 * hash + System.identityHashCode(components[i]);
+		}
+		return hash;
+	}
+
+	private static Value intern(final Value val, final int hash) {
+		expunge();
+		final Key key = new Key(val, hash, queue);
+		while (true) {
+			final Key existing = table.putIfAbsent(key, key);
+			if (existing == null) {
+				val.interned = true;
+				return val;
+			}
+			final Value canonical = existing.get();
+			if (canonical != null) {
+				return canonical;
+			}
+			// Garbage collected after it has been found equal.
+			table.remove(existing, existing);
+		}
+	}
+
+	private static void expunge() {
+		Object key;
+		while ((key = queue.poll()) != null) {
+			table.remove(key);
+		}
+	}
+
+	private static final class Key extends WeakReference<Value> {
+		private final int hash;
+
+		Key(final Value val, final int hash, final ReferenceQueue<Value> queue) {
+			super(val, queue);
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key) || ((Key) obj).hash != this.hash) {
+				return false;
+			}
+			final Value val = get();
+			final Value other = ((Key) obj).get();
+			// A garbage collected value only equals itself.
+			return val != null && other != null && isSame(val, other);
+		}
+
+		private static boolean isSame(final Value val, final Value other) {
+			if (val.getClass() != other.getClass()) {
+				return false;
+			} else if (val instanceof RecordValue) {
+				final RecordValue rcd = (RecordValue) val, orcd = (RecordValue) other;
+				return isSame(rcd.names, orcd.names) && isSame(rcd.values, orcd.values);
+			} else if (val instanceof TupleValue) {
+				return isSame(((TupleValue) val).elems, ((TupleValue) other).elems);
+			} else if (val instanceof FcnRcdValue) {
+				final FcnRcdValue fcn = (FcnRcdValue) val, ofcn = (FcnRcdValue) other;
+				if (fcn.intv != null) {
+					return ofcn.intv != null && fcn.intv.low == ofcn.intv.low && fcn.intv.high == ofcn.intv.high
+							&& isSame(fcn.values, ofcn.values);
+				}
+				return ofcn.domain != null && isSame(fcn.domain, ofcn.domain) && isSame(fcn.values, ofcn.values);
+			} else if (val instanceof SetEnumValue) {
+				final ValueVec elems = ((SetEnumValue) val).elems, oelems = ((SetEnumValue) other).elems;
+				if (elems.size() != oelems.size()) {
+					return false;
+				}
+				for (int i = 0; i < elems.size(); i++) {
+					if (elems.elementAt(i) != oelems.elementAt(i)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			// IntValue, StringValue or BoolValue.
+			return val.equals(other);
+		}
+
+		private static boolean isSame(final Object[] components, final Object[] others) {
+			if (components.length != others.length) {
+				return false;
+			}
+			for (int i = 0; i < components.length; i++) {
+				if (components[i] != others[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
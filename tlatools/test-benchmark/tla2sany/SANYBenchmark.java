@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tla2sany;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import tla2sany.drivers.FrontEndException;
+import tla2sany.drivers.SANY;
+import tla2sany.modanalyzer.SpecObj;
+import util.SimpleFilenameToStream;
+import util.ToolIO;
+
+/**
+ * Parses and level-checks specs of test-model with SANY.
+ */
+@State(Scope.Benchmark)
+public class SANYBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 2 -i 2 -f2 -rf json -rff
+	 * SANYBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * -jvmArgsAppend "-Dtla2sany.SANYBenchmark.base=/path/to/tlatools/test-model"
+	 * tla2sany.SANYBenchmark
+	 */
+
+	private static final String BASE_PATH = System.getProperty(SANYBenchmark.class.getName() + ".base",
+			"test-model");
+
+	private static final PrintStream devNull = new PrintStream(new OutputStream() {
+		public void write(final int b) {
+		}
+	});
+
+	@Param({ "DieHard", "EWD840/EWD840", "pcal/Detlefs", "VoteProof/VoteProof", "Bug156/FindOp" })
+	public String spec;
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public SpecObj parse() throws FrontEndException {
+		final File file = new File(BASE_PATH + File.separator + spec + ".tla");
+		ToolIO.setUserDir(file.getParent());
+		final SpecObj specObj = new SpecObj(file.getName(), new SimpleFilenameToStream());
+		SANY.frontEndMain(specObj, file.getName(), devNull);
+		if (specObj.getErrorLevel() > 0) {
+			throw new IllegalStateException("Failed to parse " + file);
+		}
+		return specObj;
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Generates the successors of states of EWD840 (Tool#getNextStates) and
+ * fingerprints states (TLCStateMut#fingerPrint).
+ */
+@State(Scope.Benchmark)
+public class NextStateBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 2 -i 2 -f2 -rf json -rff
+	 * NextStateBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * tlc2.tool.NextStateBenchmark
+	 */
+
+	private static final ReachableStates reachable = ReachableStates.ewd840(10000);
+
+	private int idx = 0;
+
+	private TLCState next() {
+		final TLCState state = reachable.states.get(idx);
+		idx = (idx + 1) % reachable.states.size();
+		return state;
+	}
+
+	@Benchmark
+	public int getNextStates() {
+		final TLCState state = next();
+		int cnt = 0;
+		for (final Action action : reachable.tool.getActions()) {
+			cnt += reachable.tool.getNextStates(action, state).size();
+		}
+		return cnt;
+	}
+
+	@Benchmark
+	public long fingerPrint() {
+		return next().fingerPrint();
+	}
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import tlc2.tool.impl.Tool;
+import tlc2.util.FP64;
+import tlc2.util.SetOfStates;
+import util.SimpleFilenameToStream;
+import util.ToolIO;
+
+/**
+ * The first states (in breadth-first order) of the state space of a spec in
+ * test-model, which several benchmarks of the state-exploration hot path
+ * share. Pass -Dtlc2.tool.ReachableStates.base=/path/to/tlatools/test-model
+ * if the benchmarks are not run from the tlatools directory.
+ */
+public final class ReachableStates {
+
+	private static final String BASE_PATH = System.getProperty(ReachableStates.class.getName() + ".base",
+			"test-model");
+
+	public final ITool tool;
+	public final StateVec initStates;
+	/**
+	 * The explored states in breadth-first order, and the successors of each
+	 * explored state.
+	 */
+	public final List<TLCState> states = new ArrayList<>();
+	public final List<SetOfStates> successors = new ArrayList<>();
+
+	/**
+	 * @param dir
+	 *            The directory of the spec relative to test-model.
+	 * @param maxStates
+	 *            The number of states to explore.
+	 */
+	public ReachableStates(final String dir, final String spec, final String config, final int maxStates) {
+		FP64.Init();
+		ToolIO.setUserDir(BASE_PATH + File.separator + dir);
+		this.tool = new Tool("", spec, config, new SimpleFilenameToStream());
+		this.initStates = this.tool.getInitStates();
+
+		final Set<Long> seen = new HashSet<>();
+		final ArrayDeque<TLCState> queue = new ArrayDeque<>();
+		for (int i = 0; i < this.initStates.size(); i++) {
+			if (seen.add(this.initStates.elementAt(i).fingerPrint())) {
+				queue.add(this.initStates.elementAt(i));
+			}
+		}
+		while (!queue.isEmpty() && this.states.size() < maxStates) {
+			final TLCState state = queue.poll();
+			final SetOfStates succs = new SetOfStates();
+			for (final Action action : this.tool.getActions()) {
+				final StateVec nss = this.tool.getNextStates(action, state);
+				for (int i = 0; i < nss.size(); i++) {
+					final TLCState succ = nss.elementAt(i);
+					final long fp = succ.fingerPrint();
+					succs.put(fp, succ);
+					if (seen.add(fp)) {
+						queue.add(succ);
+					}
+				}
+			}
+			this.states.add(state);
+			this.successors.add(succs);
+		}
+	}
+
+	public static ReachableStates ewd840(final int maxStates) {
+		return new ReachableStates("EWD840", "MCBenchmark", "MCBenchmark", maxStates);
+	}
+}
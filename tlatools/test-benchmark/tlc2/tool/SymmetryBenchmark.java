@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import java.io.File;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import tlc2.tool.impl.Tool;
+import tlc2.util.FP64;
+import tlc2.value.impl.FcnRcdValue;
+import tlc2.value.impl.IntValue;
+import tlc2.value.impl.StringValue;
+import tlc2.value.impl.Value;
+import util.SimpleFilenameToStream;
+import util.ToolIO;
+import util.UniqueString;
+
+@State(Scope.Benchmark)
+public class SymmetryBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 2 -i 2 -f2 -rf json -rff
+	 * SymmetryBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * -jvmArgsPrepend
+	 * "-Dtlc2.tool.SymmetryBenchmark.base=/home/markus/src/TLA/tla/tlatools/test-model"
+	 * tlc2.tool.SymmetryBenchmark
+	 * 
+	 * The symmetry set has 8 elements (see CanonicalBenchmark.cfg), i.e. 8! - 1
+	 * permutations.
+	 */
+
+	private static final String BASE_PATH = System.getProperty(SymmetryBenchmark.class.getName() + ".base");
+
+	private static final TLCStateMut[] states = new TLCStateMut[1 << 10];
+
+	static {
+		FP64.Init();
+
+		ToolIO.setUserDir(BASE_PATH + File.separator + "symmetry");
+
+		final ITool tool = new Tool("", "Canonical", "CanonicalBenchmark", new SimpleFilenameToStream());
+		final TLCStateMut init = (TLCStateMut) tool.getInitStates().elementAt(0);
+
+		final UniqueString pcName = UniqueString.uniqueStringOf("pc");
+		final UniqueString cntName = UniqueString.uniqueStringOf("cnt");
+		final FcnRcdValue pc = (FcnRcdValue) init.getVals().get(pcName);
+
+		final Random rnd = new Random(4711L);
+		final Value[] labels = new Value[] { new StringValue("idle"), new StringValue("cs") };
+		for (int i = 0; i < states.length; i++) {
+			final Value[] pcs = new Value[pc.domain.length];
+			final Value[] cnts = new Value[pc.domain.length];
+			for (int j = 0; j < pcs.length; j++) {
+				pcs[j] = labels[rnd.nextInt(labels.length)];
+				cnts[j] = IntValue.gen(rnd.nextInt(3));
+			}
+			final TLCState state = init.copy();
+			state.bind(pcName, new FcnRcdValue(pc.domain, pcs, true));
+			state.bind(cntName, new FcnRcdValue(pc.domain, cnts, true));
+			states[i] = (TLCStateMut) state;
+		}
+	}
+
+	private int idx = 0;
+
+	@Benchmark
+	@Fork(jvmArgsAppend = "-Dtlc2.tool.TLCStateMut.canonicalSymmetry=false")
+	public long aEnumeration() {
+		return states[idx++ & (states.length - 1)].fingerPrint();
+	}
+
+	@Benchmark
+	@Fork(jvmArgsAppend = "-Dtlc2.tool.TLCStateMut.canonicalSymmetry=true")
+	public long bCanonicalization() {
+		return states[idx++ & (states.length - 1)].fingerPrint();
+	}
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Inserts random fingerprints into each of the FPSet implementations (see
+ * FPSetFactory#getImplementations()). The set has room for 2^22 fingerprints
+ * in memory and thus flushes to disk once it is full. The set is not
+ * recreated for each iteration, because all OffHeapDiskFPSets of a VM evict
+ * together (see OffHeapDiskFPSet.OffHeapSynchronizer), including closed ones.
+ */
+@State(Scope.Benchmark)
+public class FPSetBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 2 -i 2 -f2 -rf json -rff
+	 * FPSetBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * tlc2.tool.fp.FPSetBenchmark
+	 */
+
+	@Param({ "tlc2.tool.fp.MSBDiskFPSet", "tlc2.tool.fp.LSBDiskFPSet", "tlc2.tool.fp.OffHeapDiskFPSet" })
+	public String impl;
+
+	private FPSet fpSet;
+	private long fp;
+
+	@Setup
+	public void up() throws IOException {
+		@SuppressWarnings("serial")
+		final FPSetConfiguration fpSetConfig = new FPSetConfiguration(1d, impl) {
+			public long getMemoryInBytes() {
+				// Bypass TLCRuntime which sizes the set relative to the VM's memory.
+				return (1L << 22) * FPSet.LongSize;
+			}
+		};
+		fpSet = FPSetFactory.getFPSet(fpSetConfig);
+		fpSet.init(1, Files.createTempDirectory("FPSetBenchmark").toString(), "FPSetBenchmark");
+		fp = 1550000000000L;
+	}
+
+	@TearDown
+	public void down() {
+		fpSet.close();
+	}
+
+	@Benchmark
+	public boolean put() throws IOException {
+		// xorshift64 never yields zero (an invalid fingerprint) for a non-zero seed.
+		fp ^= fp << 13;
+		fp ^= fp >>> 7;
+		fp ^= fp << 17;
+		return fpSet.put(fp);
+	}
+}
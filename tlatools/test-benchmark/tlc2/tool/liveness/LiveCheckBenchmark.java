@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import tlc2.tool.ReachableStates;
+import tlc2.tool.TLCState;
+import tlc2.util.statistics.DummyBucketStatistics;
+
+/**
+ * Adds the first states of EWD840 and their successors to the behavior graph
+ * of a new {@link LiveCheck} (LiveCheck#addNextState), like the workers of the
+ * model checker do.
+ */
+@State(Scope.Benchmark)
+public class LiveCheckBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 2 -i 2 -f2 -rf json -rff
+	 * LiveCheckBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * tlc2.tool.liveness.LiveCheckBenchmark
+	 */
+
+	private static final ReachableStates reachable = ReachableStates.ewd840(5000);
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public ILiveCheck addNextState() throws IOException {
+		final ILiveCheck liveCheck = new LiveCheck(reachable.tool,
+				Files.createTempDirectory("LiveCheckBenchmark").toString(), new DummyBucketStatistics());
+		for (int i = 0; i < reachable.initStates.size(); i++) {
+			final TLCState state = reachable.initStates.elementAt(i);
+			liveCheck.addInitState(reachable.tool, state, state.fingerPrint());
+		}
+		for (int i = 0; i < reachable.states.size(); i++) {
+			final TLCState state = reachable.states.get(i);
+			liveCheck.addNextState(reachable.tool, state, state.fingerPrint(), reachable.successors.get(i));
+		}
+		liveCheck.close();
+		return liveCheck;
+	}
+}
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the results of a JMH run (-rf json) with the baselines checked in
+ * next to the benchmarks (BenchmarkName-$(date +%s)-$(git rev-parse --short
+ * HEAD).json). A benchmark (with a given set of parameters) has regressed if
+ * its score is worse than the score of the most recent baseline by more than
+ * the threshold and more than the error of both scores.
+ * <p>
+ * Run with: java -cp target/benchmarks.jar tlc2.util.BenchmarkComparator
+ * [-threshold 0.1] test-benchmark/ result.json
+ * <p>
+ * The exit code is 1 iff at least one benchmark has regressed.
+ */
+public class BenchmarkComparator {
+
+	private static final Pattern BASELINE = Pattern.compile(".*-(\\d+)-[0-9a-f]+\\.json");
+
+	public static void main(final String[] args) throws IOException {
+		double threshold = 0.1d;
+		int idx = 0;
+		if (args.length > 1 && "-threshold".equals(args[0])) {
+			threshold = Double.parseDouble(args[1]);
+			idx = 2;
+		}
+		if (args.length - idx != 2) {
+			System.err.println("Usage: BenchmarkComparator [-threshold 0.1] <baseline dir> <result.json>");
+			System.exit(2);
+		}
+
+		final Map<String, Result> baselines = new HashMap<>();
+		final Map<String, Long> timestamps = new HashMap<>();
+		for (final File file : listBaselines(new File(args[idx]), new ArrayList<>())) {
+			final Matcher m = BASELINE.matcher(file.getName());
+			final long timestamp = m.matches() ? Long.parseLong(m.group(1)) : file.lastModified() / 1000L;
+			for (final Result r : read(file)) {
+				final Long t = timestamps.get(r.key);
+				if (t == null || t < timestamp) {
+					baselines.put(r.key, r);
+					timestamps.put(r.key, timestamp);
+				}
+			}
+		}
+
+		int regressions = 0;
+		System.out.printf("%-80s %12s %-10s %21s %8s%n", "Benchmark", "Score", "Unit", "Baseline", "Change");
+		for (final Result r : read(new File(args[idx + 1]))) {
+			final Result base = baselines.get(r.key);
+			if (base == null) {
+				System.out.printf("%-80s %12.3f %-10s (no baseline)%n", r.key, r.score, r.unit);
+				continue;
+			}
+			// A positive change is a slowdown. Throughput is the only mode for
+			// which higher scores are better.
+			final double change = "thrpt".equals(r.mode) ? (base.score - r.score) / base.score
+					: (r.score - base.score) / base.score;
+			final boolean regressed = change > threshold
+					&& Math.abs(r.score - base.score) > r.error + base.error;
+			if (regressed) {
+				regressions++;
+			}
+			System.out.printf("%-80s %12.3f %-10s %21.3f %+7.1f%%%s%n", r.key, r.score, r.unit,
+					base.score, change * 100d, regressed ? "  REGRESSION" : "");
+		}
+		System.exit(regressions > 0 ? 1 : 0);
+	}
+
+	private static List<File> listBaselines(final File dir, final List<File> files) {
+		final File[] children = dir.listFiles();
+		if (children != null) {
+			for (final File child : children) {
+				if (child.isDirectory()) {
+					listBaselines(child, files);
+				} else if (child.getName().endsWith(".json")) {
+					files.add(child);
+				}
+			}
+		}
+		return files;
+	}
+
+	private static final class Result {
+		/**
+		 * The benchmark and its parameters.
+		 */
+		private final String key;
+		private final String mode;
+		private final String unit;
+		private final double score;
+		private final double error;
+
+		Result(final Map<?, ?> json) {
+			final Map<?, ?> params = (Map<?, ?>) json.get("params");
+			this.key = json.get("benchmark") + (params == null ? "" : new TreeMap<>(params).toString());
+			this.mode = (String) json.get("mode");
+			final Map<?, ?> metric = (Map<?, ?>) json.get("primaryMetric");
+			this.unit = (String) metric.get("scoreUnit");
+			this.score = toDouble(metric.get("score"));
+			final double err = toDouble(metric.get("scoreError"));
+			this.error = Double.isNaN(err) ? 0d : err;
+		}
+
+		private static double toDouble(final Object o) {
+			// JMH writes NaN as a string.
+			return o instanceof Number ? ((Number) o).doubleValue() : Double.NaN;
+		}
+	}
+
+	private static List<Result> read(final File file) throws IOException {
+		final List<Result> results = new ArrayList<>();
+		final Object json = new JsonReader(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).read();
+		if (json instanceof List) {
+			for (final Object o : (List<?>) json) {
+				results.add(new Result((Map<?, ?>) o));
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * Just enough JSON to read JMH's result files.
+	 */
+	private static final class JsonReader {
+		private final String s;
+		private int pos = 0;
+
+		JsonReader(final String s) {
+			this.s = s;
+		}
+
+		Object read() {
+			skipWhitespace();
+			final char c = s.charAt(pos);
+			switch (c) {
+			case '{': {
+				final Map<String, Object> map = new LinkedHashMap<>();
+				pos++;
+				skipWhitespace();
+				if (s.charAt(pos) == '}') {
+					pos++;
+					return map;
+				}
+				do {
+					skipWhitespace();
+					final String key = (String) read();
+					skipWhitespace();
+					expect(':');
+					map.put(key, read());
+					skipWhitespace();
+				} while (s.charAt(pos++) == ',');
+				return map;
+			}
+			case '[': {
+				final List<Object> list = new ArrayList<>();
+				pos++;
+				skipWhitespace();
+				if (s.charAt(pos) == ']') {
+					pos++;
+					return list;
+				}
+				do {
+					list.add(read());
+					skipWhitespace();
+				} while (s.charAt(pos++) == ',');
+				return list;
+			}
+			case '"': {
+				final StringBuilder b = new StringBuilder();
+				pos++;
+				while (s.charAt(pos) != '"') {
+					if (s.charAt(pos) == '\\') {
+						pos++;
+						final char e = s.charAt(pos);
+						if (e == 'u') {
+							b.append((char) Integer.parseInt(s.substring(pos + 1, pos + 5), 16));
+							pos += 4;
+						} else {
+							b.append(e == 'n' ? '\n' : e == 't' ? '\t' : e == 'r' ? '\r' : e == 'b' ? '\b' : e == 'f' ? '\f' : e);
+						}
+					} else {
+						b.append(s.charAt(pos));
+					}
+					pos++;
+				}
+				pos++;
+				return b.toString();
+			}
+			default: {
+				final int start = pos;
+				while (pos < s.length() && ",]} \t\r\n".indexOf(s.charAt(pos)) < 0) {
+					pos++;
+				}
+				final String token = s.substring(start, pos);
+				if ("true".equals(token) || "false".equals(token)) {
+					return Boolean.valueOf(token);
+				} else if ("null".equals(token)) {
+					return null;
+				}
+				return Double.valueOf(token);
+			}
+			}
+		}
+
+		private void expect(final char c) {
+			if (s.charAt(pos++) != c) {
+				throw new IllegalArgumentException("Expected '" + c + "' at " + (pos - 1));
+			}
+		}
+
+		private void skipWhitespace() {
+			while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+				pos++;
+			}
+		}
+	}
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import tlc2.tool.ReachableStates;
+import tlc2.tool.TLCState;
+
+/**
+ * Writes the first states of EWD840 with a {@link ValueOutputStream} and reads
+ * them back with a {@link ValueInputStream}, like the disk-based state queue
+ * and checkpoints do.
+ */
+@State(Scope.Benchmark)
+public class ValueStreamBenchmark {
+
+	/*
+	 * Run with: java -jar target/benchmarks.jar -wi 2 -i 2 -f2 -rf json -rff
+	 * ValueStreamBenchmark-$(date +%s)-$(git rev-parse --short HEAD).json
+	 * tlc2.value.ValueStreamBenchmark
+	 */
+
+	private static final ReachableStates reachable = ReachableStates.ewd840(10000);
+
+	static {
+		// The on-disk representation requires a non-negative uid, which the model
+		// checker assigns when it writes a state to the trace file.
+		for (int i = 0; i < reachable.states.size(); i++) {
+			final TLCState state = reachable.states.get(i);
+			state.uid = i;
+			state.workerId = 0;
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.AverageTime)
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public TLCState roundTrip() throws IOException {
+		final File file = File.createTempFile("ValueStreamBenchmark", ".vos");
+		file.deleteOnExit();
+
+		final ValueOutputStream vos = new ValueOutputStream(file);
+		for (final TLCState state : reachable.states) {
+			state.write(vos);
+		}
+		vos.close();
+
+		TLCState state = null;
+		final ValueInputStream vis = new ValueInputStream(file);
+		for (int i = 0; i < reachable.states.size(); i++) {
+			state = TLCState.Empty.createEmpty();
+			state.read(vis);
+		}
+		vis.close();
+		file.delete();
+		return state;
+	}
+}
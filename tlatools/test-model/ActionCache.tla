@@ -0,0 +1,17 @@
+--------------------------- MODULE ActionCache ---------------------------
+EXTENDS Naturals
+VARIABLES x, y, z
+
+\* A only reads x, B only reads y, and C reads all variables.
+A == x < 5 /\ x' = x + 1 /\ UNCHANGED <<y, z>>
+
+B == y' = 1 - y /\ UNCHANGED <<x, z>>
+
+C == x = 5 /\ z < 2 /\ z' = z + 1 /\ y' = y /\ UNCHANGED x
+
+Init == x = 0 /\ y = 0 /\ z = 0
+
+Next == A \/ B \/ C
+
+Inv == z < 2
+=============================================================================
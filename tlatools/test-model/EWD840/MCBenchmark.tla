@@ -0,0 +1,7 @@
+---- MODULE MCBenchmark ----
+EXTENDS EWD840, TLC
+
+\* The model of the benchmarks in test-benchmark (see tlc2.tool.ReachableStates).
+const_N == 5
+
+=============================================================================
@@ -0,0 +1,103 @@
+--------------------------- MODULE ExprCompiler ---------------------------
+EXTENDS Naturals, Sequences, FiniteSets
+VARIABLES x, f, r, s
+
+Procs == {"p", "q"}
+
+\* Operators with (lazy) arguments and LET definitions with and without
+\* parameters.
+Max(a, b) == IF a > b THEN a ELSE b
+
+Sum(S) == LET Rec[T \in SUBSET S] == IF T = {} THEN 0
+                                     ELSE LET e == CHOOSE e \in T : TRUE
+                                          IN e + Rec[T \ {e}]
+          IN Rec[S]
+
+Fact[n \in 0..4] == IF n = 0 THEN 1 ELSE n * Fact[n - 1]
+
+Init == /\ x = 0
+        /\ f = [p \in Procs |-> 0]
+        /\ r = [a |-> 0, b |-> {}]
+        /\ s = <<>>
+
+Inc(p) == LET old == f[p]
+              Twice(v) == 2 * v
+          IN /\ old < 2
+             /\ f' = [f EXCEPT ![p] = @ + 1]
+             /\ x' = Max(x, Twice(old))
+             /\ UNCHANGED <<r, s>>
+
+Rcd == /\ r.a < 2
+       /\ \E e \in {1, 2} : r' = [r EXCEPT !.a = @ + 1, !.b = @ \cup {e}]
+       /\ UNCHANGED <<x, f, s>>
+
+Enq == /\ Len(s) < 2
+       /\ \E p \in Procs : s' = Append(s, <<p, f[p]>>)
+       /\ UNCHANGED <<x, f, r>>
+
+Next == \/ \E p \in Procs : Inc(p)
+        \/ Rcd
+        \/ Enq
+
+\* Expressions evaluated by ExprCompilerTest in every state.
+Quant == /\ \A p \in Procs : f[p] \in 0..2
+         /\ \E <<p, q>> \in Procs \X Procs : p # q /\ f[p] >= f[q]
+         /\ \A a, b \in 0..2 : Max(a, b) >= a
+
+Sets == << {f[p] : p \in Procs},
+           {<<p, n>> \in Procs \X (0..2) : f[p] = n},
+           {e \in SUBSET r.b : Cardinality(e) = 1},
+           UNION {r.b, {x}},
+           (r.b \cup {x}) \ {0},
+           r.b \cap {1},
+           DOMAIN f,
+           [Procs -> {x}],
+           [b : {r.b}, a : {x}],
+           r.b \subseteq {1, 2},
+           {t \in [Procs -> 0..1] : t["p"] = 1} >>
+
+Fcns == << [p \in Procs |-> f[p] + x],
+           [f EXCEPT !["p"] = @ * 2, !["q"] = x],
+           [q \in Procs, n \in 0..1 |-> f[q] + n][<<"p", 1>>],
+           Fact[x],
+           Sum(r.b \cup {x}),
+           CHOOSE p \in Procs : \A q \in Procs : f[p] >= f[q],
+           [i \in 1..Len(s) |-> s[i][1]],
+           [z |-> x, a |-> f["p"]].z,
+           IF s = <<>> THEN "none" ELSE Head(s) >>
+
+Cases == CASE x = 0 -> "zero"
+           [] x = 1 -> "one"
+           [] OTHER -> LET h == x \div 2 IN h
+
+Lets == LET a == x + 1
+            b == a * a
+            g(v) == v + b
+        IN <<a, b, g(a), LET a2 == a IN a2 + b>>
+
+\* Operators applied to identifiers bound by LET, quantifiers and functions.
+Clamp(v, lo, hi) == Max(lo, IF v > hi THEN hi ELSE v)
+
+ApplyTo(Op(_), v) == Op(v)
+
+Params == << Clamp(x, 1, 2),
+             \A p \in Procs : LET m(v) == Clamp(v + f[p], 0, x) IN m(f[p]) <= x,
+             {Clamp(n, x, 3) : n \in 0..4},
+             ApplyTo(LAMBDA v : v + x, 1),
+             [p \in Procs |-> Max(f[p], Len(s))] >>
+
+Bool == /\ (x > 0) => (f["p"] > 0 \/ f["q"] > 0)
+        /\ (x = 0) <=> (f["p"] < 1 /\ f["q"] < 1) \/ x > 0
+        /\ ~(x > 4)
+
+\* Action-level expressions evaluated by ExprCompilerTest on every transition.
+Changed == {v \in {"x", "f", "r", "s"} :
+             CASE v = "x" -> x' # x
+               [] v = "f" -> f' # f
+               [] v = "r" -> r' # r
+               [] OTHER -> s' # s}
+
+Diff == LET d == x' - x IN <<d, [p \in Procs |-> f'[p] - f[p]], r'.a, Max(x', x)>>
+
+Inv == x <= 2
+=============================================================================
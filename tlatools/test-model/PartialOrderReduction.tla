@@ -0,0 +1,22 @@
+--------------------------- MODULE PartialOrderReduction ---------------------------
+EXTENDS Naturals
+VARIABLES a, b, c
+
+vars == <<a, b, c>>
+
+Inc(x) == x < 3 /\ x' = x + 1
+
+A == Inc(a) /\ UNCHANGED <<b, c>>
+
+B == Inc(b) /\ UNCHANGED <<a, c>>
+
+C == Inc(c) /\ UNCHANGED <<a, b>>
+
+Init == a = 0 /\ b = 0 /\ c = 0
+
+Next == A \/ B \/ C
+
+Spec == Init /\ [][Next]_vars
+
+Inv == c \in 0..3
+=============================================================================
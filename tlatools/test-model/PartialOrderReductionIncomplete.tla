@@ -0,0 +1,17 @@
+--------------------------- MODULE PartialOrderReductionIncomplete ---------------------------
+EXTENDS Naturals
+VARIABLES a, b
+
+vars == <<a, b>>
+
+\* Leaves b unassigned.
+A == a < 2 /\ a' = a + 1
+
+B == b < 2 /\ b' = b + 1 /\ UNCHANGED a
+
+Init == a = 0 /\ b = 0
+
+Next == A \/ B
+
+Spec == Init /\ [][Next]_vars
+=============================================================================
@@ -0,0 +1,37 @@
+----------------------------- MODULE Canonical -----------------------------
+EXTENDS Naturals, TLC
+
+CONSTANT Proc
+
+VARIABLES pc, cnt, turn, last
+
+vars == << pc, cnt, turn, last >>
+
+Init == /\ pc = [p \in Proc |-> "idle"]
+        /\ cnt = [p \in Proc |-> 0]
+        /\ turn = 0
+        /\ last = "none"
+
+Enter(p) == /\ pc[p] = "idle"
+            /\ pc' = [pc EXCEPT ![p] = "cs"]
+            /\ cnt' = [cnt EXCEPT ![p] = (@ + 1) % 3]
+            /\ turn' = (turn + 1) % 2
+            /\ UNCHANGED last
+
+\* The value of last is an element of Proc in some states, which have to
+\* be reduced by enumerating all permutations.
+Exit(p) == /\ pc[p] = "cs"
+           /\ pc' = [pc EXCEPT ![p] = "idle"]
+           /\ last' = IF turn = 0 THEN p ELSE "none"
+           /\ UNCHANGED << cnt, turn >>
+
+Next == \E p \in Proc : Enter(p) \/ Exit(p)
+
+Spec == Init /\ [][Next]_vars
+
+TypeOK == /\ pc \in [Proc -> {"idle", "cs"}]
+          /\ cnt \in [Proc -> 0..2]
+          /\ last \in Proc \cup {"none"}
+
+Symmetry == Permutations(Proc)
+=============================================================================
@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import tlc2.TLCGlobals;
+import tlc2.output.EC;
+import tlc2.tool.impl.Tool;
+import tlc2.tool.liveness.ModelCheckerTestCase;
+
+public class ActionCacheTest extends ModelCheckerTestCase {
+
+	static {
+		System.setProperty(Tool.class.getName() + ".actionCache", "true");
+	}
+
+	public ActionCacheTest() {
+		super("ActionCache");
+	}
+
+	@Test
+	public void testSpec() {
+		assertTrue(recorder.recorded(EC.TLC_FINISHED));
+		assertFalse(recorder.recorded(EC.GENERAL));
+
+		// None of the actions is opaque.
+		final ITool tool = TLCGlobals.mainChecker.tool;
+		final ActionCache cache = (ActionCache) getField(Tool.class, "actionCache", tool);
+		assertEquals(3, cache.size());
+
+		// Same as without the cache.
+		assertTrue(recorder.recordedWithStringValues(EC.TLC_STATS, "27", "15", "1"));
+		assertTrue(recorder.recorded(EC.TLC_INVARIANT_VIOLATED_BEHAVIOR));
+
+		// The error trace gets re-generated by evaluating the actions, thus
+		// its states have to match the (cached) successors.
+		final List<String> expectedTrace = new ArrayList<String>(8);
+		for (int x = 0; x <= 5; x++) {
+			expectedTrace.add("/\\ x = " + x + "\n/\\ y = 0\n/\\ z = 0");
+		}
+		expectedTrace.add("/\\ x = 5\n/\\ y = 0\n/\\ z = 1");
+		expectedTrace.add("/\\ x = 5\n/\\ y = 0\n/\\ z = 2");
+		assertTraceWith(recorder.getRecords(EC.TLC_STATE_PRINT2), expectedTrace);
+	}
+
+	protected boolean doCoverage() {
+		// The cache is turned off with coverage.
+		return false;
+	}
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy 
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software. 
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import tlc2.util.BufferedRandomAccessFile;
+
+public class TraceFileTest {
+
+	private static final int RECORDS = 100000;
+
+	private static long prev(final int i) {
+		// Every other predecessor pointer exceeds the int range to exercise both
+		// encodings of LongNat.
+		return i % 2 == 0 ? i : Integer.MAX_VALUE + (long) i;
+	}
+
+	private static int worker(final int i) {
+		// ShortNat encodes workers > 127 in two bytes.
+		return i % 512;
+	}
+
+	@Test
+	public void testAppendRead() throws IOException {
+		final File file = File.createTempFile("TraceFileTest", TLCTrace.EXT);
+		file.deleteOnExit();
+		final TraceFile traceFile = new TraceFile(file.getAbsolutePath());
+
+		final long[] ptrs = new long[RECORDS];
+		for (int i = 0; i < RECORDS; i++) {
+			ptrs[i] = traceFile.append(prev(i), worker(i), i * 31L);
+		}
+
+		// Records are partially on disk and partially in memory.
+		for (int i = 0; i < RECORDS; i++) {
+			assertEquals(new ConcurrentTLCTrace.Record(prev(i), worker(i), i * 31L).toString(),
+					traceFile.read(ptrs[i]).toString());
+		}
+
+		// The on-disk format is the one of BufferedRandomAccessFile.
+		traceFile.flush();
+		final BufferedRandomAccessFile raf = new BufferedRandomAccessFile(file, "r");
+		for (int i = 0; i < RECORDS; i++) {
+			assertEquals(ptrs[i], raf.getFilePointer());
+			assertEquals(prev(i), raf.readLongNat());
+			raf.readShortNat();
+			assertEquals(i * 31L, raf.readLong());
+		}
+		raf.close();
+	}
+	
+	// Records on both sides of the boundary between the first two (64 MB)
+	// segments, including the one that straddles it.
+	@Test
+	public void testSegmentBoundary() throws IOException {
+		final File file = File.createTempFile("TraceFileTest", TLCTrace.EXT);
+		file.deleteOnExit();
+		final TraceFile traceFile = new TraceFile(file.getAbsolutePath());
+
+		final long boundary = 1L << 26; // see TraceFile#SegmentSize
+		final List<Integer> window = new ArrayList<>();
+		final List<Long> ptrs = new ArrayList<>();
+		int straddles = -1;
+		boolean readBeforeBoundary = false;
+		for (int i = 0; traceFile.getFilePointer() < boundary + 4 * (1 << 16); i++) {
+			final long ptr = traceFile.append(prev(i), worker(i), i);
+			if (Math.abs(ptr - boundary) < 1024) {
+				window.add(i);
+				ptrs.add(ptr);
+				if (ptr < boundary && traceFile.getFilePointer() > boundary) {
+					straddles = i;
+				}
+			}
+			// Map the first segment while its end has not been written yet. It
+			// has to be re-mapped when the records at its end are read below.
+			if (!readBeforeBoundary && ptr > boundary - 2 * (1 << 16)) {
+				traceFile.flush();
+				assertRecord(i, traceFile, ptr);
+				readBeforeBoundary = true;
+			}
+		}
+		assertTrue(straddles >= 0);
+		for (int j = 0; j < window.size(); j++) {
+			assertRecord(window.get(j), traceFile, ptrs.get(j));
+		}
+
+		// Read again with the records on disk only.
+		traceFile.flush();
+		for (int j = window.size() - 1; j >= 0; j--) {
+			assertRecord(window.get(j), traceFile, ptrs.get(j));
+		}
+		assertRecord(0, traceFile, 0L);
+		file.delete();
+	}
+
+	private static void assertRecord(final int i, final TraceFile traceFile, final long ptr) throws IOException {
+		assertEquals(new ConcurrentTLCTrace.Record(prev(i), worker(i), i).toString(),
+				traceFile.read(ptr).toString());
+	}
+
+	@Test
+	public void testTruncate() throws IOException {
+		final File file = File.createTempFile("TraceFileTest", TLCTrace.EXT);
+		file.deleteOnExit();
+		final TraceFile traceFile = new TraceFile(file.getAbsolutePath());
+
+		for (int i = 0; i < RECORDS; i++) {
+			traceFile.append(prev(i), worker(i), i);
+		}
+		traceFile.flush();
+		
+		final long pos = traceFile.append(1L, 1, 42L);
+		traceFile.truncate(pos);
+		assertEquals(pos, traceFile.getFilePointer());
+		
+		assertEquals(pos, traceFile.append(1L, 2, 4711L));
+		assertEquals(new ConcurrentTLCTrace.Record(1L, 2, 4711L).toString(), traceFile.read(pos).toString());
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BloomFilterTest {
+
+	@Test
+	public void testNoFalseNegatives() {
+		final BloomFilter filter = new BloomFilter(100000, 8);
+		final Random random = new Random(15041977L);
+		for (int i = 0; i < 100000; i++) {
+			filter.add(random.nextLong());
+		}
+		final Random again = new Random(15041977L);
+		for (int i = 0; i < 100000; i++) {
+			assertTrue(filter.mightContain(again.nextLong()));
+		}
+	}
+
+	@Test
+	public void testFalsePositiveRate() {
+		final BloomFilter filter = new BloomFilter(100000, 8);
+		final Random random = new Random(15041977L);
+		for (int i = 0; i < 100000; i++) {
+			filter.add(random.nextLong());
+		}
+		int falsePositives = 0;
+		for (int i = 0; i < 100000; i++) {
+			if (filter.mightContain(random.nextLong())) {
+				falsePositives++;
+			}
+		}
+		// ~2% for a classic Bloom filter with 8 bits per fingerprint, a bit
+		// more for a blocked one.
+		assertTrue("False positives: " + falsePositives, falsePositives < 5000);
+	}
+
+	@Test
+	public void testHighBitsOnly() {
+		// Fingerprints of one FPSet of a MultiFPSet share their most
+		// significant bits.
+		final BloomFilter filter = new BloomFilter(1 << 16, 8);
+		for (long i = 0; i < (1 << 16); i++) {
+			filter.add((3L << 60) | (i << 20));
+		}
+		int falsePositives = 0;
+		for (long i = 1 << 16; i < (1 << 17); i++) {
+			if (filter.mightContain((3L << 60) | (i << 20))) {
+				falsePositives++;
+			}
+		}
+		assertTrue("False positives: " + falsePositives, falsePositives < 3300);
+	}
+
+	@Test
+	public void testEnsureCapacity() {
+		final BloomFilter filter = BloomFilter.ensureCapacity(null, 1000, 8);
+		assertEquals(2000, filter.getCapacity());
+		assertSame(filter, BloomFilter.ensureCapacity(filter, 2000, 8));
+		final BloomFilter larger = BloomFilter.ensureCapacity(filter, 2001, 8);
+		assertNotSame(filter, larger);
+		assertEquals(4002, larger.getCapacity());
+	}
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import util.TLCRuntime;
+
+public class DiskFPSetBloomFilterTest {
+
+	private static final String BLOOM = DiskFPSet.class.getName() + ".bloomFilter";
+	private static final String CONCURRENT = OffHeapDiskFPSet.class.getName() + ".concurrentEviction";
+
+	@Before
+	public void setup() {
+		System.setProperty(BLOOM, "8");
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(BLOOM);
+		System.clearProperty(CONCURRENT);
+	}
+
+	@Test
+	public void testMSBDiskFPSet() throws IOException {
+		final DummyFPSetConfiguration fpSetConfig = new DummyFPSetConfiguration();
+		fpSetConfig.setMemoryInFingerprintCnt(1 << 12);
+		doTest(new MSBDiskFPSet(fpSetConfig), 1550000000010L);
+	}
+
+	@Test
+	public void testOffHeapDiskFPSet() throws IOException {
+		Assume.assumeTrue(TLCRuntime.getInstance().getArchitecture() == TLCRuntime.ARCH.x86_64);
+		final DummyFPSetConfiguration fpSetConfig = new DummyFPSetConfiguration();
+		fpSetConfig.setMemoryInFingerprintCnt(1 << 12);
+		doTest(new OffHeapDiskFPSet(fpSetConfig), 1550000000011L);
+	}
+
+	@Test
+	public void testOffHeapDiskFPSetConcurrentEviction() throws IOException {
+		Assume.assumeTrue(TLCRuntime.getInstance().getArchitecture() == TLCRuntime.ARCH.x86_64);
+		System.setProperty(CONCURRENT, Boolean.TRUE.toString());
+		final DummyFPSetConfiguration fpSetConfig = new DummyFPSetConfiguration();
+		fpSetConfig.setMemoryInFingerprintCnt(1 << 12);
+		doTest(new OffHeapDiskFPSet(fpSetConfig), 1550000000012L);
+	}
+
+	private static void doTest(final DiskFPSet fpSet, final long rgenseed) throws IOException {
+		final String tmpdir = System.getProperty("java.io.tmpdir") + File.separator + "DiskFPSetBloomFilterTest"
+				+ System.nanoTime();
+		new File(tmpdir).mkdirs();
+		fpSet.init(1, tmpdir, "DiskFPSetBloomFilterTest");
+
+		// Insert enough fingerprints to evict (and replace the filter)
+		// several times.
+		final int n = 1 << 14;
+		final Random random = new Random(rgenseed);
+		for (int i = 0; i < n; i++) {
+			assertFalse(fpSet.put(getFingerprint(random)));
+		}
+		// Evict the remaining ones (twice to publish a concurrent eviction).
+		fpSet.forceFlush();
+		fpSet.contains(1L);
+		fpSet.forceFlush();
+		fpSet.contains(1L);
+		assertTrue(fpSet.getGrowDiskMark() > 1);
+		assertEquals(0L, fpSet.getTblCnt());
+
+		// All fingerprints are found on disk (no false negatives).
+		final Random again = new Random(rgenseed);
+		for (int i = 0; i < n; i++) {
+			assertTrue(fpSet.contains(getFingerprint(again)));
+		}
+
+		// The filter rules out most of the fingerprints not on disk.
+		final long skipped = fpSet.getBloomFilterSkipCnt();
+		final long falsePositives = fpSet.getBloomFilterFalsePositiveCnt();
+		for (int i = 0; i < n; i++) {
+			assertFalse(fpSet.contains(getFingerprint(random)));
+		}
+		assertTrue(fpSet.getBloomFilterSkipCnt() - skipped > n * 0.95);
+		assertEquals(n, fpSet.getBloomFilterSkipCnt() - skipped + fpSet.getBloomFilterFalsePositiveCnt()
+				- falsePositives);
+		fpSet.close();
+	}
+
+	private static long getFingerprint(Random random) {
+		return (((long) random.nextInt(Integer.MAX_VALUE - 1) + 1) << 32) | (random.nextInt() & 0xffffffffL);
+	}
+}
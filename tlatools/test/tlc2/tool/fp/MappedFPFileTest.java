@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import util.TLCRuntime;
+
+public class MappedFPFileTest {
+
+	private static final String MMAP = DiskFPSet.class.getName() + ".mmap";
+
+	@After
+	public void tearDown() {
+		System.clearProperty(MMAP);
+	}
+
+	@Test
+	public void testChunks() throws IOException {
+		final File file = File.createTempFile("MappedFPFileTest", ".fp");
+		file.deleteOnExit();
+		// 1000 fingerprints span eight chunks of 2^7 fingerprints, the last of
+		// which is partial.
+		try (DataOutputStream dos = new DataOutputStream(new FileOutputStream(file))) {
+			for (long i = 0; i < 1000; i++) {
+				dos.writeLong(i * 31L + 1L);
+			}
+		}
+		final MappedFPFile mapped = new MappedFPFile(file.getAbsolutePath(), 7);
+		assertEquals(1000L, mapped.size());
+		for (long i = 0; i < 1000; i++) {
+			assertEquals(i * 31L + 1L, mapped.get(i));
+		}
+	}
+
+	@Test
+	public void testEmpty() throws IOException {
+		final File file = File.createTempFile("MappedFPFileTest", ".fp");
+		file.deleteOnExit();
+		assertEquals(0L, new MappedFPFile(file.getAbsolutePath()).size());
+	}
+
+	@Test
+	public void testMSBDiskFPSet() throws IOException {
+		System.setProperty(MMAP, Boolean.TRUE.toString());
+		final DummyFPSetConfiguration fpSetConfig = new DummyFPSetConfiguration();
+		fpSetConfig.setMemoryInFingerprintCnt(1 << 12);
+		doTest(new MSBDiskFPSet(fpSetConfig), 1550000000020L);
+	}
+
+	@Test
+	public void testOffHeapDiskFPSet() throws IOException {
+		Assume.assumeTrue(TLCRuntime.getInstance().getArchitecture() == TLCRuntime.ARCH.x86_64);
+		System.setProperty(MMAP, Boolean.TRUE.toString());
+		final DummyFPSetConfiguration fpSetConfig = new DummyFPSetConfiguration();
+		fpSetConfig.setMemoryInFingerprintCnt(1 << 12);
+		doTest(new OffHeapDiskFPSet(fpSetConfig), 1550000000021L);
+	}
+
+	private static void doTest(final DiskFPSet fpSet, final long rgenseed) throws IOException {
+		final String tmpdir = System.getProperty("java.io.tmpdir") + File.separator + "MappedFPFileTest"
+				+ System.nanoTime();
+		new File(tmpdir).mkdirs();
+		fpSet.init(1, tmpdir, "MappedFPFileTest");
+
+		final int n = 1 << 14;
+		final Random random = new Random(rgenseed);
+		for (int i = 0; i < n; i++) {
+			assertFalse(fpSet.put(getFingerprint(random)));
+		}
+		fpSet.forceFlush();
+		fpSet.contains(1L);
+		assertTrue(fpSet.getGrowDiskMark() > 1);
+		assertEquals(0L, fpSet.getTblCnt());
+
+		// Lookups do not seek the disk file.
+		final long diskSeekCnt = fpSet.getDiskSeekCnt();
+		final Random again = new Random(rgenseed);
+		for (int i = 0; i < n; i++) {
+			assertTrue(fpSet.contains(getFingerprint(again)));
+		}
+		for (int i = 0; i < n; i++) {
+			assertFalse(fpSet.contains(getFingerprint(random)));
+		}
+		assertEquals(diskSeekCnt, fpSet.getDiskSeekCnt());
+		fpSet.close();
+	}
+
+	private static long getFingerprint(Random random) {
+		return (((long) random.nextInt(Integer.MAX_VALUE - 1) + 1) << 32) | (random.nextInt() & 0xffffffffL);
+	}
+}
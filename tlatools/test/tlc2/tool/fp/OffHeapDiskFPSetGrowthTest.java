@@ -0,0 +1,152 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.fp;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import util.TLCRuntime;
+
+public class OffHeapDiskFPSetGrowthTest {
+
+	private static final String GROW = OffHeapDiskFPSet.class.getName() + ".grow";
+	private static final String CONCURRENT = OffHeapDiskFPSet.class.getName() + ".concurrentEviction";
+
+	@Before
+	public void setup() {
+		Assume.assumeTrue(TLCRuntime.getInstance().getArchitecture() == TLCRuntime.ARCH.x86_64);
+	}
+
+	@After
+	public void tearDown() {
+		System.clearProperty(GROW);
+		System.clearProperty(CONCURRENT);
+	}
+
+	@Test
+	public void testGrow() throws IOException {
+		System.setProperty(GROW, "3");
+		final OffHeapDiskFPSet fpSet = doTest(1 << 13, 6000, 1550000000000L);
+		assertEquals(1 << 13, fpSet.getOverallCapacity());
+		// Grew instead of evicting to disk.
+		assertEquals(0, fpSet.getGrowDiskMark());
+		drain(fpSet, 6000, 1550000000000L);
+	}
+
+	@Test
+	public void testConcurrentEviction() throws IOException {
+		System.setProperty(CONCURRENT, Boolean.TRUE.toString());
+		// A table of this size is sorted and merged by multiple partitions.
+		final OffHeapDiskFPSet fpSet = doTest(1 << 14, 100000, 1550000000001L);
+		assertTrue(fpSet.getGrowDiskMark() > 1);
+		drain(fpSet, 100000, 1550000000001L);
+	}
+
+	@Test
+	public void testConcurrentEvictionSmall() throws IOException {
+		System.setProperty(CONCURRENT, Boolean.TRUE.toString());
+		final OffHeapDiskFPSet fpSet = doTest(3000, 20000, 1550000000002L);
+		assertTrue(fpSet.getGrowDiskMark() > 1);
+		drain(fpSet, 20000, 1550000000002L);
+	}
+
+	@Test
+	public void testGrowAndConcurrentEviction() throws IOException {
+		System.setProperty(GROW, "2");
+		System.setProperty(CONCURRENT, Boolean.TRUE.toString());
+		final OffHeapDiskFPSet fpSet = doTest(10000, 50000, 1550000000003L);
+		assertEquals(10000, fpSet.getOverallCapacity());
+		assertTrue(fpSet.getGrowDiskMark() > 1);
+		drain(fpSet, 50000, 1550000000003L);
+	}
+
+	private static OffHeapDiskFPSet doTest(final long positions, final int n, final long rgenseed)
+			throws IOException {
+		final DummyFPSetConfiguration fpSetConfig = new DummyFPSetConfiguration();
+		fpSetConfig.setMemoryInFingerprintCnt(positions);
+
+		final OffHeapDiskFPSet fpSet = new OffHeapDiskFPSet(fpSetConfig);
+		fpSet.init(4, createTmpFile(), "OffHeapDiskFPSetGrowthTest");
+
+		// Insert n fingerprints and re-insert every tenth of them, while the
+		// table grows and gets evicted.
+		final Random random = new Random(rgenseed);
+		final Random again = new Random(rgenseed);
+		for (int i = 0; i < n; i++) {
+			assertFalse(fpSet.put(getFingerprint(random)));
+			if (i % 10 == 9) {
+				assertTrue(fpSet.put(getFingerprint(again)));
+			}
+		}
+		assertEquals(n, fpSet.size());
+		assertContains(fpSet, n, rgenseed);
+		assertTrue(fpSet.checkFPs() > 0L);
+		return fpSet;
+	}
+
+	/**
+	 * Evicts all fingerprints to disk (twice to publish a concurrent
+	 * eviction) and leaves the set such that evictions of other sets (see
+	 * OffHeapSynchronizer) do not evict this closed set.
+	 */
+	private static void drain(final OffHeapDiskFPSet fpSet, final int n, final long rgenseed) throws IOException {
+		fpSet.forceFlush();
+		fpSet.contains(1L);
+		fpSet.forceFlush();
+		fpSet.contains(1L);
+		assertEquals(0L, fpSet.getTblCnt());
+		assertEquals(n, fpSet.size());
+		assertContains(fpSet, n, rgenseed);
+		fpSet.close();
+	}
+
+	private static void assertContains(final OffHeapDiskFPSet fpSet, final int n, final long rgenseed)
+			throws IOException {
+		final Random random = new Random(rgenseed);
+		for (int i = 0; i < n; i++) {
+			final long fp = getFingerprint(random);
+			assertTrue(String.format("Failed to find fp %s with seed %sL.", fp, rgenseed), fpSet.contains(fp));
+		}
+	}
+
+	private static String createTmpFile() {
+		final String tmpdir = System.getProperty("java.io.tmpdir") + File.separator + "OffHeapDiskFPSetGrowthTest"
+				+ System.nanoTime();
+		new File(tmpdir).mkdirs();
+		return tmpdir;
+	}
+
+	private static long getFingerprint(Random random) {
+		return (((long) random.nextInt(Integer.MAX_VALUE - 1) + 1) << 32) | (random.nextInt() & 0xffffffffL);
+	}
+}
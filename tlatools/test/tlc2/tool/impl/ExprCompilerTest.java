@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import tla2sany.semantic.OpDefNode;
+import tlc2.tool.Action;
+import tlc2.tool.CommonTestCase;
+import tlc2.tool.EvalControl;
+import tlc2.tool.StateVec;
+import tlc2.tool.TLCState;
+import tlc2.util.Context;
+import tlc2.util.FP64;
+import tlc2.value.impl.Value;
+import util.SimpleFilenameToStream;
+import util.ToolIO;
+
+public class ExprCompilerTest {
+
+	static {
+		System.setProperty(Tool.class.getName() + ".compile", "true");
+	}
+
+	@Test
+	public void testSpec() throws Exception {
+		FP64.Init();
+		ToolIO.setUserDir(CommonTestCase.BASE_PATH + File.separator);
+		final Tool tool = new Tool("", "ExprCompiler", "ExprCompiler", new SimpleFilenameToStream());
+		assertTrue(ExprCompiler.getCompiled(tool.getActions()[0].pred) != null);
+
+		final List<OpDefNode> stateLevel = new ArrayList<>();
+		final List<OpDefNode> actionLevel = new ArrayList<>();
+		for (final OpDefNode def : tool.rootModule.getOpDefs()) {
+			if (def.getName().toString().matches("Quant|Sets|Fcns|Cases|Lets|Params|Bool|Inv")) {
+				stateLevel.add(def);
+			} else if (def.getName().toString().matches("Changed|Diff")) {
+				actionLevel.add(def);
+			}
+		}
+		assertEquals(8, stateLevel.size());
+		assertEquals(2, actionLevel.size());
+
+		// The values of the expressions evaluated by the compiled expressions...
+		final Set<Long> states = new LinkedHashSet<>();
+		final List<Value> compiled = explore(tool, states, stateLevel, actionLevel);
+		assertEquals(1062, states.size());
+
+		// ...equal the values of the interpreter (a call stack disables the
+		// compiled expressions).
+		tool.setCallStack();
+		final Set<Long> interpreted = new LinkedHashSet<>();
+		assertEquals(compiled, explore(tool, interpreted, stateLevel, actionLevel));
+		assertEquals(states, interpreted);
+	}
+
+	/**
+	 * Explores the state graph breadth-first and evaluates the given
+	 * expressions in every state and on every transition.
+	 */
+	private static List<Value> explore(final Tool tool, final Set<Long> states, final List<OpDefNode> stateLevel,
+			final List<OpDefNode> actionLevel) {
+		final List<Value> values = new ArrayList<>();
+		final List<TLCState> queue = new ArrayList<>();
+		final StateVec init = tool.getInitStates();
+		for (int i = 0; i < init.size(); i++) {
+			if (states.add(init.elementAt(i).fingerPrint())) {
+				queue.add(init.elementAt(i));
+			}
+		}
+		for (int i = 0; i < queue.size(); i++) {
+			final TLCState state = queue.get(i);
+			for (final OpDefNode def : stateLevel) {
+				values.add((Value) tool.eval(def.getBody(), Context.Empty, state));
+			}
+			for (final Action action : tool.getActions()) {
+				final StateVec succs = tool.getNextStates(action, state);
+				for (int j = 0; j < succs.size(); j++) {
+					final TLCState succ = succs.elementAt(j);
+					for (final OpDefNode def : actionLevel) {
+						values.add((Value) tool.eval(def.getBody(), Context.Empty, state, succ, EvalControl.Clear));
+					}
+					if (states.add(succ.fingerPrint())) {
+						queue.add(succ);
+					}
+				}
+			}
+		}
+		return values;
+	}
+}
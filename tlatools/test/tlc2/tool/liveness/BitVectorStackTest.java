@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class BitVectorStackTest {
+
+	@Test
+	public void testPushPop() {
+		// A width that does not divide 64 to cover bit vectors that span words.
+		final int width = 5;
+		final BitVectorStack stack = new BitVectorStack(width);
+		final Deque<BitSet> expected = new ArrayDeque<>();
+
+		final Random rnd = new Random(1550000000000L);
+		for (int n = 0; n < 10000; n++) {
+			if (expected.isEmpty() || rnd.nextInt(3) > 0) {
+				stack.push();
+				final BitSet bits = new BitSet(width);
+				for (int i = 0; i < width; i++) {
+					assertFalse(stack.get(i));
+					if (rnd.nextBoolean()) {
+						stack.set(i);
+						bits.set(i);
+					}
+				}
+				expected.push(bits);
+			} else {
+				stack.pop();
+				expected.pop();
+			}
+			assertEquals(expected.size(), stack.size());
+			if (!expected.isEmpty()) {
+				final BitSet bits = expected.peek();
+				for (int i = 0; i < width; i++) {
+					assertEquals(bits.get(i), stack.get(i));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPushClears() {
+		final BitVectorStack stack = new BitVectorStack(3);
+		stack.push();
+		stack.set(0);
+		stack.set(2);
+		assertTrue(stack.get(0));
+		stack.pop();
+		stack.push();
+		assertFalse(stack.get(0));
+		assertFalse(stack.get(1));
+		assertFalse(stack.get(2));
+	}
+}
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import tlc2.util.statistics.DummyBucketStatistics;
+
+public class ClosedNodesTest {
+
+	private static final int NO_TABLEAU = -1;
+
+	/*
+	 * 1 -> 2 -> 4 (not done)
+	 * 1 -> 3 <-> 5 -> 6
+	 * 7 <-> 2
+	 */
+	@Test
+	public void testClose() throws IOException {
+		final AbstractDiskGraph dg = new DiskGraph(Files.createTempDirectory("ClosedNodesTest").toString(), 0,
+				new DummyBucketStatistics());
+		dg.addInitNode(1L, NO_TABLEAU);
+		addNode(dg, 1L, 2L, 3L);
+		addNode(dg, 2L, 4L, 7L);
+		addNode(dg, 3L, 5L);
+		addNode(dg, 5L, 3L, 6L);
+		addNode(dg, 6L, 6L);
+		addNode(dg, 7L, 2L);
+		dg.createCache();
+
+		dg.makeNodePtrTbl(true);
+		assertEquals(3, new ClosedNodes(dg).close());
+		dg.makeNodePtrTbl(true);
+		assertClosed(dg, 3L, 5L, 6L);
+		assertOpen(dg, 1L, 2L, 7L);
+
+		// Nodes closed by a previous check remain closed.
+		dg.makeNodePtrTbl(true);
+		assertEquals(0, new ClosedNodes(dg).close());
+		dg.makeNodePtrTbl(true);
+		assertClosed(dg, 3L, 5L, 6L);
+		assertOpen(dg, 1L, 2L, 7L);
+
+		// Once 4 is done, all nodes are closed.
+		addNode(dg, 4L);
+		dg.makeNodePtrTbl(true);
+		assertEquals(4, new ClosedNodes(dg).close());
+		dg.makeNodePtrTbl(true);
+		assertClosed(dg, 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+
+		// Without keeping closed nodes, the table is reset to file pointers.
+		dg.makeNodePtrTbl();
+		assertOpen(dg, 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+		dg.destroyCache();
+	}
+
+	private static void addNode(final AbstractDiskGraph dg, final long fp, final long... successors)
+			throws IOException {
+		final GraphNode node = new GraphNode(fp, NO_TABLEAU);
+		for (int i = 0; i < successors.length; i++) {
+			node.addTransition(successors[i], NO_TABLEAU, 0, 0, null, 0, successors.length - i);
+		}
+		dg.addNode(node);
+	}
+
+	private static void assertClosed(final AbstractDiskGraph dg, final long... fps) {
+		for (final long fp : fps) {
+			assertEquals(AbstractDiskGraph.CLOSED_LINK, dg.getLink(fp, NO_TABLEAU));
+		}
+	}
+
+	private static void assertOpen(final AbstractDiskGraph dg, final long... fps) {
+		for (final long fp : fps) {
+			final long link = dg.getLink(fp, NO_TABLEAU);
+			assertTrue(link >= 0 && AbstractDiskGraph.isFilePointer(link));
+		}
+	}
+}
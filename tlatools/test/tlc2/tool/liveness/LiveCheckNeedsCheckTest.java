@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tlc2.TLCGlobals;
+import tlc2.util.statistics.FixedSizedBucketStatistics;
+
+public class LiveCheckNeedsCheckTest {
+
+	private static final int NO_TABLEAU = -1;
+
+	private double livenessThreshold;
+	private AbstractDiskGraph dg;
+
+	@Before
+	public void setUp() throws IOException {
+		livenessThreshold = TLCGlobals.livenessThreshold;
+		TLCGlobals.livenessThreshold = .5d;
+
+		final File temp = File.createTempFile("temp", Long.toString(System.nanoTime()));
+		temp.delete();
+		temp.mkdir();
+		dg = new DiskGraph(temp.getAbsolutePath(), 1, new FixedSizedBucketStatistics("Test Dummy", 16));
+		// Pretend the graph has been checked when it had four nodes.
+		addNodes(4);
+		dg.recordSize();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		TLCGlobals.livenessThreshold = livenessThreshold;
+		TLCGlobals.lnCheck = "default";
+		dg.close();
+	}
+
+	private void addNodes(final int n) throws IOException {
+		final long size = dg.size();
+		for (int i = 1; i <= n; i++) {
+			dg.addNode(new GraphNode(size + i, NO_TABLEAU));
+		}
+	}
+
+	@Test
+	public void testDefault() throws IOException {
+		assertFalse(LiveCheck.needsCheck(dg));
+
+		// Back-level edges are ignored...
+		dg.addBackLevelEdges(4);
+		assertFalse(LiveCheck.needsCheck(dg));
+
+		// ...only growth by more than the threshold counts.
+		addNodes(2);
+		assertFalse(LiveCheck.needsCheck(dg));
+		addNodes(1);
+		assertTrue(LiveCheck.needsCheck(dg));
+
+		dg.recordSize();
+		assertFalse(LiveCheck.needsCheck(dg));
+	}
+
+	@Test
+	public void testBackLevel() throws IOException {
+		TLCGlobals.lnCheck = "backlevel";
+		assertTrue(TLCGlobals.isBackLevelLiveness());
+		assertFalse(TLCGlobals.isAnyBackLevelLiveness());
+
+		// Growth is ignored unless it comes with back-level edges...
+		addNodes(4);
+		assertFalse(LiveCheck.needsCheck(dg));
+
+		// ...and two back-level edges are no more than half of the four
+		// nodes at the time of the last check.
+		dg.addBackLevelEdges(2);
+		assertFalse(LiveCheck.needsCheck(dg));
+		dg.addBackLevelEdges(1);
+		assertTrue(LiveCheck.needsCheck(dg));
+
+		// The next check starts counting from zero.
+		dg.recordSize();
+		assertFalse(LiveCheck.needsCheck(dg));
+		dg.addBackLevelEdges(3);
+		assertFalse(LiveCheck.needsCheck(dg));
+	}
+
+	@Test
+	public void testAnyBackLevel() throws IOException {
+		TLCGlobals.lnCheck = "anybacklevel";
+		assertTrue(TLCGlobals.isBackLevelLiveness());
+		assertTrue(TLCGlobals.isAnyBackLevelLiveness());
+
+		addNodes(4);
+		assertFalse(LiveCheck.needsCheck(dg));
+
+		// A single back-level edge suffices...
+		dg.addBackLevelEdges(1);
+		assertTrue(LiveCheck.needsCheck(dg));
+
+		// ...but only until the next check.
+		dg.recordSize();
+		assertFalse(LiveCheck.needsCheck(dg));
+	}
+}
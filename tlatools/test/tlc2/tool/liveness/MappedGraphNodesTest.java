@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import org.junit.Test;
+
+import tlc2.util.BitVector;
+import tlc2.util.BufferedRandomAccessFile;
+import tlc2.util.statistics.DummyBucketStatistics;
+import util.FileUtil;
+
+public class MappedGraphNodesTest {
+
+	private static final int SLEN = 3;
+	private static final int ALEN = 2;
+
+	@Test
+	public void testRead() throws IOException {
+		doTest(30); // A single chunk.
+	}
+
+	@Test
+	public void testReadStraddlingChunks() throws IOException {
+		// Chunks of 16 bytes, thus most nodes (and some of their ints and
+		// longs) straddle two or more chunks.
+		doTest(4);
+	}
+
+	private static void doTest(final int logChunkSize) throws IOException {
+		final String metadir = Files.createTempDirectory("MappedGraphNodesTest").toString();
+		final AbstractDiskGraph dg = new TableauDiskGraph(metadir, 0, new DummyBucketStatistics());
+
+		// Out-degrees of zero, a few, and so many that the nnodes count does
+		// not fit into a short (see BufferedRandomAccessFile#writeNat).
+		final int[] outDegrees = new int[] { 0, 1, 7, 64, 11000, 3, 0, 2 };
+		final long[] ptrs = new long[outDegrees.length];
+		final Random rnd = new Random(4711L);
+		for (int i = 0; i < outDegrees.length; i++) {
+			final GraphNode node = new GraphNode(rnd.nextLong(), rnd.nextInt(8));
+			final boolean[] states = new boolean[SLEN];
+			for (int j = 0; j < SLEN; j++) {
+				states[j] = rnd.nextBoolean();
+			}
+			node.setCheckState(states);
+			final BitVector acts = new BitVector(ALEN);
+			for (int j = 0; j < outDegrees[i]; j++) {
+				for (int k = 0; k < ALEN; k++) {
+					acts.set(k, rnd.nextBoolean());
+				}
+				node.addTransition(rnd.nextLong(), rnd.nextInt(8), SLEN, ALEN, acts, 0, outDegrees[i] - j);
+			}
+			ptrs[i] = dg.addNode(node);
+		}
+		// Flushes the nodes file.
+		final BufferedRandomAccessFile reader = dg.newNodeReader();
+
+		final MappedGraphNodes mapped = new MappedGraphNodes(metadir + FileUtil.separator + "nodes_0",
+				logChunkSize);
+		assertEquals(reader.length(), mapped.size());
+		assertFalse(mapped.contains(-1L));
+		assertFalse(mapped.contains(mapped.size()));
+		for (int i = 0; i < ptrs.length; i++) {
+			assertTrue(mapped.contains(ptrs[i]));
+			final GraphNode expected = AbstractDiskGraph.getNodeFromDisk(reader, i, i, ptrs[i]);
+			final GraphNode actual = mapped.read(i, i, ptrs[i]);
+			assertEquals(expected, actual);
+			assertEquals(outDegrees[i], actual.succSize());
+			for (int j = 0; j < SLEN; j++) {
+				assertEquals(expected.getCheckState(j), actual.getCheckState(j));
+			}
+			for (int j = 0; j < actual.succSize(); j++) {
+				assertEquals(expected.getStateFP(j), actual.getStateFP(j));
+				assertEquals(expected.getTidx(j), actual.getTidx(j));
+				assertEquals(expected.getCheckAction(SLEN, ALEN, j), actual.getCheckAction(SLEN, ALEN, j));
+			}
+		}
+		reader.close();
+		dg.close();
+	}
+}
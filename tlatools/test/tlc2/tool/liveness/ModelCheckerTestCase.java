@@ -113,8 +113,10 @@ public abstract class ModelCheckerTestCase extends CommonTestCase {
 			args.add("-fp");
 			args.add("0");
 			
-			args.add("-coverage");
-			args.add("1");
+			if (doCoverage()) {
+				args.add("-coverage");
+				args.add("1");
+			}
 			
 			args.add("-workers");
 			args.add(Integer.toString(getNumberOfThreads()));
@@ -155,6 +157,14 @@ public abstract class ModelCheckerTestCase extends CommonTestCase {
 		return true;
 	}
 
+	/**
+	 * @return True if TLC is to collect coverage. Some optimizations (e.g. the
+	 *         partial-order reduction) are turned off with coverage.
+	 */
+	protected boolean doCoverage() {
+		return true;
+	}
+
 	/**
 	 * @return The number of worker threads TLC should use.
 	 */
@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+public class NodePtrTableTest {
+
+	private static final int Readers = 4;
+	private static final int Rounds = 10000;
+
+	private static long key(final int i) {
+		return i * 0x9E3779B97F4A7C15L;
+	}
+
+	/*
+	 * LiveChecker#addNextState looks up the nodes of the successors while
+	 * holding only the read lock. A table that has been filled up to its
+	 * threshold (put grows the table before, not after it inserts) must thus not
+	 * grow when several threads look up keys concurrently.
+	 */
+	@Test
+	public void testConcurrentLookupsAtThreshold() throws Exception {
+		// (int) (255 * 0.75)
+		testConcurrentLookups(() -> new NodePtrTable(255), 191);
+	}
+
+	@Test
+	public void testConcurrentLookupsAtThresholdOffHeap() throws Exception {
+		// (int) (256 * 0.75)
+		testConcurrentLookups(() -> new OffHeapNodePtrTable(255), 192);
+	}
+
+	private static void testConcurrentLookups(final Supplier<NodePtrTable> factory, final int threshold)
+			throws Exception {
+		final CyclicBarrier start = new CyclicBarrier(Readers + 1);
+		final CyclicBarrier end = new CyclicBarrier(Readers + 1);
+		// Published to the readers by the barriers.
+		final NodePtrTable[] table = new NodePtrTable[1];
+		final int[] size = new int[1];
+		final AtomicInteger misses = new AtomicInteger();
+
+		final ExecutorService es = Executors.newFixedThreadPool(Readers);
+		final List<Future<Void>> futures = new ArrayList<>();
+		for (int r = 0; r < Readers; r++) {
+			futures.add(es.submit(() -> {
+				while (true) {
+					start.await();
+					if (table[0] == null) {
+						return null;
+					}
+					for (int j = 0; j < size[0]; j++) {
+						if (table[0].get(key(j)) != j) {
+							misses.incrementAndGet();
+						}
+					}
+					end.await();
+				}
+			}));
+		}
+		try {
+			for (int round = 0; round < Rounds; round++) {
+				// Just below, at, and just above the threshold.
+				for (int n = threshold - 1; n <= threshold + 1; n++) {
+					final NodePtrTable tbl = factory.get();
+					for (int j = 0; j < n; j++) {
+						tbl.put(key(j), j);
+					}
+					table[0] = tbl;
+					size[0] = n;
+					start.await();
+					end.await();
+					assertEquals(0, misses.get());
+					assertEquals(n, tbl.size());
+					for (int j = 0; j < n; j++) {
+						assertEquals(j, tbl.get(key(j)));
+					}
+					tbl.free();
+				}
+			}
+		} finally {
+			table[0] = null;
+			start.await();
+			for (Future<Void> future : futures) {
+				future.get();
+			}
+			es.shutdown();
+		}
+	}
+}
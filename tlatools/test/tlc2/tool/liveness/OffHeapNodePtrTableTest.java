@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OffHeapNodePtrTableTest {
+
+	/*
+	 * Performs the same random operations on a (heap) NodePtrTable and an
+	 * OffHeapNodePtrTable which has to grow many times.
+	 */
+	@Test
+	public void testSameAsHeap() {
+		final NodePtrTable heap = new NodePtrTable(255);
+		final NodePtrTable offHeap = new OffHeapNodePtrTable(0);
+
+		final Random rnd = new Random(15041978L);
+		final long[] fps = new long[50000];
+		for (int i = 0; i < fps.length; i++) {
+			fps[i] = rnd.nextLong();
+		}
+		for (int i = 0; i < 200000; i++) {
+			final long fp = fps[rnd.nextInt(fps.length)];
+			switch (rnd.nextInt(3)) {
+			case 0:
+				// Elements have the MSB set while the error trace is printed.
+				final long elem = rnd.nextBoolean() ? rnd.nextLong() & 0x7FFFFFFFFFFFFFFFL : rnd.nextLong() | 0x8000000000000000L;
+				heap.put(fp, elem == -1 ? 0 : elem);
+				offHeap.put(fp, elem == -1 ? 0 : elem);
+				break;
+			case 1:
+				final int loc = offHeap.getLoc(fp);
+				if (loc != -1) {
+					assertEquals(fp, offHeap.getKeyByLoc(loc));
+					offHeap.putByLoc(fp, AbstractDiskGraph.MAX_PTR + i, loc);
+					heap.putByLoc(fp, AbstractDiskGraph.MAX_PTR + i, heap.getLoc(fp));
+				}
+				break;
+			default:
+				assertEquals(heap.get(fp), offHeap.get(fp));
+				assertEquals(heap.getLoc(fp) == -1, offHeap.getLoc(fp) == -1);
+			}
+		}
+		assertEquals(heap.size(), offHeap.size());
+		// NodePtrTable#resetElems also clears the MSB of empty slots (-1), thus
+		// heap does not get reset.
+		offHeap.resetElems();
+		for (final long fp : fps) {
+			final int loc = offHeap.getLoc(fp);
+			if (loc == -1) {
+				assertEquals(-1, heap.get(fp));
+			} else {
+				assertEquals(heap.get(fp) & 0x7FFFFFFFFFFFFFFFL, offHeap.getByLoc(loc));
+			}
+		}
+		offHeap.free();
+	}
+}
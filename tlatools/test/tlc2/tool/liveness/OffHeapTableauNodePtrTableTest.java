@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class OffHeapTableauNodePtrTableTest extends TableauNodePtrTableTest {
+
+	@Override
+	protected TableauNodePtrTable createTable(final int size) {
+		return new OffHeapTableauNodePtrTable(size);
+	}
+
+	/*
+	 * Performs the same random operations on a (heap) TableauNodePtrTable and
+	 * an OffHeapTableauNodePtrTable which has to grow many times.
+	 */
+	@Test
+	public void testSameAsHeap() {
+		final TableauNodePtrTable heap = new TableauNodePtrTable(255);
+		final TableauNodePtrTable offHeap = new OffHeapTableauNodePtrTable(0);
+
+		final Random rnd = new Random(15041978L);
+		// Few states (and tableau indices) to often hit existing records.
+		final long[] fps = new long[20000];
+		for (int i = 0; i < fps.length; i++) {
+			fps[i] = rnd.nextLong();
+		}
+		for (int i = 0; i < 200000; i++) {
+			final long fp = fps[rnd.nextInt(fps.length)];
+			final int tidx = rnd.nextInt(5);
+			switch (rnd.nextInt(6)) {
+			case 0:
+				heap.put(fp, tidx, TableauNodePtrTable.UNDONE);
+				offHeap.put(fp, tidx, TableauNodePtrTable.UNDONE);
+				break;
+			case 1:
+				final long ptr = rnd.nextInt(Integer.MAX_VALUE);
+				heap.put(fp, tidx, ptr);
+				offHeap.put(fp, tidx, ptr);
+				break;
+			case 2:
+				heap.setDone(fp);
+				offHeap.setDone(fp);
+				break;
+			case 3:
+				if (AbstractDiskGraph.isFilePointer(heap.get(fp, tidx)) && heap.get(fp, tidx) >= 0) {
+					final long link = AbstractDiskGraph.MAX_PTR + i;
+					assertEquals(heap.putLink(fp, tidx, link), offHeap.putLink(fp, tidx, link));
+				}
+				break;
+			default:
+				assertEquals(heap.get(fp, tidx), offHeap.get(fp, tidx));
+				assertEquals(heap.isDone(fp), offHeap.isDone(fp));
+				assertEquals(heap.getLoc(fp, tidx) == -1, offHeap.getLoc(fp, tidx) == -1);
+				assertArrayEquals(heap.getNodes(fp), offHeap.getNodes(fp));
+			}
+		}
+		assertEquals(heap.size(), offHeap.size());
+		heap.resetElems();
+		offHeap.resetElems();
+		for (final long fp : fps) {
+			assertEquals(heap.isDone(fp), offHeap.isDone(fp));
+			assertArrayEquals(heap.getNodes(fp), offHeap.getNodes(fp));
+			final int loc = offHeap.getNodesLoc(fp);
+			if (loc != -1) {
+				assertArrayEquals(heap.getNodes(fp), offHeap.getNodesByLoc(loc));
+			}
+		}
+		offHeap.free();
+	}
+}
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.liveness;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import tlc2.output.EC;
+
+public class ParallelSccSearchErrorTraceTest extends ModelCheckerTestCase {
+
+	static {
+		System.setProperty(LiveWorker.class.getName() + ".parallelScc", "true");
+		System.setProperty(ParallelSccSearch.class.getName() + ".cutoff", "1");
+	}
+
+	public ParallelSccSearchErrorTraceTest() {
+		super("ErrorTraceConstructionMC", "symmetry");
+	}
+
+	@Test
+	public void testSpec() {
+		assertTrue(recorder.recorded(EC.TLC_FINISHED));
+		assertTrue(recorder.recordedWithStringValues(EC.TLC_STATS, "9", "8", "0"));
+		assertFalse(recorder.recorded(EC.GENERAL));
+
+		assertTrue(recorder.recorded(EC.TLC_TEMPORAL_PROPERTY_VIOLATED));
+		assertTrue(recorder.recorded(EC.TLC_COUNTER_EXAMPLE));
+
+		// The same error trace as the sequential SCC search (see
+		// ErrorTraceConstructionTest), because the counter-example starts at
+		// the node of the SCC which is closest to the initial states.
+		assertTrue(recorder.recorded(EC.TLC_STATE_PRINT2));
+		final List<String> expectedTrace = new ArrayList<String>(4);
+		expectedTrace.add("/\\ x = 0\n/\\ y = 0");
+		expectedTrace.add("/\\ x = 0\n/\\ y = 1");
+		expectedTrace.add("/\\ x = 0\n/\\ y = 2");
+		expectedTrace.add("/\\ x = 0\n/\\ y = 3");
+		expectedTrace.add("/\\ x = 0\n/\\ y = 4");
+		expectedTrace.add("/\\ x = 1\n/\\ y = 5");
+		expectedTrace.add("/\\ x = 0\n/\\ y = 6");
+		expectedTrace.add("/\\ x = 0\n/\\ y = 7");
+		assertTraceWith(recorder.getRecords(EC.TLC_STATE_PRINT2), expectedTrace);
+		assertBackToState(4, "<N7 line 32, col 7 to line 34, col 19 of module ErrorTraceConstruction>");
+	}
+
+	@Override
+	protected int getNumberOfThreads() {
+		return 4;
+	}
+}
@@ -36,9 +36,13 @@ import org.junit.Test;
 
 public class TableauNodePtrTableTest {
 
+	protected TableauNodePtrTable createTable(final int size) {
+		return new TableauNodePtrTable(size);
+	}
+
 	@Test
 	public void testSetDone() {
-		final TableauNodePtrTable tbl = new TableauNodePtrTable(0); // init with 0 so that grow is tested
+		final TableauNodePtrTable tbl = createTable(0); // init with 0 so that grow is tested
 		
 		final long fingerprint = 1L;
 		assertFalse(tbl.isDone(fingerprint));
@@ -63,7 +67,7 @@ public class TableauNodePtrTableTest {
 	// Test various methods which apparently all yield pretty much the same result
 	@Test
 	public void testRedundantMethodYieldSameResult() {
-		final TableauNodePtrTable tbl = new TableauNodePtrTable(0); // init with 0 so that grow is tested
+		final TableauNodePtrTable tbl = createTable(0); // init with 0 so that grow is tested
 		
 		final long fingerprint = 1L;
 		
@@ -30,6 +30,11 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.easymock.EasyMock;
 import org.junit.Before;
@@ -38,6 +43,7 @@ import org.junit.Test;
 import tlc2.tool.ITool;
 import tlc2.tool.TLCState;
 import tlc2.tool.liveness.AbstractDiskGraph;
+import tlc2.tool.liveness.GraphNode;
 import tlc2.tool.liveness.ILiveCheck;
 import tlc2.tool.liveness.LiveCheck;
 import tlc2.tool.liveness.LiveExprNode;
@@ -103,6 +109,42 @@ public class LiveCheckTest {
 		assertEquals(0, diskGraph.getPtr(100L, tableauId));
 	}
 
+	@Test
+	public void testAddNextStateConcurrently() throws Exception {
+		final ILiveCheck liveCheck = getLiveCheck();
+		final AbstractDiskGraph diskGraph = liveCheck.getChecker(0).getDiskGraph();
+
+		// Each thread adds every fourth state of the chain 1 -> 2 -> ... ->
+		// states + 1, thus the successors of a thread's states get added by
+		// other threads concurrently.
+		final int threads = 4;
+		final int states = 10000;
+		final ExecutorService es = Executors.newFixedThreadPool(threads);
+		final List<Future<Void>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final int offset = t;
+			futures.add(es.submit(() -> {
+				for (long fp = 1 + offset; fp <= states; fp += threads) {
+					final SetOfStates setOfStates = new SetOfStates(1);
+					setOfStates.put(fp + 1, new DummyTLCState(fp + 1));
+					liveCheck.addNextState(tool, new DummyTLCState(fp), fp, setOfStates);
+				}
+				return null;
+			}));
+		}
+		for (Future<Void> future : futures) {
+			future.get();
+		}
+		es.shutdown();
+
+		assertEquals(states, diskGraph.size());
+		for (long fp = 1; fp <= states; fp++) {
+			final GraphNode node = diskGraph.getNode(fp, -1);
+			assertEquals(1, node.succSize());
+			assertEquals(fp + 1, node.getStateFP(0));
+		}
+	}
+
 	private ILiveCheck getLiveCheck() throws IOException {
 		final ITool tool = EasyMock.createNiceMock(ITool.class);
 		// Configure OOS mock to react to the subsequent invocation. This is
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.tool.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tla2sany.semantic.OpDeclNode;
+import tlc2.tool.TLCState;
+import tlc2.tool.TLCStateMut;
+import tlc2.util.FP64;
+import tlc2.value.IValue;
+import tlc2.value.impl.BoolValue;
+import tlc2.value.impl.FcnRcdValue;
+import tlc2.value.impl.IntValue;
+import tlc2.value.impl.IntervalValue;
+import tlc2.value.impl.ModelValue;
+import tlc2.value.impl.RecordValue;
+import tlc2.value.impl.SetEnumValue;
+import tlc2.value.impl.StringValue;
+import tlc2.value.impl.TupleValue;
+import tlc2.value.impl.Value;
+import util.UniqueString;
+
+public class OffHeapStateQueueTest {
+
+	static {
+		// Small segments to cover states that span the end of a segment.
+		System.setProperty(OffHeapStateQueue.class.getName() + ".segmentSize", "256");
+	}
+
+	private static Value[] procs;
+
+	@BeforeClass
+	public static void setup() {
+		FP64.Init();
+		procs = new Value[] { ModelValue.make("p1"), ModelValue.make("p2"), ModelValue.make("p3") };
+		ModelValue.setValues();
+		TLCStateMut.setVariables(new OpDeclNode[5]);
+	}
+
+	private static TLCState state(final int i) {
+		final Value[] domain = procs.clone(); // Equal but not identical domains.
+		final Value pc = new FcnRcdValue(domain,
+				new Value[] { new StringValue("idle"), new StringValue(i % 2 == 0 ? "cs" : "idle"), IntValue.gen(-i) },
+				true);
+		final Value rcd = new RecordValue(new UniqueString[] { UniqueString.uniqueStringOf("a"), UniqueString.uniqueStringOf("b") },
+				new Value[] { procs[i % procs.length], BoolValue.ValFalse }, i % 3 == 0);
+		final Value seq = new FcnRcdValue(new IntervalValue(1, 2),
+				new Value[] { new TupleValue(new Value[] { IntValue.gen(i), IntValue.gen(Integer.MIN_VALUE) }),
+						new SetEnumValue(new Value[] { procs[0], procs[2] }, true) });
+		final Value unnormalized = new FcnRcdValue(new Value[] { IntValue.gen(2), IntValue.gen(1) },
+				new Value[] { BoolValue.ValTrue, new IntervalValue(i, i + 3) }, false);
+		final TLCState state = TLCStateMut.createFrom(
+				new IValue[] { pc, rcd, seq, unnormalized, IntValue.gen(Integer.MAX_VALUE - i) });
+		state.uid = i * 31L;
+		state.workerId = (short) (i % 4);
+		state.setLevel(i + 1);
+		return state;
+	}
+
+	private static void assertState(final int i, final TLCState actual) {
+		final TLCState expected = state(i);
+		assertEquals(expected, actual);
+		assertEquals(expected.uid, actual.uid);
+		assertEquals(expected.workerId, actual.workerId);
+		assertEquals(expected.getLevel(), actual.getLevel());
+	}
+
+	@Test
+	public void testEnqueueDequeue() throws Exception {
+		final OffHeapStateQueue queue = new OffHeapStateQueue();
+		assertNull(queue.sDequeue());
+		for (int i = 0; i < 1000; i++) {
+			queue.sEnqueue(state(i));
+		}
+		assertEquals(1000, queue.size());
+		for (int i = 0; i < 1000; i++) {
+			assertState(i, queue.sPeek());
+			assertState(i, queue.sDequeue());
+		}
+		assertEquals(0, queue.size());
+		assertNull(queue.sDequeue());
+	}
+
+	@Test
+	public void testInterleaved() throws Exception {
+		final OffHeapStateQueue queue = new OffHeapStateQueue();
+		int enqueued = 0, dequeued = 0;
+		for (int round = 0; round < 100; round++) {
+			for (int i = 0; i < 7; i++) {
+				queue.sEnqueue(state(enqueued++));
+			}
+			for (int i = 0; i < 5; i++) {
+				assertState(dequeued++, queue.sDequeue());
+			}
+		}
+		while (dequeued < enqueued) {
+			assertState(dequeued++, queue.sDequeue());
+		}
+		assertNull(queue.sDequeue());
+		// Reuses the (empty) segments.
+		queue.sEnqueue(state(42));
+		assertState(42, queue.sDequeue());
+	}
+
+	// the zig-zag encoding of an int takes at most five bytes
+	@Test
+	public void testZigZag() {
+		final TLCState state = TLCStateMut.createFrom(new IValue[] { IntValue.gen(Integer.MIN_VALUE),
+				IntValue.gen(Integer.MAX_VALUE), IntValue.gen(-1), IntValue.gen(0), IntValue.gen(1) });
+		state.uid = 0L;
+		state.workerId = 0;
+		state.setLevel(1);
+		final StateCodec codec = new StateCodec();
+		final int length = codec.encode(state);
+		// One byte each for the workerId, uid, and level, and the kind of each
+		// value. Five bytes each for Integer.MIN_VALUE and Integer.MAX_VALUE.
+		assertEquals(3 + 5 + 5 + 5 + 1 + 1 + 1, length);
+		assertEquals(state, codec.decode(ByteBuffer.wrap(codec.getBytes(), 0, length), 0));
+	}
+
+	@Test
+	public void testCheckpoint() throws Exception {
+		final File dir = Files.createTempDirectory("OffHeapStateQueueTest").toFile();
+		final OffHeapStateQueue queue = new OffHeapStateQueue(dir.getAbsolutePath());
+		for (int i = 0; i < 100; i++) {
+			queue.sEnqueue(state(i));
+		}
+		for (int i = 0; i < 10; i++) {
+			assertState(i, queue.sDequeue());
+		}
+		queue.beginChkpt();
+		queue.commitChkpt();
+
+		final OffHeapStateQueue recovered = new OffHeapStateQueue(dir.getAbsolutePath());
+		recovered.recover();
+		assertEquals(90, recovered.size());
+		for (int i = 10; i < 100; i++) {
+			assertState(i, recovered.sDequeue());
+		}
+		assertNull(recovered.sDequeue());
+	}
+}
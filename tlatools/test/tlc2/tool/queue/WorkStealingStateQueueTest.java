@@ -0,0 +1,215 @@
+package tlc2.tool.queue;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import tla2sany.semantic.OpDeclNode;
+import tlc2.TLCGlobals;
+import tlc2.tool.TLCState;
+import tlc2.tool.TLCStateMut;
+import tlc2.util.IdThread;
+import tlc2.value.IValue;
+import tlc2.value.impl.IntValue;
+
+public class WorkStealingStateQueueTest extends StateQueueTest {
+
+	static {
+		// Tiny deques to make the workers spill to and refill from disk, and steal
+		// from each other a lot.
+		System.setProperty(WorkStealingStateQueue.class.getName() + ".LocalCapacity", "64");
+		System.setProperty(WorkStealingStateQueue.class.getName() + ".BatchSize", "16");
+	}
+
+	private static final int Workers = 4;
+	/**
+	 * The states form a binary tree: The successors of state i are the states
+	 * 2i+1 and 2i+2 (if less than States).
+	 */
+	private static final int States = 1 << 16;
+
+	private int numWorkers;
+
+	/* (non-Javadoc)
+	 * @see tlc2.tool.queue.StateQueueTest#setUp()
+	 */
+	@Before
+	public void setUp() throws Exception {
+		sQueue = new WorkStealingStateQueue();
+		numWorkers = TLCGlobals.getNumWorkers();
+	}
+
+	@After
+	public void tearDown() {
+		TLCGlobals.setNumWorkers(numWorkers);
+	}
+
+	// add states from a non-worker thread and check that they come out in FIFO order
+	@Test
+	public void testEnqueueDequeueMany() {
+		final int j = 8000;
+		for (int i = 0; i < j; i++) {
+			sQueue.sEnqueue(new DummyTLCState(i));
+		}
+		assertEquals(j, sQueue.size());
+		for (int i = 0; i < j; i++) {
+			final TLCState state = sQueue.sDequeue();
+			assertEquals(i, state.fingerPrint());
+		}
+		assertTrue(sQueue.isEmpty());
+	}
+
+	// all workers wait on an empty queue: the last one to wait terminates all
+	@Test
+	public void testTerminationOfIdleWorkers() throws Exception {
+		TLCGlobals.setNumWorkers(Workers);
+		final WorkStealingStateQueue queue = new WorkStealingStateQueue();
+
+		final AtomicIntegerArray dequeued = new AtomicIntegerArray(States);
+		explore(queue, -1, dequeued, uid -> {
+		});
+
+		for (int i = 0; i < States; i++) {
+			assertEquals(0, dequeued.get(i));
+		}
+		assertTrue(queue.isEmpty());
+	}
+
+	// workers explore the tree of states, each of which is dequeued exactly once
+	@Test
+	public void testWorkers() throws Exception {
+		TLCGlobals.setNumWorkers(Workers);
+		final WorkStealingStateQueue queue = new WorkStealingStateQueue();
+
+		final AtomicIntegerArray dequeued = new AtomicIntegerArray(States);
+		explore(queue, 0, dequeued, uid -> {
+		});
+
+		for (int i = 0; i < States; i++) {
+			assertEquals("State " + i, 1, dequeued.get(i));
+		}
+		assertTrue(queue.isEmpty());
+		assertNull(queue.sDequeue());
+	}
+
+	// a checkpoint taken while the workers are suspended has all states that are
+	// in the workers' deques or on disk
+	@Test
+	public void testCheckpoint() throws Exception {
+		TLCGlobals.setNumWorkers(Workers);
+		final File dir = Files.createTempDirectory("WorkStealingStateQueueTest").toFile();
+		final WorkStealingStateQueue queue = new WorkStealingStateQueue(dir.getAbsolutePath());
+
+		final AtomicIntegerArray dequeued = new AtomicIntegerArray(States);
+		final Set<Integer> expected = new HashSet<>();
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final Thread checkpointer = new Thread(() -> {
+			try {
+				// see ModelChecker#doPeriodicWork
+				if (queue.suspendAll()) {
+					// Every worker waits in sDequeue, thus has enqueued the successors of
+					// the states it dequeued.
+					for (int i = 0; i < States; i++) {
+						if (dequeued.get(i) == 0 && (i == 0 || dequeued.get((i - 1) / 2) > 0)) {
+							expected.add(i);
+						}
+					}
+					assertEquals(expected.size(), queue.size());
+					queue.beginChkpt();
+					queue.resumeAll();
+					queue.commitChkpt();
+				}
+			} catch (Throwable e) {
+				failure.set(e);
+			}
+		}, "Checkpointer");
+
+		explore(queue, 0, dequeued, uid -> {
+			if (uid == States / 8) {
+				checkpointer.start();
+				// Do not enqueue the successors before the checkpointer waits for the
+				// workers to suspend. Otherwise, the workers might be done before.
+				while (checkpointer.getState() != Thread.State.WAITING) {
+					Thread.yield();
+				}
+			}
+		});
+		checkpointer.join();
+		assertNull(failure.get());
+		assertFalse(expected.isEmpty());
+
+		// The checkpoint neither lost nor duplicated states of the ongoing run...
+		for (int i = 0; i < States; i++) {
+			assertEquals("State " + i, 1, dequeued.get(i));
+		}
+
+		// ...and has all states that were queued when it was taken.
+		final WorkStealingStateQueue recovered = new WorkStealingStateQueue(dir.getAbsolutePath());
+		recovered.recover();
+		assertEquals(expected.size(), recovered.size());
+		final Set<Integer> actual = new HashSet<>();
+		TLCState state;
+		while ((state = recovered.dequeue()) != null) {
+			assertTrue(actual.add((int) state.uid));
+		}
+		assertEquals(expected, actual);
+
+		queue.delete();
+		recovered.delete();
+	}
+
+	private static TLCState state(final int uid) {
+		final TLCState state = TLCStateMut.createFrom(new IValue[] { IntValue.gen(uid) });
+		state.uid = uid;
+		return state;
+	}
+
+	/**
+	 * Runs {@link #Workers} workers that dequeue states and enqueue their
+	 * successors until the queue terminates them, starting from the given (or
+	 * no, if negative) initial state.
+	 */
+	private static void explore(final IStateQueue queue, final int init, final AtomicIntegerArray dequeued,
+			final IntConsumer beforeSuccessors) throws InterruptedException {
+		TLCStateMut.setVariables(new OpDeclNode[1]);
+		if (init >= 0) {
+			// The main thread enqueues to disk.
+			queue.sEnqueue(state(init));
+		}
+
+		final IdThread[] workers = new IdThread[Workers];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new IdThread(() -> {
+				TLCState state;
+				while ((state = queue.sDequeue()) != null) {
+					final int uid = (int) state.uid;
+					dequeued.incrementAndGet(uid);
+					beforeSuccessors.accept(uid);
+					for (int succ = 2 * uid + 1; succ <= 2 * uid + 2 && succ < States; succ++) {
+						queue.sEnqueue(state(succ));
+					}
+				}
+				// see Worker#run
+				queue.finishAll();
+			}, "Worker" + i, i);
+			workers[i].start();
+		}
+		for (int i = 0; i < workers.length; i++) {
+			workers[i].join(60 * 1000L);
+			assertFalse("Worker " + i + " failed to terminate", workers[i].isAlive());
+		}
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tlc2.util.FP64;
+import util.UniqueString;
+
+public class CachedFingerprintTest {
+
+	static {
+		System.setProperty(Value.class.getName() + ".cacheFingerprints", Boolean.TRUE.toString());
+	}
+
+	@BeforeClass
+	public static void setup() {
+		FP64.Init();
+		assertTrue(Value.cacheFP);
+	}
+
+	private static void assertSameFP(final Value v1, final Value v2) {
+		assertEquals(0, v1.compareTo(v2));
+		final long seed = FP64.New();
+		assertEquals(v1.fingerPrint(seed), v2.fingerPrint(seed));
+		assertEquals(v1.hashCode(), v2.hashCode());
+		// Repeated calls are answered from the cache.
+		assertEquals(v1.fingerPrint(seed), v1.fingerPrint(seed));
+		assertEquals(v2.fingerPrint(seed), v2.fingerPrint(seed));
+	}
+
+	@Test
+	public void testTupleAndFcn() {
+		final Value[] elems = new Value[] { IntValue.gen(42), new StringValue("x") };
+		assertSameFP(new TupleValue(elems), new FcnRcdValue(new IntervalValue(1, 2), elems));
+	}
+
+	@Test
+	public void testRecordAndFcn() {
+		final Value[] values = new Value[] { IntValue.gen(1), IntValue.gen(2) };
+		final RecordValue rcd = new RecordValue(
+				new UniqueString[] { UniqueString.uniqueStringOf("b"), UniqueString.uniqueStringOf("a") }, values,
+				false);
+		final FcnRcdValue fcn = new FcnRcdValue(new Value[] { new StringValue("b"), new StringValue("a") }, values,
+				false);
+		assertSameFP(rcd, fcn);
+	}
+
+	@Test
+	public void testSetAndInterval() {
+		final SetEnumValue set = new SetEnumValue(new Value[] { IntValue.gen(3), IntValue.gen(1), IntValue.gen(2) },
+				false);
+		assertSameFP(set, new IntervalValue(1, 3));
+
+		// Nested in a cached value.
+		assertSameFP(new TupleValue(new Value[] { set }), new TupleValue(new Value[] { new IntervalValue(1, 3) }));
+	}
+
+	@Test
+	public void testSeed() {
+		final Value tuple = new TupleValue(new Value[] { IntValue.gen(1), IntValue.gen(2) });
+		final long fp = tuple.fingerPrint(FP64.New());
+		assertNotEquals(fp, tuple.fingerPrint(FP64.Extend(FP64.New(), 1)));
+	}
+
+	@Test
+	public void testNoSystematicCollisions() {
+		// Without Value#mixFP, e.g. <<{1}, {{2, 3}}>> and <<{2}, {{1, 3}}>> collide.
+		assertNotEquals(
+				new TupleValue(new Value[] { set(IntValue.gen(1)), set(set(IntValue.gen(2), IntValue.gen(3))) })
+						.fingerPrint(FP64.New()),
+				new TupleValue(new Value[] { set(IntValue.gen(2)), set(set(IntValue.gen(1), IntValue.gen(3))) })
+						.fingerPrint(FP64.New()));
+
+		// All subsets of 1..3 paired with all sets of subsets of 1..3.
+		final List<Value> subsets = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			final List<Value> elems = new ArrayList<>();
+			for (int j = 0; j < 3; j++) {
+				if ((i & (1 << j)) != 0) {
+					elems.add(IntValue.gen(j + 1));
+				}
+			}
+			subsets.add(set(elems.toArray(new Value[elems.size()])));
+		}
+		final Set<Long> fps = new HashSet<>();
+		for (int i = 0; i < 256; i++) {
+			final List<Value> elems = new ArrayList<>();
+			for (int j = 0; j < 8; j++) {
+				if ((i & (1 << j)) != 0) {
+					elems.add(subsets.get(j));
+				}
+			}
+			final Value sets = set(elems.toArray(new Value[elems.size()]));
+			for (Value subset : subsets) {
+				fps.add(new TupleValue(new Value[] { subset, sets }).fingerPrint(FP64.New()));
+			}
+		}
+		assertEquals(256 * 8, fps.size());
+	}
+
+	private static Value set(final Value... elems) {
+		return new SetEnumValue(elems, false);
+	}
+}
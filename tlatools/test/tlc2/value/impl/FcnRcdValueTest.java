@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tlc2.util.FP64;
+
+public class FcnRcdValueTest {
+
+	@BeforeClass
+	public static void setup() {
+		FP64.Init();
+	}
+
+	private static Value except(final Value fcn, final Value val, final Value... path) {
+		return fcn.takeExcept(new ValueExcept(path, val));
+	}
+
+	@Test
+	public void testExceptInterval() {
+		final FcnRcdValue fcn = new FcnRcdValue(new IntervalValue(2, 4),
+				new Value[] { IntValue.gen(0), IntValue.gen(0), IntValue.gen(0) });
+
+		final FcnRcdValue res = (FcnRcdValue) except(fcn, IntValue.gen(1), IntValue.gen(4));
+		assertEquals(IntValue.gen(0), res.select(IntValue.gen(2)));
+		assertEquals(IntValue.gen(0), res.select(IntValue.gen(3)));
+		assertEquals(IntValue.gen(1), res.select(IntValue.gen(4)));
+		assertSame(fcn.intv, res.intv);
+
+		// The original function is unchanged.
+		assertEquals(IntValue.gen(0), fcn.select(IntValue.gen(4)));
+
+		// Out of the domain.
+		assertSame(fcn, except(fcn, IntValue.gen(1), IntValue.gen(5)));
+		assertSame(fcn, except(fcn, IntValue.gen(1), new StringValue("a")));
+	}
+
+	@Test
+	public void testExceptIndexed() {
+		// The domain is large enough to be indexed (see FcnRcdValue#createIndex).
+		final int n = 100;
+		final Value[] domain = new Value[n];
+		final Value[] values = new Value[n];
+		for (int i = 0; i < n; i++) {
+			domain[i] = new StringValue("s" + i);
+			values[i] = IntValue.gen(i);
+		}
+		FcnRcdValue fcn = new FcnRcdValue(domain, values, false);
+		fcn.normalize();
+
+		for (int i = 0; i < n; i++) {
+			final FcnRcdValue res = (FcnRcdValue) except(fcn, IntValue.gen(-i), new StringValue("s" + i));
+			assertSame(fcn.domain, res.domain);
+			assertEquals(IntValue.gen(-i), res.select(new StringValue("s" + i)));
+			assertEquals(IntValue.gen(i), fcn.select(new StringValue("s" + i)));
+			fcn = res;
+		}
+		for (int i = 0; i < n; i++) {
+			assertEquals(IntValue.gen(-i), fcn.select(new StringValue("s" + i)));
+		}
+		assertSame(fcn, except(fcn, IntValue.gen(0), new StringValue("t")));
+	}
+
+	@Test
+	public void testExceptNotNormalized() {
+		final Value[] domain = new Value[] { new StringValue("b"), new StringValue("a") };
+		final FcnRcdValue fcn = new FcnRcdValue(domain, new Value[] { IntValue.gen(2), IntValue.gen(1) }, false);
+
+		final FcnRcdValue res = (FcnRcdValue) except(fcn, IntValue.gen(3), new StringValue("a"));
+		res.normalize();
+		assertEquals(IntValue.gen(3), res.select(new StringValue("a")));
+		assertEquals(IntValue.gen(2), res.select(new StringValue("b")));
+
+		// Normalizing the result must not reorder the domain of the original.
+		assertEquals(new StringValue("b"), fcn.domain[0]);
+		assertEquals(IntValue.gen(1), fcn.select(new StringValue("a")));
+	}
+
+	@Test
+	public void testExceptNested() {
+		final Value inner = new FcnRcdValue(new IntervalValue(1, 2), new Value[] { IntValue.gen(0), IntValue.gen(0) });
+		final FcnRcdValue fcn = new FcnRcdValue(new IntervalValue(1, 2), new Value[] { inner, inner });
+
+		final FcnRcdValue res = (FcnRcdValue) except(fcn, IntValue.gen(1), IntValue.gen(2), IntValue.gen(2));
+		assertSame(inner, res.select(IntValue.gen(1)));
+		assertEquals(IntValue.gen(1), ((FcnRcdValue) res.select(IntValue.gen(2))).select(IntValue.gen(2)));
+		assertEquals(IntValue.gen(0), ((FcnRcdValue) inner).select(IntValue.gen(2)));
+	}
+}
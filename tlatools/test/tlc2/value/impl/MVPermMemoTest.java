@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tlc2.value.IMVPerm;
+import tlc2.value.IValue;
+
+public class MVPermMemoTest {
+
+	private static Value p1, p2, p3, p4, q;
+	private static IMVPerm[] perms;
+
+	@BeforeClass
+	public static void setup() {
+		p1 = ModelValue.make("p1");
+		p2 = ModelValue.make("p2");
+		p3 = ModelValue.make("p3");
+		p4 = ModelValue.make("p4");
+		q = ModelValue.make("q");
+		ModelValue.setValues();
+
+		// A transposition and a cycle generate the symmetric group of {p1,p2,p3,p4}.
+		final Value[] domain = new Value[] { p1, p2, p3, p4 };
+		final Value transposition = new FcnRcdValue(domain, new Value[] { p2, p1, p3, p4 }, true);
+		final Value cycle = new FcnRcdValue(domain, new Value[] { p2, p3, p4, p1 }, true);
+		perms = MVPerms.permutationSubgroup(new SetEnumValue(new Value[] { transposition, cycle }, true));
+	}
+
+	@Test
+	public void testPermutationSubgroup() {
+		// 4! - 1 (the identity is omitted)
+		assertEquals(23, perms.length);
+	}
+
+	@Test
+	public void testSymmetrySets() {
+		final int[] setOf = MVPerms.symmetrySets(perms);
+		assertEquals(0, setOf[((ModelValue) p1).index]);
+		assertEquals(0, setOf[((ModelValue) p2).index]);
+		assertEquals(0, setOf[((ModelValue) p3).index]);
+		assertEquals(0, setOf[((ModelValue) p4).index]);
+		assertEquals(-1, setOf[((ModelValue) q).index]);
+	}
+
+	@Test
+	public void testPermute() {
+		final Value pc = new FcnRcdValue(new Value[] { p1, p2, p3, p4 },
+				new Value[] { new StringValue("a"), new StringValue("b"), new StringValue("a"), new StringValue("c") },
+				true);
+		final IValue[] values = new IValue[] { pc, p2, new TupleValue(new Value[] { p3, q }), IntValue.gen(42),
+				new SetEnumValue(new Value[] { p1, p4 }, true), pc };
+
+		final MVPermMemo.Permutations permuted = new MVPermMemo(perms).of(values);
+		for (int i = 0; i < values.length; i++) {
+			assertSame(values[i], permuted.permute(i, null));
+			for (int j = 0; j < perms.length; j++) {
+				// Twice to also hit the memoized permutation.
+				assertEquals(values[i].permute(perms[j]), permuted.permute(i, perms[j]));
+				assertEquals(values[i].permute(perms[j]), permuted.permute(i, perms[j]));
+			}
+		}
+		// A value without model values of the symmetry set is its own permutation.
+		assertSame(values[3], permuted.permute(3, perms[0]));
+	}
+}
@@ -26,6 +26,7 @@
 
 package tlc2.value.impl;
 
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
@@ -78,4 +79,32 @@ public class RecordValueTest {
 		assertTrue(deepCopy.values[0].equals(bVal));
 		assertTrue(deepCopy.values[1].equals(aVal));
 	}
+
+	@Test
+	public void testTakeExcept() {
+		final UniqueString a = UniqueString.uniqueStringOf("a");
+		final UniqueString b = UniqueString.uniqueStringOf("b");
+
+		final RecordValue orig = new RecordValue(new UniqueString[] { b, a },
+				new Value[] { IntValue.gen(2), IntValue.gen(1) }, false);
+
+		final RecordValue res = (RecordValue) orig
+				.takeExcept(new ValueExcept(new Value[] { new StringValue(a) }, IntValue.gen(3)));
+		res.normalize();
+		assertTrue(res.select(new StringValue(a)).equals(IntValue.gen(3)));
+		assertTrue(res.select(new StringValue(b)).equals(IntValue.gen(2)));
+
+		// Normalizing the result must not reorder the names of the original.
+		assertTrue(orig.names[0].equals(b));
+		assertTrue(orig.values[1].equals(IntValue.gen(1)));
+
+		// Normalized records share their names.
+		final RecordValue norm = (RecordValue) res
+				.takeExcept(new ValueExcept(new Value[] { new StringValue(b) }, IntValue.gen(4)));
+		assertSame(res.names, norm.names);
+		assertTrue(norm.select(new StringValue(b)).equals(IntValue.gen(4)));
+
+		// Unknown field.
+		assertSame(norm, norm.takeExcept(new ValueExcept(new Value[] { new StringValue("c") }, IntValue.gen(5))));
+	}
 }
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2026 Microsoft Corporation. All rights reserved.
+ *
+ * The MIT License (MIT)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies
+ * of the Software, and to permit persons to whom the Software is furnished to do
+ * so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR
+ * COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN
+ * AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ ******************************************************************************/
+package tlc2.value.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import tlc2.util.FP64;
+import tlc2.value.IValue;
+import util.UniqueString;
+
+public class ValueInternTableTest {
+
+	private static Value p1, p2;
+
+	@BeforeClass
+	public static void setup() {
+		FP64.Init();
+		p1 = ModelValue.make("p1");
+		p2 = ModelValue.make("p2");
+		ModelValue.setValues();
+	}
+
+	private static Value value(final int i) {
+		final Value pc = new FcnRcdValue(new Value[] { p1, p2 },
+				new Value[] { new StringValue("idle"), new StringValue(i % 2 == 0 ? "cs" : "idle") }, true);
+		final Value rcd = new RecordValue(
+				new UniqueString[] { UniqueString.uniqueStringOf("a"), UniqueString.uniqueStringOf("b") },
+				new Value[] { IntValue.gen(i % 3), new SetEnumValue(new Value[] { p1, IntValue.gen(1000 + i) }, true) },
+				true);
+		final Value seq = new FcnRcdValue(new IntervalValue(1, 2),
+				new Value[] { new TupleValue(new Value[] { pc, BoolValue.ValTrue }), new StringValue("x") });
+		return new TupleValue(new Value[] { pc, rcd, seq });
+	}
+
+	@Test
+	public void testIntern() {
+		final IValue a = ValueInternTable.intern(value(42));
+		final IValue b = ValueInternTable.intern(value(42));
+		assertSame(a, b);
+		assertEquals(value(42), a);
+		assertEquals(value(42).fingerPrint(FP64.New()), a.fingerPrint(FP64.New()));
+
+		// Equal sub-values of unequal values are shared.
+		final TupleValue c = (TupleValue) ValueInternTable.intern(value(44));
+		final TupleValue d = (TupleValue) a;
+		assertNotSame(c, d);
+		assertSame(c.elems[0], d.elems[0]);
+		assertSame(c.elems[2], d.elems[2]);
+		assertNotSame(c.elems[1], d.elems[1]);
+		assertSame(ValueInternTable.intern(c), c);
+	}
+
+	@Test
+	public void testNotInterned() {
+		// Neither an interval nor a value that is not normalized is interned.
+		final Value intv = new TupleValue(new Value[] { new IntervalValue(1, 3) });
+		assertSame(intv, ValueInternTable.intern(intv));
+		final Value set = new SetEnumValue(new Value[] { IntValue.gen(2), IntValue.gen(1) }, false);
+		assertSame(set, ValueInternTable.intern(set));
+		final Value rcd = new RecordValue(new UniqueString[] { UniqueString.uniqueStringOf("a") },
+				new Value[] { set }, true);
+		assertSame(rcd, ValueInternTable.intern(rcd));
+
+		// A tuple is not shared with an equal function.
+		final Value tuple = new TupleValue(new Value[] { IntValue.gen(1), IntValue.gen(2) });
+		final Value fcn = new FcnRcdValue(new IntervalValue(1, 2), new Value[] { IntValue.gen(1), IntValue.gen(2) });
+		assertEquals(tuple, fcn);
+		assertNotSame(ValueInternTable.intern(tuple), ValueInternTable.intern(fcn));
+	}
+}